@@ -0,0 +1,110 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.audit;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Represents an entry of the <b>audit trail</b> holding the change of a property of an entity.
+ * <br>
+ * Entries are appended (never updated nor deleted) by batches by the {@link AuditTrail} writer. A created entity has one entry per
+ * property having a value, an updated entity one entry per changed property and a deleted entity a single entry without property.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+@Immutable
+@Entity
+@Table(name = "AUDIT_LOG", indexes = @Index(name = "IDX_AUDIT_LOG_ENTITY", columnList = "ENTITY_ID, ID"))
+public class AuditEntry
+{
+    /**
+     * Audit entry identifier (increasing in the order the entries are written).
+     */
+    @Getter
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID")
+    private Long id;
+
+    /**
+     * Entity identifier.
+     */
+    @Getter
+    @Column(name = "ENTITY_ID", length = 16, nullable = false)
+    private UUID entityId;
+
+    /**
+     * Entity type.
+     */
+    @Getter
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ENTITY_TYPE", length = 50)
+    private EntityType entityType;
+
+    /**
+     * Action.
+     */
+    @Getter
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ACTION", length = 10, nullable = false)
+    private AuditActionType action;
+
+    /**
+     * Name of the changed property (null for a deletion).
+     */
+    @Getter
+    @Column(name = "PROPERTY", length = 100)
+    private String property;
+
+    /**
+     * Value of the property before the change.
+     */
+    @Getter
+    @Column(name = "OLD_VALUE", columnDefinition = "text")
+    private String oldValue;
+
+    /**
+     * Value of the property after the change.
+     */
+    @Getter
+    @Column(name = "NEW_VALUE", columnDefinition = "text")
+    private String newValue;
+
+    /**
+     * Author of the change.
+     */
+    @Getter
+    @Column(name = "CHANGED_BY", length = 50)
+    private String changedBy;
+
+    /**
+     * Date of the change (transaction commit).
+     */
+    @Getter
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "CHANGED_DATE", nullable = false)
+    private Date changedDate;
+}
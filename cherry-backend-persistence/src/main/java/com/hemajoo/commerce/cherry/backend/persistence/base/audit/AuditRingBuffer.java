@@ -0,0 +1,201 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.audit;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded <b>lock-free ring buffer</b> handing elements from several producers over to a consumer.
+ * <br>
+ * Each slot holds a sequence telling whether it is free for the producer of a given position or filled for the consumer of that
+ * position, so producers and consumers only compete (with a compare-and-set) on the position counters. Adding an element to a full
+ * buffer fails immediately instead of waiting. The memory is allocated once, the capacity being rounded up to a power of two.
+ * @param <E> Element type.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public final class AuditRingBuffer<E>
+{
+    /**
+     * Capacity of the buffer.
+     */
+    @Getter
+    private final int capacity;
+
+    /**
+     * Mask converting a position into a slot index.
+     */
+    private final int mask;
+
+    /**
+     * Slot elements.
+     */
+    private final AtomicReferenceArray<E> elements;
+
+    /**
+     * Slot sequences.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * Position of the next element to add.
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * Position of the next element to remove.
+     */
+    private final AtomicLong head = new AtomicLong();
+
+    /**
+     * Creates a new ring buffer.
+     * @param capacity Minimum capacity of the buffer (rounded up to a power of two).
+     */
+    public AuditRingBuffer(final int capacity)
+    {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+
+        this.capacity = size;
+        this.mask = size - 1;
+        this.elements = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+
+        for (int i = 0; i < size; i++)
+        {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element to the buffer.
+     * @param element Element.
+     * @return {@code True} if the element has been added, {@code false} if the buffer is full.
+     */
+    public boolean offer(final @NonNull E element)
+    {
+        long position = tail.get();
+
+        while (true)
+        {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+
+            if (difference == 0)
+            {
+                if (tail.compareAndSet(position, position + 1))
+                {
+                    elements.set(index, element);
+                    sequences.set(index, position + 1); // Publishes the element to the consumer.
+                    return true;
+                }
+
+                position = tail.get();
+            }
+            else if (difference < 0)
+            {
+                return false; // Slot not yet consumed: the buffer is full.
+            }
+            else
+            {
+                position = tail.get(); // Slot taken by another producer.
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element from the buffer.
+     * @return Element or null if the buffer is empty.
+     */
+    public E poll()
+    {
+        long position = head.get();
+
+        while (true)
+        {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+
+            if (difference == 0)
+            {
+                if (head.compareAndSet(position, position + 1))
+                {
+                    E element = elements.get(index);
+                    elements.set(index, null);
+                    sequences.set(index, position + capacity); // Frees the slot for the producer of the next round.
+                    return element;
+                }
+
+                position = head.get();
+            }
+            else if (difference < 0)
+            {
+                return null; // Slot not yet filled: the buffer is empty.
+            }
+            else
+            {
+                position = head.get(); // Slot taken by another consumer.
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest elements from the buffer.
+     * @param target List receiving the elements.
+     * @param max Maximum number of elements to remove.
+     * @return Number of removed elements.
+     */
+    public int drainTo(final @NonNull List<E> target, final int max)
+    {
+        int count = 0;
+
+        while (count < max)
+        {
+            E element = poll();
+            if (element == null)
+            {
+                break;
+            }
+
+            target.add(element);
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Returns the (approximate) number of elements in the buffer.
+     * @return Number of elements.
+     */
+    public int size()
+    {
+        return (int) Math.max(0, Math.min(capacity, tail.get() - head.get()));
+    }
+
+    /**
+     * Returns if the buffer is (approximately) empty.
+     * @return {@code True} if the buffer is empty, {@code false} otherwise.
+     */
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.audit;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Represents the <b>statistics</b> of the audit trail.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@Builder(setterPrefix = "with")
+public final class AuditStatistics
+{
+    /**
+     * Is the audit trail enabled?
+     */
+    @Getter
+    private final boolean enabled;
+
+    /**
+     * Policy applied when the buffer is full.
+     */
+    @Getter
+    private final AuditOverflowPolicy policy;
+
+    /**
+     * Capacity of the buffer (number of audit entries).
+     */
+    @Getter
+    private final int capacity;
+
+    /**
+     * Number of audit entries waiting to be written.
+     */
+    @Getter
+    private final int pending;
+
+    /**
+     * Number of audit entries written.
+     */
+    @Getter
+    private final long written;
+
+    /**
+     * Number of batches written.
+     */
+    @Getter
+    private final long batches;
+
+    /**
+     * Number of audit entries dropped because the buffer was full.
+     */
+    @Getter
+    private final long dropped;
+
+    /**
+     * Number of audit entries lost because their batch could not be written.
+     */
+    @Getter
+    private final long failed;
+}
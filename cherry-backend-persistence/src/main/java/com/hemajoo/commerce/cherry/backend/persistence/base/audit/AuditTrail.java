@@ -0,0 +1,370 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.audit;
+
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Component maintaining the <b>audit trail</b> of the entities.
+ * <br>
+ * The property changes of the entities captured by the {@link AuditTrailListener} once their transaction is committed are handed
+ * over to a bounded lock-free ring buffer. A background writer drains the buffer and appends the changes by batches to the
+ * {@code AUDIT_LOG} table, so auditing adds no database round-trip to the saves:
+ * <ul>
+ * <li>the memory is bounded by the capacity of the buffer,</li>
+ * <li>when the buffer is full, changes are either dropped (and counted) or the saving thread waits (up to a timeout) for the writer
+ * to free some space, depending on the overflow policy,</li>
+ * <li>the audit trail of an entity is eventually consistent: a change is available once its batch has been written.</li>
+ * </ul>
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+@Component
+public class AuditTrail
+{
+    /**
+     * Statement appending an audit entry.
+     */
+    private static final String INSERT_ENTRY = "INSERT INTO AUDIT_LOG (ENTITY_ID, ENTITY_TYPE, ACTION, PROPERTY, OLD_VALUE, NEW_VALUE, CHANGED_BY, CHANGED_DATE) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * Maximum number of audit entries returned for an entity.
+     */
+    private static final int MAX_ENTRIES = 1000;
+
+    /**
+     * Interval (in nanoseconds) between two attempts of a saving thread waiting for some space in the buffer.
+     */
+    private static final long BLOCK_RETRY_INTERVAL = TimeUnit.MICROSECONDS.toNanos(100);
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Audit repository.
+     */
+    @Autowired
+    private IAuditRepository auditRepository;
+
+    /**
+     * Session factory.
+     */
+    private final SessionFactoryImplementor sessionFactory;
+
+    /**
+     * Is the audit trail enabled?
+     */
+    private final boolean enabled;
+
+    /**
+     * Policy applied when the buffer is full.
+     */
+    private final AuditOverflowPolicy policy;
+
+    /**
+     * Maximum number of audit entries written per batch.
+     */
+    private final int batchSize;
+
+    /**
+     * Interval (in nanoseconds) between two checks of an empty buffer by the writer.
+     */
+    private final long flushInterval;
+
+    /**
+     * Maximum time (in nanoseconds) a saving thread waits for some space in the buffer.
+     */
+    private final long blockTimeout;
+
+    /**
+     * Buffer of the audit entries waiting to be written.
+     */
+    private final AuditRingBuffer<AuditEntry> buffer;
+
+    /**
+     * Number of written audit entries.
+     */
+    private final LongAdder written = new LongAdder();
+
+    /**
+     * Number of written batches.
+     */
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * Number of audit entries dropped because the buffer was full.
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Number of audit entries lost because their batch could not be written.
+     */
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Is the writer running?
+     */
+    private volatile boolean running = false;
+
+    /**
+     * Writer thread.
+     */
+    private Thread writer;
+
+    /**
+     * Creates a new audit trail.
+     * @param entityManagerFactory Entity manager factory.
+     * @param enabled Is the audit trail enabled?
+     * @param capacity Capacity of the buffer (number of audit entries, rounded up to a power of two).
+     * @param batchSize Maximum number of audit entries written per batch.
+     * @param flushInterval Interval (in milliseconds) between two checks of an empty buffer by the writer.
+     * @param policy Policy applied when the buffer is full.
+     * @param blockTimeout Maximum time (in milliseconds) a saving thread waits for some space in the buffer (BLOCK policy).
+     */
+    public AuditTrail(
+            final @NonNull EntityManagerFactory entityManagerFactory,
+            final @Value("${hemajoo.commerce.cherry.audit.enabled:true}") boolean enabled,
+            final @Value("${hemajoo.commerce.cherry.audit.buffer.capacity:8192}") int capacity,
+            final @Value("${hemajoo.commerce.cherry.audit.batch.size:500}") int batchSize,
+            final @Value("${hemajoo.commerce.cherry.audit.flush.interval:200}") long flushInterval,
+            final @Value("${hemajoo.commerce.cherry.audit.overflow.policy:DROP}") AuditOverflowPolicy policy,
+            final @Value("${hemajoo.commerce.cherry.audit.block.timeout:1000}") long blockTimeout)
+    {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.enabled = enabled;
+        this.buffer = new AuditRingBuffer<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushInterval = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushInterval));
+        this.policy = policy;
+        this.blockTimeout = TimeUnit.MILLISECONDS.toNanos(blockTimeout);
+    }
+
+    /**
+     * Registers the audit trail listener and starts the writer.
+     */
+    @PostConstruct
+    public void start()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+
+        AuditTrailListener listener = new AuditTrailListener(this);
+        EventListenerRegistry registry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+
+        running = true;
+        writer = new Thread(this::run, "cherry-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+
+        LOGGER.info(String.format("Audit trail started with a buffer of: %s entries and policy: %s", buffer.getCapacity(), policy));
+    }
+
+    /**
+     * Stops the writer, the pending audit entries being written.
+     */
+    @PreDestroy
+    public void shutdown()
+    {
+        if (writer == null)
+        {
+            return;
+        }
+
+        running = false;
+        LockSupport.unpark(writer);
+
+        try
+        {
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+
+        flush();
+    }
+
+    /**
+     * Records audit entries.
+     * <br>
+     * Entries not fitting in the buffer are handled according to the overflow policy.
+     * @param entries Audit entries.
+     */
+    public void record(final @NonNull List<AuditEntry> entries)
+    {
+        for (AuditEntry entry : entries)
+        {
+            if (!buffer.offer(entry) && !(policy == AuditOverflowPolicy.BLOCK && offerBlocking(entry)))
+            {
+                dropped.increment();
+            }
+        }
+    }
+
+    /**
+     * Writes the pending audit entries on the calling thread.
+     */
+    public void flush()
+    {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0)
+        {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Returns the audit entries of an entity, the most recent first.
+     * @param entityId Entity identifier.
+     * @param size Maximum number of audit entries.
+     * @return List of audit entries.
+     */
+    public List<AuditEntry> findByEntityId(final @NonNull UUID entityId, final int size)
+    {
+        return auditRepository.findByEntityIdOrderByIdDesc(entityId, PageRequest.of(0, Math.max(1, Math.min(size, MAX_ENTRIES))));
+    }
+
+    /**
+     * Returns the audit trail statistics.
+     * @return Statistics.
+     */
+    public AuditStatistics getStatistics()
+    {
+        return AuditStatistics.builder()
+                .withEnabled(enabled)
+                .withPolicy(policy)
+                .withCapacity(buffer.getCapacity())
+                .withPending(buffer.size())
+                .withWritten(written.sum())
+                .withBatches(batches.sum())
+                .withDropped(dropped.sum())
+                .withFailed(failed.sum())
+                .build();
+    }
+
+    /**
+     * Adds an audit entry to a full buffer, waiting for the writer to free some space.
+     * @param entry Audit entry.
+     * @return {@code True} if the audit entry has been added, {@code false} if the timeout elapsed.
+     */
+    private boolean offerBlocking(final AuditEntry entry)
+    {
+        long deadline = System.nanoTime() + blockTimeout;
+
+        while (System.nanoTime() < deadline)
+        {
+            LockSupport.unpark(writer); // Buffer full, no need to wait for the end of the flush interval.
+            LockSupport.parkNanos(BLOCK_RETRY_INTERVAL);
+
+            if (buffer.offer(entry))
+            {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Writer loop draining the buffer by batches until stopped.
+     */
+    private void run()
+    {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        long reported = 0;
+
+        while (running)
+        {
+            if (buffer.drainTo(batch, batchSize) == 0)
+            {
+                LockSupport.parkNanos(flushInterval);
+            }
+            else
+            {
+                write(batch);
+                batch.clear();
+            }
+
+            long lost = dropped.sum();
+            if (lost > reported)
+            {
+                LOGGER.warn(String.format("Audit trail buffer full, %s audit entries dropped (total: %s)", lost - reported, lost));
+                reported = lost;
+            }
+        }
+    }
+
+    /**
+     * Appends a batch of audit entries to the audit log.
+     * @param batch Audit entries.
+     */
+    private void write(final List<AuditEntry> batch)
+    {
+        try
+        {
+            jdbcTemplate.batchUpdate(INSERT_ENTRY, batch, batch.size(), (statement, entry) -> {
+                statement.setObject(1, entry.getEntityId());
+                statement.setString(2, entry.getEntityType() != null ? entry.getEntityType().name() : null);
+                statement.setString(3, entry.getAction().name());
+                statement.setString(4, entry.getProperty());
+                statement.setString(5, entry.getOldValue());
+                statement.setString(6, entry.getNewValue());
+                statement.setString(7, entry.getChangedBy());
+                statement.setTimestamp(8, new Timestamp(entry.getChangedDate().getTime()));
+            });
+
+            written.add(batch.size());
+            batches.increment();
+        }
+        catch (DataAccessException e)
+        {
+            failed.add(batch.size());
+            LOGGER.error(String.format("Cannot write a batch of: %s audit entries: %s", batch.size(), e.getMessage()), e);
+        }
+    }
+}
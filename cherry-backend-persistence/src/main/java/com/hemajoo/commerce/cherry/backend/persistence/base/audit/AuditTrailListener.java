@@ -0,0 +1,236 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.audit;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import lombok.NonNull;
+import org.hibernate.event.spi.*;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.type.Type;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * {@code Hibernate} event listener capturing the <b>property changes</b> of the entities for the {@link AuditTrail}.
+ * <br>
+ * Changes are captured once the transaction saving the entities is committed, from the states {@code Hibernate} already holds
+ * (the properties found dirty when flushing the entities), so no entity is loaded nor compared for auditing. The captured
+ * changes are handed over to the audit trail buffer, the saving thread never waiting for the database.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public class AuditTrailListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener
+{
+    /**
+     * Properties not audited, being maintained by the auditing entity listener on each save.
+     */
+    private static final Set<String> IGNORED_PROPERTIES = Set.of("createdDate", "modifiedDate", "createdBy", "modifiedBy");
+
+    /**
+     * Maximum length of an audited value.
+     */
+    private static final int MAX_VALUE_LENGTH = 1000;
+
+    /**
+     * Audit trail.
+     */
+    private final AuditTrail trail;
+
+    /**
+     * Creates a new audit trail listener.
+     * @param trail Audit trail.
+     */
+    public AuditTrailListener(final @NonNull AuditTrail trail)
+    {
+        this.trail = trail;
+    }
+
+    @Override
+    public void onPostInsert(final PostInsertEvent event)
+    {
+        if (!(event.getEntity() instanceof ServerEntity entity))
+        {
+            return;
+        }
+
+        Date date = new Date();
+        String[] names = event.getPersister().getPropertyNames();
+        Type[] types = event.getPersister().getPropertyTypes();
+        List<AuditEntry> entries = new ArrayList<>();
+
+        for (int i = 0; i < names.length; i++)
+        {
+            if (isAudited(names[i], types[i]) && event.getState()[i] != null)
+            {
+                entries.add(createEntry(entity, AuditActionType.CREATE, names[i], null, event.getState()[i], entity.getCreatedBy(), date));
+            }
+        }
+
+        trail.record(entries);
+    }
+
+    @Override
+    public void onPostUpdate(final PostUpdateEvent event)
+    {
+        if (!(event.getEntity() instanceof ServerEntity entity))
+        {
+            return;
+        }
+
+        Date date = new Date();
+        String[] names = event.getPersister().getPropertyNames();
+        Type[] types = event.getPersister().getPropertyTypes();
+        Object[] oldState = event.getOldState();
+        Object[] state = event.getState();
+        List<AuditEntry> entries = new ArrayList<>();
+
+        if (oldState == null)
+        {
+            // Previous state unknown (entity updated without being loaded): only the update itself is recorded.
+            entries.add(createEntry(entity, AuditActionType.UPDATE, null, null, null, entity.getModifiedBy(), date));
+        }
+        else if (event.getDirtyProperties() != null)
+        {
+            for (int i : event.getDirtyProperties())
+            {
+                if (isAudited(names[i], types[i]))
+                {
+                    entries.add(createEntry(entity, AuditActionType.UPDATE, names[i], oldState[i], state[i], entity.getModifiedBy(), date));
+                }
+            }
+        }
+        else
+        {
+            for (int i = 0; i < names.length; i++)
+            {
+                if (isAudited(names[i], types[i]) && !Objects.equals(oldState[i], state[i]))
+                {
+                    entries.add(createEntry(entity, AuditActionType.UPDATE, names[i], oldState[i], state[i], entity.getModifiedBy(), date));
+                }
+            }
+        }
+
+        trail.record(entries);
+    }
+
+    @Override
+    public void onPostDelete(final PostDeleteEvent event)
+    {
+        if (event.getEntity() instanceof ServerEntity entity)
+        {
+            trail.record(List.of(createEntry(entity, AuditActionType.DELETE, null, null, null, entity.getModifiedBy(), new Date())));
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(final PostInsertEvent event)
+    {
+        // Nothing to record, the entity has not been created.
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(final PostUpdateEvent event)
+    {
+        // Nothing to record, the entity has not been updated.
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(final PostDeleteEvent event)
+    {
+        // Nothing to record, the entity has not been deleted.
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(final EntityPersister persister)
+    {
+        return ServerEntity.class.isAssignableFrom(persister.getMappedClass());
+    }
+
+    /**
+     * Returns if a property is audited.
+     * @param name Property name.
+     * @param type Property type.
+     * @return {@code True} if the property is audited, {@code false} otherwise (collections and audit properties).
+     */
+    private boolean isAudited(final String name, final Type type)
+    {
+        return !type.isCollectionType() && !IGNORED_PROPERTIES.contains(name);
+    }
+
+    /**
+     * Creates an audit entry.
+     * @param entity Entity.
+     * @param action Action.
+     * @param property Property name.
+     * @param oldValue Property value before the change.
+     * @param newValue Property value after the change.
+     * @param changedBy Author of the change.
+     * @param date Date of the change.
+     * @return Audit entry.
+     */
+    private AuditEntry createEntry(final ServerEntity entity, final AuditActionType action, final String property, final Object oldValue, final Object newValue, final String changedBy, final Date date)
+    {
+        return AuditEntry.builder()
+                .withEntityId(entity.getId())
+                .withEntityType(entity.getEntityType())
+                .withAction(action)
+                .withProperty(property)
+                .withOldValue(format(oldValue))
+                .withNewValue(format(newValue))
+                .withChangedBy(changedBy)
+                .withChangedDate(date)
+                .build();
+    }
+
+    /**
+     * Formats an audited value.
+     * <br>
+     * An associated entity is represented by its identifier (without loading it) and a date by its instant.
+     * @param value Value.
+     * @return Formatted value (truncated to the maximum length).
+     */
+    private String format(final Object value)
+    {
+        if (value == null)
+        {
+            return null;
+        }
+
+        String text;
+        if (value instanceof HibernateProxy proxy)
+        {
+            text = String.valueOf(proxy.getHibernateLazyInitializer().getIdentifier());
+        }
+        else if (value instanceof ServerEntity entity)
+        {
+            text = String.valueOf(entity.getId());
+        }
+        else if (value instanceof Date date)
+        {
+            text = date.toInstant().toString();
+        }
+        else
+        {
+            text = value.toString();
+        }
+
+        return text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) : text;
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.audit;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for the <b>audit trail</b> entries.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public interface IAuditRepository extends JpaRepository<AuditEntry, Long>
+{
+    /**
+     * Returns the audit entries of the given entity, the most recent first.
+     * <br>
+     * Served by the index on the entity identifier and the audit entry identifier.
+     * @param entityId Entity identifier.
+     * @param pageable Maximum number of audit entries.
+     * @return List of audit entries.
+     */
+    List<AuditEntry> findByEntityIdOrderByIdDesc(UUID entityId, Pageable pageable);
+}
@@ -0,0 +1,241 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.bulk;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import com.hemajoo.commerce.cherry.backend.persistence.document.converter.DocumentConverter;
+import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.converter.EmailAddressConverter;
+import com.hemajoo.commerce.cherry.backend.persistence.person.converter.PersonConverter;
+import com.hemajoo.commerce.cherry.backend.persistence.person.converter.PostalAddressConverter;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PostalAddressServer;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.jpa.QueryHints;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Bulk export service.
+ * <br>
+ * Entities are read through a server-side cursor (read-only transaction and fixed fetch size) and converted one at a time to their client
+ * representation before being written, so the memory used by an export does not depend on the number of exported entities.
+ * Entities are ordered by identifier, so an interrupted export can be resumed after the identifier of the last exported entity.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+@Service
+public class BulkExportService implements IBulkExportService
+{
+    /**
+     * Exportable entity types.
+     */
+    private static final Set<EntityType> EXPORTABLE_TYPES = EnumSet.of(EntityType.PERSON, EntityType.EMAIL_ADDRESS, EntityType.POSTAL_ADDRESS, EntityType.DOCUMENT);
+
+    /**
+     * Entity manager.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Person converter.
+     */
+    @Autowired
+    private PersonConverter converterPerson;
+
+    /**
+     * Email address converter.
+     */
+    @Autowired
+    private EmailAddressConverter converterEmailAddress;
+
+    /**
+     * Postal address converter.
+     */
+    @Autowired
+    private PostalAddressConverter converterPostalAddress;
+
+    /**
+     * Document converter.
+     */
+    @Autowired
+    private DocumentConverter converterDocument;
+
+    /**
+     * Number of rows fetched per round-trip (and number of entities held in the persistence context).
+     */
+    @Value("${hemajoo.commerce.cherry.export.fetch.size:1000}")
+    private int fetchSize;
+
+    @Override
+    public boolean isExportable(final @NonNull EntityType type)
+    {
+        return EXPORTABLE_TYPES.contains(type);
+    }
+
+    @Override
+    public long export(final @NonNull EntityType type, final @NonNull BulkFormat format, final UUID after, final @NonNull OutputStream output) throws EntityException
+    {
+        switch (type)
+        {
+            case PERSON:
+                return export(PersonServer.class, converterPerson::fromServerToClient, format, after, output);
+
+            case EMAIL_ADDRESS:
+                return export(EmailAddressServer.class, converterEmailAddress::fromServerToClient, format, after, output);
+
+            case POSTAL_ADDRESS:
+                return export(PostalAddressServer.class, converterPostalAddress::fromServerToClient, format, after, output);
+
+            case DOCUMENT:
+                return export(DocumentServer.class, converterDocument::fromServerToClient, format, after, output);
+
+            default:
+                throw new EntityException(String.format("Entity type: '%s' cannot be exported!", type));
+        }
+    }
+
+    @Override
+    public long exportToFile(final @NonNull EntityType type, final @NonNull BulkFormat format, final UUID after, final @NonNull Path file) throws EntityException
+    {
+        try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(file), 65536))
+        {
+            return export(type, format, after, output);
+        }
+        catch (IOException e)
+        {
+            throw new EntityException(String.format("Cannot export entity type: '%s' to file: '%s': %s", type, file, e.getMessage()));
+        }
+    }
+
+    /**
+     * Exports the entities of an entity class.
+     * @param entityClass Entity class.
+     * @param converter Converter of an entity to its client representation.
+     * @param format Bulk format.
+     * @param after Identifier to resume from (exclusive), null to export all the entities.
+     * @param output Output stream.
+     * @param <T> Entity type.
+     * @return Number of exported entities.
+     * @throws EntityException Thrown to indicate an error occurred when exporting the entities.
+     */
+    private <T extends ServerEntity> long export(final Class<T> entityClass, final Function<T, Object> converter, final BulkFormat format, final UUID after, final OutputStream output) throws EntityException
+    {
+        long start = System.currentTimeMillis();
+        BulkRecordWriter writer = new BulkRecordWriter(format, output);
+
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+
+        try
+        {
+            template.executeWithoutResult(status -> {
+                try (Stream<T> entities = query(entityClass, after))
+                {
+                    Iterator<T> iterator = entities.iterator();
+                    while (iterator.hasNext())
+                    {
+                        writer.write(converter.apply(iterator.next()));
+
+                        // Release the entities already written, including the ones loaded with them.
+                        if (writer.getCount() % fetchSize == 0)
+                        {
+                            entityManager.clear();
+                            writer.flush();
+                        }
+                    }
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            writer.flush();
+        }
+        catch (UncheckedIOException e)
+        {
+            throw new EntityException(String.format("Cannot export entities: '%s': %s", entityClass.getSimpleName(), e.getCause().getMessage()));
+        }
+        catch (IOException e)
+        {
+            throw new EntityException(String.format("Cannot export entities: '%s': %s", entityClass.getSimpleName(), e.getMessage()));
+        }
+
+        LOGGER.info(String.format("Exported: %s entities: '%s' in: %s ms", writer.getCount(), entityClass.getSimpleName(), System.currentTimeMillis() - start));
+
+        return writer.getCount();
+    }
+
+    /**
+     * Streams the entities of an entity class ordered by identifier.
+     * @param entityClass Entity class.
+     * @param after Identifier to resume from (exclusive), null to stream all the entities.
+     * @param <T> Entity type.
+     * @return Stream of entities (to be closed).
+     */
+    private <T extends ServerEntity> Stream<T> query(final Class<T> entityClass, final UUID after)
+    {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> criteria = builder.createQuery(entityClass);
+        Root<T> root = criteria.from(entityClass);
+
+        criteria.select(root).orderBy(builder.asc(root.get("id")));
+        if (after != null)
+        {
+            criteria.where(builder.greaterThan(root.<UUID>get("id"), after));
+        }
+
+        return entityManager.createQuery(criteria)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .setHint(GraphSemantic.FETCH.getJpaHintName(), entityManager.getEntityGraph(entityClass.getSimpleName() + ServerEntity.GRAPH_SUFFIX_LIST))
+                .getResultStream();
+    }
+}
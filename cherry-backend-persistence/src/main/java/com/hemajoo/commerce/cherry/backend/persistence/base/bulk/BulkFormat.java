@@ -0,0 +1,33 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.bulk;
+
+/**
+ * Enumeration of the <b>bulk formats</b> used to import or export entities.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public enum BulkFormat
+{
+    /**
+     * <b>CSV</b> format: a header line holding the field names followed by one record per line (RFC 4180 quoting).
+     */
+    CSV,
+
+    /**
+     * <b>NDJSON</b> format: one JSON object per line.
+     */
+    NDJSON
+}
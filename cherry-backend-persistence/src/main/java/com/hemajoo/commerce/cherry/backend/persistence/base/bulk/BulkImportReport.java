@@ -0,0 +1,138 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.bulk;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Report of a bulk import.
+ * <br>
+ * The report holds the counters of the import and the errors of the rejected records (bounded to a maximum number of errors).
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+public class BulkImportReport
+{
+    /**
+     * Number of records read.
+     */
+    @Getter
+    private long records = 0;
+
+    /**
+     * Number of records imported.
+     */
+    @Getter
+    private long imported = 0;
+
+    /**
+     * Number of records rejected.
+     */
+    @Getter
+    private long rejected = 0;
+
+    /**
+     * Number of committed chunks.
+     */
+    @Getter
+    private long chunks = 0;
+
+    /**
+     * Duration of the import (in milliseconds).
+     */
+    @Getter
+    private long duration = 0;
+
+    /**
+     * Maximum number of reported errors.
+     */
+    private final int maxErrors;
+
+    /**
+     * Errors of the rejected records.
+     */
+    private final List<BulkImportError> errors = new ArrayList<>();
+
+    /**
+     * Creates a new bulk import report.
+     * @param maxErrors Maximum number of reported errors.
+     */
+    public BulkImportReport(final int maxErrors)
+    {
+        this.maxErrors = maxErrors;
+    }
+
+    /**
+     * Returns the errors of the rejected records.
+     * @return Unmodifiable list of errors.
+     */
+    public final List<BulkImportError> getErrors()
+    {
+        return Collections.unmodifiableList(errors);
+    }
+
+    /**
+     * Returns if the errors have been truncated to the maximum number of reported errors.
+     * @return {@code True} if some errors are not reported, {@code false} otherwise.
+     */
+    public final boolean isTruncated()
+    {
+        return rejected > errors.size();
+    }
+
+    /**
+     * Records a committed chunk.
+     * @param records Number of records of the chunk.
+     * @param imported Number of records imported.
+     */
+    public final void chunk(final int records, final int imported)
+    {
+        this.chunks++;
+        this.records += records;
+        this.imported += imported;
+    }
+
+    /**
+     * Records a rejected record.
+     * @param line Line number of the record.
+     * @param message Error message.
+     */
+    public final void reject(final long line, final String message)
+    {
+        rejected++;
+        if (errors.size() < maxErrors)
+        {
+            errors.add(BulkImportError.builder()
+                    .withLine(line)
+                    .withMessage(message)
+                    .build());
+        }
+    }
+
+    /**
+     * Sets the duration of the import.
+     * @param duration Duration (in milliseconds).
+     */
+    public final void setDuration(final long duration)
+    {
+        this.duration = duration;
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.bulk;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Raw record read by a {@link BulkRecordReader}, not yet converted to an object.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@AllArgsConstructor
+public class BulkRecord
+{
+    /**
+     * Line number (starting at 1) of the record in the input.
+     */
+    @Getter
+    private final long line;
+
+    /**
+     * Record text (NDJSON format).
+     */
+    @Getter
+    private final String text;
+
+    /**
+     * Record fields (CSV format).
+     */
+    @Getter
+    private final List<String> fields;
+}
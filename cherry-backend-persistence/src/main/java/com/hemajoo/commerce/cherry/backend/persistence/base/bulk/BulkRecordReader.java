@@ -0,0 +1,249 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.bulk;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Reader of the records of a bulk input (CSV or NDJSON).
+ * <br>
+ * Records are read sequentially, one at a time, so the input is never fully loaded in memory. Reading a record only splits it; its conversion
+ * to an object ({@link #convert(BulkRecord, Class)}) is thread safe and can be executed in parallel.
+ * <br>
+ * In the CSV format, a field name repeated in the header defines a multi-valued field (for example: {@code lastName,firstName,email,email}).
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public final class BulkRecordReader implements Closeable
+{
+    /**
+     * Object mapper used to convert the records.
+     */
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_PROPERTIES)
+            .enable(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+            .build();
+
+    /**
+     * Bulk format.
+     */
+    private final BulkFormat format;
+
+    /**
+     * Underlying reader.
+     */
+    private final BufferedReader reader;
+
+    /**
+     * Field names (CSV format).
+     */
+    private List<String> header = null;
+
+    /**
+     * Current line number.
+     */
+    private long line = 0;
+
+    /**
+     * Creates a new bulk record reader.
+     * @param format Bulk format.
+     * @param input Input stream (UTF-8 encoded).
+     */
+    private BulkRecordReader(final BulkFormat format, final InputStream input)
+    {
+        this.format = format;
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Opens a bulk record reader.
+     * @param format Bulk format.
+     * @param input Input stream (UTF-8 encoded).
+     * @return Bulk record reader.
+     * @throws IOException Thrown to indicate an error occurred when reading the header of a CSV input.
+     */
+    public static BulkRecordReader open(final @NonNull BulkFormat format, final @NonNull InputStream input) throws IOException
+    {
+        BulkRecordReader reader = new BulkRecordReader(format, input);
+
+        if (format == BulkFormat.CSV)
+        {
+            BulkRecord header = reader.next();
+            if (header == null)
+            {
+                throw new IOException("CSV input must start with a header line!");
+            }
+            reader.header = header.getFields().stream().map(String::trim).toList();
+        }
+
+        return reader;
+    }
+
+    /**
+     * Reads the next record.
+     * @return Record or null if the end of the input is reached.
+     * @throws IOException Thrown to indicate an error occurred when reading the input.
+     */
+    public BulkRecord next() throws IOException
+    {
+        String text;
+        do
+        {
+            text = reader.readLine();
+            if (text == null)
+            {
+                return null;
+            }
+            line++;
+        }
+        while (text.isBlank());
+
+        long start = line; // A CSV record may span several lines.
+
+        return format == BulkFormat.CSV ? new BulkRecord(start, null, split(text)) : new BulkRecord(start, text, null);
+    }
+
+    /**
+     * Converts a record to an object.
+     * @param record Record.
+     * @param type Object type.
+     * @param <T> Object type.
+     * @return Object.
+     * @throws IOException Thrown to indicate the record cannot be converted to the object type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T convert(final @NonNull BulkRecord record, final @NonNull Class<T> type) throws IOException
+    {
+        if (format == BulkFormat.NDJSON)
+        {
+            return MAPPER.readValue(record.getText(), type);
+        }
+
+        List<String> fields = record.getFields();
+        if (fields.size() > header.size())
+        {
+            throw new IOException(String.format("Record has: %s fields while header has: %s fields!", fields.size(), header.size()));
+        }
+
+        Map<String, Object> values = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++)
+        {
+            String value = fields.get(i);
+            if (!value.isEmpty())
+            {
+                // Values of a repeated field name are gathered in a list.
+                values.merge(header.get(i), value, (previous, current) -> {
+                    List<Object> list = previous instanceof List<?> ? (List<Object>) previous : new ArrayList<>(List.of(previous));
+                    list.add(current);
+                    return list;
+                });
+            }
+        }
+
+        try
+        {
+            return MAPPER.convertValue(values, type);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Splits a CSV record into its fields.
+     * <br>
+     * Fields may be enclosed in double quotes, a double quote within a quoted field being escaped by another double quote. A quoted field may
+     * span several lines.
+     * @param text First line of the record.
+     * @return List of fields.
+     * @throws IOException Thrown to indicate a quoted field is not terminated.
+     */
+    private List<String> split(final String text) throws IOException
+    {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        String current = text;
+        boolean quoted = false;
+        int position = 0;
+
+        while (true)
+        {
+            if (position >= current.length())
+            {
+                if (!quoted)
+                {
+                    fields.add(field.toString());
+                    return fields;
+                }
+
+                current = reader.readLine();
+                if (current == null)
+                {
+                    throw new IOException(String.format("Unterminated quoted field at line: %s!", line));
+                }
+                line++;
+                field.append('\n');
+                position = 0;
+                continue;
+            }
+
+            char character = current.charAt(position++);
+            if (quoted)
+            {
+                if (character != '"')
+                {
+                    field.append(character);
+                }
+                else if (position < current.length() && current.charAt(position) == '"')
+                {
+                    field.append('"');
+                    position++;
+                }
+                else
+                {
+                    quoted = false;
+                }
+            }
+            else if (character == '"' && field.length() == 0)
+            {
+                quoted = true;
+            }
+            else if (character == ',')
+            {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else
+            {
+                field.append(character);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        reader.close();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.bulk;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.NonNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writer of the records of a bulk output (CSV or NDJSON).
+ * <br>
+ * Records are written one at a time so the output is never fully held in memory. In the CSV format, the header line is made of the property
+ * names of the first record; non scalar property values (lists, objects) are written as JSON text.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public final class BulkRecordWriter implements Closeable, Flushable
+{
+    /**
+     * Object mapper used to convert the records.
+     */
+    private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+
+    /**
+     * Type of a record converted to a map of property values.
+     */
+    private static final TypeReference<LinkedHashMap<String, Object>> RECORD_TYPE = new TypeReference<>() {};
+
+    /**
+     * Bulk format.
+     */
+    private final BulkFormat format;
+
+    /**
+     * Underlying writer.
+     */
+    private final Writer writer;
+
+    /**
+     * Property names (CSV format), set when writing the first record.
+     */
+    private List<String> header = null;
+
+    /**
+     * Number of records written.
+     */
+    private long count = 0;
+
+    /**
+     * Creates a new bulk record writer.
+     * @param format Bulk format.
+     * @param output Output stream (written UTF-8 encoded).
+     */
+    public BulkRecordWriter(final @NonNull BulkFormat format, final @NonNull OutputStream output)
+    {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns the number of records written.
+     * @return Number of records.
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Writes a record.
+     * @param record Record.
+     * @throws IOException Thrown to indicate an error occurred when writing the record.
+     */
+    public void write(final @NonNull Object record) throws IOException
+    {
+        if (format == BulkFormat.NDJSON)
+        {
+            writer.write(MAPPER.writeValueAsString(record));
+        }
+        else
+        {
+            Map<String, Object> values = MAPPER.convertValue(record, RECORD_TYPE);
+            if (header == null)
+            {
+                header = new ArrayList<>(values.keySet());
+                writeCsvLine(new ArrayList<>(header));
+                writer.write('\n');
+            }
+
+            List<Object> fields = new ArrayList<>(header.size());
+            for (String name : header)
+            {
+                fields.add(values.get(name));
+            }
+            writeCsvLine(fields);
+        }
+
+        writer.write('\n');
+        count++;
+    }
+
+    /**
+     * Writes a CSV line.
+     * @param fields Field values.
+     * @throws IOException Thrown to indicate an error occurred when writing the line.
+     */
+    private void writeCsvLine(final List<Object> fields) throws IOException
+    {
+        for (int i = 0; i < fields.size(); i++)
+        {
+            if (i > 0)
+            {
+                writer.write(',');
+            }
+
+            Object value = fields.get(i);
+            if (value != null)
+            {
+                String text = value instanceof Map<?, ?> || value instanceof List<?> ? MAPPER.writeValueAsString(value) : value.toString();
+                if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0)
+                {
+                    text = '"' + text.replace("\"", "\"\"") + '"';
+                }
+                writer.write(text);
+            }
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        writer.close();
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.bulk;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import lombok.NonNull;
+
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.UUID;
+
+/**
+ * Bulk export service.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public interface IBulkExportService
+{
+    /**
+     * Returns if the entities of an entity type can be exported.
+     * @param type Entity type.
+     * @return {@code True} if the entities can be exported, {@code false} otherwise.
+     */
+    boolean isExportable(final @NonNull EntityType type);
+
+    /**
+     * Exports the entities of an entity type, ordered by identifier.
+     * @param type Entity type (person, email address, postal address or document).
+     * @param format Bulk format.
+     * @param after Identifier of the last entity of a previous export to resume from (null to export all the entities).
+     * @param output Output stream (left open).
+     * @return Number of exported entities.
+     * @throws EntityException Thrown to indicate an error occurred when exporting the entities.
+     */
+    long export(final @NonNull EntityType type, final @NonNull BulkFormat format, final UUID after, final @NonNull OutputStream output) throws EntityException;
+
+    /**
+     * Exports the entities of an entity type, ordered by identifier, to a gzip compressed file.
+     * @param type Entity type (person, email address, postal address or document).
+     * @param format Bulk format.
+     * @param after Identifier of the last entity of a previous export to resume from (null to export all the entities).
+     * @param file File path.
+     * @return Number of exported entities.
+     * @throws EntityException Thrown to indicate an error occurred when exporting the entities.
+     */
+    long exportToFile(final @NonNull EntityType type, final @NonNull BulkFormat format, final UUID after, final @NonNull Path file) throws EntityException;
+}
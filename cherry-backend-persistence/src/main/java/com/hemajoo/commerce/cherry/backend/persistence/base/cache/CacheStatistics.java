@@ -0,0 +1,95 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.cache;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Represents the <b>statistics</b> of a cache.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@Builder(setterPrefix = "with")
+public final class CacheStatistics
+{
+    /**
+     * Cache name.
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * Number of entries.
+     */
+    @Getter
+    private final int entries;
+
+    /**
+     * Weight of the entries (number of cached elements), used to estimate the memory held by the cache.
+     */
+    @Getter
+    private final long weight;
+
+    /**
+     * Number of hits.
+     */
+    @Getter
+    private final long hits;
+
+    /**
+     * Number of misses.
+     */
+    @Getter
+    private final long misses;
+
+    /**
+     * Hit rate (between 0 and 1).
+     */
+    @Getter
+    private final double hitRate;
+
+    /**
+     * Number of entries evicted (size limit reached or expired).
+     */
+    @Getter
+    private final long evictions;
+
+    /**
+     * Number of times the cache has been invalidated.
+     */
+    @Getter
+    private final long invalidations;
+
+    /**
+     * Average age (in milliseconds) of the entries served.
+     */
+    @Getter
+    private final long averageAgeOnHit;
+
+    /**
+     * Maximum age (in milliseconds) of an entry served.
+     */
+    @Getter
+    private final long maxAgeOnHit;
+
+    /**
+     * Age (in milliseconds) of the oldest entry.
+     */
+    @Getter
+    private final long oldestEntryAge;
+}
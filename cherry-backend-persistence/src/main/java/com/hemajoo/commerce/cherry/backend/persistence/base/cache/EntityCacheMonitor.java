@@ -0,0 +1,111 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.cache;
+
+import lombok.NonNull;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Monitor of the <b>second-level cache</b> regions holding the entities, their collections and the results of the cacheable queries.
+ * <br>
+ * The statistics are collected by {@code Hibernate} when the {@code hibernate.generate_statistics} property is enabled.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Component
+public class EntityCacheMonitor
+{
+    /**
+     * Hibernate session factory.
+     */
+    private final SessionFactory sessionFactory;
+
+    /**
+     * Creates a new entity cache monitor.
+     * @param entityManagerFactory Entity manager factory.
+     */
+    public EntityCacheMonitor(final @NonNull EntityManagerFactory entityManagerFactory)
+    {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    /**
+     * Returns the statistics of the second-level cache regions.
+     * @return List of cache statistics (one per region), empty if the statistics are disabled.
+     */
+    public List<CacheStatistics> getStatistics()
+    {
+        List<CacheStatistics> statistics = new ArrayList<>();
+        Statistics hibernate = sessionFactory.getStatistics();
+
+        if (!hibernate.isStatisticsEnabled())
+        {
+            return statistics;
+        }
+
+        String[] regions = hibernate.getSecondLevelCacheRegionNames();
+        Arrays.sort(regions);
+
+        for (String region : regions)
+        {
+            CacheRegionStatistics regionStatistics = hibernate.getCacheRegionStatistics(region);
+            if (regionStatistics != null)
+            {
+                statistics.add(toStatistics(region, regionStatistics));
+            }
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Evicts all the entries of the second-level cache regions (entities, collections and query results).
+     * <br>
+     * To be used when the database has been changed outside of {@code Hibernate}.
+     */
+    public void evictAll()
+    {
+        sessionFactory.getCache().evictAll();
+    }
+
+    /**
+     * Converts the statistics of a cache region.
+     * @param name Region name.
+     * @param region Region statistics.
+     * @return Cache statistics.
+     */
+    private CacheStatistics toStatistics(final String name, final CacheRegionStatistics region)
+    {
+        long hits = region.getHitCount();
+        long misses = region.getMissCount();
+        long entries = region.getElementCountInMemory(); // Negative when not supported by the cache provider.
+
+        return CacheStatistics.builder()
+                .withName(name)
+                .withEntries((int) Math.max(entries, 0))
+                .withHits(hits)
+                .withMisses(misses)
+                .withHitRate(hits + misses == 0 ? 0 : (double) hits / (hits + misses))
+                .build();
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.cache;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * A bounded in-memory cache whose entries expire after a given time to live.
+ * <br>
+ * When the maximum number of entries is reached, the least recently accessed entry is evicted. The cache also records
+ * its hits, misses, evictions and the age of the entries served to report its {@link CacheStatistics}.
+ * @param <K> Key type.
+ * @param <V> Value type.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public final class ExpiringCache<K, V>
+{
+    /**
+     * Maximum number of entries.
+     */
+    @Getter
+    private final int maxSize;
+
+    /**
+     * Time to live of the entries.
+     */
+    @Getter
+    private final Duration timeToLive;
+
+    /**
+     * Cache entries (in access order).
+     */
+    private final Map<K, Entry<V>> entries;
+
+    /**
+     * Number of hits.
+     */
+    private long hits = 0;
+
+    /**
+     * Number of misses.
+     */
+    private long misses = 0;
+
+    /**
+     * Number of entries evicted (size limit reached or expired).
+     */
+    private long evictions = 0;
+
+    /**
+     * Number of times the cache has been cleared.
+     */
+    private long invalidations = 0;
+
+    /**
+     * Sum of the ages (in nanoseconds) of the entries served.
+     */
+    private long ageOnHitTotal = 0;
+
+    /**
+     * Maximum age (in nanoseconds) of an entry served.
+     */
+    private long ageOnHitMax = 0;
+
+    /**
+     * Creates a new expiring cache.
+     * @param maxSize Maximum number of entries.
+     * @param timeToLive Time to live of the entries.
+     */
+    public ExpiringCache(final int maxSize, final @NonNull Duration timeToLive)
+    {
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, Entry<V>> eldest)
+            {
+                boolean evict = size() > ExpiringCache.this.maxSize;
+                if (evict)
+                {
+                    evictions++;
+                }
+
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Returns the value associated to a key.
+     * @param key Key.
+     * @return Value or null if not found or expired.
+     */
+    public synchronized V get(final @NonNull K key)
+    {
+        Entry<V> entry = entries.get(key);
+        if (entry == null)
+        {
+            misses++;
+            return null;
+        }
+
+        long now = System.nanoTime();
+        if (entry.isExpired(now))
+        {
+            entries.remove(key);
+            evictions++;
+            misses++;
+            return null;
+        }
+
+        long age = now - entry.getCreation();
+        ageOnHitTotal += age;
+        ageOnHitMax = Math.max(ageOnHitMax, age);
+        hits++;
+
+        return entry.getValue();
+    }
+
+    /**
+     * Associates a value to a key.
+     * @param key Key.
+     * @param value Value.
+     */
+    public synchronized void put(final @NonNull K key, final @NonNull V value)
+    {
+        if (maxSize > 0 && !timeToLive.isZero())
+        {
+            long now = System.nanoTime();
+            entries.put(key, new Entry<>(value, now, now + timeToLive.toNanos()));
+        }
+    }
+
+    /**
+     * Removes the entry associated to a key.
+     * @param key Key.
+     */
+    public synchronized void remove(final @NonNull K key)
+    {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes all the entries.
+     */
+    public synchronized void clear()
+    {
+        entries.clear();
+        invalidations++;
+    }
+
+    /**
+     * Returns the number of entries (including the expired ones not yet removed).
+     * @return Number of entries.
+     */
+    public synchronized int size()
+    {
+        return entries.size();
+    }
+
+    /**
+     * Returns the statistics of the cache.
+     * @param name Cache name.
+     * @param weigher Function returning the weight (for example the number of elements) of a value.
+     * @return Cache statistics.
+     */
+    public synchronized CacheStatistics getStatistics(final @NonNull String name, final @NonNull ToLongFunction<V> weigher)
+    {
+        long now = System.nanoTime();
+        long weight = 0;
+        long oldest = 0;
+
+        for (Entry<V> entry : entries.values())
+        {
+            weight += weigher.applyAsLong(entry.getValue());
+            oldest = Math.max(oldest, now - entry.getCreation());
+        }
+
+        return CacheStatistics.builder()
+                .withName(name)
+                .withEntries(entries.size())
+                .withWeight(weight)
+                .withHits(hits)
+                .withMisses(misses)
+                .withHitRate(hits + misses == 0 ? 0 : (double) hits / (hits + misses))
+                .withEvictions(evictions)
+                .withInvalidations(invalidations)
+                .withAverageAgeOnHit(hits == 0 ? 0 : Duration.ofNanos(ageOnHitTotal / hits).toMillis())
+                .withMaxAgeOnHit(Duration.ofNanos(ageOnHitMax).toMillis())
+                .withOldestEntryAge(Duration.ofNanos(oldest).toMillis())
+                .build();
+    }
+
+    /**
+     * Represents a cache entry.
+     * @param <V> Value type.
+     */
+    private static final class Entry<V>
+    {
+        /**
+         * Value.
+         */
+        @Getter
+        private final V value;
+
+        /**
+         * Creation time (in nanoseconds).
+         */
+        @Getter
+        private final long creation;
+
+        /**
+         * Expiration time (in nanoseconds).
+         */
+        private final long expiration;
+
+        /**
+         * Creates a new cache entry.
+         * @param value Value.
+         * @param creation Creation time (in nanoseconds).
+         * @param expiration Expiration time (in nanoseconds).
+         */
+        private Entry(final V value, final long creation, final long expiration)
+        {
+            this.value = value;
+            this.creation = creation;
+            this.expiration = expiration;
+        }
+
+        /**
+         * Returns if the entry is expired.
+         * @param now Current time (in nanoseconds).
+         * @return {@code True} if the entry is expired, {@code false} otherwise.
+         */
+        private boolean isExpired(final long now)
+        {
+            return now - expiration >= 0;
+        }
+    }
+}
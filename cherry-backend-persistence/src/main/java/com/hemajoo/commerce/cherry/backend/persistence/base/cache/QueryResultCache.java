@@ -0,0 +1,332 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.cache;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.IQuery;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the <b>query results</b>.
+ * <br>
+ * The results are held in one region per entity class and are keyed by the canonical form of the query and a page cursor.
+ * Only the <b>identifiers</b> of the resulting entities are cached: a cache hit reloads the entities by primary key, so each caller
+ * gets its own entity instances and can never alter the results served to the others.
+ * A region is invalidated each time an entity of its class is created, updated or deleted by its persistence service, once the
+ * transaction holding the change is completed.
+ * <br>
+ * Each region has a <b>generation</b> incremented when it is invalidated. A search reads the generation before running its query and
+ * its results are only cached if the region has not been invalidated meanwhile, so a search reading the state preceding a change cannot
+ * cache its (stale) results once the change invalidated the region.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+@Component
+public class QueryResultCache
+{
+    /**
+     * Page cursor used for the queries returning all their results.
+     */
+    public static final String UNPAGED = "*";
+
+    /**
+     * Is the query result cache enabled?
+     */
+    @Getter
+    private final boolean enabled;
+
+    /**
+     * Maximum number of cached query results per region.
+     */
+    private final int size;
+
+    /**
+     * Time to live of the cached query results.
+     */
+    private final Duration timeToLive;
+
+    /**
+     * Cache regions (one per entity class).
+     */
+    private final Map<Class<?>, ExpiringCache<String, List<UUID>>> regions = new ConcurrentHashMap<>();
+
+    /**
+     * Generations of the cache regions (one per entity class).
+     */
+    private final Map<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Entity manager.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Creates a new query result cache.
+     * @param enabled Is the query result cache enabled?
+     * @param size Maximum number of cached query results per region.
+     * @param timeToLive Time to live (in seconds) of the cached query results.
+     */
+    public QueryResultCache(
+            final @Value("${hemajoo.commerce.cherry.query.cache.enabled:false}") boolean enabled,
+            final @Value("${hemajoo.commerce.cherry.query.cache.size:512}") int size,
+            final @Value("${hemajoo.commerce.cherry.query.cache.ttl:300}") long timeToLive)
+    {
+        this.enabled = enabled;
+        this.size = size;
+        this.timeToLive = Duration.ofSeconds(timeToLive);
+    }
+
+    /**
+     * Returns the cached results of a query.
+     * <br>
+     * The entities are reloaded by identifier (in the order of the cached results) with their documents and parent initialized.
+     * If one of them no longer exists, the cached results are discarded and null is returned.
+     * @param entityClass Entity class.
+     * @param query Query.
+     * @param cursor Page cursor.
+     * @param <T> Entity type.
+     * @return List of entities or null if not cached.
+     */
+    public <T extends ServerEntity> List<T> get(final @NonNull Class<T> entityClass, final @NonNull IQuery query, final @NonNull String cursor)
+    {
+        if (!enabled)
+        {
+            return null;
+        }
+
+        String key = createKey(query, cursor);
+        List<UUID> ids = getRegion(entityClass).get(key);
+        if (ids == null)
+        {
+            return null;
+        }
+
+        List<T> entities = load(entityClass, ids);
+        if (entities.size() != ids.size())
+        {
+            getRegion(entityClass).remove(key);
+            LOGGER.debug(String.format("Query result cache entry discarded for: '%s', some entities no longer exist", entityClass.getSimpleName()));
+            return null;
+        }
+
+        return entities;
+    }
+
+    /**
+     * Returns the generation of the cache region of an entity class.
+     * <br>
+     * To be read before running the query whose results are cached with {@link #put(Class, IQuery, String, long, List)}.
+     * @param entityClass Entity class.
+     * @return Generation.
+     */
+    public long getGeneration(final @NonNull Class<?> entityClass)
+    {
+        return getGenerationCounter(entityClass).get();
+    }
+
+    /**
+     * Caches the results of a query.
+     * <br>
+     * The results are not cached if the region has been invalidated since the given generation was read, as the query may have read
+     * the state preceding the change.
+     * @param entityClass Entity class.
+     * @param query Query.
+     * @param cursor Page cursor.
+     * @param generation Generation of the region read before running the query.
+     * @param results List of entities.
+     * @param <T> Entity type.
+     * @return List of entities (not cached themselves, only their identifiers are).
+     */
+    public <T extends ServerEntity> List<T> put(final @NonNull Class<T> entityClass, final @NonNull IQuery query, final @NonNull String cursor, final long generation, final @NonNull List<T> results)
+    {
+        if (enabled)
+        {
+            List<UUID> ids = new ArrayList<>(results.size());
+            for (T entity : results)
+            {
+                ids.add(entity.getId());
+            }
+
+            ExpiringCache<String, List<UUID>> region = getRegion(entityClass);
+            synchronized (region)
+            {
+                if (getGenerationCounter(entityClass).get() == generation)
+                {
+                    region.put(createKey(query, cursor), Collections.unmodifiableList(ids));
+                }
+                else
+                {
+                    LOGGER.debug(String.format("Query result not cached for: '%s', the region has been invalidated meanwhile", entityClass.getSimpleName()));
+                }
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Invalidates the cached query results of the given entity classes.
+     * <br>
+     * When called within a transaction, the invalidation is deferred until the transaction completes, so the results cached by
+     * the searches running before the commit (still reading the previous state) are cleared as well. The regions are also cleared
+     * on rollback, as a search run within the transaction may have cached results read from its uncommitted changes.
+     * @param entityClasses Entity classes.
+     */
+    public void invalidate(final @NonNull Class<?>... entityClasses)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCompletion(final int status)
+                {
+                    clear(entityClasses);
+                }
+            });
+        }
+        else
+        {
+            clear(entityClasses);
+        }
+    }
+
+    /**
+     * Clears the cache regions of the given entity classes.
+     * @param entityClasses Entity classes.
+     */
+    private void clear(final Class<?>... entityClasses)
+    {
+        for (Class<?> entityClass : entityClasses)
+        {
+            ExpiringCache<String, List<UUID>> region = getRegion(entityClass);
+            synchronized (region)
+            {
+                // Incremented even if the region is empty, so the searches running meanwhile do not cache their results.
+                getGenerationCounter(entityClass).incrementAndGet();
+                region.clear();
+            }
+            LOGGER.debug(String.format("Query result cache invalidated for: '%s'", entityClass.getSimpleName()));
+        }
+    }
+
+    /**
+     * Returns the statistics of the cache regions.
+     * <br>
+     * The weight of a region is the number of entity identifiers it holds.
+     * @return List of cache statistics.
+     */
+    public List<CacheStatistics> getStatistics()
+    {
+        List<CacheStatistics> statistics = new ArrayList<>();
+
+        for (Map.Entry<Class<?>, ExpiringCache<String, List<UUID>>> region : regions.entrySet())
+        {
+            statistics.add(region.getValue().getStatistics(region.getKey().getSimpleName(), List::size));
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Returns the cache region of an entity class.
+     * @param entityClass Entity class.
+     * @return Cache region.
+     */
+    private ExpiringCache<String, List<UUID>> getRegion(final Class<?> entityClass)
+    {
+        return regions.computeIfAbsent(entityClass, key -> new ExpiringCache<>(size, timeToLive));
+    }
+
+    /**
+     * Returns the generation counter of the cache region of an entity class.
+     * @param entityClass Entity class.
+     * @return Generation counter.
+     */
+    private AtomicLong getGenerationCounter(final Class<?> entityClass)
+    {
+        return generations.computeIfAbsent(entityClass, key -> new AtomicLong());
+    }
+
+    /**
+     * Loads the entities matching the given identifiers, in the same order.
+     * <br>
+     * Joins the current transaction if any so the entities already loaded in its persistence context are reused.
+     * @param entityClass Entity class.
+     * @param ids Entity identifiers.
+     * @param <T> Entity type.
+     * @return List of the entities found.
+     */
+    private <T extends ServerEntity> List<T> load(final Class<T> entityClass, final List<UUID> ids)
+    {
+        return new TransactionTemplate(transactionManager).execute(status ->
+        {
+            List<T> entities = new ArrayList<>(ids.size());
+            for (T entity : entityManager.unwrap(Session.class)
+                    .byMultipleIds(entityClass)
+                    .enableSessionCheck(true)
+                    .enableOrderedReturn(true)
+                    .multiLoad(ids))
+            {
+                if (entity != null)
+                {
+                    entities.add(entity);
+                }
+            }
+
+            return ServerEntity.initializeAssociations(entities);
+        });
+    }
+
+    /**
+     * Creates the key of a query.
+     * @param query Query.
+     * @param cursor Page cursor.
+     * @return Key.
+     */
+    private String createKey(final IQuery query, final String cursor)
+    {
+        return query.canonicalize() + "#" + cursor;
+    }
+}
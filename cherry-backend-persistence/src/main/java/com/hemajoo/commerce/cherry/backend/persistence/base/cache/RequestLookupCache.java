@@ -0,0 +1,146 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.cache;
+
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache of the <b>entity lookups</b> done while serving a request.
+ * <br>
+ * The validators and the persistence services of a request often look up the same entities (existence checks, lookups by
+ * identifier). The results are memoized in the attributes of the current request, held in one region per entity class and
+ * keyed by the lookup name and its arguments, so a duplicate lookup is served from memory. A region is invalidated each time
+ * an entity of its class is created, updated or deleted by its persistence service.
+ * <br>
+ * Outside a request (background tasks, batches), the lookups are not memoized.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+@Component
+public class RequestLookupCache
+{
+    /**
+     * Name of the request attribute holding the cache regions.
+     */
+    private static final String ATTRIBUTE_REGIONS = RequestLookupCache.class.getName() + ".regions";
+
+    /**
+     * Name of the lookup checking an entity exists.
+     */
+    public static final String LOOKUP_EXIST = "exist";
+
+    /**
+     * Name of the lookup of an entity by its identifier.
+     */
+    public static final String LOOKUP_ID = "id";
+
+    /**
+     * Lookup of a value.
+     * @param <T> Value type.
+     * @param <E> Exception type.
+     */
+    @FunctionalInterface
+    public interface Lookup<T, E extends Exception>
+    {
+        /**
+         * Looks up the value.
+         * @return Value.
+         * @throws E Thrown to indicate an error occurred while looking up the value.
+         */
+        T get() throws E;
+    }
+
+    /**
+     * Returns the result of a lookup, executing it only if not already done while serving the current request.
+     * @param entityClass Entity class.
+     * @param name Lookup name.
+     * @param key Lookup arguments.
+     * @param lookup Lookup.
+     * @param <T> Value type.
+     * @param <E> Exception type.
+     * @return Value (can be null).
+     * @throws E Thrown to indicate an error occurred while looking up the value.
+     */
+    @SuppressWarnings("unchecked")
+    public <T, E extends Exception> T get(final @NonNull Class<?> entityClass, final @NonNull String name, final Object key, final @NonNull Lookup<T, E> lookup) throws E
+    {
+        Map<Class<?>, Map<String, Object>> regions = getRegions(true);
+        if (regions == null)
+        {
+            return lookup.get();
+        }
+
+        Map<String, Object> region = regions.computeIfAbsent(entityClass, type -> new HashMap<>());
+        String lookupKey = name + "#" + key;
+        if (region.containsKey(lookupKey))
+        {
+            LOGGER.trace(String.format("Lookup: '%s' of: '%s' served from the request lookup cache", lookupKey, entityClass.getSimpleName()));
+            return (T) region.get(lookupKey);
+        }
+
+        T value = lookup.get();
+        region.put(lookupKey, value);
+
+        return value;
+    }
+
+    /**
+     * Invalidates the lookups of the given entity classes done while serving the current request.
+     * @param entityClasses Entity classes.
+     */
+    public void invalidate(final @NonNull Class<?>... entityClasses)
+    {
+        Map<Class<?>, Map<String, Object>> regions = getRegions(false);
+        if (regions != null)
+        {
+            for (Class<?> entityClass : entityClasses)
+            {
+                regions.remove(entityClass);
+            }
+        }
+    }
+
+    /**
+     * Returns the cache regions of the current request.
+     * @param create Create the cache regions if they do not exist yet?
+     * @return Cache regions or null if there is no current request (or if they do not exist and are not to be created).
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<Class<?>, Map<String, Object>> getRegions(final boolean create)
+    {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null)
+        {
+            return null;
+        }
+
+        Map<Class<?>, Map<String, Object>> regions = (Map<Class<?>, Map<String, Object>>) attributes.getAttribute(ATTRIBUTE_REGIONS, RequestAttributes.SCOPE_REQUEST);
+        if (regions == null && create)
+        {
+            regions = new HashMap<>();
+            attributes.setAttribute(ATTRIBUTE_REGIONS, regions, RequestAttributes.SCOPE_REQUEST);
+        }
+
+        return regions;
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.datasource;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Represents the <b>statistics</b> of a connection pool of the read/write routing data source.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@Builder(setterPrefix = "with")
+public final class DataSourcePoolStatistics
+{
+    /**
+     * Pool name.
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * Is the pool a read replica?
+     */
+    @Getter
+    private final boolean replica;
+
+    /**
+     * Is the pool eligible for the read-only transactions (always true for the primary pool)?
+     */
+    @Getter
+    private final boolean available;
+
+    /**
+     * Last measured replication lag (in milliseconds), or -1 if it cannot be measured.
+     */
+    @Getter
+    private final long lag;
+
+    /**
+     * Number of connections routed to the pool.
+     */
+    @Getter
+    private final long routed;
+
+    /**
+     * Number of read-only connections routed to the primary pool as no replica was available.
+     */
+    @Getter
+    private final long fallbacks;
+
+    /**
+     * Number of active connections.
+     */
+    @Getter
+    private final int active;
+
+    /**
+     * Number of idle connections.
+     */
+    @Getter
+    private final int idle;
+
+    /**
+     * Number of threads waiting for a connection.
+     */
+    @Getter
+    private final int waiting;
+}
@@ -0,0 +1,302 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <b>Routing data source</b> sending the read-only transactions to a pool of read replicas and all the other connections to the primary database.
+ * <br>
+ * The replication lag of each replica is periodically measured by executing a lag query (returning the lag in seconds) on the replica.
+ * A replica whose lag exceeds the maximum lag, or which cannot be reached, is left aside until a later check finds it back in sync;
+ * when no replica is available, the read-only transactions fall back to the primary database.
+ * <br>
+ * As the connection of a transaction is obtained before the transaction is flagged as read-only, the routing data source must be
+ * wrapped into a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean
+{
+    /**
+     * Name of the primary pool.
+     */
+    public static final String PRIMARY = "primary";
+
+    /**
+     * Primary pool.
+     */
+    private final Pool primary;
+
+    /**
+     * Replica pools.
+     */
+    private final List<Pool> replicas;
+
+    /**
+     * Query returning the replication lag (in seconds) of a replica.
+     */
+    private final String lagQuery;
+
+    /**
+     * Maximum replication lag (in milliseconds) of a replica eligible for the read-only transactions.
+     */
+    private final long maxLag;
+
+    /**
+     * Interval between two replication lag checks.
+     */
+    private final Duration checkInterval;
+
+    /**
+     * Index of the next replica (round-robin).
+     */
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Number of read-only connections routed to the primary pool as no replica was available.
+     */
+    private final AtomicLong fallbacks = new AtomicLong();
+
+    /**
+     * Scheduler checking the replication lag.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a new read/write routing data source.
+     * @param primary Primary data source.
+     * @param replicas Replica data sources.
+     * @param lagQuery Query returning the replication lag (in seconds) of a replica.
+     * @param maxLag Maximum replication lag of a replica eligible for the read-only transactions.
+     * @param checkInterval Interval between two replication lag checks.
+     */
+    public ReadWriteRoutingDataSource(final @NonNull HikariDataSource primary, final @NonNull List<HikariDataSource> replicas, final @NonNull String lagQuery, final @NonNull Duration maxLag, final @NonNull Duration checkInterval)
+    {
+        this.primary = new Pool(PRIMARY, primary, false);
+        this.replicas = new ArrayList<>();
+        this.lagQuery = lagQuery;
+        this.maxLag = maxLag.toMillis();
+        this.checkInterval = checkInterval;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        for (HikariDataSource replica : replicas)
+        {
+            Pool pool = new Pool(replica.getPoolName(), replica, true);
+            this.replicas.add(pool);
+            targets.put(pool.name, replica);
+        }
+
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet()
+    {
+        super.afterPropertiesSet();
+
+        // Replicas are not eligible until their first check.
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cherry-replica-lag");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey()
+    {
+        Pool pool = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? nextReplica() : primary;
+        pool.routed.incrementAndGet();
+
+        return pool.name;
+    }
+
+    /**
+     * Returns the next available replica pool (round-robin), or the primary pool if no replica is available.
+     * @return Pool.
+     */
+    private Pool nextReplica()
+    {
+        int count = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(count, 1));
+
+        for (int i = 0; i < count; i++)
+        {
+            Pool replica = replicas.get((start + i) % count);
+            if (replica.available)
+            {
+                return replica;
+            }
+        }
+
+        fallbacks.incrementAndGet();
+
+        return primary;
+    }
+
+    /**
+     * Measures the replication lag of the replicas and updates their availability.
+     */
+    public void checkReplicas()
+    {
+        for (Pool replica : replicas)
+        {
+            try (Connection connection = replica.dataSource.getConnection(); Statement statement = connection.createStatement(); ResultSet result = statement.executeQuery(lagQuery))
+            {
+                replica.lag = result.next() ? Math.round(result.getDouble(1) * 1000) : 0;
+                boolean available = replica.lag <= maxLag;
+                if (available != replica.available)
+                {
+                    LOGGER.info(String.format("Replica: '%s' is %s (lag: %sms)", replica.name, available ? "available" : "lagging", replica.lag));
+                }
+                replica.available = available;
+            }
+            catch (SQLException e)
+            {
+                if (replica.available)
+                {
+                    LOGGER.warn(String.format("Replica: '%s' is unreachable: %s", replica.name, e.getMessage()));
+                }
+                replica.lag = -1;
+                replica.available = false;
+            }
+        }
+    }
+
+    /**
+     * Returns the statistics of the pools.
+     * @return List of pool statistics, the primary pool first.
+     */
+    public List<DataSourcePoolStatistics> getStatistics()
+    {
+        List<DataSourcePoolStatistics> statistics = new ArrayList<>();
+
+        statistics.add(primary.toStatistics(fallbacks.get()));
+        for (Pool replica : replicas)
+        {
+            statistics.add(replica.toStatistics(0));
+        }
+
+        return statistics;
+    }
+
+    @Override
+    public void destroy()
+    {
+        if (scheduler != null)
+        {
+            scheduler.shutdownNow();
+        }
+
+        primary.dataSource.close();
+        replicas.forEach(replica -> replica.dataSource.close());
+    }
+
+    /**
+     * Connection pool of the routing data source.
+     */
+    private static final class Pool
+    {
+        /**
+         * Pool name.
+         */
+        private final String name;
+
+        /**
+         * Pooled data source.
+         */
+        private final HikariDataSource dataSource;
+
+        /**
+         * Is the pool a read replica?
+         */
+        private final boolean replica;
+
+        /**
+         * Number of connections routed to the pool.
+         */
+        private final AtomicLong routed = new AtomicLong();
+
+        /**
+         * Is the pool eligible for the read-only transactions?
+         */
+        private volatile boolean available;
+
+        /**
+         * Last measured replication lag (in milliseconds).
+         */
+        private volatile long lag;
+
+        /**
+         * Creates a new pool.
+         * @param name Pool name.
+         * @param dataSource Pooled data source.
+         * @param replica Is the pool a read replica?
+         */
+        private Pool(final String name, final HikariDataSource dataSource, final boolean replica)
+        {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.replica = replica;
+            this.available = !replica;
+            this.lag = replica ? -1 : 0;
+        }
+
+        /**
+         * Returns the statistics of the pool.
+         * @param fallbacks Number of read-only connections routed to the pool as no replica was available.
+         * @return Pool statistics.
+         */
+        private DataSourcePoolStatistics toStatistics(final long fallbacks)
+        {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean(); // Null until the first connection is requested.
+
+            return DataSourcePoolStatistics.builder()
+                    .withName(name)
+                    .withReplica(replica)
+                    .withAvailable(available)
+                    .withLag(lag)
+                    .withRouted(routed.get())
+                    .withFallbacks(fallbacks)
+                    .withActive(pool != null ? pool.getActiveConnections() : 0)
+                    .withIdle(pool != null ? pool.getIdleConnections() : 0)
+                    .withWaiting(pool != null ? pool.getThreadsAwaitingConnection() : 0)
+                    .build();
+        }
+    }
+}
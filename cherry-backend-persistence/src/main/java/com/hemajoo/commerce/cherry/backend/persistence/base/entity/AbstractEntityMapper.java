@@ -16,6 +16,9 @@
 package com.hemajoo.commerce.cherry.backend.persistence.base.entity;
 
 import com.hemajoo.commerce.cherry.backend.commons.entity.EntityIdentity;
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.CycleAvoidingMappingContext;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityRegistryEntry;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
 import org.mapstruct.Context;
 import org.mapstruct.Mapper;
@@ -40,19 +43,37 @@ public abstract class AbstractEntityMapper
      * Maps an entity identity to a server base entity.
      * <hr>
      * If the base entity exist in the underlying database, it will be loaded and returned, otherwise an exception is raised.
+     * <br>
+     * The entity is loaded from the table of its entity type (taken from the identity or, if missing or without server entity, from the entity registry) rather than
+     * through a polymorphic lookup on {@link ServerEntity} querying the union of all the entity tables. The entities already resolved in batch
+     * (see {@link EntityFactory#createMappingContext(java.util.Collection)}) are taken from the mapping context without being loaded again.
      * @param <T> Type of server entity.
      * @param identity Entity identity.
+     * @param context Mapping context.
      * @param entityManager Entity manager.
      * @return Server base entity.
      * @throws EntityException Thrown in case an error occurred while trying to retrieve the entity from the underlying repository.
      */
-    public <T extends ServerEntity> T map(EntityIdentity identity, @Context EntityManager entityManager) throws EntityException
+    public <T extends ServerEntity> T map(EntityIdentity identity, @Context CycleAvoidingMappingContext context, @Context EntityManager entityManager) throws EntityException
     {
         ServerEntity entity;
 
         if (identity != null)
         {
-            entity = entityManager.find(ServerEntity.class, identity.getId());
+            entity = (ServerEntity) context.getResolvedEntity(identity.getId());
+            if (entity != null)
+            {
+                return (T) entity;
+            }
+
+            EntityType type = identity.getEntityType();
+            if (!EntityFactory.isHandled(type))
+            {
+                EntityRegistryEntry entry = entityManager.find(EntityRegistryEntry.class, identity.getId());
+                type = entry != null ? entry.getEntityType() : null;
+            }
+
+            entity = type != null ? entityManager.find(EntityFactory.getEntityClass(type), identity.getId()) : null;
             if (entity == null)
             {
                 throw new EntityException(String.format("Server entity with identity: %s cannot be found!", identity));
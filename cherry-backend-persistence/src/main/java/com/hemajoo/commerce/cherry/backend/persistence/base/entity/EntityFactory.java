@@ -16,19 +16,38 @@ package com.hemajoo.commerce.cherry.backend.persistence.base.entity;
 
 import com.hemajoo.commerce.cherry.backend.commons.entity.EntityIdentity;
 import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.CycleAvoidingMappingContext;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityRegistry;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PhoneNumberServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PostalAddressServer;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityClient;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import org.hibernate.Session;
+import org.hibernate.graph.GraphSemantic;
+import org.hibernate.graph.RootGraph;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -47,6 +66,24 @@ public class EntityFactory
     @PersistenceContext
     private EntityManager entityManager;
 
+    /**
+     * Entity registry.
+     */
+    @Autowired
+    private EntityRegistry registry;
+
+    /**
+     * Transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Maximum number of entity identifiers per query when retrieving several server entities.
+     */
+    @Value("${hemajoo.commerce.cherry.entity.factory.batch.size:500}")
+    private int batchSize;
+
     /**
      * Retrieves a server entity given its identity.
      * @param identity Entity identity.
@@ -67,25 +104,176 @@ public class EntityFactory
      */
     public final IServerEntity from(final EntityType type, final @NonNull UUID uuid) throws EntityException
     {
-        switch (type)
+        if (!isHandled(type))
         {
-            case PERSON:
-                return entityManager.find(PersonServer.class, uuid);
+            // No server entity for this entity type, the actual entity type is resolved through the entity registry.
+            return registry.find(uuid);
+        }
 
-            case DOCUMENT:
-                return entityManager.find(DocumentServer.class, uuid);
+        Class<? extends ServerEntity> entityClass = getEntityClass(type);
 
-            case EMAIL_ADDRESS:
-                return entityManager.find(EmailAddressServer.class, uuid);
+        return entityManager.find(entityClass, uuid, getDetailHints(entityManager, entityClass));
+    }
 
-            case POSTAL_ADDRESS:
-                return entityManager.find(PostalAddressServer.class, uuid);
+    /**
+     * Retrieves several server entities given their identities.
+     * <hr>
+     * The identities are grouped by entity type and each group is loaded with a single {@code IN} query (split in chunks of
+     * {@code hemajoo.commerce.cherry.entity.factory.batch.size} identifiers) using the <b>detail</b> entity graph. The entities already
+     * loaded in the persistence context are returned without being queried.
+     * <br>
+     * The identities having no entity type or an entity type without server entity ({@link EntityType#UNKNOWN}, {@link EntityType#MEDIA}, etc.)
+     * are typed through the {@link EntityRegistry} with a single query.
+     * @param identities Entity identities.
+     * @return Map of the server entities per entity identifier (entities not found are absent).
+     * @throws EntityException Thrown to indicate an error occurred when trying to retrieve the server entity objects.
+     */
+    public final Map<UUID, IServerEntity> from(final @NonNull Collection<EntityIdentity> identities) throws EntityException
+    {
+        Map<EntityType, Set<UUID>> identifiers = new EnumMap<>(EntityType.class);
+        List<UUID> untyped = new ArrayList<>();
 
-            case PHONE_NUMBER:
-                return entityManager.find(PhoneNumberServer.class, uuid);
+        for (EntityIdentity identity : identities)
+        {
+            if (identity != null && identity.getId() != null)
+            {
+                if (isHandled(identity.getEntityType()))
+                {
+                    identifiers.computeIfAbsent(identity.getEntityType(), type -> new LinkedHashSet<>()).add(identity.getId());
+                }
+                else
+                {
+                    untyped.add(identity.getId());
+                }
+            }
+        }
 
-            default:
-                throw new EntityException(String.format("Entity type: '%s' is not handled!", type));
+        if (!untyped.isEmpty())
+        {
+            registry.getEntityTypes(untyped).forEach((id, type) -> identifiers.computeIfAbsent(type, key -> new LinkedHashSet<>()).add(id));
         }
+
+        Map<Class<? extends ServerEntity>, List<UUID>> groups = new HashMap<>();
+        for (Map.Entry<EntityType, Set<UUID>> entry : identifiers.entrySet())
+        {
+            groups.put(getEntityClass(entry.getKey()), new ArrayList<>(entry.getValue()));
+        }
+
+        Map<UUID, IServerEntity> entities = new HashMap<>();
+        if (!groups.isEmpty())
+        {
+            // Joins the current transaction if any so the entities already loaded in its persistence context are reused.
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> groups.forEach((entityClass, ids) ->
+                    load(entityClass, ids).forEach(entity -> entities.put(entity.getId(), entity))));
+        }
+
+        return entities;
+    }
+
+    /**
+     * Creates a mapping context holding the server entities referenced (parent and documents) by client entities.
+     * <hr>
+     * The referenced server entities are resolved in batch (see {@link #from(Collection)}), so converting the client entities to server entities
+     * does not load them one by one.
+     * @param clients Client entities.
+     * @return Mapping context.
+     * @throws EntityException Thrown to indicate an error occurred when trying to retrieve the referenced server entities.
+     */
+    public final CycleAvoidingMappingContext createMappingContext(final @NonNull Collection<? extends EntityClient> clients) throws EntityException
+    {
+        List<EntityIdentity> identities = new ArrayList<>();
+        for (EntityClient client : clients)
+        {
+            if (client != null)
+            {
+                identities.add(client.getParent());
+                identities.addAll(client.getDocuments());
+            }
+        }
+
+        return new CycleAvoidingMappingContext(identities.isEmpty() ? Collections.emptyMap() : from(identities));
+    }
+
+    /**
+     * Loads the server entities of a given type matching the given identifiers.
+     * @param <T> Type of server entity.
+     * @param entityClass Server entity class.
+     * @param ids Entity identifiers.
+     * @return List of server entities found.
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends ServerEntity> List<T> load(final @NonNull Class<T> entityClass, final @NonNull List<UUID> ids)
+    {
+        RootGraph<T> graph = (RootGraph<T>) entityManager.getEntityGraph(entityClass.getSimpleName() + ServerEntity.GRAPH_SUFFIX_DETAIL);
+
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(entityClass)
+                .with(graph, GraphSemantic.FETCH)
+                .enableSessionCheck(true)
+                .enableOrderedReturn(false)
+                .withBatchSize(batchSize)
+                .multiLoad(ids);
+    }
+
+    /**
+     * Retrieves a server entity given its identifier only.
+     * <br>
+     * The entity type is resolved through the {@link EntityRegistry}, so only the table of the entity type is queried.
+     * @param uuid Entity identifier.
+     * @return Server entity object or null if not found.
+     * @throws EntityException Thrown to indicate an error occurred when trying to retrieve the server entity object.
+     */
+    public final IServerEntity from(final @NonNull UUID uuid) throws EntityException
+    {
+        return registry.find(uuid);
+    }
+
+    /**
+     * Returns the hints to load a server entity with its <b>detail</b> entity graph (documents and parent).
+     * @param entityManager Entity manager.
+     * @param entityClass Server entity class.
+     * @return Hints to pass to {@link EntityManager#find(Class, Object, Map)}.
+     */
+    public static Map<String, Object> getDetailHints(final @NonNull EntityManager entityManager, final @NonNull Class<? extends ServerEntity> entityClass)
+    {
+        return Map.of(GraphSemantic.FETCH.getJpaHintName(), entityManager.getEntityGraph(entityClass.getSimpleName() + ServerEntity.GRAPH_SUFFIX_DETAIL));
+    }
+
+    /**
+     * Returns if an entity type is backed by a server entity.
+     * @param type Entity type.
+     * @return {@code True} if the entity type has a server entity class, {@code false} otherwise.
+     */
+    public static boolean isHandled(final EntityType type)
+    {
+        return type == EntityType.PERSON
+                || type == EntityType.DOCUMENT
+                || type == EntityType.EMAIL_ADDRESS
+                || type == EntityType.POSTAL_ADDRESS
+                || type == EntityType.PHONE_NUMBER;
+    }
+
+    /**
+     * Returns the server entity class of an entity type.
+     * @param type Entity type.
+     * @return Server entity class.
+     * @throws EntityException Thrown to indicate the entity type is not handled.
+     */
+    public static Class<? extends ServerEntity> getEntityClass(final EntityType type) throws EntityException
+    {
+        if (type == null)
+        {
+            throw new EntityException("Entity type cannot be null!");
+        }
+
+        return switch (type)
+                {
+                    case PERSON -> PersonServer.class;
+                    case DOCUMENT -> DocumentServer.class;
+                    case EMAIL_ADDRESS -> EmailAddressServer.class;
+                    case POSTAL_ADDRESS -> PostalAddressServer.class;
+                    case PHONE_NUMBER -> PhoneNumberServer.class;
+                    default -> throw new EntityException(String.format("Entity type: '%s' is not handled!", type));
+                };
     }
 }
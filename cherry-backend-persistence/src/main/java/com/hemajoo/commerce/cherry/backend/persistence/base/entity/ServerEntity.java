@@ -18,20 +18,29 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.hemajoo.commerce.cherry.backend.commons.entity.EntityIdentity;
 import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityRegistryListener;
+import com.hemajoo.commerce.cherry.backend.persistence.base.tag.TagEntry;
+import com.hemajoo.commerce.cherry.backend.persistence.base.tag.TagIndex;
+import com.hemajoo.commerce.cherry.backend.persistence.base.tag.TagIndexListener;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.IDocumentServer;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
 import lombok.*;
 import lombok.extern.log4j.Log4j2;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.GenericGenerator;
-import org.hibernate.annotations.Type;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.LazyCollection;
+import org.hibernate.annotations.LazyCollectionOption;
 import org.javers.core.metamodel.annotation.DiffIgnore;
 
 import javax.persistence.*;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents a server base entity.
@@ -45,8 +54,21 @@ import java.util.*;
 @Entity
 //@Table(name = "ENTITY")
 @Inheritance(strategy = InheritanceType.TABLE_PER_CLASS)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cherry.entity") // Applies to the whole entity hierarchy.
+@EntityListeners({ EntityRegistryListener.class, TagIndexListener.class })
 public class ServerEntity extends AbstractServerStatusEntity implements IServerEntity
 {
+    /**
+     * Suffix of the name of the entity graph used to load an entity for a <b>detail</b> view (documents and parent).
+     */
+    public static final String GRAPH_SUFFIX_DETAIL = ".detail";
+
+    /**
+     * Suffix of the name of the entity graph used to load entities for a <b>list</b> view (parent only).
+     */
+    public static final String GRAPH_SUFFIX_LIST = ".list";
+
     /**
      * Entity identifier.
      */
@@ -54,7 +76,7 @@ public class ServerEntity extends AbstractServerStatusEntity implements IServerE
     @Getter
     @Setter
     @Id
-    @Type(type = "uuid-char") // Allow displaying in the DB the UUID as a string instead of a binary field!
+    @Column(name = "ID", length = 16) // Native uuid column on PostgreSQL, binary(16) column on the other databases.
     @GenericGenerator(name = "cherry-uuid-gen", strategy = "com.hemajoo.commerce.cherry.backend.persistence.base.entity.UuidGenerator")
     @GeneratedValue(generator = "cherry-uuid-gen")
     private UUID id;
@@ -100,22 +122,74 @@ public class ServerEntity extends AbstractServerStatusEntity implements IServerE
     @Column(name = "TAGS")
     private String tags;
 
+    /**
+     * Tags parsed from the string of tags, parsed again once the string of tags is changed.
+     */
+    @DiffIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Transient
+    private Set<String> tagSet = null;
+
+    /**
+     * String of tags the parsed tags have been parsed from.
+     */
+    @DiffIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Transient
+    private String tagSetSource = null;
+
+    /**
+     * String of tags as last written to (or loaded with) the tag index.
+     */
+    @DiffIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Transient
+    private String indexedTags = null;
+
+    /**
+     * Tags of the tag index.
+     * <br>
+     * Read-only association maintained by the {@link TagIndex} from the string of tags, so the query conditions on a tag probe the
+     * indexed {@code TAG} and {@code ENTITY_TAG} tables. The entity identifier is not constrained by a foreign key as the entities are
+     * spread over several tables.
+     */
+    @DiffIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Immutable
+    @ManyToMany(fetch = FetchType.LAZY)
+    @JoinTable(name = "ENTITY_TAG",
+            joinColumns = @JoinColumn(name = "ENTITY_ID"),
+            inverseJoinColumns = @JoinColumn(name = "TAG_ID"),
+            foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private Set<TagEntry> tagIndex = null;
+
     /**
      * Documents.
+     * <br>
+     * Loaded on demand, by batches of documents of several entities. Counted (see {@link #getDocumentCount()}) without being loaded.
      */
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
-    @OneToMany(fetch = FetchType.EAGER, cascade = CascadeType.ALL/*, orphanRemoval = true*/)
+    @BatchSize(size = 50)
+    @LazyCollection(LazyCollectionOption.EXTRA)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cherry.entity.documents")
+    @OneToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL/*, orphanRemoval = true*/)
     private List<DocumentServer> documents = null;
 
     /**
      * The parent entity.
+     * <br>
+     * Loaded on demand, so loading an entity does not load the chain of its parents.
      */
     @Getter
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @JsonIgnoreProperties
-    @ManyToOne(targetEntity = ServerEntity.class, fetch = FetchType.EAGER)
+    @ManyToOne(targetEntity = ServerEntity.class, fetch = FetchType.LAZY)
     private ServerEntity parent;
 
     /**
@@ -136,8 +210,48 @@ public class ServerEntity extends AbstractServerStatusEntity implements IServerE
         this.entityType = type;
     }
 
+    /**
+     * Initializes the documents and the parent of an entity attached to the current persistence context, so they remain
+     * available once the entity is detached.
+     * <br>
+     * The parent is replaced by its concrete entity as a lazy parent is a proxy of the base entity.
+     * @param entity Server entity (can be null).
+     * @param <T> Server entity type.
+     * @return Server entity.
+     */
+    public static <T extends ServerEntity> T initializeAssociations(final T entity)
+    {
+        if (entity != null)
+        {
+            Hibernate.initialize(entity.documents);
+            entity.parent = (ServerEntity) Hibernate.unproxy(entity.parent); // Parent of its concrete type, not a proxy of the base entity.
+        }
+
+        return entity;
+    }
+
+    /**
+     * Initializes the documents and the parents of entities attached to the current persistence context, so they remain
+     * available once the entities are detached.
+     * <br>
+     * Initializing the documents (or the parent) of the first entity loads, in a single statement, the documents (or the parents)
+     * of the next entities not yet initialized, up to the batch size.
+     * @param entities List of server entities.
+     * @param <T> Server entity type.
+     * @return List of server entities.
+     */
+    public static <T extends ServerEntity> List<T> initializeAssociations(final @NonNull List<T> entities)
+    {
+        for (T entity : entities)
+        {
+            initializeAssociations(entity);
+        }
+
+        return entities;
+    }
+
     @Override
-    public final EntityIdentity getIdentity()
+    public EntityIdentity getIdentity()
     {
         return EntityIdentity.from(entityType, id);
     }
@@ -236,98 +350,113 @@ public class ServerEntity extends AbstractServerStatusEntity implements IServerE
     @Override
     public final void addTag(String tag)
     {
-        if (convertTagAsList().stream().noneMatch(element -> element.equals(tag)))
+        if (tag != null && !tag.isBlank() && parseTags().add(tag.trim()))
         {
-            tags = tags.isEmpty() ? tag : tags + ", " + tag;
+            updateTags();
         }
     }
 
     @Override
     public final void removeTag(String tag)
     {
-        List<String> sourceTags = convertTagAsList();
-        List<String> targetTags = new ArrayList<>();
-
-        for (String element : sourceTags)
+        if (tag != null && parseTags().remove(tag.trim()))
         {
-            if (!element.equals(tag))
-            {
-                targetTags.add(element);
-            }
+            updateTags();
         }
-
-        setTags(convertTagAsString(targetTags));
     }
 
     @Override
-    public final String getRandomTag() throws NoSuchAlgorithmException
+    public final String getRandomTag()
     {
-        List<String> tagList = convertTagAsList();
+        Set<String> tagList = parseTags();
 
         if (tagList.isEmpty())
         {
             return null;
         }
 
-        int index = SecureRandom.getInstanceStrong().nextInt(tagList.size());
-
-        return tagList.get(index).trim();
+        return tagList.stream()
+                .skip(ThreadLocalRandom.current().nextInt(tagList.size()))
+                .findFirst()
+                .orElse(null);
     }
 
     @Override
     public final boolean existTag(String tag)
     {
-        return convertTagAsList().stream().anyMatch(element -> element.equals(tag));
+        return tag != null && parseTags().contains(tag.trim());
     }
 
     @Override
     public final int getTagCount()
     {
-        return convertTagAsList().size();
+        return parseTags().size();
     }
 
     /**
-     * Converts a string of tags (separated by comma) to a list of tags.
-     * @return List of tags.
+     * Returns if the tags changed since they have been written to (or loaded with) the tag index.
+     * @return {@code True} if the tags changed, {@code false} otherwise.
      */
-    private List<String> convertTagAsList()
+    public final boolean hasTagsChanged()
     {
-        List<String> values;
+        return !Objects.equals(indexedTags, tags);
+    }
 
-        if (tags.isEmpty())
-        {
-            return new ArrayList<>();
-        }
+    /**
+     * Records the current tags as being the ones of the tag index.
+     */
+    public final void markTagsIndexed()
+    {
+        indexedTags = tags;
+    }
 
-        values = Arrays.asList(tags.split(",", -1));
-        for (String tag : values)
+    /**
+     * Splits a string of tags (separated by comma) into a set of trimmed tags, empty tags being ignored.
+     * @param tags String of tags (can be null).
+     * @return Set of tags (in their order of appearance).
+     */
+    public static Set<String> splitTags(final String tags)
+    {
+        Set<String> values = new LinkedHashSet<>();
+
+        if (tags != null)
         {
-            tag = tag.trim();
+            for (String tag : tags.split(","))
+            {
+                String value = tag.trim();
+                if (!value.isEmpty())
+                {
+                    values.add(value);
+                }
+            }
         }
 
         return values;
     }
 
     /**
-     * Converts a list of tags to a string of tags (separated by comma).
-     * @return String of tags.
+     * Returns the parsed tags, parsing the string of tags only if it changed since last parsed.
+     * <br>
+     * The string of tags is compared as it can be set directly by the persistence provider (when loading or merging the entity).
+     * @return Set of tags.
      */
-    private String convertTagAsString(final List<String> tagList)
+    private Set<String> parseTags()
     {
-        StringBuilder builder = new StringBuilder();
-
-        for (String tag : tagList)
+        if (tagSet == null || !Objects.equals(tagSetSource, tags))
         {
-            if (builder.length() == 0)
-            {
-                builder.append(tag);
-            }
-            else
-            {
-                builder.append(", ").append(tag);
-            }
+            tagSet = splitTags(tags);
+            tagSetSource = tags;
         }
 
-        return builder.toString();
+        return tagSet;
+    }
+
+    /**
+     * Updates the string of tags from the parsed tags.
+     */
+    private void updateTags()
+    {
+        tags = String.join(", ", tagSet);
+        tagSetSource = tags;
     }
 }
@@ -16,6 +16,7 @@ package com.hemajoo.commerce.cherry.backend.persistence.base.entity;
 
 import com.hemajoo.commerce.cherry.backend.persistence.document.repository.IDocumentService;
 import com.hemajoo.commerce.cherry.backend.persistence.person.service.IEmailAddressService;
+import com.hemajoo.commerce.cherry.backend.persistence.person.service.IPersonImportService;
 import com.hemajoo.commerce.cherry.backend.persistence.person.service.IPersonService;
 import com.hemajoo.commerce.cherry.backend.persistence.person.service.IPhoneNumberService;
 import com.hemajoo.commerce.cherry.backend.persistence.person.service.IPostalAddressService;
@@ -65,4 +66,11 @@ public class ServiceFactoryPerson
     @Getter
     @Autowired
     private IPostalAddressService postalAddressService;
+
+    /**
+     * Person bulk import service.
+     */
+    @Getter
+    @Autowired
+    private IPersonImportService personImportService;
 }
@@ -5,18 +5,84 @@ import org.hibernate.engine.spi.SharedSessionContractImplementor;
 import org.hibernate.id.IdentifierGenerator;
 
 import java.io.Serializable;
+import java.security.SecureRandom;
 import java.util.UUID;
 
 /**
  * Entity identifier generator.
+ * <br>
+ * Generates time-ordered <b>UUID version 7</b> identifiers (RFC 9562): the 48 most significant bits hold the Unix timestamp in milliseconds,
+ * followed by a 12 bits counter (randomly seeded each millisecond) and 62 random bits. Identifiers generated successively are increasing, so
+ * new rows are appended to the right of the primary key indexes instead of being scattered across them.
  * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
  * @version 1.0.0
  */
 public class UuidGenerator implements IdentifierGenerator
 {
+    /**
+     * Random number generator.
+     */
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * Maximum value of the counter.
+     */
+    private static final int COUNTER_MAX = 0xFFF;
+
+    /**
+     * Timestamp (in milliseconds) of the last generated identifier.
+     */
+    private static long lastTimestamp = 0;
+
+    /**
+     * Counter of the identifiers generated within the same millisecond.
+     */
+    private static int counter = 0;
+
     @Override
     public Serializable generate(SharedSessionContractImplementor sharedSession, Object object) throws HibernateException
     {
-        return UUID.randomUUID();
+        return generate();
+    }
+
+    /**
+     * Generates a time-ordered UUID (version 7).
+     * @return UUID.
+     */
+    public static UUID generate()
+    {
+        long timestamp;
+        int sequence;
+
+        synchronized (UuidGenerator.class)
+        {
+            timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+            if (timestamp == lastTimestamp)
+            {
+                if (counter == COUNTER_MAX)
+                {
+                    // Counter exhausted, borrow the next millisecond to keep the identifiers increasing.
+                    timestamp++;
+                    counter = RANDOM.nextInt(COUNTER_MAX / 2);
+                }
+                else
+                {
+                    counter++;
+                }
+            }
+            else
+            {
+                // Seeded in the lower half to leave room for the identifiers generated within the same millisecond.
+                counter = RANDOM.nextInt(COUNTER_MAX / 2);
+            }
+
+            lastTimestamp = timestamp;
+            sequence = counter;
+        }
+
+        long mostSignificantBits = (timestamp << 16) | 0x7000L | sequence;
+        long leastSignificantBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+
+        return new UUID(mostSignificantBits, leastSignificantBits);
     }
 }
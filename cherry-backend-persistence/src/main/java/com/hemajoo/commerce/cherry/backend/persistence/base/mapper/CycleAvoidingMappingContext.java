@@ -14,13 +14,16 @@
  */
 package com.hemajoo.commerce.cherry.backend.persistence.base.mapper;
 
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.IServerEntity;
 import org.mapstruct.BeforeMapping;
 import org.mapstruct.Context;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.TargetType;
 
+import java.util.Collections;
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * A type to be used as {@link Context} parameter to track cycle references in graphs. Is intended to be used when
@@ -35,9 +38,74 @@ import java.util.Map;
 public class CycleAvoidingMappingContext
 {
     /**
-     * Collection of already known instances.
+     * Context not tracking the mapped instances.
      */
-    private final Map<Object, Object> knownInstances = new IdentityHashMap<>();
+    private static final CycleAvoidingMappingContext ACYCLIC = new CycleAvoidingMappingContext(null, Collections.emptyMap());
+
+    /**
+     * Collection of already known instances (null when the mapped instances are not tracked).
+     */
+    private final Map<Object, Object> knownInstances;
+
+    /**
+     * Server entities already resolved per entity identifier.
+     */
+    private final Map<UUID, ? extends IServerEntity> resolvedEntities;
+
+    /**
+     * Creates a new context tracking the mapped instances.
+     * <br>
+     * A context can be shared by the mappings of a batch of entities.
+     */
+    public CycleAvoidingMappingContext()
+    {
+        this(Collections.emptyMap());
+    }
+
+    /**
+     * Creates a new context tracking the mapped instances and holding the server entities already resolved from their identities.
+     * <br>
+     * The entity identities met while mapping are taken from the resolved server entities before being loaded one by one.
+     * @param resolvedEntities Server entities already resolved per entity identifier.
+     * @see com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityFactory#createMappingContext(java.util.Collection)
+     */
+    public CycleAvoidingMappingContext(final Map<UUID, ? extends IServerEntity> resolvedEntities)
+    {
+        this(new IdentityHashMap<>(), resolvedEntities);
+    }
+
+    /**
+     * Creates a new context.
+     * @param knownInstances Collection of already known instances or null to not track the mapped instances.
+     * @param resolvedEntities Server entities already resolved per entity identifier.
+     */
+    private CycleAvoidingMappingContext(final Map<Object, Object> knownInstances, final Map<UUID, ? extends IServerEntity> resolvedEntities)
+    {
+        this.knownInstances = knownInstances;
+        this.resolvedEntities = resolvedEntities;
+    }
+
+    /**
+     * Returns a server entity already resolved from its identity.
+     * @param id Entity identifier.
+     * @return Server entity or null if not resolved.
+     */
+    public IServerEntity getResolvedEntity(final UUID id)
+    {
+        return id != null ? resolvedEntities.get(id) : null;
+    }
+
+    /**
+     * Returns a context not tracking the mapped instances.
+     * <br>
+     * To be used for the mappings producing acyclic objects (such as a server entity to a client entity, where the parent and the documents
+     * are mapped as entity identities), so no instance is stored. The returned context is stateless and can be shared by any thread.
+     * @return Mapping context.
+     */
+    public static CycleAvoidingMappingContext acyclic()
+    {
+        return ACYCLIC;
+    }
 
     /**
      * Finds the mapped instance.
@@ -49,7 +117,7 @@ public class CycleAvoidingMappingContext
     @BeforeMapping
     public <T> T getMappedInstance(Object source, @TargetType Class<T> targetType)
     {
-        return (T) knownInstances.get(source);
+        return knownInstances != null ? (T) knownInstances.get(source) : null;
     }
 
     /**
@@ -60,6 +128,9 @@ public class CycleAvoidingMappingContext
     @BeforeMapping
     public void storeMappedInstance(Object source, @MappingTarget Object target)
     {
-        knownInstances.put(source, target);
+        if (knownInstances != null)
+        {
+            knownInstances.put(source, target);
+        }
     }
 }
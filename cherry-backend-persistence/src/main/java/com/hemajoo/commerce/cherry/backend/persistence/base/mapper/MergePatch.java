@@ -0,0 +1,160 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.mapper;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import com.hemajoo.commerce.cherry.backend.shared.base.filter.IEntityFilter;
+import lombok.NonNull;
+import org.springframework.http.HttpStatus;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reader of a <b>JSON Merge Patch</b> (RFC 7386) document applied to an entity.
+ * <hr>
+ * The members of the patch document are named by their JSON name (e.g. {@code isDefault}) which can differ from the name of the property they
+ * hold (e.g. {@code isDefaultEmail}). Each member is translated to its property name, checked against the {@link IEntityFilter} listing the
+ * patchable properties of the entity, then the patch is read as a client entity holding only the supplied members. The client entity is applied to the server entity by a generated
+ * {@code MapStruct} mapping method ignoring the {@code null} properties, so only the supplied members are written.
+ * <br>
+ * As a {@code null} member cannot be distinguished from a missing one once read, removing a value ({@code null} member) is rejected.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public final class MergePatch
+{
+    /**
+     * Media type of a JSON Merge Patch document.
+     */
+    public static final String MEDIA_TYPE = "application/merge-patch+json";
+
+    /**
+     * Object mapper used to read the patch documents.
+     */
+    private static final ObjectMapper MAPPER = JsonMapper.builder().build();
+
+    /**
+     * Property names of the client entity classes per JSON member name.
+     */
+    private static final Map<Class<?>, Map<String, String>> PROPERTIES = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new merge patch reader.
+     */
+    private MergePatch()
+    {
+        // Utility class.
+    }
+
+    /**
+     * Reads a merge patch document as a client entity.
+     * @param <T> Type of client entity.
+     * @param patch Merge patch document.
+     * @param filter Filter listing the patchable properties.
+     * @param type Client entity class.
+     * @return Client entity holding the supplied members.
+     * @throws EntityException Thrown to indicate the merge patch document is invalid.
+     */
+    public static <T> T read(final @NonNull Map<String, Object> patch, final @NonNull IEntityFilter filter, final @NonNull Class<T> type) throws EntityException
+    {
+        check(patch, filter, type);
+
+        try
+        {
+            return MAPPER.convertValue(patch, type);
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new EntityException(String.format("Invalid merge patch document: %s", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Applies a merge patch document to a client entity.
+     * <br>
+     * The client entity holds the current values of the entity, so once patched it holds the values the entity will have and can be validated
+     * before the server entity is updated.
+     * @param <T> Type of client entity.
+     * @param patch Merge patch document.
+     * @param filter Filter listing the patchable properties.
+     * @param client Client entity to patch.
+     * @return Patched client entity.
+     * @throws EntityException Thrown to indicate the merge patch document is invalid.
+     */
+    public static <T> T apply(final @NonNull Map<String, Object> patch, final @NonNull IEntityFilter filter, final @NonNull T client) throws EntityException
+    {
+        check(patch, filter, client.getClass());
+
+        try
+        {
+            return MAPPER.updateValue(client, patch);
+        }
+        catch (IllegalArgumentException | JsonMappingException e)
+        {
+            throw new EntityException(String.format("Invalid merge patch document: %s", e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Checks the members of a merge patch document are patchable properties of a client entity class.
+     * @param patch Merge patch document.
+     * @param filter Filter listing the patchable properties.
+     * @param type Client entity class.
+     * @throws EntityException Thrown to indicate the merge patch document holds members that cannot be patched.
+     */
+    private static void check(final Map<String, Object> patch, final IEntityFilter filter, final Class<?> type) throws EntityException
+    {
+        List<String> rejected = new ArrayList<>();
+        Map<String, String> properties = PROPERTIES.computeIfAbsent(type, MergePatch::getPropertyNames);
+
+        for (Map.Entry<String, Object> member : patch.entrySet())
+        {
+            String property = properties.get(member.getKey());
+            if (property == null || !filter.contains(property) || member.getValue() == null)
+            {
+                rejected.add(member.getKey());
+            }
+        }
+
+        if (!rejected.isEmpty())
+        {
+            throw new EntityException(String.format("Properties: %s cannot be patched!", rejected), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Returns the property names of a client entity class per JSON member name.
+     * @param type Client entity class.
+     * @return Map of the property names per JSON member name.
+     */
+    private static Map<String, String> getPropertyNames(final Class<?> type)
+    {
+        Map<String, String> properties = new HashMap<>();
+        for (BeanPropertyDefinition property : MAPPER.getDeserializationConfig().introspect(MAPPER.constructType(type)).findProperties())
+        {
+            properties.put(property.getName(), property.getInternalName());
+        }
+
+        return properties;
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.query;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.CacheStatistics;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.ExpiringCache;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.GenericSpecification;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.IQuery;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateResult;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.DateBucketType;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.QueryAggregate;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Component computing <b>aggregates</b> (count, min, max, sum) on the entities matching a query.
+ * <br>
+ * An aggregate is compiled to a single {@code SQL} statement with a {@code GROUP BY} clause and the same predicates as the
+ * {@link GenericSpecification} of the query. Results are cached for a short time to live.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+@Component
+public class QueryAggregator
+{
+    /**
+     * Entity manager.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Aggregate results cache.
+     */
+    private final ExpiringCache<String, List<AggregateResult>> cache;
+
+    /**
+     * Query monitor.
+     */
+    @Autowired
+    private QueryMonitor monitor;
+
+    /**
+     * Creates a new query aggregator.
+     * @param cacheSize Maximum number of cached aggregate results.
+     * @param cacheTimeToLive Time to live (in seconds) of the cached aggregate results.
+     */
+    public QueryAggregator(
+            final @Value("${hemajoo.commerce.cherry.query.aggregate.cache.size:256}") int cacheSize,
+            final @Value("${hemajoo.commerce.cherry.query.aggregate.cache.ttl:30}") long cacheTimeToLive)
+    {
+        this.cache = new ExpiringCache<>(cacheSize, Duration.ofSeconds(cacheTimeToLive));
+    }
+
+    /**
+     * Computes an aggregate on the entities matching a query.
+     * @param entityClass Entity class.
+     * @param query Query.
+     * @param aggregate Aggregate.
+     * @param <T> Entity type.
+     * @return List of aggregate results (one per group).
+     * @throws QueryConditionException Thrown to indicate the query or the aggregate is invalid.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<AggregateResult> aggregate(final @NonNull Class<T> entityClass, final @NonNull IQuery query, final @NonNull QueryAggregate aggregate) throws QueryConditionException
+    {
+        query.validate();
+        query.validate(aggregate);
+
+        String key = entityClass.getName() + query.canonicalize() + aggregate;
+        List<AggregateResult> results = cache.get(key);
+        if (results != null)
+        {
+            return results;
+        }
+
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object[]> criteria = builder.createQuery(Object[].class);
+        Root<T> root = criteria.from(entityClass);
+
+        List<Expression<?>> groups = createGroupExpressions(builder, root, aggregate);
+        List<Selection<?>> selections = new ArrayList<>(groups);
+        selections.add(createAggregateExpression(builder, root, aggregate));
+
+        criteria.multiselect(selections)
+                .where(((GenericSpecification<T>) query.getSpecification()).toPredicate(root, criteria, builder))
+                .groupBy(groups);
+
+        results = new ArrayList<>();
+        String shape = String.format("%s %s(%s) group by %s", query.shape(), aggregate.getFunction(), aggregate.getField(), aggregate.getGroupBy());
+        for (Object[] row : monitor.execute(shape, () -> entityManager.createQuery(criteria).getResultList()))
+        {
+            results.add(new AggregateResult(toGroup(aggregate, row), row[row.length - 1]));
+        }
+
+        results = Collections.unmodifiableList(results);
+        cache.put(key, results);
+
+        LOGGER.debug(String.format("Aggregate: '%s' on: '%s' returned: '%s' group(s)", aggregate, entityClass.getSimpleName(), results.size()));
+
+        return results;
+    }
+
+    /**
+     * Returns the statistics of the aggregate results cache.
+     * @return Cache statistics.
+     */
+    public CacheStatistics getStatistics()
+    {
+        return cache.getStatistics("Aggregate", List::size);
+    }
+
+    /**
+     * Creates the group by expressions.
+     * <br>
+     * Date buckets are grouped on their date parts (year, month, day) so the statement does not hold any parameter in its group by clause.
+     * @param builder Criteria builder.
+     * @param root Query root.
+     * @param aggregate Aggregate.
+     * @return List of group by expressions.
+     */
+    private List<Expression<?>> createGroupExpressions(final CriteriaBuilder builder, final Root<?> root, final QueryAggregate aggregate)
+    {
+        List<Expression<?>> groups = new ArrayList<>();
+
+        if (aggregate.getGroupBy() == null)
+        {
+            return groups;
+        }
+
+        Path<?> path = root.get(aggregate.getGroupBy());
+        if (aggregate.getBucket() == null)
+        {
+            groups.add(path);
+            return groups;
+        }
+
+        groups.add(builder.function("year", Integer.class, path));
+        if (aggregate.getBucket() != DateBucketType.YEAR)
+        {
+            groups.add(builder.function("month", Integer.class, path));
+        }
+        if (aggregate.getBucket() == DateBucketType.DAY)
+        {
+            groups.add(builder.function("day", Integer.class, path));
+        }
+
+        return groups;
+    }
+
+    /**
+     * Creates the aggregate expression.
+     * @param builder Criteria builder.
+     * @param root Query root.
+     * @param aggregate Aggregate.
+     * @return Aggregate expression.
+     */
+    private Expression<?> createAggregateExpression(final CriteriaBuilder builder, final Root<?> root, final QueryAggregate aggregate)
+    {
+        switch (aggregate.getFunction())
+        {
+            case MIN:
+                return builder.least(root.<Comparable<Object>>get(aggregate.getField()));
+            case MAX:
+                return builder.greatest(root.<Comparable<Object>>get(aggregate.getField()));
+            case SUM:
+                return builder.sum(root.<Number>get(aggregate.getField()));
+            case COUNT:
+            default:
+                return aggregate.getField() == null ? builder.count(root) : builder.count(root.get(aggregate.getField()));
+        }
+    }
+
+    /**
+     * Returns the group value of a result row.
+     * @param aggregate Aggregate.
+     * @param row Result row.
+     * @return Group value.
+     */
+    private Object toGroup(final QueryAggregate aggregate, final Object[] row)
+    {
+        if (aggregate.getGroupBy() == null)
+        {
+            return null;
+        }
+
+        if (aggregate.getBucket() == null)
+        {
+            return row[0];
+        }
+
+        if (row[0] == null)
+        {
+            return null;
+        }
+
+        switch (aggregate.getBucket())
+        {
+            case YEAR:
+                return String.format("%04d", ((Number) row[0]).intValue());
+            case MONTH:
+                return String.format("%04d-%02d", ((Number) row[0]).intValue(), ((Number) row[1]).intValue());
+            case DAY:
+            default:
+                return String.format("%04d-%02d-%02d", ((Number) row[0]).intValue(), ((Number) row[1]).intValue(), ((Number) row[2]).intValue());
+        }
+    }
+}
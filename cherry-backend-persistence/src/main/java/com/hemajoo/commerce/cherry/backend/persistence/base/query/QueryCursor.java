@@ -0,0 +1,107 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.query;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Represents a <b>keyset cursor</b> browsing entities ordered by their creation date and identifier (most recent first).
+ * <br>
+ * A cursor holds the creation date and the identifier of the last entity of a page, so the next page is read by seeking an index
+ * on the creation date and the identifier instead of skipping (and reading) the entities of the previous pages. Cursors are exchanged
+ * as opaque strings.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public final class QueryCursor
+{
+    /**
+     * Separator of the cursor components.
+     */
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Creation date of the last entity of the page (the full precision of the database timestamp being kept).
+     */
+    @Getter
+    private final Timestamp createdDate;
+
+    /**
+     * Identifier of the last entity of the page.
+     */
+    @Getter
+    private final UUID id;
+
+    /**
+     * Creates a new cursor.
+     * @param createdDate Creation date of the last entity of the page.
+     * @param id Identifier of the last entity of the page.
+     */
+    private QueryCursor(final @NonNull Timestamp createdDate, final @NonNull UUID id)
+    {
+        this.createdDate = createdDate;
+        this.id = id;
+    }
+
+    /**
+     * Creates a cursor positioned after the given entity.
+     * @param entity Last entity of a page.
+     * @return Opaque cursor.
+     */
+    public static String after(final @NonNull ServerEntity entity)
+    {
+        Date date = entity.getCreatedDate();
+        Instant instant = date instanceof Timestamp ? ((Timestamp) date).toInstant() : date.toInstant();
+        String value = instant.toString() + SEPARATOR + entity.getId();
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes an opaque cursor.
+     * @param cursor Opaque cursor.
+     * @return Cursor.
+     * @throws QueryConditionException Thrown to indicate the cursor is invalid.
+     */
+    public static QueryCursor decode(final @NonNull String cursor) throws QueryConditionException
+    {
+        try
+        {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = value.indexOf(SEPARATOR);
+            if (index < 0)
+            {
+                throw new QueryConditionException(String.format("Invalid cursor: '%s'!", cursor));
+            }
+
+            return new QueryCursor(Timestamp.from(Instant.parse(value.substring(0, index))), UUID.fromString(value.substring(index + 1)));
+        }
+        catch (IllegalArgumentException | DateTimeParseException e)
+        {
+            throw new QueryConditionException(String.format("Invalid cursor: '%s'!", cursor));
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.query;
+
+import com.hemajoo.commerce.cherry.backend.shared.base.query.IQuery;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Component monitoring the executions of the queries per <b>query shape</b> (see {@link IQuery#shape()}).
+ * <br>
+ * For each shape, it records an execution time histogram, the number of rows returned and converted, and the number of {@code SQL} statements
+ * issued (captured by the {@link QueryStatementInspector}). Executions exceeding the slow query threshold are logged with their parameterized
+ * {@code SQL} statements.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+@Component
+public class QueryMonitor
+{
+    /**
+     * Upper bounds (in milliseconds) of the execution time histogram buckets.
+     */
+    private static final long[] HISTOGRAM_BOUNDS = { 1, 5, 10, 50, 100, 500, 1000, 5000 };
+
+    /**
+     * Slow query threshold.
+     */
+    @Getter
+    private final Duration threshold;
+
+    /**
+     * Maximum number of query shapes monitored.
+     */
+    private final int maxShapes;
+
+    /**
+     * Recorders per query shape.
+     */
+    private final Map<String, ShapeRecorder> recorders = new ConcurrentHashMap<>();
+
+    /**
+     * Creates a new query monitor.
+     * @param threshold Slow query threshold (in milliseconds).
+     * @param maxShapes Maximum number of query shapes monitored.
+     */
+    public QueryMonitor(
+            final @Value("${hemajoo.commerce.cherry.query.slow.threshold:500}") long threshold,
+            final @Value("${hemajoo.commerce.cherry.query.statistics.size:1000}") int maxShapes)
+    {
+        this.threshold = Duration.ofMillis(threshold);
+        this.maxShapes = maxShapes;
+    }
+
+    /**
+     * Executes and monitors a query.
+     * @param query Query.
+     * @param execution Execution of the query returning the rows.
+     * @param <T> Row type.
+     * @return Rows.
+     */
+    public <T> List<T> execute(final @NonNull IQuery query, final @NonNull Supplier<List<T>> execution)
+    {
+        return execute(query.shape(), execution);
+    }
+
+    /**
+     * Executes and monitors a query given its shape.
+     * @param shape Query shape.
+     * @param execution Execution of the query returning the rows.
+     * @param <T> Row type.
+     * @return Rows.
+     */
+    public <T> List<T> execute(final @NonNull String shape, final @NonNull Supplier<List<T>> execution)
+    {
+        List<String> statements = new ArrayList<>();
+        List<String> previous = QueryStatementInspector.capture(statements);
+        long start = System.nanoTime();
+        List<T> rows;
+
+        try
+        {
+            rows = execution.get();
+        }
+        finally
+        {
+            QueryStatementInspector.restore(previous);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        boolean slow = elapsed >= threshold.toNanos();
+
+        ShapeRecorder recorder = getRecorder(shape);
+        if (recorder != null)
+        {
+            recorder.recordExecution(elapsed, rows.size(), statements.size(), slow);
+        }
+
+        if (slow)
+        {
+            LOGGER.warn(String.format("Slow query: '%s' executed in: '%s' ms, returned: '%s' row(s) with: '%s' statement(s): %s",
+                    shape, Duration.ofNanos(elapsed).toMillis(), rows.size(), statements.size(), statements));
+        }
+
+        return rows;
+    }
+
+    /**
+     * Records the number of rows of a query converted to client entities.
+     * @param query Query.
+     * @param count Number of rows converted.
+     */
+    public void converted(final @NonNull IQuery query, final long count)
+    {
+        ShapeRecorder recorder = recorders.get(query.shape());
+        if (recorder != null)
+        {
+            recorder.recordConverted(count);
+        }
+    }
+
+    /**
+     * Returns the statistics of the slowest query shapes (by average execution time).
+     * @param count Maximum number of query shapes to return.
+     * @return List of query shape statistics.
+     */
+    public List<QueryShapeStatistics> getSlowest(final int count)
+    {
+        return recorders.values().stream()
+                .map(ShapeRecorder::getStatistics)
+                .sorted(Comparator.comparingDouble(QueryShapeStatistics::getAverageTime).reversed())
+                .limit(Math.max(count, 0))
+                .toList();
+    }
+
+    /**
+     * Resets the statistics.
+     */
+    public void reset()
+    {
+        recorders.clear();
+    }
+
+    /**
+     * Returns the recorder of a query shape.
+     * @param shape Query shape.
+     * @return Recorder or null if the maximum number of monitored query shapes is reached.
+     */
+    private ShapeRecorder getRecorder(final String shape)
+    {
+        ShapeRecorder recorder = recorders.get(shape);
+        if (recorder == null && recorders.size() < maxShapes)
+        {
+            recorder = recorders.computeIfAbsent(shape, ShapeRecorder::new);
+        }
+
+        return recorder;
+    }
+
+    /**
+     * Records the executions of a query shape.
+     */
+    private static final class ShapeRecorder
+    {
+        /**
+         * Query shape.
+         */
+        private final String shape;
+
+        /**
+         * Number of executions per histogram bucket (the last bucket holds the executions above the last bound).
+         */
+        private final long[] histogram = new long[HISTOGRAM_BOUNDS.length + 1];
+
+        /**
+         * Number of executions.
+         */
+        private long executions = 0;
+
+        /**
+         * Number of slow executions.
+         */
+        private long slowExecutions = 0;
+
+        /**
+         * Total execution time (in nanoseconds).
+         */
+        private long totalTime = 0;
+
+        /**
+         * Minimum execution time (in nanoseconds).
+         */
+        private long minTime = Long.MAX_VALUE;
+
+        /**
+         * Maximum execution time (in nanoseconds).
+         */
+        private long maxTime = 0;
+
+        /**
+         * Number of rows returned.
+         */
+        private long rowsReturned = 0;
+
+        /**
+         * Number of rows converted.
+         */
+        private long rowsConverted = 0;
+
+        /**
+         * Number of SQL statements.
+         */
+        private long statements = 0;
+
+        /**
+         * Creates a new query shape recorder.
+         * @param shape Query shape.
+         */
+        private ShapeRecorder(final String shape)
+        {
+            this.shape = shape;
+        }
+
+        /**
+         * Records an execution.
+         * @param elapsed Execution time (in nanoseconds).
+         * @param rows Number of rows returned.
+         * @param statementCount Number of SQL statements issued.
+         * @param slow Is it a slow execution?
+         */
+        private synchronized void recordExecution(final long elapsed, final long rows, final long statementCount, final boolean slow)
+        {
+            long millis = Duration.ofNanos(elapsed).toMillis();
+            int bucket = 0;
+            while (bucket < HISTOGRAM_BOUNDS.length && millis > HISTOGRAM_BOUNDS[bucket])
+            {
+                bucket++;
+            }
+            histogram[bucket]++;
+
+            executions++;
+            slowExecutions += slow ? 1 : 0;
+            totalTime += elapsed;
+            minTime = Math.min(minTime, elapsed);
+            maxTime = Math.max(maxTime, elapsed);
+            rowsReturned += rows;
+            statements += statementCount;
+        }
+
+        /**
+         * Records converted rows.
+         * @param count Number of rows converted.
+         */
+        private synchronized void recordConverted(final long count)
+        {
+            rowsConverted += count;
+        }
+
+        /**
+         * Returns the statistics of the query shape.
+         * @return Query shape statistics.
+         */
+        private synchronized QueryShapeStatistics getStatistics()
+        {
+            Map<String, Long> buckets = new LinkedHashMap<>();
+            for (int i = 0; i < HISTOGRAM_BOUNDS.length; i++)
+            {
+                buckets.put(String.format("<=%sms", HISTOGRAM_BOUNDS[i]), histogram[i]);
+            }
+            buckets.put(String.format(">%sms", HISTOGRAM_BOUNDS[HISTOGRAM_BOUNDS.length - 1]), histogram[HISTOGRAM_BOUNDS.length]);
+
+            return QueryShapeStatistics.builder()
+                    .withShape(shape)
+                    .withExecutions(executions)
+                    .withSlowExecutions(slowExecutions)
+                    .withAverageTime(executions == 0 ? 0 : toMillis(totalTime / executions))
+                    .withMinTime(executions == 0 ? 0 : toMillis(minTime))
+                    .withMaxTime(toMillis(maxTime))
+                    .withHistogram(buckets)
+                    .withRowsReturned(rowsReturned)
+                    .withRowsConverted(rowsConverted)
+                    .withStatements(statements)
+                    .build();
+        }
+
+        /**
+         * Converts nanoseconds to milliseconds.
+         * @param nanos Nanoseconds.
+         * @return Milliseconds.
+         */
+        private static double toMillis(final long nanos)
+        {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
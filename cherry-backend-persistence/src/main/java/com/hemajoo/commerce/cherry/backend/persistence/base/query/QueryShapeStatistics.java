@@ -0,0 +1,91 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.query;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * Represents the execution <b>statistics</b> of a query shape.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@Builder(setterPrefix = "with")
+public final class QueryShapeStatistics
+{
+    /**
+     * Query shape.
+     */
+    @Getter
+    private final String shape;
+
+    /**
+     * Number of executions.
+     */
+    @Getter
+    private final long executions;
+
+    /**
+     * Number of executions exceeding the slow query threshold.
+     */
+    @Getter
+    private final long slowExecutions;
+
+    /**
+     * Average execution time (in milliseconds).
+     */
+    @Getter
+    private final double averageTime;
+
+    /**
+     * Minimum execution time (in milliseconds).
+     */
+    @Getter
+    private final double minTime;
+
+    /**
+     * Maximum execution time (in milliseconds).
+     */
+    @Getter
+    private final double maxTime;
+
+    /**
+     * Execution time histogram (number of executions per execution time upper bound).
+     */
+    @Getter
+    private final Map<String, Long> histogram;
+
+    /**
+     * Number of rows returned by the database.
+     */
+    @Getter
+    private final long rowsReturned;
+
+    /**
+     * Number of rows converted to client entities.
+     */
+    @Getter
+    private final long rowsConverted;
+
+    /**
+     * Number of SQL statements issued.
+     */
+    @Getter
+    private final long statements;
+}
@@ -0,0 +1,75 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.query;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+
+/**
+ * Hibernate statement inspector capturing the {@code SQL} statements issued by the current thread while a query is monitored by the {@link QueryMonitor}.
+ * <br>
+ * Statements are only captured during a monitored execution, so the inspector costs a thread local lookup otherwise.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public class QueryStatementInspector implements StatementInspector
+{
+    /**
+     * Statements captured by the current thread (null when no execution is monitored).
+     */
+    private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+    @Override
+    public String inspect(final String sql)
+    {
+        List<String> statements = CAPTURED.get();
+        if (statements != null)
+        {
+            statements.add(sql);
+        }
+
+        return sql;
+    }
+
+    /**
+     * Starts capturing the statements issued by the current thread.
+     * @param statements List receiving the captured statements.
+     * @return List receiving the statements before this call (to be restored once the capture ends).
+     */
+    static List<String> capture(final List<String> statements)
+    {
+        List<String> previous = CAPTURED.get();
+        CAPTURED.set(statements);
+
+        return previous;
+    }
+
+    /**
+     * Ends capturing the statements issued by the current thread.
+     * @param previous List receiving the statements before the capture started.
+     */
+    static void restore(final List<String> previous)
+    {
+        if (previous == null)
+        {
+            CAPTURED.remove();
+        }
+        else
+        {
+            CAPTURED.set(previous);
+        }
+    }
+}
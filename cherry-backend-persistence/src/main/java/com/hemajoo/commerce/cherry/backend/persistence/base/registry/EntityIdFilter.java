@@ -0,0 +1,681 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.registry;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <b>Entity identifier filter</b> rejecting the identifiers of entities that definitely do not exist without querying the database.
+ * <br>
+ * The filter holds one Bloom filter per entity type of the identifiers of the {@code ENTITY_REGISTRY} table. It is built once the application
+ * is ready by streaming the identifiers, updated by the {@link EntityRegistry} when an entity is registered, and periodically rebuilt to
+ * forget the identifiers of the deleted entities (a rebuild is also triggered when too many identifiers have been removed). Until built, every
+ * identifier might exist.
+ * <br>
+ * The identifiers registered (or unregistered) within a transaction are applied to the filters once it is committed. Until then, the
+ * identifiers registered by a transaction are only answered as possibly existing to that transaction.
+ * <br>
+ * As other application instances register entities too, an identifier missing from a filter is only rejected if the filters are known to be
+ * current: otherwise they are first refreshed with the identifiers registered (by any instance) since their last refresh, read from the
+ * {@code ENTITY_REGISTRY} table by registration date. The refresh period bounds the time an entity created by another instance can be reported
+ * as not existing, and the grace time covers the transactions committing their registrations late (and the clock skew with the database).
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+@Component
+public class EntityIdFilter
+{
+    /**
+     * Statement counting the identifiers per entity type.
+     */
+    private static final String SQL_COUNT = "SELECT ENTITY_TYPE, COUNT(*) FROM ENTITY_REGISTRY GROUP BY ENTITY_TYPE";
+
+    /**
+     * Statement streaming the identifiers.
+     */
+    private static final String SQL_IDS = "SELECT ID, ENTITY_TYPE FROM ENTITY_REGISTRY";
+
+    /**
+     * Statement reading the identifiers registered since a given date.
+     */
+    private static final String SQL_RECENT_IDS = "SELECT ID, ENTITY_TYPE FROM ENTITY_REGISTRY WHERE REGISTERED_DATE > ?";
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Is the entity identifier filter enabled?
+     */
+    @Getter
+    private final boolean enabled;
+
+    /**
+     * False positive rate (between 0 and 1).
+     */
+    private final double falsePositiveRate;
+
+    /**
+     * Maximum memory (in bytes) of the filter of an entity type.
+     */
+    private final long maxMemory;
+
+    /**
+     * Minimum number of identifiers a filter is sized for.
+     */
+    private final long minIds;
+
+    /**
+     * Rebuild period (in seconds).
+     */
+    private final long rebuildPeriod;
+
+    /**
+     * Time (in milliseconds) the filters are known to be current after a refresh.
+     */
+    private final long refreshPeriod;
+
+    /**
+     * Ratio of removed identifiers triggering a rebuild.
+     */
+    private final double rebuildRemovedRatio;
+
+    /**
+     * Time (in milliseconds) the registrations done before a build are replayed, for the transactions committed while building.
+     */
+    private final long grace;
+
+    /**
+     * Number of identifiers fetched per round-trip while building.
+     */
+    private final int fetchSize;
+
+    /**
+     * Filters per entity type (empty until built).
+     */
+    private volatile Map<EntityType, Filter> filters = Collections.emptyMap();
+
+    /**
+     * Time (in milliseconds) of the last refresh (or build) of the filters.
+     */
+    private volatile long refreshed = 0;
+
+    /**
+     * Lock serializing the refreshes and the replacements of the filters.
+     */
+    private final Object refreshLock = new Object();
+
+    /**
+     * Number of lookups per entity type.
+     */
+    private final Map<EntityType, LongAdder> lookups = new ConcurrentHashMap<>();
+
+    /**
+     * Number of rejected lookups per entity type.
+     */
+    private final Map<EntityType, LongAdder> rejections = new ConcurrentHashMap<>();
+
+    /**
+     * Journal of the recent registrations, replayed into the filters being built.
+     */
+    private final Deque<Registration> journal = new ConcurrentLinkedDeque<>();
+
+    /**
+     * Start time (in milliseconds) of the build in progress ({@link Long#MAX_VALUE} when not building).
+     */
+    private volatile long buildStart = Long.MAX_VALUE;
+
+    /**
+     * Is a rebuild pending?
+     */
+    private final AtomicBoolean rebuildPending = new AtomicBoolean();
+
+    /**
+     * Scheduler of the builds.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a new entity identifier filter.
+     * @param enabled Is the entity identifier filter enabled?
+     * @param falsePositiveRate False positive rate (between 0 and 1).
+     * @param maxMemory Maximum memory (in bytes) of the filter of an entity type.
+     * @param minIds Minimum number of identifiers a filter is sized for.
+     * @param rebuildPeriod Rebuild period (in seconds), 0 to build the filters only once.
+     * @param refreshPeriod Time (in seconds) the filters are known to be current after a refresh.
+     * @param rebuildRemovedRatio Ratio of removed identifiers triggering a rebuild, 0 to disable.
+     * @param grace Time (in seconds) the registrations done before a build are replayed.
+     * @param fetchSize Number of identifiers fetched per round-trip while building.
+     */
+    public EntityIdFilter(
+            final @Value("${hemajoo.commerce.cherry.entity.filter.enabled:true}") boolean enabled,
+            final @Value("${hemajoo.commerce.cherry.entity.filter.error.rate:0.01}") double falsePositiveRate,
+            final @Value("${hemajoo.commerce.cherry.entity.filter.memory.max:16777216}") long maxMemory,
+            final @Value("${hemajoo.commerce.cherry.entity.filter.ids.min:10000}") long minIds,
+            final @Value("${hemajoo.commerce.cherry.entity.filter.rebuild.period:3600}") long rebuildPeriod,
+            final @Value("${hemajoo.commerce.cherry.entity.filter.refresh.period:1}") long refreshPeriod,
+            final @Value("${hemajoo.commerce.cherry.entity.filter.rebuild.removed:0.1}") double rebuildRemovedRatio,
+            final @Value("${hemajoo.commerce.cherry.entity.filter.grace:60}") long grace,
+            final @Value("${hemajoo.commerce.cherry.entity.filter.fetch.size:10000}") int fetchSize)
+    {
+        this.enabled = enabled;
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxMemory = maxMemory;
+        this.minIds = minIds;
+        this.rebuildPeriod = rebuildPeriod;
+        this.refreshPeriod = TimeUnit.SECONDS.toMillis(refreshPeriod);
+        this.rebuildRemovedRatio = rebuildRemovedRatio;
+        this.grace = TimeUnit.SECONDS.toMillis(grace);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Schedules the builds of the filters once the application is ready (the database migrations being applied).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cherry-entity-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (rebuildPeriod > 0)
+        {
+            scheduler.scheduleWithFixedDelay(this::rebuildSafely, 0, rebuildPeriod, TimeUnit.SECONDS);
+        }
+        else
+        {
+            scheduler.execute(this::rebuildSafely);
+        }
+    }
+
+    /**
+     * Stops the builds of the filters.
+     */
+    @PreDestroy
+    public void shutdown()
+    {
+        if (scheduler != null)
+        {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns if an entity might exist.
+     * @param type Entity type.
+     * @param id Entity identifier.
+     * @return {@code True} if the entity might exist, {@code false} if it definitely does not exist.
+     */
+    public boolean mightExist(final @NonNull EntityType type, final @NonNull UUID id)
+    {
+        Filter filter = filters.get(type);
+        if (filter == null)
+        {
+            return true;
+        }
+
+        lookups.computeIfAbsent(type, key -> new LongAdder()).increment();
+        if (filter.getIds().mightContain(id) || isRegisteredByTransaction(id))
+        {
+            return true;
+        }
+
+        // The identifier may have been registered by another instance since the last refresh, it is checked again once the filters are current.
+        if (!refresh() || filters.get(type).getIds().mightContain(id))
+        {
+            return true;
+        }
+
+        rejections.computeIfAbsent(type, key -> new LongAdder()).increment();
+        LOGGER.trace(String.format("Entity type: '%s' with id: '%s' rejected by the entity identifier filter", type, id));
+
+        return false;
+    }
+
+    /**
+     * Adds the identifier of a registered entity.
+     * <br>
+     * Within a transaction, the identifier is added once the transaction is committed.
+     * @param type Entity type.
+     * @param id Entity identifier.
+     */
+    public void add(final @NonNull EntityType type, final @NonNull UUID id)
+    {
+        if (!enabled)
+        {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            getTransactionRegistrations().put(id, type);
+        }
+        else
+        {
+            apply(type, id);
+        }
+    }
+
+    /**
+     * Removes the identifier of an unregistered entity.
+     * <br>
+     * The identifier is still answered as possibly existing until the filters are rebuilt. Within a transaction, the identifier is removed
+     * once the transaction is committed.
+     * @param type Entity type.
+     * @param id Entity identifier.
+     */
+    public void remove(final @NonNull EntityType type, final @NonNull UUID id)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    unapply(type);
+                }
+            });
+        }
+        else
+        {
+            unapply(type);
+        }
+    }
+
+    /**
+     * Builds the filters by streaming the identifiers of the entity registry, then replaces the current filters.
+     * <br>
+     * The identifiers are read from the primary database (a lagging read replica would miss the recent ones).
+     */
+    public synchronized void rebuild()
+    {
+        long start = System.currentTimeMillis();
+        buildStart = start;
+        rebuildPending.set(false);
+
+        try
+        {
+            Map<EntityType, Long> counts = new EnumMap<>(EntityType.class);
+            jdbcTemplate.query(SQL_COUNT, (RowCallbackHandler) result -> counts.put(EntityType.valueOf(result.getString(1)), result.getLong(2)));
+
+            // Filters are sized for twice the current number of identifiers, to stay accurate until the next rebuild.
+            Map<EntityType, Filter> built = new EnumMap<>(EntityType.class);
+            for (EntityType type : EntityType.values())
+            {
+                long expected = Math.max(minIds, 2 * counts.getOrDefault(type, 0L));
+                built.put(type, new Filter(new IdBloomFilter(expected, falsePositiveRate, maxMemory), start));
+            }
+
+            TransactionTemplate template = new TransactionTemplate(transactionManager);
+            template.executeWithoutResult(status -> jdbcTemplate.query(
+                    connection -> {
+                        PreparedStatement statement = connection.prepareStatement(SQL_IDS);
+                        statement.setFetchSize(fetchSize);
+                        return statement;
+                    },
+                    (RowCallbackHandler) result -> built.get(EntityType.valueOf(result.getString(2))).getIds().add(result.getObject(1, UUID.class))));
+
+            // Registrations done while building are replayed before and after the filters are replaced, so none is missed.
+            // The ones done by other instances are read by the next refresh.
+            replay(built, start - grace);
+            synchronized (refreshLock)
+            {
+                filters = built;
+                refreshed = start;
+            }
+            replay(built, start - grace);
+
+            LOGGER.info(String.format("Entity identifier filters built with: %s identifiers in: %s ms",
+                    built.values().stream().mapToLong(filter -> filter.getIds().getCount()).sum(), System.currentTimeMillis() - start));
+        }
+        finally
+        {
+            buildStart = Long.MAX_VALUE;
+            trimJournal(System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * Returns the statistics of the filters.
+     * @return List of entity identifier filter statistics (one per entity type, empty until built).
+     */
+    public List<EntityIdFilterStatistics> getStatistics()
+    {
+        List<EntityIdFilterStatistics> statistics = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        for (Map.Entry<EntityType, Filter> entry : filters.entrySet())
+        {
+            IdBloomFilter ids = entry.getValue().getIds();
+            statistics.add(EntityIdFilterStatistics.builder()
+                    .withEntityType(entry.getKey())
+                    .withIds(ids.getCount())
+                    .withRemovedIds(entry.getValue().getRemoved().sum())
+                    .withMemory(ids.getMemory())
+                    .withHashFunctions(ids.getHashFunctions())
+                    .withFalsePositiveRate(falsePositiveRate)
+                    .withEstimatedFalsePositiveRate(ids.getFalsePositiveRate())
+                    .withLookups(sum(lookups, entry.getKey()))
+                    .withRejections(sum(rejections, entry.getKey()))
+                    .withAge(now - entry.getValue().getBuilt())
+                    .build());
+        }
+
+        return statistics;
+    }
+
+    /**
+     * Refreshes the filters with the identifiers registered since their last refresh, unless they are known to be current.
+     * <br>
+     * The identifiers are read from the primary database, in a dedicated transaction. Concurrent refreshes are coalesced.
+     * @return {@code True} if the filters are current, {@code false} if they cannot be refreshed.
+     */
+    private boolean refresh()
+    {
+        if (System.currentTimeMillis() - refreshed <= refreshPeriod)
+        {
+            return true;
+        }
+
+        synchronized (refreshLock)
+        {
+            long start = System.currentTimeMillis();
+            if (start - refreshed <= refreshPeriod)
+            {
+                return true;
+            }
+
+            Map<EntityType, Filter> current = filters;
+            Timestamp since = new Timestamp(refreshed - grace);
+
+            try
+            {
+                TransactionTemplate template = new TransactionTemplate(transactionManager);
+                template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+                template.executeWithoutResult(status -> jdbcTemplate.query(SQL_RECENT_IDS,
+                        (RowCallbackHandler) result -> current.get(EntityType.valueOf(result.getString(2))).getIds().add(result.getObject(1, UUID.class)),
+                        since));
+
+                refreshed = start;
+                return true;
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.error(String.format("Cannot refresh the entity identifier filters: %s", e.getMessage()), e);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Adds an identifier to the filters and to the journal of the registrations.
+     * @param type Entity type.
+     * @param id Entity identifier.
+     */
+    private void apply(final EntityType type, final UUID id)
+    {
+        Filter filter = filters.get(type);
+        if (filter != null)
+        {
+            filter.getIds().add(id);
+        }
+
+        long now = System.currentTimeMillis();
+        journal.addLast(new Registration(now, type, id));
+        trimJournal(now);
+    }
+
+    /**
+     * Counts an identifier removed from the filter of an entity type, triggering a rebuild when too many have been removed.
+     * @param type Entity type.
+     */
+    private void unapply(final EntityType type)
+    {
+        Filter filter = filters.get(type);
+        if (filter == null)
+        {
+            return;
+        }
+
+        filter.getRemoved().increment();
+        if (rebuildRemovedRatio > 0 && scheduler != null
+                && filter.getRemoved().sum() > filter.getIds().getCount() * rebuildRemovedRatio
+                && rebuildPending.compareAndSet(false, true))
+        {
+            LOGGER.debug(String.format("Too many identifiers removed from the filter of entity type: '%s', rebuilding", type));
+            scheduler.execute(this::rebuildSafely);
+        }
+    }
+
+    /**
+     * Returns the identifiers registered by the current transaction, not committed yet.
+     * <br>
+     * They are bound to the transaction on the first registration and added to the filters once it is committed.
+     * @return Map of the entity types per entity identifier.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<UUID, EntityType> getTransactionRegistrations()
+    {
+        Map<UUID, EntityType> registrations = (Map<UUID, EntityType>) TransactionSynchronizationManager.getResource(this);
+        if (registrations == null)
+        {
+            Map<UUID, EntityType> created = new HashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    created.forEach((id, type) -> apply(type, id));
+                }
+
+                @Override
+                public void afterCompletion(final int status)
+                {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(EntityIdFilter.this);
+                }
+            });
+            registrations = created;
+        }
+
+        return registrations;
+    }
+
+    /**
+     * Returns if an entity identifier has been registered by the current transaction, not committed yet.
+     * @param id Entity identifier.
+     * @return {@code True} if registered by the current transaction, {@code false} otherwise.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean isRegisteredByTransaction(final UUID id)
+    {
+        Map<UUID, EntityType> registrations = (Map<UUID, EntityType>) TransactionSynchronizationManager.getResource(this);
+
+        return registrations != null && registrations.containsKey(id);
+    }
+
+    /**
+     * Builds the filters, logging the errors (to keep the scheduled builds running).
+     */
+    private void rebuildSafely()
+    {
+        try
+        {
+            rebuild();
+        }
+        catch (RuntimeException e)
+        {
+            LOGGER.error(String.format("Cannot build the entity identifier filters: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Replays the registrations done since the given time into the given filters.
+     * @param target Filters.
+     * @param since Time (in milliseconds).
+     */
+    private void replay(final Map<EntityType, Filter> target, final long since)
+    {
+        for (Registration registration : journal)
+        {
+            if (registration.getTime() >= since)
+            {
+                target.get(registration.getType()).getIds().add(registration.getId());
+            }
+        }
+    }
+
+    /**
+     * Removes the registrations no more needed by a build from the journal.
+     * @param now Current time (in milliseconds).
+     */
+    private void trimJournal(final long now)
+    {
+        long limit = Math.min(now, buildStart) - grace;
+
+        Registration first = journal.peekFirst();
+        while (first != null && first.getTime() < limit)
+        {
+            journal.pollFirst();
+            first = journal.peekFirst();
+        }
+    }
+
+    /**
+     * Returns the value of a counter.
+     * @param counters Counters per entity type.
+     * @param type Entity type.
+     * @return Value.
+     */
+    private static long sum(final Map<EntityType, LongAdder> counters, final EntityType type)
+    {
+        LongAdder counter = counters.get(type);
+
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * Filter of the identifiers of an entity type.
+     */
+    @Getter
+    private static final class Filter
+    {
+        /**
+         * Identifiers.
+         */
+        private final IdBloomFilter ids;
+
+        /**
+         * Time (in milliseconds) the filter has been built.
+         */
+        private final long built;
+
+        /**
+         * Number of identifiers removed since the filter has been built.
+         */
+        private final LongAdder removed = new LongAdder();
+
+        /**
+         * Creates a new filter.
+         * @param ids Identifiers.
+         * @param built Time (in milliseconds) the filter has been built.
+         */
+        private Filter(final IdBloomFilter ids, final long built)
+        {
+            this.ids = ids;
+            this.built = built;
+        }
+    }
+
+    /**
+     * Registration of an entity identifier.
+     */
+    @Getter
+    private static final class Registration
+    {
+        /**
+         * Time (in milliseconds) of the registration.
+         */
+        private final long time;
+
+        /**
+         * Entity type.
+         */
+        private final EntityType type;
+
+        /**
+         * Entity identifier.
+         */
+        private final UUID id;
+
+        /**
+         * Creates a new registration.
+         * @param time Time (in milliseconds) of the registration.
+         * @param type Entity type.
+         * @param id Entity identifier.
+         */
+        private Registration(final long time, final EntityType type, final UUID id)
+        {
+            this.time = time;
+            this.type = type;
+            this.id = id;
+        }
+    }
+}
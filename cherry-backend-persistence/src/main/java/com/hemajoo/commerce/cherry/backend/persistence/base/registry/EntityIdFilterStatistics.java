@@ -0,0 +1,90 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.registry;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Represents the <b>statistics</b> of the identifier filter of an entity type.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@Builder(setterPrefix = "with")
+public final class EntityIdFilterStatistics
+{
+    /**
+     * Entity type.
+     */
+    @Getter
+    private final EntityType entityType;
+
+    /**
+     * Number of identifiers held by the filter.
+     */
+    @Getter
+    private final long ids;
+
+    /**
+     * Number of identifiers removed since the filter has been built (still answered as possibly existing).
+     */
+    @Getter
+    private final long removedIds;
+
+    /**
+     * Memory (in bytes) held by the filter.
+     */
+    @Getter
+    private final long memory;
+
+    /**
+     * Number of hash functions.
+     */
+    @Getter
+    private final int hashFunctions;
+
+    /**
+     * Configured false positive rate (between 0 and 1).
+     */
+    @Getter
+    private final double falsePositiveRate;
+
+    /**
+     * Estimated false positive rate (between 0 and 1) for the number of identifiers held by the filter.
+     */
+    @Getter
+    private final double estimatedFalsePositiveRate;
+
+    /**
+     * Number of lookups.
+     */
+    @Getter
+    private final long lookups;
+
+    /**
+     * Number of lookups rejected (identifiers definitely not existing).
+     */
+    @Getter
+    private final long rejections;
+
+    /**
+     * Age (in milliseconds) of the filter since it has been built.
+     */
+    @Getter
+    private final long age;
+}
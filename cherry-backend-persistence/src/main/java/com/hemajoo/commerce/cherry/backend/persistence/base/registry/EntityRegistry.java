@@ -0,0 +1,285 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.registry;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.ExpiringCache;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityFactory;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * <b>Entity identity registry</b> resolving the entity type of an entity identifier.
+ * <br>
+ * The registry is backed by the {@code ENTITY_REGISTRY} table (maintained by the {@link EntityRegistryListener} when an entity is inserted or
+ * deleted) and by a bounded in-memory cache. It turns a polymorphic lookup on {@link ServerEntity}, which queries the union of all the entity
+ * tables, into a primary key lookup on a single table. The registered identifiers also feed the {@link EntityIdFilter}.
+ * <br>
+ * The registrations are written within the current transaction while the cache and the filter are only updated once it is committed,
+ * so they never hold the entity type of an entity whose insertion (or deletion) has been rolled back.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+@Component
+public class EntityRegistry
+{
+    /**
+     * Entity manager.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Entity identifier filter.
+     */
+    @Autowired
+    private EntityIdFilter idFilter;
+
+    /**
+     * Entity types cache.
+     */
+    private final ExpiringCache<UUID, EntityType> cache;
+
+    /**
+     * Entities pending registration for the current thread (when registering in batch).
+     */
+    private final ThreadLocal<List<ServerEntity>> pending = new ThreadLocal<>();
+
+    /**
+     * Creates a new entity registry.
+     * @param cacheSize Maximum number of cached entity types.
+     * @param cacheTimeToLive Time to live (in seconds) of the cached entity types.
+     */
+    public EntityRegistry(
+            final @Value("${hemajoo.commerce.cherry.entity.registry.cache.size:100000}") int cacheSize,
+            final @Value("${hemajoo.commerce.cherry.entity.registry.cache.ttl:3600}") long cacheTimeToLive)
+    {
+        this.cache = new ExpiringCache<>(cacheSize, Duration.ofSeconds(cacheTimeToLive));
+    }
+
+    /**
+     * Returns the entity type of an entity identifier.
+     * @param id Entity identifier.
+     * @return Entity type or null if the entity identifier is not registered.
+     */
+    public EntityType getEntityType(final @NonNull UUID id)
+    {
+        EntityType type = cache.get(id);
+        if (type == null)
+        {
+            EntityRegistryEntry entry = entityManager.find(EntityRegistryEntry.class, id);
+            if (entry != null)
+            {
+                type = entry.getEntityType();
+
+                // The entry may have been registered by the current transaction, not committed yet.
+                EntityType found = type;
+                afterCommit(() -> cache.put(id, found));
+            }
+        }
+
+        return type;
+    }
+
+    /**
+     * Returns the entity types of several entity identifiers.
+     * <br>
+     * The entity types not cached are retrieved with a single query.
+     * @param ids Entity identifiers.
+     * @return Map of the entity types per entity identifier (entity identifiers not registered are absent).
+     */
+    public Map<UUID, EntityType> getEntityTypes(final @NonNull Collection<UUID> ids)
+    {
+        Map<UUID, EntityType> types = new HashMap<>();
+        Set<UUID> missing = new HashSet<>();
+
+        for (UUID id : ids)
+        {
+            EntityType type = cache.get(id);
+            if (type != null)
+            {
+                types.put(id, type);
+            }
+            else
+            {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty())
+        {
+            Map<UUID, EntityType> found = new HashMap<>();
+            entityManager.createQuery("SELECT e FROM EntityRegistryEntry e WHERE e.id IN :ids", EntityRegistryEntry.class)
+                    .setParameter("ids", missing)
+                    .getResultList()
+                    .forEach(entry -> found.put(entry.getId(), entry.getEntityType()));
+
+            types.putAll(found);
+            afterCommit(() -> found.forEach(cache::put));
+        }
+
+        return types;
+    }
+
+    /**
+     * Retrieves a server entity given its identifier only.
+     * @param id Entity identifier.
+     * @return Server entity or null if not found.
+     * @throws EntityException Thrown to indicate the entity type of the entity is not handled.
+     */
+    public ServerEntity find(final @NonNull UUID id) throws EntityException
+    {
+        EntityType type = getEntityType(id);
+
+        if (type == null)
+        {
+            return null;
+        }
+
+        Class<? extends ServerEntity> entityClass = EntityFactory.getEntityClass(type);
+
+        return entityManager.find(entityClass, id, EntityFactory.getDetailHints(entityManager, entityClass));
+    }
+
+    /**
+     * Registers an entity.
+     * <br>
+     * When called within {@link #registerInBatch(Runnable)}, the registration is postponed to the end of the batch.
+     * @param entity Server entity.
+     */
+    public void register(final @NonNull ServerEntity entity)
+    {
+        List<ServerEntity> batch = pending.get();
+        if (batch != null)
+        {
+            batch.add(entity);
+        }
+        else if (entity.getId() != null && entity.getEntityType() != null)
+        {
+            jdbcTemplate.update("INSERT INTO ENTITY_REGISTRY (ID, ENTITY_TYPE) VALUES (?, ?)", entity.getId(), entity.getEntityType().name());
+            idFilter.add(entity.getEntityType(), entity.getId());
+
+            UUID id = entity.getId();
+            EntityType type = entity.getEntityType();
+            afterCommit(() -> cache.put(id, type));
+        }
+    }
+
+    /**
+     * Executes an action registering the entities it inserts with batched statements instead of one statement per entity.
+     * <br>
+     * The action must flush the entities it inserts. The registrations are written once the action succeeded, within the current transaction.
+     * @param action Action inserting entities.
+     */
+    public void registerInBatch(final @NonNull Runnable action)
+    {
+        List<ServerEntity> batch = new ArrayList<>();
+        pending.set(batch);
+
+        try
+        {
+            action.run();
+        }
+        finally
+        {
+            pending.remove();
+        }
+
+        batch.removeIf(entity -> entity.getId() == null || entity.getEntityType() == null);
+        if (!batch.isEmpty())
+        {
+            jdbcTemplate.batchUpdate("INSERT INTO ENTITY_REGISTRY (ID, ENTITY_TYPE) VALUES (?, ?)", batch, batch.size(),
+                    (statement, entity) -> {
+                        statement.setObject(1, entity.getId());
+                        statement.setString(2, entity.getEntityType().name());
+                    });
+            Map<UUID, EntityType> types = new HashMap<>();
+            batch.forEach(entity -> {
+                idFilter.add(entity.getEntityType(), entity.getId());
+                types.put(entity.getId(), entity.getEntityType());
+            });
+            afterCommit(() -> types.forEach(cache::put));
+        }
+    }
+
+    /**
+     * Unregisters an entity.
+     * @param entity Server entity.
+     */
+    public void unregister(final @NonNull ServerEntity entity)
+    {
+        if (entity.getId() != null)
+        {
+            jdbcTemplate.update("DELETE FROM ENTITY_REGISTRY WHERE ID = ?", entity.getId());
+            if (entity.getEntityType() != null)
+            {
+                idFilter.remove(entity.getEntityType(), entity.getId());
+            }
+
+            UUID id = entity.getId();
+            afterCommit(() -> cache.remove(id));
+        }
+    }
+
+    /**
+     * Executes an action once the current transaction is committed, or immediately if there is no transaction.
+     * @param action Action.
+     */
+    private static void afterCommit(final Runnable action)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    action.run();
+                }
+            });
+        }
+        else
+        {
+            action.run();
+        }
+    }
+}
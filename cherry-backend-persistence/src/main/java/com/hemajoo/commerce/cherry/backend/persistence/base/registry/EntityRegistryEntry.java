@@ -0,0 +1,64 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.registry;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import lombok.*;
+
+import javax.persistence.*;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Represents an entry of the <b>entity identity registry</b> holding the entity type of an entity identifier.
+ * <br>
+ * As the server entities are mapped with a {@code TABLE_PER_CLASS} inheritance strategy, knowing the entity type of an identifier allows
+ * to query its concrete table instead of the union of all the entity tables.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "ENTITY_REGISTRY", indexes = @Index(name = "IDX_ENTITY_REGISTRY_REGISTERED_DATE", columnList = "REGISTERED_DATE"))
+public class EntityRegistryEntry
+{
+    /**
+     * Entity identifier.
+     */
+    @Getter
+    @Setter
+    @Id
+    @Column(name = "ID", length = 16)
+    private UUID id;
+
+    /**
+     * Entity type.
+     */
+    @Getter
+    @Setter
+    @Enumerated(EnumType.STRING)
+    @Column(name = "ENTITY_TYPE", length = 50, nullable = false)
+    private EntityType entityType;
+
+    /**
+     * Registration date (set by the database, used to refresh the {@link EntityIdFilter} with the recent registrations).
+     */
+    @Getter
+    @Column(name = "REGISTERED_DATE", nullable = false, insertable = false, updatable = false, columnDefinition = "timestamp default current_timestamp")
+    private Date registeredDate;
+}
@@ -0,0 +1,58 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.registry;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+
+/**
+ * JPA entity listener maintaining the {@link EntityRegistry} when a server entity is inserted or deleted.
+ * <br>
+ * The listener is instantiated by {@code Hibernate} through the {@code Spring} bean container, so its dependencies are injected.
+ * The registry rows are written within the transaction of the entity insertion or deletion.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public class EntityRegistryListener
+{
+    /**
+     * Entity registry.
+     */
+    @Autowired
+    private EntityRegistry registry;
+
+    /**
+     * Registers an inserted server entity.
+     * @param entity Server entity.
+     */
+    @PostPersist
+    public void postPersist(final ServerEntity entity)
+    {
+        registry.register(entity);
+    }
+
+    /**
+     * Unregisters a deleted server entity.
+     * @param entity Server entity.
+     */
+    @PostRemove
+    public void postRemove(final ServerEntity entity)
+    {
+        registry.unregister(entity);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.registry;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <b>Bloom filter</b> of entity identifiers.
+ * <br>
+ * A probabilistic set answering if an identifier might have been added (with a bounded false positive rate) or has definitely not been added.
+ * The filter is sized for an expected number of identifiers and a false positive rate, within a maximum memory. Identifiers can be added
+ * concurrently but cannot be removed.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+final class IdBloomFilter
+{
+    /**
+     * Maximum number of hash functions.
+     */
+    private static final int MAX_HASH_FUNCTIONS = 16;
+
+    /**
+     * Bits of the filter.
+     */
+    private final AtomicLongArray words;
+
+    /**
+     * Number of bits of the filter.
+     */
+    @Getter
+    private final long bits;
+
+    /**
+     * Number of hash functions.
+     */
+    @Getter
+    private final int hashFunctions;
+
+    /**
+     * Number of distinct identifiers added.
+     */
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Creates a new Bloom filter.
+     * @param expected Expected number of identifiers.
+     * @param falsePositiveRate False positive rate (between 0 and 1) when holding the expected number of identifiers.
+     * @param maxMemory Maximum memory (in bytes) of the filter.
+     */
+    IdBloomFilter(final long expected, final double falsePositiveRate, final long maxMemory)
+    {
+        long size = (long) Math.ceil(-Math.max(expected, 1) * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        size = Math.max(Long.SIZE, Math.min(size, Math.min(maxMemory * Byte.SIZE, (long) Integer.MAX_VALUE * Long.SIZE)));
+
+        this.words = new AtomicLongArray((int) ((size + Long.SIZE - 1) / Long.SIZE));
+        this.bits = (long) words.length() * Long.SIZE;
+        this.hashFunctions = (int) Math.max(1, Math.min(MAX_HASH_FUNCTIONS, Math.round((double) bits / Math.max(expected, 1) * Math.log(2))));
+    }
+
+    /**
+     * Adds an identifier.
+     * <br>
+     * An identifier already added (replayed or refreshed) is not counted again.
+     * @param id Identifier.
+     */
+    void add(final @NonNull UUID id)
+    {
+        long hash1 = mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+        long hash2 = mix(hash1 ^ id.getLeastSignificantBits()) | 1L;
+        boolean added = false;
+
+        for (int i = 0; i < hashFunctions; i++)
+        {
+            long bit = Math.floorMod(hash1 + i * hash2, bits);
+            long mask = 1L << bit;
+            if ((words.getAndAccumulate((int) (bit >>> 6), mask, (word, value) -> word | value) & mask) == 0)
+            {
+                added = true;
+            }
+        }
+
+        if (added)
+        {
+            count.increment();
+        }
+    }
+
+    /**
+     * Returns if an identifier might have been added.
+     * @param id Identifier.
+     * @return {@code True} if the identifier might have been added, {@code false} if it has definitely not been added.
+     */
+    boolean mightContain(final @NonNull UUID id)
+    {
+        long hash1 = mix(id.getMostSignificantBits() ^ mix(id.getLeastSignificantBits()));
+        long hash2 = mix(hash1 ^ id.getLeastSignificantBits()) | 1L;
+
+        for (int i = 0; i < hashFunctions; i++)
+        {
+            long bit = Math.floorMod(hash1 + i * hash2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0)
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the number of identifiers added.
+     * @return Number of identifiers.
+     */
+    long getCount()
+    {
+        return count.sum();
+    }
+
+    /**
+     * Returns the memory (in bytes) held by the filter.
+     * @return Memory.
+     */
+    long getMemory()
+    {
+        return bits / Byte.SIZE;
+    }
+
+    /**
+     * Returns the estimated false positive rate for the number of identifiers added.
+     * @return False positive rate (between 0 and 1).
+     */
+    double getFalsePositiveRate()
+    {
+        return Math.pow(1 - Math.exp(-hashFunctions * (double) getCount() / bits), hashFunctions);
+    }
+
+    /**
+     * Mixes the bits of a value (finalizer of the MurmurHash3 64 bits hash function).
+     * @param value Value.
+     * @return Mixed value.
+     */
+    private static long mix(long value)
+    {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+
+        return value;
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.tag;
+
+import lombok.*;
+
+import javax.persistence.*;
+
+/**
+ * Represents an entry of the <b>tag dictionary</b> holding a normalized (trimmed and lower cased) tag.
+ * <br>
+ * Entities are associated with the tags they hold through the {@code ENTITY_TAG} table, maintained by the {@link TagIndex}.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "TAG")
+public class TagEntry
+{
+    /**
+     * Tag identifier.
+     */
+    @Getter
+    @Setter
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "ID")
+    private Long id;
+
+    /**
+     * Tag name (normalized).
+     */
+    @Getter
+    @Setter
+    @Column(name = "NAME", nullable = false, unique = true)
+    private String name;
+}
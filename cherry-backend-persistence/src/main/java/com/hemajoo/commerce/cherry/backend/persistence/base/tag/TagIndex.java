@@ -0,0 +1,226 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.tag;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.ExpiringCache;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Component maintaining the <b>tag index</b> of the server entities.
+ * <br>
+ * The tags of an entity (a string of tags separated by comma) are normalized (trimmed and lower cased) and stored once in the {@code TAG}
+ * dictionary table, the {@code ENTITY_TAG} table associating each entity with its tags. Both tables are indexed, so a query condition on a
+ * tag ({@code HAS_TAG} operator) is resolved by index probes instead of a {@code CONTAINS} scan of the {@code TAGS} columns.
+ * <br>
+ * The index is written within the transaction of the entity insertion, update or deletion (see {@link TagIndexListener}). The identifiers
+ * of the dictionary tags are cached once the transaction having resolved them is committed.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+@Component
+public class TagIndex
+{
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Cache of the tag identifiers per tag name.
+     */
+    private final ExpiringCache<String, Long> cache;
+
+    /**
+     * Creates a new tag index.
+     * @param cacheSize Maximum number of cached tag identifiers.
+     * @param cacheTimeToLive Time to live (in seconds) of the cached tag identifiers.
+     */
+    public TagIndex(
+            final @Value("${hemajoo.commerce.cherry.entity.tag.cache.size:10000}") int cacheSize,
+            final @Value("${hemajoo.commerce.cherry.entity.tag.cache.ttl:3600}") long cacheTimeToLive)
+    {
+        this.cache = new ExpiringCache<>(cacheSize, Duration.ofSeconds(cacheTimeToLive));
+    }
+
+    /**
+     * Normalizes a tag.
+     * @param tag Tag.
+     * @return Normalized tag.
+     */
+    public static String normalize(final @NonNull String tag)
+    {
+        return tag.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the normalized tags of a string of tags (separated by comma).
+     * @param tags String of tags (can be null).
+     * @return Set of normalized tags.
+     */
+    public static Set<String> normalizeTags(final String tags)
+    {
+        Set<String> names = new LinkedHashSet<>();
+
+        for (String tag : ServerEntity.splitTags(tags))
+        {
+            names.add(normalize(tag));
+        }
+
+        return names;
+    }
+
+    /**
+     * Indexes the tags of an entity.
+     * @param entity Server entity.
+     * @param isNew Is the entity a newly inserted one (not yet indexed)?
+     */
+    public void index(final @NonNull ServerEntity entity, final boolean isNew)
+    {
+        if (entity.getId() == null)
+        {
+            return;
+        }
+
+        if (!isNew)
+        {
+            jdbcTemplate.update("DELETE FROM ENTITY_TAG WHERE ENTITY_ID = ?", entity.getId());
+        }
+
+        Set<String> names = normalizeTags(entity.getTags());
+        if (!names.isEmpty())
+        {
+            Collection<Long> ids = resolve(names).values();
+            jdbcTemplate.batchUpdate("INSERT INTO ENTITY_TAG (ENTITY_ID, TAG_ID) VALUES (?, ?)", ids, ids.size(),
+                    (statement, id) -> {
+                        statement.setObject(1, entity.getId());
+                        statement.setLong(2, id);
+                    });
+        }
+
+        entity.markTagsIndexed();
+    }
+
+    /**
+     * Removes the tags of an entity from the index.
+     * @param entity Server entity.
+     */
+    public void unindex(final @NonNull ServerEntity entity)
+    {
+        if (entity.getId() != null)
+        {
+            jdbcTemplate.update("DELETE FROM ENTITY_TAG WHERE ENTITY_ID = ?", entity.getId());
+        }
+    }
+
+    /**
+     * Resolves the identifiers of normalized tags, adding the unknown ones to the tag dictionary.
+     * @param names Normalized tags.
+     * @return Map of the tag identifiers per tag name.
+     */
+    private Map<String, Long> resolve(final @NonNull Set<String> names)
+    {
+        Map<String, Long> ids = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+
+        for (String name : names)
+        {
+            Long id = cache.get(name);
+            if (id != null)
+            {
+                ids.put(name, id);
+            }
+            else
+            {
+                missing.add(name);
+            }
+        }
+
+        if (!missing.isEmpty())
+        {
+            Map<String, Long> found = find(missing);
+            missing.removeAll(found.keySet());
+
+            if (!missing.isEmpty())
+            {
+                // Tags concurrently added by another transaction are left as is.
+                jdbcTemplate.batchUpdate("INSERT INTO TAG (NAME) VALUES (?) ON CONFLICT (NAME) DO NOTHING", missing, missing.size(),
+                        (statement, name) -> statement.setString(1, name));
+                found.putAll(find(missing));
+
+                LOGGER.debug(String.format("Added: %s tag(s) to the tag dictionary", missing.size()));
+            }
+
+            ids.putAll(found);
+            cacheAfterCommit(found);
+        }
+
+        return ids;
+    }
+
+    /**
+     * Finds the identifiers of tags of the tag dictionary.
+     * @param names Normalized tags.
+     * @return Map of the tag identifiers per tag name (tags not found are absent).
+     */
+    private Map<String, Long> find(final @NonNull List<String> names)
+    {
+        Map<String, Long> ids = new HashMap<>();
+
+        jdbcTemplate.query(String.format("SELECT ID, NAME FROM TAG WHERE NAME IN (%s)", String.join(", ", Collections.nCopies(names.size(), "?"))),
+                resultSet -> {
+                    ids.put(resultSet.getString(2), resultSet.getLong(1));
+                },
+                names.toArray());
+
+        return ids;
+    }
+
+    /**
+     * Caches tag identifiers once the current transaction is committed, so the identifiers of tags added by a rolled back transaction
+     * are never cached.
+     * @param ids Map of the tag identifiers per tag name.
+     */
+    private void cacheAfterCommit(final @NonNull Map<String, Long> ids)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    ids.forEach(cache::put);
+                }
+            });
+        }
+        else
+        {
+            ids.forEach(cache::put);
+        }
+    }
+}
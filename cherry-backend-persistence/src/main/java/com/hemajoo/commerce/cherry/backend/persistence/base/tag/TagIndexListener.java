@@ -0,0 +1,86 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.base.tag;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.PostLoad;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA entity listener maintaining the {@link TagIndex} when a server entity is inserted, updated or deleted.
+ * <br>
+ * The listener is instantiated by {@code Hibernate} through the {@code Spring} bean container, so its dependencies are injected.
+ * An updated entity is indexed again only if its tags changed since they were loaded (or last indexed).
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public class TagIndexListener
+{
+    /**
+     * Tag index.
+     */
+    @Autowired
+    private TagIndex index;
+
+    /**
+     * Records the tags of a loaded server entity as being the indexed ones.
+     * @param entity Server entity.
+     */
+    @PostLoad
+    public void postLoad(final ServerEntity entity)
+    {
+        entity.markTagsIndexed();
+    }
+
+    /**
+     * Indexes the tags of an inserted server entity.
+     * @param entity Server entity.
+     */
+    @PostPersist
+    public void postPersist(final ServerEntity entity)
+    {
+        if (entity.hasTagsChanged())
+        {
+            index.index(entity, true);
+        }
+    }
+
+    /**
+     * Indexes the tags of an updated server entity.
+     * @param entity Server entity.
+     */
+    @PostUpdate
+    public void postUpdate(final ServerEntity entity)
+    {
+        if (entity.hasTagsChanged())
+        {
+            index.index(entity, false);
+        }
+    }
+
+    /**
+     * Removes the tags of a deleted server entity from the index.
+     * @param entity Server entity.
+     */
+    @PostRemove
+    public void postRemove(final ServerEntity entity)
+    {
+        index.unindex(entity);
+    }
+}
@@ -15,12 +15,22 @@
 package com.hemajoo.commerce.cherry.backend.persistence.configuration;
 
 import com.hemajoo.commerce.cherry.backend.commons.exception.ContentStoreException;
+import com.hemajoo.commerce.cherry.backend.persistence.base.datasource.ReadWriteRoutingDataSource;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryStatementInspector;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
+import com.zaxxer.hikari.HikariDataSource;
 import lombok.Getter;
 import lombok.NonNull;
+import org.flywaydb.core.Flyway;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
 import org.springframework.content.fs.config.EnableFilesystemStores;
 import org.springframework.content.fs.config.FilesystemStoreConfigurer;
 import org.springframework.content.fs.io.FileSystemResourceLoader;
@@ -30,17 +40,23 @@ import org.springframework.content.s3.config.S3StoreConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 
+import javax.sql.DataSource;
 import java.io.File;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -133,6 +149,100 @@ public class PersistenceConfiguration
         return () -> Optional.of(LocalDateTime.now());
     }
 
+    /**
+     * Read/write routing data source sending the read-only transactions to the read replicas, enabled when the
+     * {@code hemajoo.commerce.cherry.datasource.replica.urls} property lists the JDBC URLs of the replicas.
+     * @param properties Data source properties (primary database).
+     * @param urls JDBC URLs of the replicas (comma separated).
+     * @param username Replica user name (primary database user name by default).
+     * @param password Replica password (primary database password by default).
+     * @param lagQuery Query returning the replication lag (in seconds) of a replica.
+     * @param maxLag Maximum replication lag (in seconds) of a replica eligible for the read-only transactions.
+     * @param checkInterval Interval (in seconds) between two replication lag checks.
+     * @return {@link ReadWriteRoutingDataSource}.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "hemajoo.commerce.cherry.datasource.replica", name = "urls")
+    public ReadWriteRoutingDataSource routingDataSource(
+            final DataSourceProperties properties,
+            final @Value("${hemajoo.commerce.cherry.datasource.replica.urls}") String[] urls,
+            final @Value("${hemajoo.commerce.cherry.datasource.replica.username:${spring.datasource.username:}}") String username,
+            final @Value("${hemajoo.commerce.cherry.datasource.replica.password:${spring.datasource.password:}}") String password,
+            final @Value("${hemajoo.commerce.cherry.datasource.replica.lag.query:SELECT CASE WHEN NOT pg_is_in_recovery() OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 ELSE EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) END}") String lagQuery,
+            final @Value("${hemajoo.commerce.cherry.datasource.replica.lag.max:5}") long maxLag,
+            final @Value("${hemajoo.commerce.cherry.datasource.replica.lag.interval:10}") long checkInterval)
+    {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName(ReadWriteRoutingDataSource.PRIMARY);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls)
+        {
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName(String.format("replica-%s", replicas.size() + 1));
+            replica.setJdbcUrl(url.trim());
+            replica.setUsername(username);
+            replica.setPassword(password);
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        return new ReadWriteRoutingDataSource(primary, replicas, lagQuery, Duration.ofSeconds(maxLag), Duration.ofSeconds(checkInterval));
+    }
+
+    /**
+     * Data source used by the persistence layer when the read replicas are enabled.
+     * <br>
+     * The routing data source is wrapped into a lazy connection proxy so the physical connection is only obtained once the
+     * transaction has been flagged as read-only (or not).
+     * @param routingDataSource Read/write routing data source.
+     * @return {@link DataSource}.
+     */
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "hemajoo.commerce.cherry.datasource.replica", name = "urls")
+    public DataSource dataSource(final ReadWriteRoutingDataSource routingDataSource)
+    {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /**
+     * Flyway migration strategy postponing the migrations at startup.
+     * <br>
+     * The database schema is generated by {@code Hibernate} while the {@code Flyway} migrations (such as the search indexes)
+     * apply on top of it, so they are executed by {@link #flywayMigration(ObjectProvider)} once the JPA layer is initialized.
+     * @return {@link FlywayMigrationStrategy}.
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy()
+    {
+        return flyway -> {
+            // Postponed, see: flywayMigration.
+        };
+    }
+
+    /**
+     * Executes the {@code Flyway} migrations once all the singletons (including the entity manager factory) are created.
+     * @param flyway Flyway instance (if available).
+     * @return {@link SmartInitializingSingleton}.
+     */
+    @Bean
+    public SmartInitializingSingleton flywayMigration(final ObjectProvider<Flyway> flyway)
+    {
+        return () -> flyway.ifAvailable(Flyway::migrate);
+    }
+
+    /**
+     * Registers the statement inspector capturing the {@code SQL} statements of the monitored queries, unless another statement inspector
+     * is already configured through the {@code spring.jpa.properties.hibernate.session_factory.statement_inspector} property.
+     * @return {@link HibernatePropertiesCustomizer}.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer statementInspectorCustomizer()
+    {
+        return properties -> properties.putIfAbsent(AvailableSettings.STATEMENT_INSPECTOR, QueryStatementInspector.class.getName());
+    }
+
     /**
      * File system root path to use for storing documents.
      * @return File system root path.
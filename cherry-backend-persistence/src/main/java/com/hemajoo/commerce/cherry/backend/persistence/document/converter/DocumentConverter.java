@@ -16,16 +16,20 @@ package com.hemajoo.commerce.cherry.backend.persistence.document.converter;
 
 import com.hemajoo.commerce.cherry.backend.commons.entity.EntityIdentity;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.AbstractEntityMapper;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityFactory;
 import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.CycleAvoidingMappingContext;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.persistence.document.mapper.AbstractDocumentMapper;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
 import com.hemajoo.commerce.cherry.backend.shared.document.DocumentClient;
 import lombok.Getter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Component to <b>convert</b> between client and server document instances.
@@ -42,6 +46,12 @@ public class DocumentConverter
     @PersistenceContext
     private EntityManager entityManager;
 
+    /**
+     * Entity factory.
+     */
+    @Autowired
+    private EntityFactory entityFactory;
+
     /**
      * Converts from a server document entity to an entity identity.
      * @param server Server document entity.
@@ -49,7 +59,7 @@ public class DocumentConverter
      */
     public EntityIdentity fromServerToIdentity(DocumentServer server)
     {
-        return AbstractDocumentMapper.INSTANCE.fromServerToIdentity(server, new CycleAvoidingMappingContext());
+        return AbstractDocumentMapper.INSTANCE.fromServerToIdentity(server, CycleAvoidingMappingContext.acyclic());
     }
 
     /**
@@ -60,7 +70,7 @@ public class DocumentConverter
      */
     public DocumentServer fromIdentityToServer(EntityIdentity identity) throws EntityException
     {
-        return AbstractEntityMapper.INSTANCE.map(identity, entityManager);
+        return AbstractEntityMapper.INSTANCE.map(identity, CycleAvoidingMappingContext.acyclic(), entityManager);
     }
 
     /**
@@ -71,7 +81,7 @@ public class DocumentConverter
      */
     public DocumentServer fromClientToServer(DocumentClient client) throws EntityException
     {
-        return AbstractDocumentMapper.INSTANCE.fromClientToServer(client, new CycleAvoidingMappingContext(), entityManager);
+        return AbstractDocumentMapper.INSTANCE.fromClientToServer(client, entityFactory.createMappingContext(Collections.singletonList(client)), entityManager);
     }
 
     /**
@@ -81,7 +91,30 @@ public class DocumentConverter
      */
     public DocumentClient fromServerToClient(DocumentServer server)
     {
-        return AbstractDocumentMapper.INSTANCE.fromServerToClient(server, new CycleAvoidingMappingContext());
+        return AbstractDocumentMapper.INSTANCE.fromServerToClient(server, CycleAvoidingMappingContext.acyclic());
+    }
+
+    /**
+     * Converts from a list of server document entities to a list of client document entities.
+     * @param servers Server document entities.
+     * @return Client document entities.
+     */
+    public List<DocumentClient> fromServerToClient(List<DocumentServer> servers)
+    {
+        return AbstractDocumentMapper.INSTANCE.fromServerToClient(servers, CycleAvoidingMappingContext.acyclic());
+    }
+
+    /**
+     * Converts from a list of client document entities to a list of server document entities.
+     * <br>
+     * A single context is used for the whole list.
+     * @param clients Client document entities.
+     * @return Server document entities.
+     * @throws EntityException Thrown to indicate an error occurred when trying to convert a document.
+     */
+    public List<DocumentServer> fromClientToServer(List<DocumentClient> clients) throws EntityException
+    {
+        return AbstractDocumentMapper.INSTANCE.fromClientToServer(clients, entityFactory.createMappingContext(clients), entityManager);
     }
 
     /**
@@ -105,4 +138,24 @@ public class DocumentConverter
     {
         return AbstractDocumentMapper.INSTANCE.copy(client, new CycleAvoidingMappingContext());
     }
+
+    /**
+     * Updates the metadata of a server document entity from a client document entity.
+     * @param client Client document entity.
+     * @param server Server document entity to update.
+     */
+    public static void updateMetadata(DocumentClient client, DocumentServer server)
+    {
+        AbstractDocumentMapper.INSTANCE.updateMetadata(client, server);
+    }
+
+    /**
+     * Patches the metadata of a server document entity with the properties supplied by a client document entity.
+     * @param patch Client document entity holding the properties to patch.
+     * @param server Server document entity to patch.
+     */
+    public static void patchMetadata(DocumentClient patch, DocumentServer server)
+    {
+        AbstractDocumentMapper.INSTANCE.patchMetadata(patch, server);
+    }
 }
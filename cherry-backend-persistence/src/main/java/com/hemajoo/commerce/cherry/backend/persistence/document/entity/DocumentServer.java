@@ -16,6 +16,8 @@ package com.hemajoo.commerce.cherry.backend.persistence.document.entity;
 
 import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import com.hemajoo.commerce.cherry.backend.persistence.document.index.DocumentContentIndexEntry;
+import com.hemajoo.commerce.cherry.backend.persistence.document.index.DocumentContentIndexListener;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentContentException;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
@@ -35,6 +37,7 @@ import javax.persistence.*;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.InputStream;
+import java.util.Set;
 
 /**
  * Represents a server document entity.
@@ -43,11 +46,26 @@ import java.io.InputStream;
  */
 @ToString(callSuper = true)
 @EqualsAndHashCode(callSuper = true)
-@Table(name = "DOCUMENT")
+@Table(name = "DOCUMENT", indexes = {
+        @Index(name = "IDX_DOCUMENT_CREATED_DATE", columnList = "CREATED_DATE"),
+        @Index(name = "IDX_DOCUMENT_MODIFIED_DATE", columnList = "MODIFIED_DATE")
+})
 @Entity
-@EntityListeners(AuditingEntityListener.class)
+@NamedEntityGraph(name = DocumentServer.GRAPH_DETAIL, attributeNodes = { @NamedAttributeNode("documents"), @NamedAttributeNode("parent") })
+@NamedEntityGraph(name = DocumentServer.GRAPH_LIST, attributeNodes = @NamedAttributeNode("parent"))
+@EntityListeners({ AuditingEntityListener.class, DocumentContentIndexListener.class })
 public class DocumentServer extends ServerEntity implements IDocumentServer
 {
+    /**
+     * Name of the entity graph used to load a document for a detail view.
+     */
+    public static final String GRAPH_DETAIL = "DocumentServer" + GRAPH_SUFFIX_DETAIL;
+
+    /**
+     * Name of the entity graph used to load documents for a list view.
+     */
+    public static final String GRAPH_LIST = "DocumentServer" + GRAPH_SUFFIX_LIST;
+
     /**
      * Document type.
      */
@@ -135,6 +153,17 @@ public class DocumentServer extends ServerEntity implements IDocumentServer
     @EqualsAndHashCode.Exclude
     private transient InputStream content;
 
+    /**
+     * Full-text index entry of the document content.
+     * <br>
+     * Maintained by the document content indexer, only mapped to search the documents by the words of their content.
+     */
+    @DiffIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToMany(mappedBy = "document", fetch = FetchType.LAZY)
+    private Set<DocumentContentIndexEntry> contentIndex = null;
+
     /**
      * Creates a new document.
      */
@@ -0,0 +1,83 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.document.index;
+
+import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Represents an entry of the <b>full-text index</b> of the document contents.
+ * <br>
+ * An entry holds the text search vector of the text extracted from the content of a document, and the identifier of the indexed
+ * content so a document is indexed again only when its content changed. Entries are written by the {@link DocumentContentIndexer}
+ * and only read by the queries searching the document contents.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@Immutable
+@Entity
+@Table(name = "DOCUMENT_CONTENT_INDEX")
+public class DocumentContentIndexEntry
+{
+    /**
+     * Document identifier.
+     */
+    @Getter
+    @Id
+    @Column(name = "DOCUMENT_ID", length = 16)
+    private UUID documentId;
+
+    /**
+     * Indexed document.
+     * <br>
+     * Not constrained by a foreign key, the entry of a deleted document being removed by the {@link DocumentContentIndexListener}.
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "DOCUMENT_ID", insertable = false, updatable = false, foreignKey = @ForeignKey(ConstraintMode.NO_CONSTRAINT))
+    private DocumentServer document;
+
+    /**
+     * Identifier (in the content store) of the indexed content.
+     */
+    @Getter
+    @Column(name = "CONTENT_ID")
+    private String contentId;
+
+    /**
+     * Text search vector of the text extracted from the content.
+     */
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @Column(name = "CONTENT_VECTOR", columnDefinition = "tsvector")
+    private String vector;
+
+    /**
+     * Date the content has been indexed.
+     */
+    @Getter
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "INDEXED_DATE")
+    private Date indexedDate;
+}
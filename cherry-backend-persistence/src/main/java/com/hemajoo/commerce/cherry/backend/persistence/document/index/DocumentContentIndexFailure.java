@@ -0,0 +1,70 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.document.index;
+
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Represents a <b>failed indexing</b> of a document content.
+ * <br>
+ * A failure is recorded by the {@link DocumentContentIndexer} when the content of a document cannot be read from the content store.
+ * The sweeps retry the document once its next attempt date is reached, the delay between two attempts doubling at each failure of
+ * the same content, and queue the documents that never failed first. The failure is removed once the document is indexed.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@Immutable
+@Entity
+@Table(name = "DOCUMENT_CONTENT_INDEX_FAILURE", indexes = @Index(name = "IDX_DOCUMENT_CONTENT_INDEX_FAILURE_NEXT_ATTEMPT", columnList = "NEXT_ATTEMPT_DATE"))
+public class DocumentContentIndexFailure
+{
+    /**
+     * Document identifier.
+     */
+    @Getter
+    @Id
+    @Column(name = "DOCUMENT_ID", length = 16)
+    private UUID documentId;
+
+    /**
+     * Identifier (in the content store) of the content that failed to be indexed.
+     */
+    @Getter
+    @Column(name = "CONTENT_ID")
+    private String contentId;
+
+    /**
+     * Number of failed attempts to index the content.
+     */
+    @Getter
+    @Column(name = "ATTEMPTS")
+    private int attempts;
+
+    /**
+     * Date from which the content can be indexed again.
+     */
+    @Getter
+    @Temporal(TemporalType.TIMESTAMP)
+    @Column(name = "NEXT_ATTEMPT_DATE")
+    private Date nextAttemptDate;
+}
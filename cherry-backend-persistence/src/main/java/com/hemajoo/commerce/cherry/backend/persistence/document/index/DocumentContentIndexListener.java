@@ -0,0 +1,76 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.document.index;
+
+import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA entity listener maintaining the {@link DocumentContentIndexer full-text index} when a document is inserted, updated or deleted.
+ * <br>
+ * The listener is instantiated by {@code Hibernate} through the {@code Spring} bean container, so its dependencies are injected.
+ * Inserted and updated documents are queued for indexing once their transaction is committed, the index entry of a deleted document
+ * is removed within the transaction of its deletion.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public class DocumentContentIndexListener
+{
+    /**
+     * Document content indexer.
+     */
+    @Autowired
+    private DocumentContentIndexer indexer;
+
+    /**
+     * Queues an inserted document for indexing.
+     * @param document Document.
+     */
+    @PostPersist
+    public void postPersist(final DocumentServer document)
+    {
+        if (document.getContentId() != null)
+        {
+            indexer.scheduleAfterCommit(document.getId());
+        }
+    }
+
+    /**
+     * Queues an updated document for indexing (its content being indexed again only if it changed).
+     * @param document Document.
+     */
+    @PostUpdate
+    public void postUpdate(final DocumentServer document)
+    {
+        if (document.getContentId() != null)
+        {
+            indexer.scheduleAfterCommit(document.getId());
+        }
+    }
+
+    /**
+     * Removes the index entry of a deleted document.
+     * @param document Document.
+     */
+    @PostRemove
+    public void postRemove(final DocumentServer document)
+    {
+        indexer.remove(document.getId());
+    }
+}
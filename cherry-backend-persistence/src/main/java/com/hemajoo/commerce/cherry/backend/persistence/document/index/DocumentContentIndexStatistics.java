@@ -0,0 +1,65 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.document.index;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Represents the <b>statistics</b> of the full-text indexing of the document contents.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@Builder(setterPrefix = "with")
+public final class DocumentContentIndexStatistics
+{
+    /**
+     * Is the indexing enabled?
+     */
+    @Getter
+    private final boolean enabled;
+
+    /**
+     * Number of documents waiting to be indexed.
+     */
+    @Getter
+    private final int queued;
+
+    /**
+     * Number of documents the queue can still accept.
+     */
+    @Getter
+    private final int remainingCapacity;
+
+    /**
+     * Number of documents whose content has been indexed.
+     */
+    @Getter
+    private final long indexed;
+
+    /**
+     * Number of documents not queued because the queue was full (left to the next sweep).
+     */
+    @Getter
+    private final long rejected;
+
+    /**
+     * Number of documents whose text could not be extracted or indexed.
+     */
+    @Getter
+    private final long failed;
+}
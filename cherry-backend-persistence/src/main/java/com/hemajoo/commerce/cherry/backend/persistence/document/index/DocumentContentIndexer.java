@@ -0,0 +1,486 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.document.index;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.QueryResultCache;
+import com.hemajoo.commerce.cherry.backend.persistence.document.content.DocumentStore;
+import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
+import com.hemajoo.commerce.cherry.backend.persistence.document.repository.IDocumentRepository;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.apache.tika.Tika;
+import org.apache.tika.exception.TikaException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Component maintaining the <b>full-text index</b> of the document contents.
+ * <br>
+ * The text of a document content is extracted (with {@code Tika}) by a pool of background workers and stored as a text search vector
+ * in the {@code DOCUMENT_CONTENT_INDEX} table (served by a {@code gin} index), so the documents can be searched by the words of their
+ * content with the {@code FULL_TEXT} query operator. Indexing runs off the request path:
+ * <ul>
+ * <li>documents are queued once the transaction inserting or updating them is committed (see {@link DocumentContentIndexListener}),</li>
+ * <li>the queue is bounded: when full, documents are not queued but left to a periodic sweep which queues the documents not indexed
+ * (or whose content changed since indexed) as long as the queue has some capacity left,</li>
+ * <li>a document is indexed again only if its content changed, its index entry being removed when the document is deleted,</li>
+ * <li>a document whose content cannot be read from the store is recorded as failed (see {@link DocumentContentIndexFailure}) and
+ * retried by the sweeps with an exponential backoff, after the documents that never failed.</li>
+ * </ul>
+ * The index is eventually consistent: a document is searchable by its content once a worker indexed it.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+@Component
+public class DocumentContentIndexer
+{
+    /**
+     * Statement inserting (or replacing) the index entry of a document, unless the document has been deleted meanwhile.
+     */
+    private static final String UPSERT_ENTRY = "INSERT INTO DOCUMENT_CONTENT_INDEX (DOCUMENT_ID, CONTENT_ID, CONTENT_VECTOR, INDEXED_DATE) "
+            + "SELECT ?, ?, to_tsvector('simple', ?), ? WHERE EXISTS (SELECT 1 FROM DOCUMENT WHERE ID = ?) "
+            + "ON CONFLICT (DOCUMENT_ID) DO UPDATE SET CONTENT_ID = EXCLUDED.CONTENT_ID, CONTENT_VECTOR = EXCLUDED.CONTENT_VECTOR, INDEXED_DATE = EXCLUDED.INDEXED_DATE";
+
+    /**
+     * Query returning the documents having a content not indexed or changed since indexed, skipping the failed contents whose next
+     * attempt date is not reached. The documents that never failed come first, then the failed ones by number of attempts.
+     */
+    private static final String FIND_STALE = "SELECT D.ID FROM DOCUMENT D LEFT JOIN DOCUMENT_CONTENT_INDEX I ON I.DOCUMENT_ID = D.ID "
+            + "LEFT JOIN DOCUMENT_CONTENT_INDEX_FAILURE F ON F.DOCUMENT_ID = D.ID AND F.CONTENT_ID = D.CONTENT_ID "
+            + "WHERE D.CONTENT_ID IS NOT NULL AND (I.DOCUMENT_ID IS NULL OR I.CONTENT_ID <> D.CONTENT_ID) "
+            + "AND (F.DOCUMENT_ID IS NULL OR F.NEXT_ATTEMPT_DATE <= LOCALTIMESTAMP) "
+            + "ORDER BY F.ATTEMPTS NULLS FIRST, F.NEXT_ATTEMPT_DATE LIMIT ?";
+
+    /**
+     * Statement recording (or counting) a failed indexing of a document content, unless the document has been deleted meanwhile.
+     * <br>
+     * The delay before the next attempt doubles at each failure of the same content, up to the maximum retry delay.
+     */
+    private static final String UPSERT_FAILURE = "INSERT INTO DOCUMENT_CONTENT_INDEX_FAILURE AS F (DOCUMENT_ID, CONTENT_ID, ATTEMPTS, NEXT_ATTEMPT_DATE) "
+            + "SELECT ?, ?, 1, LOCALTIMESTAMP + make_interval(secs => ?) WHERE EXISTS (SELECT 1 FROM DOCUMENT WHERE ID = ?) "
+            + "ON CONFLICT (DOCUMENT_ID) DO UPDATE SET "
+            + "ATTEMPTS = CASE WHEN F.CONTENT_ID = EXCLUDED.CONTENT_ID THEN F.ATTEMPTS + 1 ELSE 1 END, "
+            + "NEXT_ATTEMPT_DATE = LOCALTIMESTAMP + make_interval(secs => least(?, ? * power(2, CASE WHEN F.CONTENT_ID = EXCLUDED.CONTENT_ID THEN F.ATTEMPTS ELSE 0 END))), "
+            + "CONTENT_ID = EXCLUDED.CONTENT_ID";
+
+    /**
+     * Statement removing the failed indexing of a document.
+     */
+    private static final String DELETE_FAILURE = "DELETE FROM DOCUMENT_CONTENT_INDEX_FAILURE WHERE DOCUMENT_ID = ?";
+
+    /**
+     * Tika object.
+     */
+    private final Tika tika = new Tika();
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Document repository.
+     */
+    @Autowired
+    private IDocumentRepository documentRepository;
+
+    /**
+     * Document store.
+     */
+    @Autowired
+    private DocumentStore documentStore;
+
+    /**
+     * Query result cache.
+     */
+    @Autowired
+    private QueryResultCache queryCache;
+
+    /**
+     * Is the indexing enabled?
+     */
+    private final boolean enabled;
+
+    /**
+     * Number of workers.
+     */
+    private final int threads;
+
+    /**
+     * Maximum number of documents waiting to be indexed.
+     */
+    private final int capacity;
+
+    /**
+     * Period (in seconds) of the sweeps.
+     */
+    private final long sweepPeriod;
+
+    /**
+     * Maximum length of the text extracted from a content.
+     */
+    private final int maxTextLength;
+
+    /**
+     * Delay (in seconds) before retrying a document whose content failed to be read for the first time.
+     */
+    private final long retryDelay;
+
+    /**
+     * Maximum delay (in seconds) before retrying a document whose content failed to be read.
+     */
+    private final long retryMaxDelay;
+
+    /**
+     * Identifiers of the documents queued and not yet picked by a worker.
+     */
+    private final Set<UUID> pending = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Number of indexed documents.
+     */
+    private final LongAdder indexed = new LongAdder();
+
+    /**
+     * Number of documents not queued because the queue was full.
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Number of documents whose indexing failed.
+     */
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Workers indexing the documents.
+     */
+    private ThreadPoolExecutor executor;
+
+    /**
+     * Scheduler of the sweeps.
+     */
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * Creates a new document content indexer.
+     * @param enabled Is the indexing enabled?
+     * @param threads Number of workers.
+     * @param capacity Maximum number of documents waiting to be indexed.
+     * @param sweepPeriod Period (in seconds) of the sweeps.
+     * @param maxTextLength Maximum length of the text extracted from a content.
+     * @param retryDelay Delay (in seconds) before retrying a document whose content failed to be read for the first time.
+     * @param retryMaxDelay Maximum delay (in seconds) before retrying a document whose content failed to be read.
+     */
+    public DocumentContentIndexer(
+            final @Value("${hemajoo.commerce.cherry.document.index.enabled:true}") boolean enabled,
+            final @Value("${hemajoo.commerce.cherry.document.index.threads:2}") int threads,
+            final @Value("${hemajoo.commerce.cherry.document.index.queue.capacity:1000}") int capacity,
+            final @Value("${hemajoo.commerce.cherry.document.index.sweep.period:300}") long sweepPeriod,
+            final @Value("${hemajoo.commerce.cherry.document.index.text.max:100000}") int maxTextLength,
+            final @Value("${hemajoo.commerce.cherry.document.index.retry.delay:300}") long retryDelay,
+            final @Value("${hemajoo.commerce.cherry.document.index.retry.max.delay:86400}") long retryMaxDelay)
+    {
+        this.enabled = enabled;
+        this.threads = Math.max(1, threads);
+        this.capacity = Math.max(1, capacity);
+        this.sweepPeriod = sweepPeriod;
+        this.maxTextLength = maxTextLength;
+        this.tika.setMaxStringLength(maxTextLength);
+        this.retryDelay = Math.max(1, retryDelay);
+        this.retryMaxDelay = Math.max(this.retryDelay, retryMaxDelay);
+    }
+
+    /**
+     * Starts the workers and schedules the sweeps once the application is ready (the database migrations being applied).
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start()
+    {
+        if (!enabled)
+        {
+            return;
+        }
+
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(capacity), runnable -> {
+            Thread thread = new Thread(runnable, "cherry-document-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cherry-document-index-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (sweepPeriod > 0)
+        {
+            scheduler.scheduleWithFixedDelay(this::sweepSafely, 0, sweepPeriod, TimeUnit.SECONDS);
+        }
+        else
+        {
+            scheduler.execute(this::sweepSafely);
+        }
+    }
+
+    /**
+     * Stops the workers and the sweeps.
+     */
+    @PreDestroy
+    public void shutdown()
+    {
+        if (scheduler != null)
+        {
+            scheduler.shutdownNow();
+        }
+
+        if (executor != null)
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues a document for indexing once the current transaction is committed (immediately if no transaction is active).
+     * @param documentId Document identifier.
+     */
+    public void scheduleAfterCommit(final @NonNull UUID documentId)
+    {
+        if (TransactionSynchronizationManager.isSynchronizationActive())
+        {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization()
+            {
+                @Override
+                public void afterCommit()
+                {
+                    schedule(documentId);
+                }
+            });
+        }
+        else
+        {
+            schedule(documentId);
+        }
+    }
+
+    /**
+     * Queues a document for indexing.
+     * <br>
+     * A document already queued is not queued twice. When the queue is full, the document is left to the next sweep.
+     * @param documentId Document identifier.
+     * @return {@code True} if the document is queued, {@code false} otherwise.
+     */
+    public boolean schedule(final @NonNull UUID documentId)
+    {
+        if (executor == null)
+        {
+            return false;
+        }
+
+        if (!pending.add(documentId))
+        {
+            return true;
+        }
+
+        try
+        {
+            executor.execute(() -> indexSafely(documentId));
+            return true;
+        }
+        catch (RejectedExecutionException e)
+        {
+            pending.remove(documentId);
+            rejected.increment();
+            LOGGER.debug(String.format("Document: '%s' not queued for indexing (queue full), left to the next sweep", documentId));
+
+            return false;
+        }
+    }
+
+    /**
+     * Indexes the content of a document, if not already indexed.
+     * @param documentId Document identifier.
+     * @return {@code True} if the document content has been indexed, {@code false} if the document does not exist, has no content,
+     * its content is already indexed or cannot be read from the store (recorded as failed and retried by a later sweep).
+     */
+    public boolean index(final @NonNull UUID documentId)
+    {
+        DocumentServer document = documentRepository.findById(documentId).orElse(null);
+        if (document == null || document.getContentId() == null)
+        {
+            return false;
+        }
+
+        List<String> contentIds = jdbcTemplate.queryForList("SELECT CONTENT_ID FROM DOCUMENT_CONTENT_INDEX WHERE DOCUMENT_ID = ?", String.class, documentId);
+        if (!contentIds.isEmpty() && document.getContentId().equals(contentIds.get(0)))
+        {
+            return false;
+        }
+
+        long start = System.currentTimeMillis();
+        String text;
+        try
+        {
+            text = extract(document);
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // Not indexed, the sweeps retry it with a backoff.
+            failed.increment();
+            jdbcTemplate.update(UPSERT_FAILURE, documentId, document.getContentId(), (double) retryDelay, documentId, (double) retryMaxDelay, (double) retryDelay);
+            LOGGER.warn(String.format("Cannot read the content of document: '%s', left to a later sweep: %s", documentId, e.getMessage()));
+
+            return false;
+        }
+
+        jdbcTemplate.update(UPSERT_ENTRY, documentId, document.getContentId(), text, new Timestamp(System.currentTimeMillis()), documentId);
+        jdbcTemplate.update(DELETE_FAILURE, documentId);
+
+        // Cached search results do not reflect the newly indexed content.
+        queryCache.invalidate(DocumentServer.class);
+        indexed.increment();
+        LOGGER.debug(String.format("Document: '%s' content indexed (%s characters) in: %s ms", documentId, text.length(), System.currentTimeMillis() - start));
+
+        return true;
+    }
+
+    /**
+     * Removes the index entry of a document.
+     * @param documentId Document identifier (can be null).
+     */
+    public void remove(final UUID documentId)
+    {
+        if (documentId != null)
+        {
+            jdbcTemplate.update("DELETE FROM DOCUMENT_CONTENT_INDEX WHERE DOCUMENT_ID = ?", documentId);
+            jdbcTemplate.update(DELETE_FAILURE, documentId);
+        }
+    }
+
+    /**
+     * Returns the indexing statistics.
+     * @return Statistics.
+     */
+    public DocumentContentIndexStatistics getStatistics()
+    {
+        return DocumentContentIndexStatistics.builder()
+                .withEnabled(enabled)
+                .withQueued(executor != null ? executor.getQueue().size() : 0)
+                .withRemainingCapacity(executor != null ? executor.getQueue().remainingCapacity() : 0)
+                .withIndexed(indexed.sum())
+                .withRejected(rejected.sum())
+                .withFailed(failed.sum())
+                .build();
+    }
+
+    /**
+     * Extracts the text of a document content.
+     * <br>
+     * A content whose text cannot be parsed is indexed without text, so it is not extracted again until it changes. A content that cannot
+     * be read from the store raises an exception, so it is not indexed and retried by a later sweep.
+     * @param document Document.
+     * @return Text (truncated to the maximum text length).
+     * @throws IOException Thrown to indicate the content cannot be read from the store.
+     */
+    private String extract(final @NonNull DocumentServer document) throws IOException
+    {
+        try (InputStream stream = documentStore.getStore().getContent(document))
+        {
+            if (stream == null)
+            {
+                throw new IOException(String.format("Content id: '%s' not found in the store!", document.getContentId()));
+            }
+
+            String text = document.getMimeType() != null && document.getMimeType().startsWith("text/")
+                    ? new String(stream.readNBytes(maxTextLength), StandardCharsets.UTF_8)
+                    : tika.parseToString(stream);
+
+            return text.replace('\u0000', ' '); // Not allowed in a text column.
+        }
+        catch (TikaException e)
+        {
+            failed.increment();
+            LOGGER.warn(String.format("Cannot extract the text of document: '%s' with mime type: '%s', indexed without text: %s", document.getId(), document.getMimeType(), e.getMessage()));
+
+            return "";
+        }
+    }
+
+    /**
+     * Indexes a queued document, logging the errors.
+     * @param documentId Document identifier.
+     */
+    private void indexSafely(final @NonNull UUID documentId)
+    {
+        // Removed first so a document updated while being indexed is queued again.
+        pending.remove(documentId);
+
+        try
+        {
+            index(documentId);
+        }
+        catch (RuntimeException e)
+        {
+            failed.increment();
+            LOGGER.error(String.format("Cannot index document: '%s': %s", documentId, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Queues the documents not indexed (or whose content changed since indexed), up to the remaining capacity of the queue.
+     */
+    private void sweepSafely()
+    {
+        try
+        {
+            int remaining = executor.getQueue().remainingCapacity();
+            if (remaining == 0)
+            {
+                return;
+            }
+
+            List<UUID> ids = jdbcTemplate.queryForList(FIND_STALE, UUID.class, remaining);
+            ids.forEach(this::schedule);
+
+            if (!ids.isEmpty())
+            {
+                LOGGER.debug(String.format("Sweep queued: %s document(s) for indexing", ids.size()));
+            }
+        }
+        catch (RuntimeException e)
+        {
+            LOGGER.error(String.format("Cannot sweep the documents to index: %s", e.getMessage()), e);
+        }
+    }
+}
@@ -20,11 +20,17 @@ import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.CycleAvoiding
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
 import com.hemajoo.commerce.cherry.backend.shared.document.DocumentClient;
+import com.hemajoo.commerce.cherry.backend.shared.document.filter.DocumentFilterMetadata;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Context;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.mapstruct.factory.Mappers;
 
 import javax.persistence.EntityManager;
+import java.util.List;
 
 /**
  * Abstract document <b>mapper</b> (used by a document <b>converter</b>) to convert between client and server document instances.
@@ -65,6 +71,28 @@ public abstract class AbstractDocumentMapper
      */
     public abstract DocumentClient fromServerToClient(DocumentServer document, @Context CycleAvoidingMappingContext context);
 
+    /**
+     * Maps from a list of server document entities to a list of client document entities.
+     * <br>
+     * The same context is used for all the entities of the list.
+     * @param entities Server document entities.
+     * @param context Context object.
+     * @return Client document entities.
+     */
+    public abstract List<DocumentClient> fromServerToClient(List<DocumentServer> entities, @Context CycleAvoidingMappingContext context);
+
+    /**
+     * Maps from a list of client document entities to a list of server document entities.
+     * <br>
+     * The same context is used for all the entities of the list.
+     * @param entities Client document entities.
+     * @param context Context object.
+     * @param entityManager Entity manager.
+     * @return Server document entities.
+     * @throws EntityException Thrown to indicate an error occurred while trying to convert a document entity.
+     */
+    public abstract List<DocumentServer> fromClientToServer(List<DocumentClient> entities, @Context CycleAvoidingMappingContext context, @Context EntityManager entityManager) throws EntityException;
+
     /**
      * Copy a server document entity.
      * @param entity Server document entity.
@@ -82,4 +110,36 @@ public abstract class AbstractDocumentMapper
      * @throws EntityException Thrown to indicate an error occurred while trying to copy a document entity.
      */
     public abstract DocumentClient copy(DocumentClient entity, @Context CycleAvoidingMappingContext context) throws EntityException;
+
+    /**
+     * Updates the metadata of a server document entity from a client document entity.
+     * <br>
+     * Only the properties listed by the {@link DocumentFilterMetadata} are updated.
+     * @param document Client document entity.
+     * @param target Server document entity to update.
+     */
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_NAME)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_DESCRIPTION)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_REFERENCE)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_TYPE)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_TAGS)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_STATUS_TYPE)
+    public abstract void updateMetadata(DocumentClient document, @MappingTarget DocumentServer target);
+
+    /**
+     * Patches the metadata of a server document entity from a client document entity.
+     * <br>
+     * Only the properties listed by the {@link DocumentFilterMetadata} and not {@code null} in the client document are updated.
+     * @param patch Client document entity holding the properties to patch.
+     * @param target Server document entity to patch.
+     */
+    @BeanMapping(ignoreByDefault = true, nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_NAME)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_DESCRIPTION)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_REFERENCE)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_TYPE)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_TAGS)
+    @Mapping(target = DocumentFilterMetadata.DOCUMENT_METADATA_STATUS_TYPE)
+    public abstract void patchMetadata(DocumentClient patch, @MappingTarget DocumentServer target);
 }
@@ -14,46 +14,56 @@
  */
 package com.hemajoo.commerce.cherry.backend.persistence.document.repository;
 
-import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
-import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.QueryResultCache;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityFactory;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.MergePatch;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryAggregator;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryCursor;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryMonitor;
 import com.hemajoo.commerce.cherry.backend.persistence.document.content.DocumentStore;
 import com.hemajoo.commerce.cherry.backend.persistence.document.converter.DocumentConverter;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
-import com.hemajoo.commerce.cherry.backend.shared.base.filter.IEntityFilter;
-import com.hemajoo.commerce.cherry.backend.shared.base.query.AbstractStatusQuery;
-import com.hemajoo.commerce.cherry.backend.shared.base.query.BaseEntityQuery;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.GenericSpecification;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.QueryPage;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateResult;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.QueryAggregate;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
 import com.hemajoo.commerce.cherry.backend.shared.document.DocumentClient;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
 import com.hemajoo.commerce.cherry.backend.shared.document.filter.DocumentFilterMetadata;
 import com.hemajoo.commerce.cherry.backend.shared.document.query.DocumentQuery;
-import com.hemajoo.commerce.cherry.backend.shared.document.type.DocumentType;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.tika.Tika;
-import org.javers.core.Javers;
-import org.javers.core.JaversBuilder;
-import org.javers.core.diff.changetype.ValueChange;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.content.commons.repository.ContentStore;
 import org.springframework.core.io.Resource;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-
-import static org.javers.core.diff.ListCompareAlgorithm.LEVENSHTEIN_DISTANCE;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Implementation of the <b>document</b> persistence service.
@@ -83,16 +93,45 @@ public class DocumentService implements IDocumentService
     private DocumentStore documentStore;
 
     /**
-     * Object changes detector.
+     * Query aggregator.
+     */
+    @Autowired
+    private QueryAggregator aggregator;
+
+    /**
+     * Query result cache.
      */
-    private final Javers javers = JaversBuilder.javers()
-            .withListCompareAlgorithm(LEVENSHTEIN_DISTANCE)
-            .build();
+    @Autowired
+    private QueryResultCache queryCache;
 
     /**
-     * Document converter.
+     * Query monitor.
      */
-    private DocumentConverter converter = new DocumentConverter();
+    @Autowired
+    private QueryMonitor monitor;
+
+    /**
+     * Transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Number of threads uploading the contents of a batch of documents.
+     */
+    @Value("${hemajoo.commerce.cherry.document.upload.threads:4}")
+    private int uploadThreads;
+
+    /**
+     * Maximum number of documents of a page.
+     */
+    @Value("${hemajoo.commerce.cherry.document.page.size.max:500}")
+    private int maxPageSize;
+
+    /**
+     * Executor uploading the contents of a batch of documents.
+     */
+    private ExecutorService uploadExecutor;
 
     /**
      * Entity factory.
@@ -101,6 +140,28 @@ public class DocumentService implements IDocumentService
     @Autowired
     private EntityFactory factory;
 
+    /**
+     * Creates the executor uploading the contents of a batch of documents.
+     */
+    @PostConstruct
+    public void initialize()
+    {
+        uploadExecutor = Executors.newFixedThreadPool(Math.max(1, uploadThreads), runnable -> {
+            Thread thread = new Thread(runnable, "cherry-document-upload");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Shuts down the executor uploading the contents of a batch of documents.
+     */
+    @PreDestroy
+    public void shutdown()
+    {
+        uploadExecutor.shutdownNow();
+    }
+
     @Override
     public IDocumentRepository getRepository()
     {
@@ -116,7 +177,7 @@ public class DocumentService implements IDocumentService
     @Override
     public DocumentServer findById(UUID id)
     {
-        DocumentServer document = documentRepository.findById(id).orElse(null);
+        DocumentServer document = ServerEntity.initializeAssociations(documentRepository.findById(id).orElse(null));
 
         if (document != null)
         {
@@ -142,22 +203,39 @@ public class DocumentService implements IDocumentService
             throw new DocumentException(String.format("Document with id: '%s' not found!", document.getId()), HttpStatus.NOT_FOUND);
         }
 
-        DocumentClient original =  converter.fromServerToClient(serverDocument);
+        DocumentConverter.updateMetadata(document, serverDocument);
 
-        LOGGER.debug(String.format("%s detecting changes on properties...", document.getIdentity()));
-        List<ValueChange> changes = filterDocumentChanges(getPropertyChanges(original, document), DocumentFilterMetadata.build());
-        if (!changes.isEmpty())
-        {
-            applyPropertyChanges(serverDocument, changes);
-            serverDocument = documentRepository.save(serverDocument);
-            LOGGER.debug(String.format("%s updated successfully", document.getIdentity()));
-        }
-        else
+        return saveMetadata(serverDocument);
+    }
+
+    @Override
+    public DocumentServer patchMetadata(final @NonNull UUID id, final @NonNull Map<String, Object> patch) throws EntityException
+    {
+        DocumentServer serverDocument = documentRepository.findById(id).orElse(null);
+        if (serverDocument == null)
         {
-            LOGGER.debug(String.format("%s no change detected on properties!", document.getIdentity()));
+            throw new DocumentException(String.format("Document with id: '%s' not found!", id), HttpStatus.NOT_FOUND);
         }
 
-        return serverDocument;
+        DocumentConverter.patchMetadata(MergePatch.read(patch, DocumentFilterMetadata.build(), DocumentClient.class), serverDocument);
+
+        return saveMetadata(serverDocument);
+    }
+
+    /**
+     * Saves the updated metadata of a document.
+     * <br>
+     * Only the modified columns are written, as detected by the dirty checking of the persistence context.
+     * @param document Server document.
+     * @return Saved server document.
+     */
+    private DocumentServer saveMetadata(final @NonNull DocumentServer document)
+    {
+        DocumentServer saved = documentRepository.save(document);
+        queryCache.invalidate(DocumentServer.class);
+        LOGGER.debug(String.format("%s metadata updated successfully", saved.getIdentity()));
+
+        return saved;
     }
 
     @Override
@@ -229,103 +307,185 @@ public class DocumentService implements IDocumentService
         return documentStore.getStore().getResource(document);
     }
 
-    /**
-     * Retrieve the changes on properties between two client documents.
-     * @param original Original client document.
-     * @param other Other client document.
-     * @return List of changes on properties.
-     */
-    private List<ValueChange> getPropertyChanges(final @NonNull DocumentClient original, final @NonNull DocumentClient other)
+    //@Transactional
+    @Override
+    public DocumentServer save(DocumentServer document)
     {
-        return javers.compare(original, other).getChangesByType(ValueChange.class);
+        // Save the content file, if one exist and not already saved!
+        if (document.getContent() != null && document.getContentId() == null)
+        {
+            document = (DocumentServer) documentStore.getStore().setContent(document, document.getContent());
+            LOGGER.debug(String.format("%s successfully saved with content id: '%s'", document.getIdentity(), document.getContentId()));
+        }
+
+        document = documentRepository.save(document);
+        queryCache.invalidate(DocumentServer.class);
+        LOGGER.debug(String.format("%s saved successfully", document.getIdentity()));
+
+        return document;
     }
 
-    /**
-     * Apply the changes detected on properties to a server document.
-     * @param documentServer Server document.
-     * @param changes List of changes.
-     * @throws EntityException Thrown to indicate an error occurred when trying to connect retrieve an entity.
-     * @throws DocumentException Thrown to indicate an error occurred when trying to apply changes on document properties.
-     */
-    private void applyPropertyChanges(final @NonNull DocumentServer documentServer, final @NonNull List<ValueChange> changes) throws EntityException
+    @Override
+    public List<DocumentServer> saveAll(final @NonNull List<DocumentServer> documents) throws DocumentException
     {
-        for (ValueChange change : changes)
+        if (documents.isEmpty())
         {
-            switch (change.getPropertyName())
-            {
-                case DocumentQuery.DOCUMENT_TAGS ->
-                        documentServer.setTags((String) change.getRight());
+            return documents;
+        }
+
+        long start = System.currentTimeMillis();
+        List<DocumentServer> uploaded = uploadContents(documents);
 
-                case DocumentQuery.DOCUMENT_TYPE ->
-                        documentServer.setDocumentType((DocumentType) change.getRight());
+        List<DocumentServer> saved;
+        try
+        {
+            // Joins the transaction of the caller if one, the flush sends the inserts (by JDBC batches) before returning.
+            saved = new TransactionTemplate(transactionManager).execute(status -> {
+                List<DocumentServer> result = documentRepository.saveAll(documents);
+                documentRepository.flush();
+                return result;
+            });
+        }
+        catch (RuntimeException e)
+        {
+            removeContents(uploaded);
+            throw new DocumentException(String.format("Cannot save: %s documents: %s", documents.size(), e.getMessage()), e);
+        }
+        finally
+        {
+            queryCache.invalidate(DocumentServer.class);
+        }
 
-                case BaseEntityQuery.BASE_DESCRIPTION ->
-                        documentServer.setDescription((String) change.getRight());
+        LOGGER.debug(String.format("Saved: %s documents (%s contents uploaded) in: %s ms", documents.size(), uploaded.size(), System.currentTimeMillis() - start));
 
-                case BaseEntityQuery.BASE_NAME ->
-                        documentServer.setName((String) change.getRight());
+        return saved;
+    }
 
-                case BaseEntityQuery.BASE_REFERENCE ->
-                        documentServer.setReference((String) change.getRight());
+    /**
+     * Uploads concurrently the contents not yet stored of a batch of documents.
+     * <br>
+     * If an upload fails, the contents already uploaded are removed from the content store.
+     * @param documents Documents.
+     * @return Documents whose content has been uploaded.
+     * @throws DocumentException Thrown to indicate an error occurred when uploading a content.
+     */
+    private List<DocumentServer> uploadContents(final List<DocumentServer> documents) throws DocumentException
+    {
+        ContentStore<DocumentServer, String> store = documentStore.getStore();
 
-                case AbstractStatusQuery.BASE_STATUS_TYPE ->
-                        documentServer.setStatusType((StatusType) change.getRight());
+        List<DocumentServer> pending = documents.stream()
+                .filter(document -> document.getContent() != null && document.getContentId() == null)
+                .toList();
 
-                case BaseEntityQuery.BASE_PARENT_TYPE ->
-                        documentServer.setParentType((EntityType) change.getRight());
+        List<Future<DocumentServer>> uploads = new ArrayList<>(pending.size());
+        for (DocumentServer document : pending)
+        {
+            uploads.add(uploadExecutor.submit(() -> uploadContent(store, document)));
+        }
 
-                case BaseEntityQuery.BASE_PARENT_ID -> {
-                    ServerEntity parent = (ServerEntity) factory.from(documentServer.getParentType(), UUID.fromString((String) change.getRight()));
-                    documentServer.setParent(parent);
-                }
+        List<DocumentServer> uploaded = new ArrayList<>(pending.size());
+        List<String> failures = new ArrayList<>();
 
-                default -> throw new DocumentException(String.format("Document property change for property name: '%s' is not handled!", change.getPropertyName()));
+        // All the uploads are awaited, so the uploaded contents can be removed if one of them failed.
+        for (int i = 0; i < uploads.size(); i++)
+        {
+            try
+            {
+                uploaded.add(await(uploads.get(i)));
+            }
+            catch (ExecutionException e)
+            {
+                failures.add(String.format("%s: %s", pending.get(i).getName(), e.getCause().getMessage()));
             }
         }
+
+        if (!failures.isEmpty())
+        {
+            removeContents(uploaded);
+            throw new DocumentException(String.format("Cannot upload: %s document contents out of: %s: %s", failures.size(), pending.size(), failures));
+        }
+
+        return uploaded;
     }
 
     /**
-     * Filter the changes on properties detected to the metadata part of a document.
-     * @param changes List of changes.
-     * @return List of filtered changes.
+     * Waits for the completion of an upload, even if the current thread is interrupted (the interruption being restored).
+     * @param upload Upload.
+     * @return Document.
+     * @throws ExecutionException Thrown to indicate the upload failed.
      */
-    private List<ValueChange> filterDocumentChanges(final @NonNull List<ValueChange> changes, final @NonNull IEntityFilter filter)
+    private static DocumentServer await(final Future<DocumentServer> upload) throws ExecutionException
     {
-        List<ValueChange> filtered = new ArrayList<>();
-
-        for (ValueChange change : changes)
+        boolean interrupted = false;
+        try
         {
-            if (filter.contains(change.getPropertyName()))
+            while (true)
             {
-                LOGGER.debug(String.format("-> property name: [%-15.15s], original: [%-50.50s], updated: [%s]", change.getPropertyName(), change.getLeft(), change.getRight()));
-                filtered.add(change);
+                try
+                {
+                    return upload.get();
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
             }
         }
-
-        return filtered;
     }
 
-    //@Transactional
-    @Override
-    public DocumentServer save(DocumentServer document)
+    /**
+     * Uploads the content of a document to the content store.
+     * @param store Content store.
+     * @param document Document.
+     * @return Document.
+     * @throws IOException Thrown to indicate an error occurred when closing the content.
+     */
+    private DocumentServer uploadContent(final ContentStore<DocumentServer, String> store, final DocumentServer document) throws IOException
     {
-        // Save the content file, if one exist and not already saved!
-        if (document.getContent() != null && document.getContentId() == null)
+        try (InputStream content = document.getContent())
         {
-            document = (DocumentServer) documentStore.getStore().setContent(document, document.getContent());
-            LOGGER.debug(String.format("%s successfully saved with content id: '%s'", document.getIdentity(), document.getContentId()));
+            store.setContent(document, content);
         }
 
-        document = documentRepository.save(document);
-        LOGGER.debug(String.format("%s saved successfully", document.getIdentity()));
+        LOGGER.debug(String.format("%s successfully saved with content id: '%s'", document.getIdentity(), document.getContentId()));
 
         return document;
     }
 
+    /**
+     * Removes from the content store the contents of documents (compensation of a failed batch).
+     * @param documents Documents.
+     */
+    private void removeContents(final List<DocumentServer> documents)
+    {
+        for (DocumentServer document : documents)
+        {
+            try
+            {
+                documentStore.getStore().unsetContent(document);
+                LOGGER.debug(String.format("%s content removed", document.getIdentity()));
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.warn(String.format("%s content: '%s' cannot be removed: %s", document.getIdentity(), document.getContentId(), e.getMessage()));
+            }
+        }
+    }
+
     @Override
     public DocumentServer saveAndFlush(DocumentServer document)
     {
-        return documentRepository.saveAndFlush(document); //TODO What about the content ?
+        document = documentRepository.saveAndFlush(document); //TODO What about the content ?
+        queryCache.invalidate(DocumentServer.class);
+
+        return document;
     }
 
     @Override
@@ -347,12 +507,13 @@ public class DocumentService implements IDocumentService
 
         LOGGER.debug(String.format("Successfully deleted document with id: '%s'", document.getId()));
         documentRepository.deleteById(id);
+        queryCache.invalidate(DocumentServer.class);
     }
 
     @Override
     public List<DocumentServer> findAll()
     {
-        List<DocumentServer> documents = documentRepository.findAll();
+        List<DocumentServer> documents = ServerEntity.initializeAssociations(documentRepository.findAll());
         documents.forEach(this::loadContent);
 
         return documents;
@@ -361,7 +522,41 @@ public class DocumentService implements IDocumentService
     @Override
     public List<DocumentServer> findByParentId(final @NonNull UUID parentId)
     {
-        return documentRepository.findByParentId(parentId);
+        return ServerEntity.initializeAssociations(documentRepository.findByParentId(parentId));
+    }
+
+    @Override
+    public QueryPage<DocumentServer> findByParentId(final @NonNull UUID parentId, final String cursor, final int size) throws QueryConditionException
+    {
+        // One more document is read to know if a next page exists.
+        int limit = Math.max(1, Math.min(size, maxPageSize));
+        PageRequest page = PageRequest.of(0, limit + 1);
+
+        List<DocumentServer> documents;
+        if (cursor == null || cursor.isBlank())
+        {
+            documents = documentRepository.findFirstPageByParentId(parentId, page);
+        }
+        else
+        {
+            QueryCursor position = QueryCursor.decode(cursor);
+            documents = documentRepository.findNextPageByParentId(parentId, position.getCreatedDate(), position.getId(), page);
+        }
+
+        String nextCursor = null;
+        if (documents.size() > limit)
+        {
+            documents = new ArrayList<>(documents.subList(0, limit));
+            nextCursor = QueryCursor.after(documents.get(limit - 1));
+        }
+
+        return new QueryPage<>(ServerEntity.initializeAssociations(documents), nextCursor);
+    }
+
+    @Override
+    public long countByParentId(final @NonNull UUID parentId)
+    {
+        return documentRepository.countByParentId(parentId);
     }
 
     @Override
@@ -385,16 +580,28 @@ public class DocumentService implements IDocumentService
     @Override
     public List<DocumentServer> search(@NonNull DocumentQuery search) throws QueryConditionException
     {
-        List<DocumentServer> documents;
+        search.validate();
 
-        GenericSpecification<DocumentServer> specification = (GenericSpecification<DocumentServer>) search.getSpecification();
+        long generation = queryCache.getGeneration(DocumentServer.class);
+        List<DocumentServer> documents = queryCache.get(DocumentServer.class, search, QueryResultCache.UNPAGED);
+        if (documents == null)
+        {
+            GenericSpecification<DocumentServer> specification = (GenericSpecification<DocumentServer>) search.getSpecification();
+            documents = queryCache.put(DocumentServer.class, search, QueryResultCache.UNPAGED, generation, monitor.execute(search, () -> ServerEntity.initializeAssociations(documentRepository.findAll(specification))));
+        }
 
-        documents = documentRepository.findAll(specification);
+        // Contents are not cached, they are streams loaded on each retrieval (the cache holds identifiers only, entities are never shared).
         documents.forEach(this::loadContent);
 
         return documents;
     }
 
+    @Override
+    public List<AggregateResult> aggregate(final @NonNull DocumentQuery search, final @NonNull QueryAggregate aggregate) throws QueryConditionException
+    {
+        return aggregator.aggregate(DocumentServer.class, search, aggregate);
+    }
+
 //    private DocumentServer merge(final @NonNull DocumentServer source, final @NonNull DocumentServer target) throws DocumentException, EntityException
 //    {
 //        IServerEntity entity;
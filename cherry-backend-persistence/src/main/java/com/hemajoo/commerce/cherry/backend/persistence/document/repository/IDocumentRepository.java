@@ -16,12 +16,25 @@ package com.hemajoo.commerce.cherry.backend.persistence.document.repository;
 
 
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
+import lombok.NonNull;
+import org.jetbrains.annotations.NotNull;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 /**
  * Repository for the <b>document</b> entities.
  * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
@@ -29,10 +42,74 @@ import java.util.UUID;
  */
 public interface IDocumentRepository extends JpaRepository<DocumentServer, UUID>, JpaSpecificationExecutor<DocumentServer>
 {
+    /**
+     * Returns a document matching the given identifier.
+     * @param id Document identifier.
+     * @return Document.
+     */
+    @NotNull
+    @EntityGraph(DocumentServer.GRAPH_DETAIL)
+    Optional<DocumentServer> findById(final @NonNull UUID id);
+
     /**
      * Returns a list of documents belonging to the given parent identifier.
      * @param id Parent identifier.
      * @return List of documents.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(DocumentServer.GRAPH_LIST)
     List<DocumentServer> findByParentId(UUID id);
+
+    /**
+     * Returns the first page of the documents belonging to the given parent identifier (most recent first).
+     * <br>
+     * Served by the index on the parent, the creation date and the identifier. The parents are not loaded.
+     * @param parentId Parent identifier.
+     * @param pageable Page size.
+     * @return List of documents.
+     */
+    @Query("SELECT d FROM DocumentServer d WHERE d.parent.id = :parentId ORDER BY d.createdDate DESC, d.id DESC")
+    List<DocumentServer> findFirstPageByParentId(@Param("parentId") UUID parentId, Pageable pageable);
+
+    /**
+     * Returns the page of the documents belonging to the given parent identifier following the given document (most recent first).
+     * <br>
+     * Served by the index on the parent, the creation date and the identifier (the redundant bound on the creation date being the
+     * index condition). The parents are not loaded.
+     * @param parentId Parent identifier.
+     * @param createdDate Creation date of the last document of the previous page.
+     * @param id Identifier of the last document of the previous page.
+     * @param pageable Page size.
+     * @return List of documents.
+     */
+    @Query("SELECT d FROM DocumentServer d WHERE d.parent.id = :parentId AND d.createdDate <= :createdDate "
+            + "AND (d.createdDate < :createdDate OR d.id < :id) ORDER BY d.createdDate DESC, d.id DESC")
+    List<DocumentServer> findNextPageByParentId(@Param("parentId") UUID parentId, @Param("createdDate") Date createdDate, @Param("id") UUID id, Pageable pageable);
+
+    /**
+     * Returns the number of documents belonging to the given parent identifier.
+     * <br>
+     * Served by the index on the parent, the creation date and the identifier.
+     * @param parentId Parent identifier.
+     * @return Number of documents.
+     */
+    @Query("SELECT COUNT(d) FROM DocumentServer d WHERE d.parent.id = :parentId")
+    long countByParentId(@Param("parentId") UUID parentId);
+
+    /**
+     * Returns all the documents.
+     * @return List of documents.
+     */
+    @NotNull
+    @EntityGraph(DocumentServer.GRAPH_LIST)
+    List<DocumentServer> findAll();
+
+    /**
+     * Returns the list of documents matching the given specification.
+     * @param specification Document specification.
+     * @return List of documents.
+     */
+    @NotNull
+    @EntityGraph(DocumentServer.GRAPH_LIST)
+    List<DocumentServer> findAll(final Specification<DocumentServer> specification);
 }
@@ -17,15 +17,20 @@ package com.hemajoo.commerce.cherry.backend.persistence.document.repository;
 
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.QueryPage;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateResult;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.QueryAggregate;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
 import com.hemajoo.commerce.cherry.backend.shared.document.DocumentClient;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
 import com.hemajoo.commerce.cherry.backend.shared.document.query.DocumentQuery;
 import lombok.NonNull;
 import org.springframework.core.io.Resource;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -45,6 +50,7 @@ public interface IDocumentService
      * Return the number of documents.
      * @return Number of documents.
      */
+    @Transactional(readOnly = true)
     Long count();
 
     /**
@@ -53,6 +59,7 @@ public interface IDocumentService
      * @return Document if found, null otherwise.
      * @throws DocumentException raised if the given document id has not been found!
      */
+    @Transactional(readOnly = true)
     DocumentServer findById(UUID id) throws DocumentException;
 
     /**
@@ -71,6 +78,15 @@ public interface IDocumentService
      */
     DocumentServer updateMetadata(@NonNull DocumentClient document) throws EntityException;
 
+    /**
+     * Patch a document metadata with a JSON Merge Patch document.
+     * @param id Document identifier.
+     * @param patch Merge patch document holding the metadata properties to update.
+     * @return Updated server document.
+     * @throws EntityException Thrown to indicate an error occurred when patching a document metadata information.
+     */
+    DocumentServer patchMetadata(@NonNull UUID id, @NonNull Map<String, Object> patch) throws EntityException;
+
     /**
      * Upload a document and its content.
      * @param document Document.
@@ -99,6 +115,18 @@ public interface IDocumentService
      */
     DocumentServer save(DocumentServer document) throws DocumentException;
 
+    /**
+     * Saves a batch of documents.
+     * <br>
+     * The contents not yet stored are uploaded concurrently to the content store, then the documents are persisted in a single
+     * transaction (by JDBC batches). If an upload or the persistence fails, the contents uploaded by the call are removed from
+     * the content store and no document is persisted.
+     * @param documents Documents to save.
+     * @return Saved documents.
+     * @throws DocumentException Raised if an error occurred while trying to save the documents.
+     */
+    List<DocumentServer> saveAll(final @NonNull List<DocumentServer> documents) throws DocumentException;
+
     /**
      * Save and flush a document.
      * @param document Document.
@@ -117,6 +145,7 @@ public interface IDocumentService
      * Return all the documents.
      * @return List of documents.
      */
+    @Transactional(readOnly = true)
     List<DocumentServer> findAll();
 
     /**
@@ -138,12 +167,43 @@ public interface IDocumentService
      * @param search Search object.
      * @return List of documents matching the given criteria.
      */
+    @Transactional(readOnly = true)
     List<DocumentServer> search(final @NonNull DocumentQuery search) throws QueryConditionException;
 
+    /**
+     * Compute an aggregate on the documents matching a query.
+     * @param search Search object.
+     * @param aggregate Aggregate to compute.
+     * @return List of aggregate results (one per group).
+     * @throws QueryConditionException Thrown to indicate the query or the aggregate is invalid.
+     */
+    @Transactional(readOnly = true)
+    List<AggregateResult> aggregate(final @NonNull DocumentQuery search, final @NonNull QueryAggregate aggregate) throws QueryConditionException;
+
     /**
      * Find the documents belonging to a given parent entity.
      * @param parentId Parent entity identifier.
      * @return List of documents.
      */
+    @Transactional(readOnly = true)
     List<DocumentServer> findByParentId(final @NonNull UUID parentId);
+
+    /**
+     * Find a page of the documents belonging to a given parent entity (most recent first), without loading the parent's documents.
+     * @param parentId Parent entity identifier.
+     * @param cursor Cursor returned with the previous page, null to get the first page.
+     * @param size Page size.
+     * @return Page of documents.
+     * @throws QueryConditionException Thrown to indicate the cursor is invalid.
+     */
+    @Transactional(readOnly = true)
+    QueryPage<DocumentServer> findByParentId(final @NonNull UUID parentId, final String cursor, final int size) throws QueryConditionException;
+
+    /**
+     * Count the documents belonging to a given parent entity, without loading them.
+     * @param parentId Parent entity identifier.
+     * @return Number of documents.
+     */
+    @Transactional(readOnly = true)
+    long countByParentId(final @NonNull UUID parentId);
 }
@@ -0,0 +1,115 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.person.bulk;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a record of a person bulk import: a person with its email addresses and phone numbers.
+ * <br>
+ * In the CSV format, the email addresses and phone numbers are given by repeating the {@code email} and {@code phone} columns in the header.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@NoArgsConstructor
+public class PersonImportRow
+{
+    /**
+     * Person last name.
+     */
+    @Getter
+    @Setter
+    private String lastName;
+
+    /**
+     * Person first name.
+     */
+    @Getter
+    @Setter
+    private String firstName;
+
+    /**
+     * Person birthdate (ISO format: {@code yyyy-MM-dd}).
+     */
+    @Getter
+    @Setter
+    private String birthDate;
+
+    /**
+     * Person type.
+     */
+    @Getter
+    @Setter
+    private String personType;
+
+    /**
+     * Gender type.
+     */
+    @Getter
+    @Setter
+    private String genderType;
+
+    /**
+     * Person reference.
+     */
+    @Getter
+    @Setter
+    private String reference;
+
+    /**
+     * Person description.
+     */
+    @Getter
+    @Setter
+    private String description;
+
+    /**
+     * Person tags (comma separated).
+     */
+    @Getter
+    @Setter
+    private String tags;
+
+    /**
+     * Email addresses (the first one being the default email address).
+     */
+    @Getter
+    @Setter
+    @JsonAlias("email")
+    private List<String> emails = new ArrayList<>();
+
+    /**
+     * Phone numbers (the first one being the default phone number).
+     */
+    @Getter
+    @Setter
+    @JsonAlias("phone")
+    private List<String> phones = new ArrayList<>();
+
+    /**
+     * Country code of the phone numbers.
+     */
+    @Getter
+    @Setter
+    private String countryCode;
+}
@@ -16,15 +16,19 @@ package com.hemajoo.commerce.cherry.backend.persistence.person.converter;
 
 import com.hemajoo.commerce.cherry.backend.commons.entity.EntityIdentity;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.AbstractEntityMapper;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityFactory;
 import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.CycleAvoidingMappingContext;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.mapper.AbstractEmailAddressMapper;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressClient;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Component to convert between instances of client and server email addresses.
@@ -37,6 +41,12 @@ public final class EmailAddressConverter
     @PersistenceContext
     private EntityManager entityManager;
 
+    /**
+     * Entity factory.
+     */
+    @Autowired
+    private EntityFactory entityFactory;
+
     /**
      * Converts from a server email address entity to an entity identity.
      * @param server Server email address entity.
@@ -44,7 +54,7 @@ public final class EmailAddressConverter
      */
     public EntityIdentity fromServerToIdentity(EmailAddressServer server)
     {
-        return AbstractEmailAddressMapper.INSTANCE.fromServerToIdentity(server, new CycleAvoidingMappingContext());
+        return AbstractEmailAddressMapper.INSTANCE.fromServerToIdentity(server, CycleAvoidingMappingContext.acyclic());
     }
 
     /**
@@ -57,7 +67,7 @@ public final class EmailAddressConverter
     {
         try
         {
-            return AbstractEntityMapper.INSTANCE.map(identity,entityManager);
+            return AbstractEntityMapper.INSTANCE.map(identity, CycleAvoidingMappingContext.acyclic(), entityManager);
         }
         catch (Exception e)
         {
@@ -75,7 +85,7 @@ public final class EmailAddressConverter
     {
         try
         {
-            return AbstractEmailAddressMapper.INSTANCE.fromClientToServer(client, new CycleAvoidingMappingContext(), entityManager);
+            return AbstractEmailAddressMapper.INSTANCE.fromClientToServer(client, entityFactory.createMappingContext(Collections.singletonList(client)), entityManager);
         }
         catch (Exception e)
         {
@@ -90,7 +100,37 @@ public final class EmailAddressConverter
      */
     public EmailAddressClient fromServerToClient(EmailAddressServer server)
     {
-        return AbstractEmailAddressMapper.INSTANCE.fromServerToClient(server, new CycleAvoidingMappingContext());
+        return AbstractEmailAddressMapper.INSTANCE.fromServerToClient(server, CycleAvoidingMappingContext.acyclic());
+    }
+
+    /**
+     * Converts from a list of server email address entities to a list of client email address entities.
+     * @param servers Server email address entities.
+     * @return Client email address entities.
+     */
+    public List<EmailAddressClient> fromServerToClient(List<EmailAddressServer> servers)
+    {
+        return AbstractEmailAddressMapper.INSTANCE.fromServerToClient(servers, CycleAvoidingMappingContext.acyclic());
+    }
+
+    /**
+     * Converts from a list of client email address entities to a list of server email address entities.
+     * <br>
+     * A single context is used for the whole list.
+     * @param clients Client email address entities.
+     * @return Server email address entities.
+     * @throws EmailAddressException Thrown to indicate an error occurred when trying to convert an email address.
+     */
+    public List<EmailAddressServer> fromClientToServer(List<EmailAddressClient> clients) throws EmailAddressException
+    {
+        try
+        {
+            return AbstractEmailAddressMapper.INSTANCE.fromClientToServer(clients, entityFactory.createMappingContext(clients), entityManager);
+        }
+        catch (Exception e)
+        {
+            throw new EmailAddressException(e);
+        }
     }
 
     /**
@@ -128,4 +168,24 @@ public final class EmailAddressConverter
             throw new EmailAddressException(e);
         }
     }
+
+    /**
+     * Merges a server email address entity into another one.
+     * @param source Server email address entity holding the properties to merge.
+     * @param target Server email address entity to update.
+     */
+    public static void merge(EmailAddressServer source, EmailAddressServer target)
+    {
+        AbstractEmailAddressMapper.INSTANCE.merge(source, target);
+    }
+
+    /**
+     * Patches a server email address entity with the properties supplied by a client email address entity.
+     * @param patch Client email address entity holding the properties to patch.
+     * @param server Server email address entity to patch.
+     */
+    public static void patch(EmailAddressClient patch, EmailAddressServer server)
+    {
+        AbstractEmailAddressMapper.INSTANCE.patch(patch, server);
+    }
 }
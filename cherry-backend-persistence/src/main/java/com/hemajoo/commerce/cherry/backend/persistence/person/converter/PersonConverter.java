@@ -16,16 +16,27 @@ package com.hemajoo.commerce.cherry.backend.persistence.person.converter;
 
 import com.hemajoo.commerce.cherry.backend.commons.entity.EntityIdentity;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.AbstractEntityMapper;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityFactory;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
 import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.CycleAvoidingMappingContext;
+import com.hemajoo.commerce.cherry.backend.persistence.document.mapper.AbstractDocumentMapper;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.mapper.AbstractPersonMapper;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityClient;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import com.hemajoo.commerce.cherry.backend.shared.person.PersonAggregateClient;
 import com.hemajoo.commerce.cherry.backend.shared.person.PersonClient;
 import com.hemajoo.commerce.cherry.backend.shared.person.PersonException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * Component to convert between instances of client and server persons.
@@ -38,6 +49,12 @@ public final class PersonConverter
     @PersistenceContext
     private EntityManager entityManager;
 
+    /**
+     * Entity factory.
+     */
+    @Autowired
+    private EntityFactory entityFactory;
+
     /**
      * Converts from a server person entity to an entity identity.
      * @param server Server person entity.
@@ -45,7 +62,7 @@ public final class PersonConverter
      */
     public EntityIdentity fromServerToIdentity(PersonServer server)
     {
-        return AbstractPersonMapper.INSTANCE.fromServerToIdentity(server, new CycleAvoidingMappingContext());
+        return AbstractPersonMapper.INSTANCE.fromServerToIdentity(server, CycleAvoidingMappingContext.acyclic());
     }
 
     /**
@@ -58,7 +75,7 @@ public final class PersonConverter
     {
         try
         {
-            return AbstractEntityMapper.INSTANCE.map(identity,entityManager);
+            return AbstractEntityMapper.INSTANCE.map(identity, CycleAvoidingMappingContext.acyclic(), entityManager);
         }
         catch (Exception e)
         {
@@ -74,7 +91,7 @@ public final class PersonConverter
      */
     public PersonServer fromClientToServer(PersonClient client) throws EntityException
     {
-        return AbstractPersonMapper.INSTANCE.fromClientToServer(client, new CycleAvoidingMappingContext(), entityManager);
+        return AbstractPersonMapper.INSTANCE.fromClientToServer(client, entityFactory.createMappingContext(getReferencingClients(Collections.singletonList(client))), entityManager);
     }
 
     /**
@@ -84,7 +101,52 @@ public final class PersonConverter
      */
     public PersonClient fromServerToClient(PersonServer server)
     {
-        return AbstractPersonMapper.INSTANCE.fromServerToClient(server, new CycleAvoidingMappingContext());
+        return AbstractPersonMapper.INSTANCE.fromServerToClient(server, CycleAvoidingMappingContext.acyclic());
+    }
+
+    /**
+     * Converts from a list of server person entities to a list of client person entities.
+     * @param servers Server person entities.
+     * @return Client person entities.
+     */
+    public List<PersonClient> fromServerToClient(List<PersonServer> servers)
+    {
+        return AbstractPersonMapper.INSTANCE.fromServerToClient(servers, CycleAvoidingMappingContext.acyclic());
+    }
+
+    /**
+     * Converts from a list of client person entities to a list of server person entities.
+     * <br>
+     * A single context is used for the whole list.
+     * @param clients Client person entities.
+     * @return Server person entities.
+     * @throws PersonException Thrown to indicate an error occurred when trying to convert a person.
+     */
+    public List<PersonServer> fromClientToServer(List<PersonClient> clients) throws EntityException
+    {
+        return AbstractPersonMapper.INSTANCE.fromClientToServer(clients, entityFactory.createMappingContext(getReferencingClients(clients)), entityManager);
+    }
+
+    /**
+     * Converts from a server person entity, loaded with its child entities, to a client person aggregate.
+     * @param server Server person entity.
+     * @return Client person aggregate.
+     * @see com.hemajoo.commerce.cherry.backend.persistence.person.service.IPersonService#findAggregateById(java.util.UUID)
+     */
+    public PersonAggregateClient fromServerToAggregateClient(PersonServer server)
+    {
+        PersonAggregateClient aggregate = new PersonAggregateClient();
+        aggregate.setPerson(fromServerToClient(server));
+
+        Stream.<List<? extends ServerEntity>>of(List.of(server), server.getEmailAddresses(), server.getPhoneNumbers(), server.getPostalAddresses())
+                .flatMap(List::stream)
+                .map(ServerEntity::getDocuments)
+                .filter(Objects::nonNull)
+                .flatMap(List::stream)
+                .map(document -> AbstractDocumentMapper.INSTANCE.fromServerToClient(document, CycleAvoidingMappingContext.acyclic()))
+                .forEach(aggregate.getDocuments()::add);
+
+        return aggregate;
     }
 
     /**
@@ -122,4 +184,27 @@ public final class PersonConverter
             throw new PersonException(e);
         }
     }
+
+    /**
+     * Returns the client entities (persons and their child entities) whose references (parent and documents) are resolved when converting
+     * client persons to server persons.
+     * @param clients Client person entities.
+     * @return Client entities.
+     */
+    private static List<EntityClient> getReferencingClients(final List<PersonClient> clients)
+    {
+        List<EntityClient> referencing = new ArrayList<>();
+        for (PersonClient client : clients)
+        {
+            if (client != null)
+            {
+                referencing.add(client);
+                Stream.<List<? extends EntityClient>>of(client.getEmailAddresses(), client.getPhoneNumbers(), client.getPostalAddresses())
+                        .filter(Objects::nonNull)
+                        .forEach(referencing::addAll);
+            }
+        }
+
+        return referencing;
+    }
 }
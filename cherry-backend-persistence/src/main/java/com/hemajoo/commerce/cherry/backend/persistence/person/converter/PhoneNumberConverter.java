@@ -16,15 +16,19 @@ package com.hemajoo.commerce.cherry.backend.persistence.person.converter;
 
 import com.hemajoo.commerce.cherry.backend.commons.entity.EntityIdentity;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.AbstractEntityMapper;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityFactory;
 import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.CycleAvoidingMappingContext;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PhoneNumberServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.mapper.AbstractPhoneNumberMapper;
 import com.hemajoo.commerce.cherry.backend.shared.person.phone.PhoneNumberClient;
 import com.hemajoo.commerce.cherry.backend.shared.person.phone.PhoneNumberException;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Component to convert between instances of client and server phone numbers.
@@ -37,6 +41,12 @@ public final class PhoneNumberConverter
     @PersistenceContext
     private EntityManager entityManager;
 
+    /**
+     * Entity factory.
+     */
+    @Autowired
+    private EntityFactory entityFactory;
+
     /**
      * Converts from a server phone number entity to an entity identity.
      * @param server Server phone number entity.
@@ -44,7 +54,7 @@ public final class PhoneNumberConverter
      */
     public EntityIdentity fromServerToIdentity(PhoneNumberServer server)
     {
-        return AbstractPhoneNumberMapper.INSTANCE.fromServerToIdentity(server, new CycleAvoidingMappingContext());
+        return AbstractPhoneNumberMapper.INSTANCE.fromServerToIdentity(server, CycleAvoidingMappingContext.acyclic());
     }
 
     /**
@@ -57,7 +67,7 @@ public final class PhoneNumberConverter
     {
         try
         {
-            return AbstractEntityMapper.INSTANCE.map(identity,entityManager);
+            return AbstractEntityMapper.INSTANCE.map(identity, CycleAvoidingMappingContext.acyclic(), entityManager);
         }
         catch (Exception e)
         {
@@ -75,7 +85,7 @@ public final class PhoneNumberConverter
     {
         try
         {
-            return AbstractPhoneNumberMapper.INSTANCE.fromClientToServer(client, new CycleAvoidingMappingContext(), entityManager);
+            return AbstractPhoneNumberMapper.INSTANCE.fromClientToServer(client, entityFactory.createMappingContext(Collections.singletonList(client)), entityManager);
         }
         catch (Exception e)
         {
@@ -90,7 +100,37 @@ public final class PhoneNumberConverter
      */
     public PhoneNumberClient fromServerToClient(PhoneNumberServer server)
     {
-        return AbstractPhoneNumberMapper.INSTANCE.fromServerToClient(server, new CycleAvoidingMappingContext());
+        return AbstractPhoneNumberMapper.INSTANCE.fromServerToClient(server, CycleAvoidingMappingContext.acyclic());
+    }
+
+    /**
+     * Converts from a list of server phone number entities to a list of client phone number entities.
+     * @param servers Server phone number entities.
+     * @return Client phone number entities.
+     */
+    public List<PhoneNumberClient> fromServerToClient(List<PhoneNumberServer> servers)
+    {
+        return AbstractPhoneNumberMapper.INSTANCE.fromServerToClient(servers, CycleAvoidingMappingContext.acyclic());
+    }
+
+    /**
+     * Converts from a list of client phone number entities to a list of server phone number entities.
+     * <br>
+     * A single context is used for the whole list.
+     * @param clients Client phone number entities.
+     * @return Server phone number entities.
+     * @throws PhoneNumberException Thrown to indicate an error occurred when trying to convert a phone number.
+     */
+    public List<PhoneNumberServer> fromClientToServer(List<PhoneNumberClient> clients) throws PhoneNumberException
+    {
+        try
+        {
+            return AbstractPhoneNumberMapper.INSTANCE.fromClientToServer(clients, entityFactory.createMappingContext(clients), entityManager);
+        }
+        catch (Exception e)
+        {
+            throw new PhoneNumberException(e);
+        }
     }
 
     /**
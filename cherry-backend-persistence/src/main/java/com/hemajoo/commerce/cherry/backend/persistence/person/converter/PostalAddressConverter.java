@@ -16,15 +16,19 @@ package com.hemajoo.commerce.cherry.backend.persistence.person.converter;
 
 import com.hemajoo.commerce.cherry.backend.commons.entity.EntityIdentity;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.AbstractEntityMapper;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityFactory;
 import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.CycleAvoidingMappingContext;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PostalAddressServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.mapper.AbstractPostalAddressMapper;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.postal.PostalAddressClient;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Component to convert between instances of client and server postal addresses.
@@ -37,6 +41,12 @@ public final class PostalAddressConverter
     @PersistenceContext
     private EntityManager entityManager;
 
+    /**
+     * Entity factory.
+     */
+    @Autowired
+    private EntityFactory entityFactory;
+
     /**
      * Converts from a server postal address entity to an entity identity.
      * @param server Server postal address entity.
@@ -45,7 +55,7 @@ public final class PostalAddressConverter
      */
     public EntityIdentity fromServerToIdentity(PostalAddressServer server) throws EntityException
     {
-        return AbstractPostalAddressMapper.INSTANCE.fromServerToIdentity(server, new CycleAvoidingMappingContext());
+        return AbstractPostalAddressMapper.INSTANCE.fromServerToIdentity(server, CycleAvoidingMappingContext.acyclic());
     }
 
     /**
@@ -56,7 +66,7 @@ public final class PostalAddressConverter
      */
     public PostalAddressServer fromIdentityToServer(EntityIdentity identity) throws EntityException
     {
-        return AbstractEntityMapper.INSTANCE.map(identity,entityManager);
+        return AbstractEntityMapper.INSTANCE.map(identity, CycleAvoidingMappingContext.acyclic(), entityManager);
     }
 
     /**
@@ -67,7 +77,7 @@ public final class PostalAddressConverter
      */
     public PostalAddressServer fromClientToServer(PostalAddressClient client) throws EntityException
     {
-        return AbstractPostalAddressMapper.INSTANCE.fromClientToServer(client, new CycleAvoidingMappingContext(), entityManager);
+        return AbstractPostalAddressMapper.INSTANCE.fromClientToServer(client, entityFactory.createMappingContext(Collections.singletonList(client)), entityManager);
     }
 
     /**
@@ -77,7 +87,30 @@ public final class PostalAddressConverter
      */
     public PostalAddressClient fromServerToClient(PostalAddressServer server)
     {
-        return AbstractPostalAddressMapper.INSTANCE.fromServerToClient(server, new CycleAvoidingMappingContext());
+        return AbstractPostalAddressMapper.INSTANCE.fromServerToClient(server, CycleAvoidingMappingContext.acyclic());
+    }
+
+    /**
+     * Converts from a list of server postal address entities to a list of client postal address entities.
+     * @param servers Server postal address entities.
+     * @return Client postal address entities.
+     */
+    public List<PostalAddressClient> fromServerToClient(List<PostalAddressServer> servers)
+    {
+        return AbstractPostalAddressMapper.INSTANCE.fromServerToClient(servers, CycleAvoidingMappingContext.acyclic());
+    }
+
+    /**
+     * Converts from a list of client postal address entities to a list of server postal address entities.
+     * <br>
+     * A single context is used for the whole list.
+     * @param clients Client postal address entities.
+     * @return Server postal address entities.
+     * @throws EntityException Thrown to indicate an error occurred when trying to convert a postal address.
+     */
+    public List<PostalAddressServer> fromClientToServer(List<PostalAddressClient> clients) throws EntityException
+    {
+        return AbstractPostalAddressMapper.INSTANCE.fromClientToServer(clients, entityFactory.createMappingContext(clients), entityManager);
     }
 
     /**
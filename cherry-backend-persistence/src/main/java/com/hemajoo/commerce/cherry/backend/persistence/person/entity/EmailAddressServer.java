@@ -38,11 +38,23 @@ import javax.validation.constraints.NotNull;
 @Log4j2
 @ToString(callSuper = true)
 @EqualsAndHashCode(callSuper = true)
+@NamedEntityGraph(name = EmailAddressServer.GRAPH_DETAIL, attributeNodes = { @NamedAttributeNode("documents"), @NamedAttributeNode("parent") })
+@NamedEntityGraph(name = EmailAddressServer.GRAPH_LIST, attributeNodes = @NamedAttributeNode("parent"))
 @Table(name = "EMAIL_ADDRESS")
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 public class EmailAddressServer extends ServerEntity implements IEmailAddress, IServerEntity
 {
+    /**
+     * Name of the entity graph used to load a email address for a detail view.
+     */
+    public static final String GRAPH_DETAIL = "EmailAddressServer" + GRAPH_SUFFIX_DETAIL;
+
+    /**
+     * Name of the entity graph used to load email addresss for a list view.
+     */
+    public static final String GRAPH_LIST = "EmailAddressServer" + GRAPH_SUFFIX_LIST;
+
     /**
      * Email address.
      */
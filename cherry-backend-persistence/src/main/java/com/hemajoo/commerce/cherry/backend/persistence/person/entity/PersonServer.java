@@ -27,6 +27,8 @@ import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddr
 import com.hemajoo.commerce.cherry.backend.shared.person.phone.PhoneNumberType;
 import io.swagger.v3.oas.annotations.Hidden;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import javax.persistence.*;
@@ -42,11 +44,23 @@ import java.util.stream.Collectors;
 @ToString(callSuper = true)
 @EqualsAndHashCode(callSuper = true)
 @Entity
+@NamedEntityGraph(name = PersonServer.GRAPH_DETAIL, attributeNodes = { @NamedAttributeNode("documents"), @NamedAttributeNode("parent") })
+@NamedEntityGraph(name = PersonServer.GRAPH_LIST, attributeNodes = @NamedAttributeNode("parent"))
 @Hidden
 @Table(name = "PERSON")
 @EntityListeners(AuditingEntityListener.class)
 public class PersonServer extends ServerEntity implements IPersonServer, IServerEntity
 {
+    /**
+     * Name of the entity graph used to load a person for a detail view.
+     */
+    public static final String GRAPH_DETAIL = "PersonServer" + GRAPH_SUFFIX_DETAIL;
+
+    /**
+     * Name of the entity graph used to load persons for a list view.
+     */
+    public static final String GRAPH_LIST = "PersonServer" + GRAPH_SUFFIX_LIST;
+
     /**
      * Person last name.
      */
@@ -98,6 +112,7 @@ public class PersonServer extends ServerEntity implements IPersonServer, IServer
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @JsonIgnoreProperties("person")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cherry.person.postalAddresses")
     @OneToMany(targetEntity = PostalAddressServer.class, mappedBy = "person", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private List<PostalAddressServer> postalAddresses = new ArrayList<>();
 
@@ -109,6 +124,7 @@ public class PersonServer extends ServerEntity implements IPersonServer, IServer
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     @JsonIgnoreProperties("person")
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cherry.person.phoneNumbers")
     @OneToMany(targetEntity = PhoneNumberServer.class, mappedBy = "person", fetch = FetchType.LAZY, cascade = CascadeType.ALL)
     private List<PhoneNumberServer> phoneNumbers = new ArrayList<>();
 
@@ -121,6 +137,7 @@ public class PersonServer extends ServerEntity implements IPersonServer, IServer
     @EqualsAndHashCode.Exclude
     @JsonIgnoreProperties("owner")
 //    @OneToMany(targetEntity = ServerEmailAddressEntity.class, mappedBy = "person", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cherry.person.emailAddresses")
     @OneToMany(targetEntity = EmailAddressServer.class, mappedBy = "parent", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     private List<EmailAddressServer> emailAddresses = new ArrayList<>();
 
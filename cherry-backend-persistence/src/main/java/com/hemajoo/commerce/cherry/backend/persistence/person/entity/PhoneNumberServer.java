@@ -36,11 +36,23 @@ import javax.validation.constraints.NotNull;
  */
 @ToString(callSuper = false)
 @EqualsAndHashCode(callSuper = false)
+@NamedEntityGraph(name = PhoneNumberServer.GRAPH_DETAIL, attributeNodes = { @NamedAttributeNode("documents"), @NamedAttributeNode("parent") })
+@NamedEntityGraph(name = PhoneNumberServer.GRAPH_LIST, attributeNodes = @NamedAttributeNode("parent"))
 @Table(name = "PHONE_NUMBER")
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 public class PhoneNumberServer extends ServerEntity implements IPhoneNumber, IServerEntity
 {
+    /**
+     * Name of the entity graph used to load a phone number for a detail view.
+     */
+    public static final String GRAPH_DETAIL = "PhoneNumberServer" + GRAPH_SUFFIX_DETAIL;
+
+    /**
+     * Name of the entity graph used to load phone numbers for a list view.
+     */
+    public static final String GRAPH_LIST = "PhoneNumberServer" + GRAPH_SUFFIX_LIST;
+
     /**
      * Phone number.
      */
@@ -36,11 +36,23 @@ import javax.validation.constraints.NotNull;
  */
 @ToString(callSuper = false)
 @EqualsAndHashCode(callSuper = false)
+@NamedEntityGraph(name = PostalAddressServer.GRAPH_DETAIL, attributeNodes = { @NamedAttributeNode("documents"), @NamedAttributeNode("parent") })
+@NamedEntityGraph(name = PostalAddressServer.GRAPH_LIST, attributeNodes = @NamedAttributeNode("parent"))
 @Table(name = "POSTAL_ADDRESS")
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 public class PostalAddressServer extends ServerEntity implements IPostalAddress, IServerEntity
 {
+    /**
+     * Name of the entity graph used to load a postal address for a detail view.
+     */
+    public static final String GRAPH_DETAIL = "PostalAddressServer" + GRAPH_SUFFIX_DETAIL;
+
+    /**
+     * Name of the entity graph used to load postal addresss for a list view.
+     */
+    public static final String GRAPH_LIST = "PostalAddressServer" + GRAPH_SUFFIX_LIST;
+
     /**
      * Postal address street name.
      */
@@ -20,11 +20,17 @@ import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.CycleAvoiding
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressClient;
+import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressFilterMetadata;
+import org.mapstruct.BeanMapping;
 import org.mapstruct.Context;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.NullValuePropertyMappingStrategy;
 import org.mapstruct.factory.Mappers;
 
 import javax.persistence.EntityManager;
+import java.util.List;
 
 /**
  * Mapper interface to convert between instances of client and server email addresses.
@@ -65,6 +71,28 @@ public abstract class AbstractEmailAddressMapper
      */
     public abstract EmailAddressClient fromServerToClient(EmailAddressServer entity, @Context CycleAvoidingMappingContext context);
 
+    /**
+     * Maps from a list of server email address entities to a list of client email address entities.
+     * <br>
+     * The same context is used for all the entities of the list.
+     * @param entities Server email address entities.
+     * @param context Context object.
+     * @return Client email address entities.
+     */
+    public abstract List<EmailAddressClient> fromServerToClient(List<EmailAddressServer> entities, @Context CycleAvoidingMappingContext context);
+
+    /**
+     * Maps from a list of client email address entities to a list of server email address entities.
+     * <br>
+     * The same context is used for all the entities of the list.
+     * @param entities Client email address entities.
+     * @param context Context object.
+     * @param entityManager Entity manager.
+     * @return Server email address entities.
+     * @throws EntityException Thrown to indicate an error occurred while trying to convert an email address entity.
+     */
+    public abstract List<EmailAddressServer> fromClientToServer(List<EmailAddressClient> entities, @Context CycleAvoidingMappingContext context, @Context EntityManager entityManager) throws EntityException;
+
     /**
      * Copy a server email address entity.
      * @param entity Server email address entity.
@@ -82,4 +110,40 @@ public abstract class AbstractEmailAddressMapper
      * @throws EntityException Thrown to indicate an error occurred while trying to copy an email address entity.
      */
     public abstract EmailAddressClient copy(EmailAddressClient entity, @Context CycleAvoidingMappingContext context) throws EntityException;
+
+    /**
+     * Merges a server email address entity into another one.
+     * <br>
+     * Only the properties listed by the {@link EmailAddressFilterMetadata} and not {@code null} in the source entity are merged.
+     * @param source Server email address entity holding the properties to merge.
+     * @param target Server email address entity to update.
+     */
+    @BeanMapping(ignoreByDefault = true, nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_EMAIL)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_TYPE)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_IS_DEFAULT)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_NAME)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_DESCRIPTION)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_REFERENCE)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_TAGS)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_STATUS_TYPE)
+    public abstract void merge(EmailAddressServer source, @MappingTarget EmailAddressServer target);
+
+    /**
+     * Patches a server email address entity from a client email address entity.
+     * <br>
+     * Only the properties listed by the {@link EmailAddressFilterMetadata} and not {@code null} in the client entity are updated.
+     * @param patch Client email address entity holding the properties to patch.
+     * @param target Server email address entity to patch.
+     */
+    @BeanMapping(ignoreByDefault = true, nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_EMAIL)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_TYPE)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_IS_DEFAULT)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_NAME)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_DESCRIPTION)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_REFERENCE)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_TAGS)
+    @Mapping(target = EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_STATUS_TYPE)
+    public abstract void patch(EmailAddressClient patch, @MappingTarget EmailAddressServer target);
 }
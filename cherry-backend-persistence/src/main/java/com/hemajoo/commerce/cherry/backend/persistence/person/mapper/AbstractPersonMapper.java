@@ -25,6 +25,7 @@ import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
 import javax.persistence.EntityManager;
+import java.util.List;
 
 /**
  * Mapper interface to convert between instances of client and server persons.
@@ -65,6 +66,28 @@ public abstract class AbstractPersonMapper
      */
     public abstract PersonClient fromServerToClient(PersonServer entity, @Context CycleAvoidingMappingContext context);
 
+    /**
+     * Maps from a list of server person entities to a list of client person entities.
+     * <br>
+     * The same context is used for all the entities of the list.
+     * @param entities Server person entities.
+     * @param context Context object.
+     * @return Client person entities.
+     */
+    public abstract List<PersonClient> fromServerToClient(List<PersonServer> entities, @Context CycleAvoidingMappingContext context);
+
+    /**
+     * Maps from a list of client person entities to a list of server person entities.
+     * <br>
+     * The same context is used for all the entities of the list.
+     * @param entities Client person entities.
+     * @param context Context object.
+     * @param entityManager Entity manager.
+     * @return Server person entities.
+     * @throws EntityException Thrown to indicate an error occurred while trying to convert a person entity.
+     */
+    public abstract List<PersonServer> fromClientToServer(List<PersonClient> entities, @Context CycleAvoidingMappingContext context, @Context EntityManager entityManager) throws EntityException;
+
     /**
      * Copy a server person entity.
      * @param entity Server person entity.
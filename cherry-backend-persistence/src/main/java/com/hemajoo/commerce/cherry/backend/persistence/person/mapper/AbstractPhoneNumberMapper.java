@@ -25,6 +25,7 @@ import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
 import javax.persistence.EntityManager;
+import java.util.List;
 
 /**
  * Mapper interface to convert between instances of client and server phone numbers.
@@ -65,6 +66,28 @@ public abstract class AbstractPhoneNumberMapper
      */
     public abstract PhoneNumberClient fromServerToClient(PhoneNumberServer entity, @Context CycleAvoidingMappingContext context);
 
+    /**
+     * Maps from a list of server phone number entities to a list of client phone number entities.
+     * <br>
+     * The same context is used for all the entities of the list.
+     * @param entities Server phone number entities.
+     * @param context Context object.
+     * @return Client phone number entities.
+     */
+    public abstract List<PhoneNumberClient> fromServerToClient(List<PhoneNumberServer> entities, @Context CycleAvoidingMappingContext context);
+
+    /**
+     * Maps from a list of client phone number entities to a list of server phone number entities.
+     * <br>
+     * The same context is used for all the entities of the list.
+     * @param entities Client phone number entities.
+     * @param context Context object.
+     * @param entityManager Entity manager.
+     * @return Server phone number entities.
+     * @throws EntityException Thrown to indicate an error occurred while trying to convert a phone number entity.
+     */
+    public abstract List<PhoneNumberServer> fromClientToServer(List<PhoneNumberClient> entities, @Context CycleAvoidingMappingContext context, @Context EntityManager entityManager) throws EntityException;
+
     /**
      * Copy a server phone number entity.
      * @param entity Server phone number entity.
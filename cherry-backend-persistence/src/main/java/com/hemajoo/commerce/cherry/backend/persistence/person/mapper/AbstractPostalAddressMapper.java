@@ -25,6 +25,7 @@ import org.mapstruct.Mapper;
 import org.mapstruct.factory.Mappers;
 
 import javax.persistence.EntityManager;
+import java.util.List;
 
 /**
  * Mapper interface to convert between instances of client and server postal addresses.
@@ -66,6 +67,28 @@ public abstract class AbstractPostalAddressMapper
      */
     public abstract PostalAddressClient fromServerToClient(PostalAddressServer entity, @Context CycleAvoidingMappingContext context);
 
+    /**
+     * Maps from a list of server postal address entities to a list of client postal address entities.
+     * <br>
+     * The same context is used for all the entities of the list.
+     * @param entities Server postal address entities.
+     * @param context Context object.
+     * @return Client postal address entities.
+     */
+    public abstract List<PostalAddressClient> fromServerToClient(List<PostalAddressServer> entities, @Context CycleAvoidingMappingContext context);
+
+    /**
+     * Maps from a list of client postal address entities to a list of server postal address entities.
+     * <br>
+     * The same context is used for all the entities of the list.
+     * @param entities Client postal address entities.
+     * @param context Context object.
+     * @param entityManager Entity manager.
+     * @return Server postal address entities.
+     * @throws EntityException Thrown to indicate an error occurred while trying to convert a postal address entity.
+     */
+    public abstract List<PostalAddressServer> fromClientToServer(List<PostalAddressClient> entities, @Context CycleAvoidingMappingContext context, @Context EntityManager entityManager) throws EntityException;
+
     /**
      * Copy a server postal address entity.
      * @param entity Server postal address entity.
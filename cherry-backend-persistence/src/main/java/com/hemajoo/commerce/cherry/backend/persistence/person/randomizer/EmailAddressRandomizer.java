@@ -59,7 +59,7 @@ public final class EmailAddressRandomizer extends AbstractEntityRandomizer
 
         entity.setEmail(FAKER.internet().emailAddress());
         entity.setAddressType((AddressType) ADDRESS_TYPE_GENERATOR.gen());
-        entity.setIsDefaultEmail(RANDOM.nextBoolean());
+        entity.setIsDefaultEmail(false); // A parent holds at most one active default email address (unique index).
 
         return entity;
     }
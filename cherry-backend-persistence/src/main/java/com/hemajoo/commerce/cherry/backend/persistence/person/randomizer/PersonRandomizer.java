@@ -259,7 +259,9 @@ public final class PersonRandomizer extends AbstractEntityRandomizer
         int count = bound > 0 ? bound : AbstractEntityRandomizer.DEFAULT_DEPENDENCY_BOUND;
         for (var i = 0; i < count; i++)
         {
-            person.addEmailAddress(EmailAddressRandomizer.generateServerEntity(withRandomId));
+            var emailAddress = EmailAddressRandomizer.generateServerEntity(withRandomId);
+            emailAddress.setIsDefaultEmail(i == 0);
+            person.addEmailAddress(emailAddress);
             person.addPhoneNumber(PhoneNumberRandomizer.generateServerEntity(withRandomId));
             person.addPostalAddress(PostalAddressRandomizer.generateServerEntity(withRandomId));
         }
@@ -17,14 +17,23 @@ package com.hemajoo.commerce.cherry.backend.persistence.person.repository;
 import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.AddressType;
+import lombok.NonNull;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 /**
  * JPA repository for the email address entity.
  * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
@@ -32,11 +41,22 @@ import java.util.UUID;
  */
 public interface EmailAddressRepository extends JpaRepository<EmailAddressServer, UUID>, JpaSpecificationExecutor<EmailAddressServer>
 {
+    /**
+     * Returns a email address matching the given identifier.
+     * @param id Email address identifier.
+     * @return Email address.
+     */
+    @NotNull
+    @EntityGraph(EmailAddressServer.GRAPH_DETAIL)
+    Optional<EmailAddressServer> findById(final @NonNull UUID id);
+
     /**
      * Returns the list of email addresses matching the given address type.
      * @param addressType Address type.
      * @return List of email addresses.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(EmailAddressServer.GRAPH_LIST)
     List<EmailAddressServer> findByAddressType(AddressType addressType);
 
     /**
@@ -44,6 +64,8 @@ public interface EmailAddressRepository extends JpaRepository<EmailAddressServer
      * @param statusType Status type.
      * @return List of email addresses.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(EmailAddressServer.GRAPH_LIST)
     List<EmailAddressServer> findByStatusType(StatusType statusType);
 
     /**
@@ -51,6 +73,8 @@ public interface EmailAddressRepository extends JpaRepository<EmailAddressServer
      * @param isDefaultEmail True to get default email addresses, false otherwise.
      * @return List of email addresses.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(EmailAddressServer.GRAPH_LIST)
     List<EmailAddressServer> findByIsDefaultEmail(Boolean isDefaultEmail);
 
     /**
@@ -58,13 +82,46 @@ public interface EmailAddressRepository extends JpaRepository<EmailAddressServer
      * @param parentId Parent identifier.
      * @return List of email addresses.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(EmailAddressServer.GRAPH_LIST)
     List<EmailAddressServer> findByParentId(UUID parentId);
 
+    /**
+     * Returns the identifiers of the email addresses of the given parent matching the given email (case-insensitive).
+     * <br>
+     * Served by the unique index on the parent and the lower cased email address.
+     * @param parentId Parent identifier.
+     * @param email Email address.
+     * @return List of email address identifiers.
+     */
+    @Query("SELECT e.id FROM EmailAddressServer e WHERE e.parent.id = :parentId AND lower(e.email) = lower(:email)")
+    List<UUID> findIdsByParentIdAndEmail(@Param("parentId") UUID parentId, @Param("email") String email);
+
+    /**
+     * Returns the identifiers of the default email addresses of the given parent having the given status type.
+     * <br>
+     * Served by the partial unique index on the parent of the active default email addresses.
+     * @param parentId Parent identifier.
+     * @param statusType Status type.
+     * @return List of email address identifiers.
+     */
+    @Query("SELECT e.id FROM EmailAddressServer e WHERE e.parent.id = :parentId AND e.isDefaultEmail = true AND e.statusType = :statusType")
+    List<UUID> findDefaultIdsByParentId(@Param("parentId") UUID parentId, @Param("statusType") StatusType statusType);
+
     /**
      * Returns the list of email addresses matching the given specification.
      * @param specification Email address specification.
      * @return List of email addresses.
      */
     @NotNull
+    @EntityGraph(EmailAddressServer.GRAPH_LIST)
     List<EmailAddressServer> findAll(final Specification<EmailAddressServer> specification);
+
+    /**
+     * Returns all the email addresses.
+     * @return List of email addresses.
+     */
+    @NotNull
+    @EntityGraph(EmailAddressServer.GRAPH_LIST)
+    List<EmailAddressServer> findAll();
 }
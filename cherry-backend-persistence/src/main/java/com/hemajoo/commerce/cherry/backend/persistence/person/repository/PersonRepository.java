@@ -24,11 +24,15 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 /**
  * JPA repository for the person entity.
  * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
@@ -42,7 +46,7 @@ public interface PersonRepository extends JpaRepository<PersonServer, UUID>, Jpa
      * @return Person.
      */
     @NotNull
-    @EntityGraph(attributePaths = "documents")
+    @EntityGraph(PersonServer.GRAPH_DETAIL)
     Optional<PersonServer> findById(final @NonNull UUID id);
 
     /**
@@ -51,6 +55,8 @@ public interface PersonRepository extends JpaRepository<PersonServer, UUID>, Jpa
      * @return List of persons.
      * @see StatusType
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PersonServer.GRAPH_LIST)
     List<PersonServer> findByStatusType(StatusType statusType);
 
     /**
@@ -59,6 +65,8 @@ public interface PersonRepository extends JpaRepository<PersonServer, UUID>, Jpa
      * @return List of persons.
      * @see PersonType
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PersonServer.GRAPH_LIST)
     List<PersonServer> findByPersonType(PersonType personType);
 
     /**
@@ -67,6 +75,8 @@ public interface PersonRepository extends JpaRepository<PersonServer, UUID>, Jpa
      * @return List of persons.
      * @see GenderType
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PersonServer.GRAPH_LIST)
     List<PersonServer> findByGenderType(GenderType gender);
 
     /**
@@ -74,6 +84,8 @@ public interface PersonRepository extends JpaRepository<PersonServer, UUID>, Jpa
      * @param lastName Last name (strict).
      * @return List of persons.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PersonServer.GRAPH_LIST)
     List<PersonServer> findByLastName(String lastName);
 
     /**
@@ -81,6 +93,8 @@ public interface PersonRepository extends JpaRepository<PersonServer, UUID>, Jpa
      * @param firstName First name (strict).
      * @return List of persons.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PersonServer.GRAPH_LIST)
     List<PersonServer> findByFirstName(String firstName);
 
     /**
@@ -89,5 +103,14 @@ public interface PersonRepository extends JpaRepository<PersonServer, UUID>, Jpa
      * @return List of persons.
      */
     @NotNull
+    @EntityGraph(PersonServer.GRAPH_LIST)
     List<PersonServer> findAll(final Specification<PersonServer> specification);
+
+    /**
+     * Returns all the persons.
+     * @return List of persons.
+     */
+    @NotNull
+    @EntityGraph(PersonServer.GRAPH_LIST)
+    List<PersonServer> findAll();
 }
@@ -18,14 +18,21 @@ import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PhoneNumberServer;
 import com.hemajoo.commerce.cherry.backend.shared.person.phone.PhoneNumberCategoryType;
 import com.hemajoo.commerce.cherry.backend.shared.person.phone.PhoneNumberType;
+import lombok.NonNull;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 /**
  * JPA repository for the phone number entity.
  * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
@@ -33,11 +40,22 @@ import java.util.UUID;
  */
 public interface PhoneNumberRepository extends JpaRepository<PhoneNumberServer, UUID>, JpaSpecificationExecutor<PhoneNumberServer>
 {
+    /**
+     * Returns a phone number matching the given identifier.
+     * @param id Phone number identifier.
+     * @return Phone number.
+     */
+    @NotNull
+    @EntityGraph(PhoneNumberServer.GRAPH_DETAIL)
+    Optional<PhoneNumberServer> findById(final @NonNull UUID id);
+
     /**
      * Returns the list of phone numbers matching the given status type.
      * @param statusType Status type.
      * @return List of phone numbers.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PhoneNumberServer.GRAPH_LIST)
     List<PhoneNumberServer> findByStatusType(StatusType statusType);
 
     /**
@@ -45,6 +63,8 @@ public interface PhoneNumberRepository extends JpaRepository<PhoneNumberServer,
      * @param type Phone number type.
      * @return List of phone numbers.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PhoneNumberServer.GRAPH_LIST)
     List<PhoneNumberServer> findByPhoneType(PhoneNumberType type);
 
     /**
@@ -52,6 +72,8 @@ public interface PhoneNumberRepository extends JpaRepository<PhoneNumberServer,
      * @param type Phone number category type.
      * @return List of phone numbers.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PhoneNumberServer.GRAPH_LIST)
     List<PhoneNumberServer> findByCategoryType(PhoneNumberCategoryType type);
 
     /**
@@ -59,6 +81,8 @@ public interface PhoneNumberRepository extends JpaRepository<PhoneNumberServer,
      * @param code Country code (ISO Alpha-3).
      * @return List of phone numbers.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PhoneNumberServer.GRAPH_LIST)
     List<PhoneNumberServer> findByCountryCode(String code);
 
     /**
@@ -66,6 +90,8 @@ public interface PhoneNumberRepository extends JpaRepository<PhoneNumberServer,
      * @param isDefault True to get the default phone numbers, false otherwise.
      * @return List of phone numbers.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PhoneNumberServer.GRAPH_LIST)
     List<PhoneNumberServer> findByIsDefault(boolean isDefault);
 
     /**
@@ -73,6 +99,8 @@ public interface PhoneNumberRepository extends JpaRepository<PhoneNumberServer,
      * @param personId Person identifier.
      * @return List of phone numbers.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PhoneNumberServer.GRAPH_LIST)
     List<PhoneNumberServer> findByPersonId(long personId);
 
     /**
@@ -81,5 +109,14 @@ public interface PhoneNumberRepository extends JpaRepository<PhoneNumberServer,
      * @return List of phone numbers.
      */
     @NotNull
+    @EntityGraph(PhoneNumberServer.GRAPH_LIST)
     List<PhoneNumberServer> findAll(final Specification<PhoneNumberServer> specification);
+
+    /**
+     * Returns all the phone numbers.
+     * @return List of phone numbers.
+     */
+    @NotNull
+    @EntityGraph(PhoneNumberServer.GRAPH_LIST)
+    List<PhoneNumberServer> findAll();
 }
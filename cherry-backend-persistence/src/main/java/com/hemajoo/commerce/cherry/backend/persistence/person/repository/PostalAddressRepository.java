@@ -17,14 +17,21 @@ package com.hemajoo.commerce.cherry.backend.persistence.person.repository;
 import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PostalAddressServer;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.AddressType;
+import lombok.NonNull;
 import org.jetbrains.annotations.NotNull;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 /**
  * JPA repository for the postal address entity.
  * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
@@ -32,12 +39,23 @@ import java.util.UUID;
  */
 public interface PostalAddressRepository extends JpaRepository<PostalAddressServer, UUID>, JpaSpecificationExecutor<PostalAddressServer>
 {
+    /**
+     * Returns a postal address matching the given identifier.
+     * @param id Postal address identifier.
+     * @return Postal address.
+     */
+    @NotNull
+    @EntityGraph(PostalAddressServer.GRAPH_DETAIL)
+    Optional<PostalAddressServer> findById(final @NonNull UUID id);
+
     /**
      * Returns the list of postal addresses matching the given address type.
      * @param type Address type.
      * @return List of postal addresses.
      * @see AddressType
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PostalAddressServer.GRAPH_LIST)
     List<PostalAddressServer> findByAddressType(AddressType type);
 
     /**
@@ -46,6 +64,8 @@ public interface PostalAddressRepository extends JpaRepository<PostalAddressServ
      * @return List of postal addresses.
      * @see StatusType
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PostalAddressServer.GRAPH_LIST)
     List<PostalAddressServer> findByStatusType(StatusType statusType);
 
     /**
@@ -53,6 +73,8 @@ public interface PostalAddressRepository extends JpaRepository<PostalAddressServ
      * @param countryCode Country code (ISO Alpha-3).
      * @return List of postal addresses.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PostalAddressServer.GRAPH_LIST)
     List<PostalAddressServer> findByCountryCode(String countryCode);
 
     /**
@@ -60,6 +82,8 @@ public interface PostalAddressRepository extends JpaRepository<PostalAddressServ
      * @param locality Locality.
      * @return List of postal addresses.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PostalAddressServer.GRAPH_LIST)
     List<PostalAddressServer> findByLocality(String locality);
 
     /**
@@ -67,6 +91,8 @@ public interface PostalAddressRepository extends JpaRepository<PostalAddressServ
      * @param zipCode Zip or postal code.
      * @return List of postal addresses.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PostalAddressServer.GRAPH_LIST)
     List<PostalAddressServer> findByZipCode(String zipCode);
 
     /**
@@ -74,6 +100,8 @@ public interface PostalAddressRepository extends JpaRepository<PostalAddressServ
      * @param area Area.
      * @return List of postal addresses.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PostalAddressServer.GRAPH_LIST)
     List<PostalAddressServer> findByArea(String area);
 
     /**
@@ -81,6 +109,8 @@ public interface PostalAddressRepository extends JpaRepository<PostalAddressServ
      * @param isDefault True to get a list of default postal addresses, false otherwise.
      * @return List of postal addresses.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PostalAddressServer.GRAPH_LIST)
     List<PostalAddressServer> findByIsDefault(boolean isDefault);
 
     /**
@@ -88,6 +118,8 @@ public interface PostalAddressRepository extends JpaRepository<PostalAddressServ
      * @param personId Person identifier.
      * @return List of postal addresses.
      */
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @EntityGraph(PostalAddressServer.GRAPH_LIST)
     List<PostalAddressServer> findByPersonId(UUID personId);
 
     /**
@@ -96,5 +128,14 @@ public interface PostalAddressRepository extends JpaRepository<PostalAddressServ
      * @return List of postal addresses.
      */
     @NotNull
+    @EntityGraph(PostalAddressServer.GRAPH_LIST)
     List<PostalAddressServer> findAll(final Specification<PostalAddressServer> specification);
+
+    /**
+     * Returns all the postal addresses.
+     * @return List of postal addresses.
+     */
+    @NotNull
+    @EntityGraph(PostalAddressServer.GRAPH_LIST)
+    List<PostalAddressServer> findAll();
 }
@@ -14,29 +14,40 @@
  */
 package com.hemajoo.commerce.cherry.backend.persistence.person.service;
 
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
 import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
-import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityComparator;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.QueryResultCache;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.RequestLookupCache;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.MergePatch;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryMonitor;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityIdFilter;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.persistence.document.repository.IDocumentService;
+import com.hemajoo.commerce.cherry.backend.persistence.person.converter.EmailAddressConverter;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.repository.EmailAddressRepository;
+import com.hemajoo.commerce.cherry.backend.persistence.person.validation.engine.EmailAddressValidationEngine;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.AddressType;
+import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressClient;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressException;
+import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressFilterMetadata;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressQuery;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
-import org.javers.core.diff.Diff;
-import org.javers.core.diff.changetype.ReferenceChange;
-import org.javers.core.diff.changetype.ValueChange;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.validation.annotation.Validated;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -68,6 +79,42 @@ public class EmailAddressService implements IEmailAddressService
     @Autowired
     private IDocumentService documentService;
 
+    /**
+     * Query result cache.
+     */
+    @Autowired
+    private QueryResultCache queryCache;
+
+    /**
+     * Request lookup cache.
+     */
+    @Autowired
+    private RequestLookupCache lookupCache;
+
+    /**
+     * Entity identifier filter.
+     */
+    @Autowired
+    private EntityIdFilter idFilter;
+
+    /**
+     * Query monitor.
+     */
+    @Autowired
+    private QueryMonitor monitor;
+
+    /**
+     * Email address converter.
+     */
+    @Autowired
+    private EmailAddressConverter converterEmailAddress;
+
+    /**
+     * Email address validation engine.
+     */
+    @Autowired
+    private EmailAddressValidationEngine validationEmailAddress;
+
     @Override
     public EmailAddressRepository getRepository()
     {
@@ -83,7 +130,22 @@ public class EmailAddressService implements IEmailAddressService
     @Override
     public EmailAddressServer findById(UUID id) throws DocumentException
     {
-        EmailAddressServer emailAddress = emailAddressRepository.findById(id).orElse(null);
+        if (!idFilter.mightExist(EntityType.EMAIL_ADDRESS, id))
+        {
+            return null;
+        }
+
+        return lookupCache.get(EmailAddressServer.class, RequestLookupCache.LOOKUP_ID, id, () -> loadById(id));
+    }
+
+    /**
+     * Loads the email address matching the given identifier with its documents.
+     * @param id Email address identifier.
+     * @return Email address.
+     */
+    private EmailAddressServer loadById(final UUID id)
+    {
+        EmailAddressServer emailAddress = ServerEntity.initializeAssociations(emailAddressRepository.findById(id).orElse(null));
         if (emailAddress != null)
         {
             for (DocumentServer document : findDocuments(id))
@@ -98,29 +160,58 @@ public class EmailAddressService implements IEmailAddressService
     @Override
     public EmailAddressServer update(EmailAddressServer emailAddress) throws EmailAddressException, DocumentException
     {
-        EmailAddressServer original = findById(emailAddress.getId());
+        EmailAddressServer original = findForUpdate(emailAddress.getId());
         return save(merge(emailAddress, original));
     }
 
+    @Override
+    public EmailAddressServer patch(final @NonNull UUID id, final @NonNull Map<String, Object> patch) throws EntityException
+    {
+        EmailAddressServer emailAddress = findForUpdate(id);
+        if (emailAddress == null)
+        {
+            throw new EmailAddressException(String.format("Email address id: '%s' not found!", id), HttpStatus.NOT_FOUND);
+        }
+
+        // The patch is applied to a client copy first, so the email address is validated as it will be before being updated.
+        EmailAddressClient patched = MergePatch.apply(patch, EmailAddressFilterMetadata.build(), converterEmailAddress.fromServerToClient(emailAddress));
+        validationEmailAddress.validateEmailForUpdate(patched);
+
+        EmailAddressConverter.patch(patched, emailAddress);
+
+        return save(emailAddress);
+    }
+
     //@Transactional
     @Override
     public EmailAddressServer save(final @NonNull EmailAddressServer emailAddress) throws EmailAddressException
     {
-        emailAddressRepository.save(emailAddress);
+        try
+        {
+            // Flushed so a violation of the unique indexes is raised (and translated) here, even within an outer transaction.
+            emailAddressRepository.saveAndFlush(emailAddress);
+        }
+        catch (DataIntegrityViolationException e)
+        {
+            throw EmailAddressValidationEngine.translate(e, emailAddress);
+        }
+        queryCache.invalidate(EmailAddressServer.class);
+        lookupCache.invalidate(EmailAddressServer.class);
 
-        // Save the documents attached to the email address.
+        // Save the documents attached to the email address and not yet stored in the content store.
         if (emailAddress.getDocuments() != null)
         {
-            for (DocumentServer document : emailAddress.getDocuments())
+            List<DocumentServer> documents = emailAddress.getDocuments().stream()
+                    .filter(document -> document.getContentId() == null)
+                    .toList();
+            try
+            {
+                documentService.saveAll(documents);
+            }
+            catch (DocumentException e)
             {
-                try
-                {
-                    saveDocumentContent(document);
-                }
-                catch (DocumentException e)
-                {
-                    throw new EmailAddressException(e);
-                }
+                LOGGER.info(String.format("Cannot save documents for email address: %s due to: %s", emailAddress.getId(), e.getMessage()), e);
+                throw new EmailAddressException(e);
             }
         }
 
@@ -132,7 +223,14 @@ public class EmailAddressService implements IEmailAddressService
     {
         emailAddress = save(emailAddress);
 
-        emailAddressRepository.flush();
+        try
+        {
+            emailAddressRepository.flush();
+        }
+        catch (DataIntegrityViolationException e)
+        {
+            throw EmailAddressValidationEngine.translate(e, emailAddress);
+        }
 
         return emailAddress;
     }
@@ -141,36 +239,38 @@ public class EmailAddressService implements IEmailAddressService
     public void deleteById(UUID id)
     {
         emailAddressRepository.deleteById(id);
+        queryCache.invalidate(EmailAddressServer.class);
+        lookupCache.invalidate(EmailAddressServer.class);
     }
 
     @Override
     public List<EmailAddressServer> findAll()
     {
-        return emailAddressRepository.findAll();
+        return ServerEntity.initializeAssociations(emailAddressRepository.findAll());
     }
 
     @Override
     public List<EmailAddressServer> findByAddressType(final AddressType type)
     {
-        return emailAddressRepository.findByAddressType(type);
+        return ServerEntity.initializeAssociations(emailAddressRepository.findByAddressType(type));
     }
 
     @Override
     public List<EmailAddressServer> findByStatus(final StatusType status)
     {
-        return emailAddressRepository.findByStatusType(status);
+        return ServerEntity.initializeAssociations(emailAddressRepository.findByStatusType(status));
     }
 
     @Override
     public List<EmailAddressServer> findByIsDefaultEmail(final Boolean isDefaultEmail)
     {
-        return emailAddressRepository.findByIsDefaultEmail(isDefaultEmail);
+        return ServerEntity.initializeAssociations(emailAddressRepository.findByIsDefaultEmail(isDefaultEmail));
     }
 
     @Override
     public List<EmailAddressServer> findByParentId(final UUID parentId)
     {
-        return emailAddressRepository.findByParentId(parentId);
+        return ServerEntity.initializeAssociations(emailAddressRepository.findByParentId(parentId));
     }
 
     @Override
@@ -182,87 +282,46 @@ public class EmailAddressService implements IEmailAddressService
     @Override
     public List<EmailAddressServer> search(final @NonNull EmailAddressQuery search) throws QueryConditionException
     {
-        return emailAddressRepository.findAll((Specification<EmailAddressServer>) search.getSpecification());
-    }
+        search.validate();
 
-    /**
-     * Save the document content to the content store.
-     * @param document Document.
-     * @throws DocumentException Thrown if an error occurred while trying to save the document content to the content store.
-     */
-    private void saveDocumentContent(final @NonNull DocumentServer document) throws DocumentException
-    {
-        try
+        long generation = queryCache.getGeneration(EmailAddressServer.class);
+        List<EmailAddressServer> emailAddresses = queryCache.get(EmailAddressServer.class, search, QueryResultCache.UNPAGED);
+        if (emailAddresses == null)
         {
-            if (document.getContentId() == null) // Not stored in the content store.
-            {
-                documentService.save(document);
-            }
-        }
-        catch (Exception e)
-        {
-            LOGGER.info(String.format("Cannot save document content id: %s for owner of type: %s, identifier: %s due to: %s",
-                    document.getContentId(),
-                    document.getParent().getEntityType(),
-                    document.getParent().getId(),
-                    e.getMessage()), e);
-            throw new DocumentException(e.getMessage());
+            emailAddresses = queryCache.put(EmailAddressServer.class, search, QueryResultCache.UNPAGED, generation,
+                    monitor.execute(search, () -> ServerEntity.initializeAssociations(emailAddressRepository.findAll((Specification<EmailAddressServer>) search.getSpecification()))));
         }
+
+        return emailAddresses;
     }
 
-    private EmailAddressServer merge(final EmailAddressServer source, final EmailAddressServer target) throws EmailAddressException
+    /**
+     * Finds an email address to be updated.
+     * <br>
+     * The email address served by the request lookup cache is shared by all the lookups of the request. The lookups are invalidated
+     * before it is changed, so if saving it fails, the rest of the request reloads the stored email address instead of seeing the
+     * unsaved changes.
+     * @param id Email address identifier.
+     * @return Email address or null if not found.
+     * @throws DocumentException Thrown to indicate an error occurred when trying to load the documents of the email address.
+     */
+    private EmailAddressServer findForUpdate(final UUID id) throws DocumentException
     {
-        Diff diff = EntityComparator.getJavers().compare(source, target);
-
-        // Check if some object fields have changed.
-        for (ValueChange change : diff.getChangesByType(ValueChange.class))
-        {
-            switch (change.getPropertyName())
-            {
-                case EmailAddressQuery.EMAIL_ADDRESS_EMAIL:
-                    target.setEmail(source.getEmail());
-                    break;
-
-                case EmailAddressQuery.EMAIL_ADDRESS_TYPE:
-                    target.setAddressType(source.getAddressType());
-                    break;
-
-//                case EmailAddressServer.FIELD_DESCRIPTION:
-//                    target.setDescription(source.getDescription());
-//                    break;
-//
-//                case EmailAddressServer.FIELD_STATUS_TYPE:
-//                    target.setStatusType(source.getStatusType());
-//                    break;
-//
-//                case EmailAddressServer.FIELD_REFERENCE:
-//                    target.setReference(source.getReference());
-//                    break;
-
-                case EmailAddressQuery.EMAIL_ADDRESS_IS_DEFAULT:
-                    target.setIsDefaultEmail(source.getIsDefaultEmail());
-                    break;
-
-                default:
-                    LOGGER.warn(String.format("Property name: %s not handled!", change.getPropertyName()));
-                    break;
-            }
-        }
+        EmailAddressServer emailAddress = findById(id);
+        lookupCache.invalidate(EmailAddressServer.class);
 
-        // Check if some object references have changed.
-        for (ReferenceChange change : diff.getChangesByType(ReferenceChange.class))
-        {
-            switch (change.getPropertyName())
-            {
-//                case ServerEmailAddressEntity.FIELD_PERSON:
-//                    target.setPerson(source.getPerson());
-//                    break;
+        return emailAddress;
+    }
 
-                default:
-                    LOGGER.warn(String.format("Property name: %s not handled!", change.getPropertyName()));
-                    break;
-            }
-        }
+    /**
+     * Merges the properties of an email address into another one.
+     * @param source Email address holding the properties to merge.
+     * @param target Email address to update.
+     * @return Updated email address.
+     */
+    private EmailAddressServer merge(final EmailAddressServer source, final EmailAddressServer target)
+    {
+        EmailAddressConverter.merge(source, target);
 
         return target;
     }
@@ -18,14 +18,17 @@ import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.repository.EmailAddressRepository;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.AddressType;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressException;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressQuery;
 import lombok.NonNull;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -45,6 +48,7 @@ public interface IEmailAddressService
      * Return the total number of email addresses.
      * @return Total number of email addresses.
      */
+    @Transactional(readOnly = true)
     Long count();
 
     /**
@@ -52,6 +56,7 @@ public interface IEmailAddressService
      * @param id Email address identifier.
      * @return Email address.
      */
+    @Transactional(readOnly = true)
     EmailAddressServer findById(UUID id) throws DocumentException;
 
     /**
@@ -62,6 +67,17 @@ public interface IEmailAddressService
      */
     EmailAddressServer update(final EmailAddressServer emailAddress) throws EmailAddressException, DocumentException;
 
+    /**
+     * Patch the email address matching the given identifier with a JSON Merge Patch document.
+     * <br>
+     * The patched email address is validated as for an update before being saved.
+     * @param id Email address identifier.
+     * @param patch Merge patch document holding the properties to update.
+     * @return Updated server email address entity.
+     * @throws EntityException Thrown in case an error occurred while trying to patch the server email address entity.
+     */
+    EmailAddressServer patch(final @NonNull UUID id, final @NonNull Map<String, Object> patch) throws EntityException;
+
     /**
      * Save the given email address.
      * @param emailAddress Email address.
@@ -88,6 +104,7 @@ public interface IEmailAddressService
      * Return all email addresses.
      * @return List of email addresses.
      */
+    @Transactional(readOnly = true)
     List<EmailAddressServer> findAll();
 
     /**
@@ -95,6 +112,7 @@ public interface IEmailAddressService
      * @param type Address type.
      * @return List of email addresses.
      */
+    @Transactional(readOnly = true)
     List<EmailAddressServer> findByAddressType(AddressType type);
 
     /**
@@ -102,6 +120,7 @@ public interface IEmailAddressService
      * @param status Status type.
      * @return List of email addresses.
      */
+    @Transactional(readOnly = true)
     List<EmailAddressServer> findByStatus(StatusType status);
 
     /**
@@ -109,6 +128,7 @@ public interface IEmailAddressService
      * @param isDefaultEmail Is it the default email address?
      * @return List of matching email addresses.
      */
+    @Transactional(readOnly = true)
     List<EmailAddressServer> findByIsDefaultEmail(Boolean isDefaultEmail);
 
     /**
@@ -116,6 +136,7 @@ public interface IEmailAddressService
      * @param parentId Parent identifier.
      * @return List of matching email addresses.
      */
+    @Transactional(readOnly = true)
     List<EmailAddressServer> findByParentId(UUID parentId);
 
     /**
@@ -123,6 +144,7 @@ public interface IEmailAddressService
      * @param emailAddress Email address search object containing the predicates.
      * @return List of email addresses matching the given predicates.
      */
+    @Transactional(readOnly = true)
     List<EmailAddressServer> search(final @NonNull EmailAddressQuery emailAddress) throws QueryConditionException;
 
     /**
@@ -131,6 +153,7 @@ public interface IEmailAddressService
      * @return List of documents.
      * @throws QueryConditionException Thrown to indicate an error occurred when retrieving a list of documents.
      */
+    @Transactional(readOnly = true)
     List<DocumentServer> findDocuments(final @NonNull UUID emailAddressId) throws QueryConditionException;
 }
 
@@ -0,0 +1,41 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.person.service;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkFormat;
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkImportReport;
+import com.hemajoo.commerce.cherry.backend.shared.person.PersonException;
+import lombok.NonNull;
+
+import java.io.InputStream;
+
+/**
+ * Person bulk import service.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public interface IPersonImportService
+{
+    /**
+     * Imports persons (with their email addresses and phone numbers) from a bulk input.
+     * <br>
+     * Invalid records are rejected and reported while the valid ones are imported.
+     * @param format Bulk format.
+     * @param input Input stream (UTF-8 encoded).
+     * @return Import report.
+     * @throws PersonException Thrown to indicate an error occurred when reading the input.
+     */
+    BulkImportReport importPersons(final @NonNull BulkFormat format, final @NonNull InputStream input) throws PersonException;
+}
@@ -19,11 +19,14 @@ import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentS
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.repository.PersonRepository;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateResult;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.QueryAggregate;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
 import com.hemajoo.commerce.cherry.backend.shared.person.PersonException;
 import com.hemajoo.commerce.cherry.backend.shared.person.PersonQuery;
 import lombok.NonNull;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -45,6 +48,7 @@ public interface IPersonService
      * Returns the total number of persons.
      * @return Number of persons.
      */
+    @Transactional(readOnly = true)
     Long count();
 
     /**
@@ -52,6 +56,7 @@ public interface IPersonService
      * @param id Person identifier.
      * @return True if the person exist, false otherwise.
      */
+    @Transactional(readOnly = true)
     boolean existId(final @NonNull UUID id);
 
     /**
@@ -59,8 +64,21 @@ public interface IPersonService
      * @param id Person identifier.
      * @return Person.
      */
+    @Transactional(readOnly = true)
     PersonServer findById(UUID id);
 
+    /**
+     * Returns the person matching the given identifier with its email addresses, phone numbers, postal addresses and the documents
+     * of the person and of these child entities.
+     * <br>
+     * The person and its child entities are loaded with a bounded number of statements, whatever the number of child entities and
+     * documents.
+     * @param id Person identifier.
+     * @return Person or null if not found.
+     */
+    @Transactional(readOnly = true)
+    PersonServer findAggregateById(final @NonNull UUID id);
+
     /**
      * Saves the person.
      * @param person Person.
@@ -86,6 +104,7 @@ public interface IPersonService
      * Returns all the persons.
      * @return List of persons.
      */
+    @Transactional(readOnly = true)
     List<PersonServer> findAll();
 
     /**
@@ -93,13 +112,25 @@ public interface IPersonService
      * @param person Person specification.
      * @return List of persons.
      */
+    @Transactional(readOnly = true)
     List<PersonServer> search(final @NonNull PersonQuery person) throws QueryConditionException;
 
+    /**
+     * Computes an aggregate on the persons matching a query.
+     * @param person Person query.
+     * @param aggregate Aggregate to compute.
+     * @return List of aggregate results (one per group).
+     * @throws QueryConditionException Thrown to indicate the query or the aggregate is invalid.
+     */
+    @Transactional(readOnly = true)
+    List<AggregateResult> aggregate(final @NonNull PersonQuery person, final @NonNull QueryAggregate aggregate) throws QueryConditionException;
+
     /**
      * Returns the list of email addresses owned by the given person.
      * @param person Person.
      * @return List of email addresses.
      */
+    @Transactional(readOnly = true)
     List<EmailAddressServer> getEmailAddresses(final @NonNull PersonServer person);
 
 //    ServerPersonEntity loadEmailAddresses(final @NonNull ServerPersonEntity person);
@@ -109,5 +140,6 @@ public interface IPersonService
      * @param entity Base entity.
      * @return List of documents.
      */
+    @Transactional(readOnly = true)
     List<DocumentServer> getDocuments(final @NonNull ServerEntity entity);
 }
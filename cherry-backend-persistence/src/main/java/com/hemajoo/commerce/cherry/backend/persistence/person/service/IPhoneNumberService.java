@@ -21,6 +21,7 @@ import com.hemajoo.commerce.cherry.backend.shared.person.phone.PhoneNumberCatego
 import com.hemajoo.commerce.cherry.backend.shared.person.phone.PhoneNumberQuery;
 import com.hemajoo.commerce.cherry.backend.shared.person.phone.PhoneNumberType;
 import lombok.NonNull;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -36,6 +37,7 @@ public interface IPhoneNumberService
      * Returns the number of phone numbers.
      * @return Number of phone numbers.
      */
+    @Transactional(readOnly = true)
     Long count();
 
     /**
@@ -43,6 +45,7 @@ public interface IPhoneNumberService
      * @param id Phone number identifier.
      * @return Phone number if found, null otherwise.
      */
+    @Transactional(readOnly = true)
     PhoneNumberServer findById(UUID id);
 
     /**
@@ -69,6 +72,7 @@ public interface IPhoneNumberService
      * Returns the phone numbers.
      * @return List of phone numbers.
      */
+    @Transactional(readOnly = true)
     List<PhoneNumberServer> findAll();
 
     /**
@@ -76,6 +80,7 @@ public interface IPhoneNumberService
      * @param type Phone number type.
      * @return List of matching phone numbers.
      */
+    @Transactional(readOnly = true)
     List<PhoneNumberServer> findByPhoneType(PhoneNumberType type);
 
     /**
@@ -83,6 +88,7 @@ public interface IPhoneNumberService
      * @param category Phone number category type.
      * @return List of matching phone numbers.
      */
+    @Transactional(readOnly = true)
     List<PhoneNumberServer> findByCategoryType(PhoneNumberCategoryType category);
 
     /**
@@ -90,6 +96,7 @@ public interface IPhoneNumberService
      * @param status Status type.
      * @return List of matching phone numbers.
      */
+    @Transactional(readOnly = true)
     List<PhoneNumberServer> findByStatus(StatusType status);
 
     /**
@@ -97,6 +104,7 @@ public interface IPhoneNumberService
      * @param isDefault Is it a default phone number?
      * @return List of matching phone numbers.
      */
+    @Transactional(readOnly = true)
     List<PhoneNumberServer> findByIsDefault(boolean isDefault);
 
     /**
@@ -104,6 +112,7 @@ public interface IPhoneNumberService
      * @param personId Person identifier.
      * @return List of matching phone numbers.
      */
+    @Transactional(readOnly = true)
     List<PhoneNumberServer> findByPersonId(long personId);
 
     /**
@@ -111,5 +120,6 @@ public interface IPhoneNumberService
      * @param phoneNumber Phone number search object containing the predicates.
      * @return List of phone numbers matching the given predicates.
      */
+    @Transactional(readOnly = true)
     List<PhoneNumberServer> search(final @NonNull PhoneNumberQuery phoneNumber) throws QueryConditionException;
 }
@@ -20,6 +20,7 @@ import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryCond
 import com.hemajoo.commerce.cherry.backend.shared.person.address.AddressType;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.postal.PostalAddressQuery;
 import lombok.NonNull;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.UUID;
@@ -35,6 +36,7 @@ public interface IPostalAddressService
      * Returns the number of postal addresses.
      * @return Number of postal addresses.
      */
+    @Transactional(readOnly = true)
     Long count();
 
     /**
@@ -42,6 +44,7 @@ public interface IPostalAddressService
      * @param id Postal address identifier.
      * @return Postal address if found, null otherwise.
      */
+    @Transactional(readOnly = true)
     PostalAddressServer findById(UUID id);
 
     /**
@@ -61,6 +64,7 @@ public interface IPostalAddressService
      * Returns the postal addresses.
      * @return List of postal addresses.
      */
+    @Transactional(readOnly = true)
     List<PostalAddressServer> findAll();
 
     /**
@@ -68,6 +72,7 @@ public interface IPostalAddressService
      * @param type Address type.
      * @return List of matching postal addresses.
      */
+    @Transactional(readOnly = true)
     List<PostalAddressServer> findByAddressType(AddressType type);
 
     /**
@@ -75,6 +80,7 @@ public interface IPostalAddressService
      * @param status Status type.
      * @return List of matching postal addresses.
      */
+    @Transactional(readOnly = true)
     List<PostalAddressServer> findByStatus(StatusType status);
 
     /**
@@ -82,6 +88,7 @@ public interface IPostalAddressService
      * @param isDefault Is it a default postal address?
      * @return List of matching postal addresses.
      */
+    @Transactional(readOnly = true)
     List<PostalAddressServer> findByIsDefault(boolean isDefault);
 
     /**
@@ -89,6 +96,7 @@ public interface IPostalAddressService
      * @param personId Person identifier.
      * @return List of matching email addresses.
      */
+    @Transactional(readOnly = true)
     List<PostalAddressServer> findByPersonId(UUID personId);
 
     /**
@@ -96,5 +104,6 @@ public interface IPostalAddressService
      * @param postalAddress Postal address search object containing the predicates.
      * @return List of postal addresses matching the given predicates.
      */
+    @Transactional(readOnly = true)
     List<PostalAddressServer> search(final @NonNull PostalAddressQuery postalAddress) throws QueryConditionException;
 }
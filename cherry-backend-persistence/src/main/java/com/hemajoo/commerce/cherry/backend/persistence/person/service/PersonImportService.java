@@ -0,0 +1,391 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.person.service;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkFormat;
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkImportReport;
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkRecord;
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkRecordReader;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.QueryResultCache;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityRegistry;
+import com.hemajoo.commerce.cherry.backend.persistence.person.bulk.PersonImportRow;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PhoneNumberServer;
+import com.hemajoo.commerce.cherry.backend.shared.person.GenderType;
+import com.hemajoo.commerce.cherry.backend.shared.person.PersonException;
+import com.hemajoo.commerce.cherry.backend.shared.person.PersonType;
+import com.hemajoo.commerce.cherry.backend.shared.person.address.AddressType;
+import com.hemajoo.commerce.cherry.backend.shared.person.phone.PhoneNumberCategoryType;
+import com.hemajoo.commerce.cherry.backend.shared.person.phone.PhoneNumberType;
+import lombok.NonNull;
+import lombok.extern.log4j.Log4j2;
+import org.apache.commons.validator.routines.EmailValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Person bulk import service.
+ * <br>
+ * The input is read sequentially and processed by chunks of records:
+ * <ul>
+ *     <li>the records of a chunk are converted and validated in parallel,</li>
+ *     <li>the persons holding the same email address several times (case-insensitive) are rejected, without querying the database as
+ *     the email addresses are unique per person and the imported persons are new ones,</li>
+ *     <li>the valid persons of the chunk are inserted (with JDBC batches, see the {@code hibernate.jdbc.batch_size} and
+ *     {@code hibernate.order_inserts} properties) and committed in their own transaction.</li>
+ * </ul>
+ * A chunk failing to be inserted is rolled back and its records are reported as rejected, without affecting the other chunks.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+@Service
+public class PersonImportService implements IPersonImportService
+{
+    /**
+     * Entity manager.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Entity registry.
+     */
+    @Autowired
+    private EntityRegistry registry;
+
+    /**
+     * Query result cache.
+     */
+    @Autowired
+    private QueryResultCache queryCache;
+
+    /**
+     * Number of records per chunk (and per transaction).
+     */
+    private final int chunkSize;
+
+    /**
+     * Maximum number of reported errors.
+     */
+    private final int maxErrors;
+
+    /**
+     * Executor validating the records.
+     */
+    private final ExecutorService executor;
+
+    /**
+     * Creates a new person import service.
+     * @param chunkSize Number of records per chunk (and per transaction).
+     * @param maxErrors Maximum number of reported errors.
+     * @param threads Number of threads validating the records (0 for the number of available processors).
+     */
+    public PersonImportService(
+            final @Value("${hemajoo.commerce.cherry.import.chunk.size:1000}") int chunkSize,
+            final @Value("${hemajoo.commerce.cherry.import.errors.max:1000}") int maxErrors,
+            final @Value("${hemajoo.commerce.cherry.import.threads:0}") int threads)
+    {
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.executor = Executors.newFixedThreadPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "cherry-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Shuts down the executor validating the records.
+     */
+    @PreDestroy
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public BulkImportReport importPersons(final @NonNull BulkFormat format, final @NonNull InputStream input) throws PersonException
+    {
+        BulkImportReport report = new BulkImportReport(maxErrors);
+        long start = System.currentTimeMillis();
+
+        try (BulkRecordReader reader = BulkRecordReader.open(format, input))
+        {
+            List<BulkRecord> chunk = new ArrayList<>(chunkSize);
+            BulkRecord record;
+
+            while ((record = reader.next()) != null)
+            {
+                chunk.add(record);
+                if (chunk.size() == chunkSize)
+                {
+                    importChunk(reader, chunk, report);
+                    chunk.clear();
+                }
+            }
+
+            if (!chunk.isEmpty())
+            {
+                importChunk(reader, chunk, report);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new PersonException(String.format("Cannot read the person import input: %s", e.getMessage()), e);
+        }
+        finally
+        {
+            queryCache.invalidate(PersonServer.class, EmailAddressServer.class);
+            report.setDuration(System.currentTimeMillis() - start);
+        }
+
+        LOGGER.info(String.format("Person import: %s records, %s imported, %s rejected in: %s ms",
+                report.getRecords(), report.getImported(), report.getRejected(), report.getDuration()));
+
+        return report;
+    }
+
+    /**
+     * Imports a chunk of records.
+     * @param reader Record reader.
+     * @param chunk Records.
+     * @param report Import report.
+     * @throws PersonException Thrown to indicate the import has been interrupted.
+     */
+    private void importChunk(final BulkRecordReader reader, final List<BulkRecord> chunk, final BulkImportReport report) throws PersonException
+    {
+        // Convert and validate the records in parallel.
+        List<Future<PersonServer>> futures = new ArrayList<>(chunk.size());
+        for (BulkRecord record : chunk)
+        {
+            futures.add(executor.submit(() -> convert(reader.convert(record, PersonImportRow.class))));
+        }
+
+        List<PersonServer> persons = new ArrayList<>(chunk.size());
+        List<Long> lines = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++)
+        {
+            try
+            {
+                persons.add(futures.get(i).get());
+                lines.add(chunk.get(i).getLine());
+            }
+            catch (ExecutionException e)
+            {
+                report.reject(chunk.get(i).getLine(), e.getCause().getMessage());
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new PersonException("Person import has been interrupted!");
+            }
+        }
+
+        rejectDuplicateEmails(persons, lines, report);
+
+        try
+        {
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> registry.registerInBatch(() -> {
+                persons.forEach(entityManager::persist);
+                entityManager.flush();
+                entityManager.clear();
+            }));
+
+            report.chunk(chunk.size(), persons.size());
+        }
+        catch (RuntimeException e)
+        {
+            LOGGER.error(String.format("Person import chunk starting at line: %s has been rolled back: %s", chunk.get(0).getLine(), e.getMessage()));
+
+            lines.forEach(line -> report.reject(line, String.format("Chunk rolled back: %s", e.getMessage())));
+            report.chunk(chunk.size(), 0);
+        }
+    }
+
+    /**
+     * Rejects the persons having the same email address several times (case-insensitive).
+     * <br>
+     * Email addresses are unique per parent and lower cased email address. As the imported persons are new parents, their email addresses
+     * cannot collide with existing ones, neither with the ones of the other persons.
+     * @param persons Persons of the chunk.
+     * @param lines Line numbers of the persons.
+     * @param report Import report.
+     */
+    private void rejectDuplicateEmails(final List<PersonServer> persons, final List<Long> lines, final BulkImportReport report)
+    {
+        int index = 0;
+        while (index < persons.size())
+        {
+            Set<String> owned = new HashSet<>();
+            String duplicate = persons.get(index).getEmailAddresses().stream()
+                    .map(EmailAddressServer::getEmail)
+                    .filter(email -> !owned.add(email.toLowerCase(Locale.ROOT)))
+                    .findFirst()
+                    .orElse(null);
+
+            if (duplicate != null)
+            {
+                report.reject(lines.get(index), String.format("Email address: '%s' is duplicated!", duplicate));
+                persons.remove(index);
+                lines.remove(index);
+            }
+            else
+            {
+                index++;
+            }
+        }
+    }
+
+    /**
+     * Converts and validates an import record to a person.
+     * @param row Import record.
+     * @return Person (with its email addresses and phone numbers).
+     * @throws PersonException Thrown to indicate the record is invalid.
+     */
+    private PersonServer convert(final PersonImportRow row) throws PersonException
+    {
+        if (row.getLastName() == null || row.getLastName().isBlank())
+        {
+            throw new PersonException("Last name is mandatory!");
+        }
+
+        if (row.getFirstName() == null || row.getFirstName().isBlank())
+        {
+            throw new PersonException("First name is mandatory!");
+        }
+
+        PersonServer person = new PersonServer();
+        person.setLastName(row.getLastName().trim());
+        person.setFirstName(row.getFirstName().trim());
+        person.setReference(row.getReference());
+        person.setDescription(row.getDescription());
+        person.setTags(row.getTags());
+        person.setPersonType(parseEnum(PersonType.class, row.getPersonType(), PersonType.PHYSICAL));
+        person.setGenderType(parseEnum(GenderType.class, row.getGenderType(), null));
+        person.setActive();
+
+        if (row.getBirthDate() != null && !row.getBirthDate().isBlank())
+        {
+            try
+            {
+                person.setBirthDate(Date.from(LocalDate.parse(row.getBirthDate().trim()).atStartOfDay(ZoneId.systemDefault()).toInstant()));
+            }
+            catch (DateTimeParseException e)
+            {
+                throw new PersonException(String.format("Birthdate: '%s' is invalid, expected format is: 'yyyy-MM-dd'!", row.getBirthDate()));
+            }
+        }
+
+        for (String value : row.getEmails())
+        {
+            String email = value.trim();
+            if (!EmailValidator.getInstance().isValid(email))
+            {
+                throw new PersonException(String.format("Email address: '%s' is invalid!", email));
+            }
+
+            EmailAddressServer emailAddress = new EmailAddressServer();
+            emailAddress.setEmail(email);
+            emailAddress.setAddressType(AddressType.PRIVATE);
+            emailAddress.setIsDefaultEmail(person.getEmailAddresses().isEmpty());
+            emailAddress.setActive();
+
+            try
+            {
+                person.addEmailAddress(emailAddress);
+            }
+            catch (Exception e)
+            {
+                throw new PersonException(e.getMessage());
+            }
+        }
+
+        for (String value : row.getPhones())
+        {
+            String number = value.trim();
+            if (number.isEmpty() || number.length() > 30)
+            {
+                throw new PersonException(String.format("Phone number: '%s' is invalid!", number));
+            }
+
+            if (row.getCountryCode() != null && row.getCountryCode().trim().length() > 3)
+            {
+                throw new PersonException(String.format("Country code: '%s' is invalid!", row.getCountryCode()));
+            }
+
+            PhoneNumberServer phoneNumber = new PhoneNumberServer();
+            phoneNumber.setNumber(number);
+            phoneNumber.setCountryCode(row.getCountryCode() != null ? row.getCountryCode().trim().toUpperCase() : null);
+            phoneNumber.setPhoneType(PhoneNumberType.PRIVATE);
+            phoneNumber.setCategoryType(PhoneNumberCategoryType.MOBILE);
+            phoneNumber.setIsDefault(person.getPhoneNumbers().isEmpty());
+            phoneNumber.setActive();
+            person.addPhoneNumber(phoneNumber);
+        }
+
+        return person;
+    }
+
+    /**
+     * Parses an enumeration value (case-insensitive).
+     * @param type Enumeration type.
+     * @param value Value.
+     * @param defaultValue Default value if the value is empty.
+     * @param <E> Enumeration type.
+     * @return Enumeration value.
+     * @throws PersonException Thrown to indicate the value is not a value of the enumeration.
+     */
+    private <E extends Enum<E>> E parseEnum(final Class<E> type, final String value, final E defaultValue) throws PersonException
+    {
+        if (value == null || value.isBlank())
+        {
+            return defaultValue;
+        }
+
+        try
+        {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        }
+        catch (IllegalArgumentException e)
+        {
+            throw new PersonException(String.format("Value: '%s' is not a valid: %s! Expected one of: %s", value, type.getSimpleName(), Arrays.toString(type.getEnumConstants())));
+        }
+    }
+}
@@ -14,13 +14,21 @@
  */
 package com.hemajoo.commerce.cherry.backend.persistence.person.service;
 
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.QueryResultCache;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.RequestLookupCache;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryAggregator;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryMonitor;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityIdFilter;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.persistence.document.repository.IDocumentService;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.repository.EmailAddressRepository;
 import com.hemajoo.commerce.cherry.backend.persistence.person.repository.PersonRepository;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateResult;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.QueryAggregate;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
 import com.hemajoo.commerce.cherry.backend.shared.person.PersonException;
@@ -32,6 +40,7 @@ import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
 import javax.transaction.Transactional;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -64,6 +73,36 @@ public class PersonService implements IPersonService
     @Getter
     private IDocumentService documentService;
 
+    /**
+     * Query aggregator.
+     */
+    @Autowired
+    private QueryAggregator aggregator;
+
+    /**
+     * Query result cache.
+     */
+    @Autowired
+    private QueryResultCache queryCache;
+
+    /**
+     * Request lookup cache.
+     */
+    @Autowired
+    private RequestLookupCache lookupCache;
+
+    /**
+     * Entity identifier filter.
+     */
+    @Autowired
+    private EntityIdFilter idFilter;
+
+    /**
+     * Query monitor.
+     */
+    @Autowired
+    private QueryMonitor monitor;
+
 //    /**
 //     * Postal address service.
 //     */
@@ -93,7 +132,38 @@ public class PersonService implements IPersonService
     @Override
     public PersonServer findById(UUID id)
     {
-        return personRepository.findById(id).orElse(null);
+        if (!idFilter.mightExist(EntityType.PERSON, id))
+        {
+            return null;
+        }
+
+        return lookupCache.get(PersonServer.class, RequestLookupCache.LOOKUP_ID, id,
+                () -> ServerEntity.initializeAssociations(personRepository.findById(id).orElse(null)));
+    }
+
+    @Override
+    public PersonServer findAggregateById(final @NonNull UUID id)
+    {
+        PersonServer person = ServerEntity.initializeAssociations(personRepository.findById(id).orElse(null));
+        if (person != null)
+        {
+            // One statement per child collection.
+            List<ServerEntity> children = new ArrayList<>(person.getEmailAddresses());
+            children.addAll(person.getPhoneNumbers());
+            children.addAll(person.getPostalAddresses());
+
+            // The documents of the child entities are loaded by batches.
+            List<DocumentServer> documents = new ArrayList<>(person.getDocuments());
+            for (ServerEntity child : ServerEntity.initializeAssociations(children))
+            {
+                documents.addAll(child.getDocuments());
+            }
+
+            // Documents referenced by the documents, so they can be converted once detached.
+            ServerEntity.initializeAssociations(documents);
+        }
+
+        return person;
     }
 
     @Override
@@ -109,19 +179,20 @@ public class PersonService implements IPersonService
         if (person.getDocuments() != null)
         {
             // Save the documents directly attached to the person.
-            for (DocumentServer document : person.getDocuments())
+            try
+            {
+                documentService.saveAll(person.getDocuments());
+            }
+            catch (Exception e)
             {
-                try
-                {
-                    documentService.save(document);
-                }
-                catch (Exception e)
-                {
-                    throw new PersonException(e.getMessage());
-                }
+                throw new PersonException(e.getMessage());
             }
         }
 
+        // Persons cascade to their email addresses and documents.
+        queryCache.invalidate(PersonServer.class, EmailAddressServer.class, DocumentServer.class);
+        lookupCache.invalidate(PersonServer.class, EmailAddressServer.class, DocumentServer.class);
+
 //        // Save the email addresses directly attached to the person.
 //        for (ServerEmailAddressEntity email : person.getEmailAddresses())
 //        {
@@ -147,31 +218,53 @@ public class PersonService implements IPersonService
     @Override
     public PersonServer saveAndFlush(@NonNull PersonServer person)
     {
-        return personRepository.saveAndFlush(person);
+        person = personRepository.saveAndFlush(person);
+        queryCache.invalidate(PersonServer.class, EmailAddressServer.class, DocumentServer.class);
+        lookupCache.invalidate(PersonServer.class, EmailAddressServer.class, DocumentServer.class);
+
+        return person;
     }
 
     @Override
     public void deleteById(UUID id)
     {
         personRepository.deleteById(id);
+        queryCache.invalidate(PersonServer.class, EmailAddressServer.class, DocumentServer.class);
+        lookupCache.invalidate(PersonServer.class, EmailAddressServer.class, DocumentServer.class);
     }
 
     @Override
     public List<PersonServer> findAll()
     {
-        return personRepository.findAll();
+        return ServerEntity.initializeAssociations(personRepository.findAll());
     }
 
     @Override
     public List<PersonServer> search(@NonNull PersonQuery search) throws QueryConditionException
     {
-        return personRepository.findAll((Specification<PersonServer>) search.getSpecification());
+        search.validate();
+
+        long generation = queryCache.getGeneration(PersonServer.class);
+        List<PersonServer> persons = queryCache.get(PersonServer.class, search, QueryResultCache.UNPAGED);
+        if (persons == null)
+        {
+            persons = queryCache.put(PersonServer.class, search, QueryResultCache.UNPAGED, generation,
+                    monitor.execute(search, () -> ServerEntity.initializeAssociations(personRepository.findAll((Specification<PersonServer>) search.getSpecification()))));
+        }
+
+        return persons;
+    }
+
+    @Override
+    public List<AggregateResult> aggregate(final @NonNull PersonQuery search, final @NonNull QueryAggregate aggregate) throws QueryConditionException
+    {
+        return aggregator.aggregate(PersonServer.class, search, aggregate);
     }
 
     @Override
     public List<EmailAddressServer> getEmailAddresses(final @NonNull PersonServer person)
     {
-        return emailAddressRepository.findByParentId(person.getId());
+        return ServerEntity.initializeAssociations(emailAddressRepository.findByParentId(person.getId()));
     }
 
 //    @Override
@@ -15,6 +15,7 @@
 package com.hemajoo.commerce.cherry.backend.persistence.person.service;
 
 import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PhoneNumberServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.repository.PhoneNumberRepository;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
@@ -53,7 +54,7 @@ public class PhoneNumberService implements IPhoneNumberService
     @Override
     public PhoneNumberServer findById(UUID id)
     {
-        return phoneNumberRepository.findById(id).orElse(null);
+        return ServerEntity.initializeAssociations(phoneNumberRepository.findById(id).orElse(null));
     }
 
     @Override
@@ -77,42 +78,42 @@ public class PhoneNumberService implements IPhoneNumberService
     @Override
     public List<PhoneNumberServer> findAll()
     {
-        return phoneNumberRepository.findAll();
+        return ServerEntity.initializeAssociations(phoneNumberRepository.findAll());
     }
 
     @Override
     public List<PhoneNumberServer> findByPhoneType(PhoneNumberType type)
     {
-        return phoneNumberRepository.findByPhoneType(type);
+        return ServerEntity.initializeAssociations(phoneNumberRepository.findByPhoneType(type));
     }
 
     @Override
     public List<PhoneNumberServer> findByCategoryType(PhoneNumberCategoryType category)
     {
-        return phoneNumberRepository.findByCategoryType(category);
+        return ServerEntity.initializeAssociations(phoneNumberRepository.findByCategoryType(category));
     }
 
     @Override
     public List<PhoneNumberServer> findByStatus(StatusType status)
     {
-        return phoneNumberRepository.findByStatusType(status);
+        return ServerEntity.initializeAssociations(phoneNumberRepository.findByStatusType(status));
     }
 
     @Override
     public List<PhoneNumberServer> findByIsDefault(boolean isDefault)
     {
-        return phoneNumberRepository.findByIsDefault(isDefault);
+        return ServerEntity.initializeAssociations(phoneNumberRepository.findByIsDefault(isDefault));
     }
 
     @Override
     public List<PhoneNumberServer> findByPersonId(long personId)
     {
-        return phoneNumberRepository.findByPersonId(personId);
+        return ServerEntity.initializeAssociations(phoneNumberRepository.findByPersonId(personId));
     }
 
     @Override
     public List<PhoneNumberServer> search(@NonNull PhoneNumberQuery search) throws QueryConditionException
     {
-        return phoneNumberRepository.findAll((Specification<PhoneNumberServer>) search.getSpecification());
+        return ServerEntity.initializeAssociations(phoneNumberRepository.findAll((Specification<PhoneNumberServer>) search.getSpecification()));
     }
 }
@@ -15,6 +15,7 @@
 package com.hemajoo.commerce.cherry.backend.persistence.person.service;
 
 import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PostalAddressServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.repository.PostalAddressRepository;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
@@ -52,7 +53,7 @@ public class PostalAddressService implements IPostalAddressService
     @Override
     public PostalAddressServer findById(UUID id)
     {
-        return postalAddressRepository.findById(id).orElse(null);
+        return ServerEntity.initializeAssociations(postalAddressRepository.findById(id).orElse(null));
     }
 
     @Override
@@ -70,36 +71,36 @@ public class PostalAddressService implements IPostalAddressService
     @Override
     public List<PostalAddressServer> findAll()
     {
-        return postalAddressRepository.findAll();
+        return ServerEntity.initializeAssociations(postalAddressRepository.findAll());
     }
 
     @Override
     public List<PostalAddressServer> findByAddressType(AddressType type)
     {
-        return postalAddressRepository.findByAddressType(type);
+        return ServerEntity.initializeAssociations(postalAddressRepository.findByAddressType(type));
     }
 
     @Override
     public List<PostalAddressServer> findByStatus(StatusType status)
     {
-        return postalAddressRepository.findByStatusType(status);
+        return ServerEntity.initializeAssociations(postalAddressRepository.findByStatusType(status));
     }
 
     @Override
     public List<PostalAddressServer> findByIsDefault(boolean isDefault)
     {
-        return postalAddressRepository.findByIsDefault(isDefault);
+        return ServerEntity.initializeAssociations(postalAddressRepository.findByIsDefault(isDefault));
     }
 
     @Override
     public List<PostalAddressServer> findByPersonId(UUID personId)
     {
-        return postalAddressRepository.findByPersonId(personId);
+        return ServerEntity.initializeAssociations(postalAddressRepository.findByPersonId(personId));
     }
 
     @Override
     public List<PostalAddressServer> search(@NonNull PostalAddressQuery search) throws QueryConditionException
     {
-        return postalAddressRepository.findAll((Specification<PostalAddressServer>) search.getSpecification());
+        return ServerEntity.initializeAssociations(postalAddressRepository.findAll((Specification<PostalAddressServer>) search.getSpecification()));
     }
 }
@@ -15,38 +15,81 @@
 package com.hemajoo.commerce.cherry.backend.persistence.person.validation.engine;
 
 import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
-import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityComparator;
+import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.RequestLookupCache;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityIdFilter;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
-import com.hemajoo.commerce.cherry.backend.persistence.person.service.IEmailAddressService;
-import com.hemajoo.commerce.cherry.backend.persistence.person.service.IPersonService;
+import com.hemajoo.commerce.cherry.backend.persistence.person.repository.EmailAddressRepository;
+import com.hemajoo.commerce.cherry.backend.persistence.person.repository.PersonRepository;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
-import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressClient;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressException;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressQuery;
 import lombok.NonNull;
-import org.javers.core.diff.changetype.ValueChange;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
-import java.util.Objects;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Email address validation engine.
+ * <br>
+ * The rules probe the indexes of the email address table instead of loading the person owning the email address. The probes
+ * are memoized for the current request, so the validators and the services validating an email address share them.
  * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
  * @version 1.0.0
  */
 @Component
 public final class EmailAddressValidationEngine
 {
+    /**
+     * Name of the unique index on the parent and the lower cased email address.
+     */
+    public static final String INDEX_PARENT_EMAIL = "idx_email_address_parent_email";
+
+    /**
+     * Name of the partial unique index on the parent of the active default email addresses.
+     */
+    public static final String INDEX_PARENT_DEFAULT = "idx_email_address_parent_default";
+
+    /**
+     * Name of the lookup of the email addresses of a parent matching an email.
+     */
+    private static final String LOOKUP_EMAIL = "email";
+
+    /**
+     * Name of the lookup of the active default email addresses of a parent.
+     */
+    private static final String LOOKUP_DEFAULT = "default";
+
+    /**
+     * Person repository.
+     */
     @Autowired
-    private IPersonService servicePerson;
+    private PersonRepository personRepository;
 
+    /**
+     * Email address repository.
+     */
+    @Autowired
+    private EmailAddressRepository emailAddressRepository;
+
+    /**
+     * Request lookup cache.
+     */
+    @Autowired
+    private RequestLookupCache lookupCache;
+
+    /**
+     * Entity identifier filter.
+     */
     @Autowired
-    private IEmailAddressService serviceEmailAddress;
+    private EntityIdFilter idFilter;
 
     /**
      * Checks if the given search object is valid or not?
@@ -55,9 +98,7 @@ public final class EmailAddressValidationEngine
      */
     public static void isSearchValid(final @NonNull EmailAddressQuery search) throws EmailAddressException, QueryConditionException
     {
-        EmailAddressQuery reference = new EmailAddressQuery();
-
-        if (EntityComparator.getJavers().compare(reference, search).getChangesByType(ValueChange.class).isEmpty())
+        if (search.isEmpty())
         {
             throw new EmailAddressException("Search object must contain at least one search value!", HttpStatus.BAD_REQUEST);
         }
@@ -72,7 +113,7 @@ public final class EmailAddressValidationEngine
      */
     public void validatePersonId(final @NonNull UUID personId) throws EmailAddressException
     {
-        if (servicePerson.findById(personId) == null)
+        if (!existPerson(personId))
         {
             throw new EmailAddressException(String.format("Person with id: %s does not exist!", personId));
         }
@@ -85,7 +126,7 @@ public final class EmailAddressValidationEngine
      * @param emailAddress Email address to check.
      * @throws EmailAddressException Thrown in case the validation failed!
      */
-    public void validateEmailAddressId(final @NonNull EmailAddressClient emailAddress) throws EmailAddressException, DocumentException
+    public void validateEmailAddressId(final @NonNull EmailAddressClient emailAddress) throws EmailAddressException
     {
         validateEmailAddressId(emailAddress.getId());
     }
@@ -97,9 +138,10 @@ public final class EmailAddressValidationEngine
      * @param id Email address identifier.
      * @throws EmailAddressException Thrown in case the validation failed!
      */
-    public void validateEmailAddressId(final @NonNull UUID id) throws EmailAddressException, DocumentException
+    public void validateEmailAddressId(final @NonNull UUID id) throws EmailAddressException
     {
-        if (serviceEmailAddress.findById(id) == null)
+        if (!idFilter.mightExist(EntityType.EMAIL_ADDRESS, id)
+                || !Boolean.TRUE.equals(lookupCache.get(EmailAddressServer.class, RequestLookupCache.LOOKUP_EXIST, id, () -> emailAddressRepository.existsById(id))))
         {
             throw new EmailAddressException(String.format("Email address with id: %s does not exist!", id), HttpStatus.NOT_FOUND);
         }
@@ -116,15 +158,12 @@ public final class EmailAddressValidationEngine
     {
         if (Boolean.TRUE.equals(emailAddress.getIsDefaultEmail()) && emailAddress.isActive())
         {
-            PersonServer person = servicePerson.findById(emailAddress.getParent().getId());
-            EmailAddressServer defaultEmailAddress = person.getDefaultEmailAddress();
-            if (!Objects.equals(defaultEmailAddress.getIdentity(), emailAddress.getIdentity()) || emailAddress.getId() == null)
+            UUID parentId = emailAddress.getParent().getId();
+            List<UUID> ids = lookupCache.get(EmailAddressServer.class, LOOKUP_DEFAULT, parentId,
+                    () -> emailAddressRepository.findDefaultIdsByParentId(parentId, StatusType.ACTIVE));
+            if (ids.stream().anyMatch(id -> !id.equals(emailAddress.getId())))
             {
-                throw new EmailAddressException(
-                        String.format(
-                                "Person with id: '%s' already has an active default email address!",
-                                emailAddress.getParent().getId()),
-                        HttpStatus.BAD_REQUEST);
+                throw defaultEmailViolation(parentId);
             }
         }
     }
@@ -136,37 +175,99 @@ public final class EmailAddressValidationEngine
      */
     public void validateNameUniqueness(final @NonNull EmailAddressClient emailAddress) throws EmailAddressException
     {
-        PersonServer person = servicePerson.findById(emailAddress.getParent().getId());
+        UUID parentId = emailAddress.getParent().getId();
+        List<UUID> ids = lookupCache.get(EmailAddressServer.class, LOOKUP_EMAIL, parentId + "/" + emailAddress.getEmail().toLowerCase(),
+                () -> emailAddressRepository.findIdsByParentIdAndEmail(parentId, emailAddress.getEmail()));
 
-        if (person == null)
+        if (ids.isEmpty())
+        {
+            // The parent is only probed when it does not hold the email address, as it exists otherwise.
+            if (!existPerson(parentId))
+            {
+                throw new EmailAddressException(String.format("Person id: '%s' cannot be found!", parentId), HttpStatus.BAD_REQUEST);
+            }
+        }
+        else if (emailAddress.getId() == null) // New email address entity
+        {
+            throw uniquenessViolation(emailAddress.getEmail());
+        }
+        else if (ids.stream().anyMatch(id -> !id.equals(emailAddress.getId())))
         {
             throw new EmailAddressException(
                     String.format(
-                            "Person id: '%s' cannot be found!",
-                            emailAddress.getParent().getId()),
+                            "Email address: '%s' already belongs to another entity: '%s'!",
+                            emailAddress.getEmail(),
+                            parentId),
                     HttpStatus.BAD_REQUEST);
         }
+    }
 
-        if (person.existEmail(emailAddress.getEmail()))
+    /**
+     * Returns if a person exists.
+     * <br>
+     * The lookup is shared with the {@code PersonIdValidator} through the request lookup cache, and skipped for a person rejected by the
+     * entity identifier filter.
+     * @param personId Person identifier.
+     * @return {@code True} if the person exists, {@code false} otherwise.
+     */
+    private boolean existPerson(final @NonNull UUID personId)
+    {
+        return idFilter.mightExist(EntityType.PERSON, personId)
+                && Boolean.TRUE.equals(lookupCache.get(PersonServer.class, RequestLookupCache.LOOKUP_EXIST, personId, () -> personRepository.existsById(personId)));
+    }
+
+    /**
+     * Converts a data integrity violation raised when saving an email address to the matching validation error.
+     * <br>
+     * Violations of the unique indexes on the email addresses of a parent raise the same errors as the validation rules
+     * {@link #validateNameUniqueness(EmailAddressClient)} and {@link #validateDefaultEmail(EmailAddressClient)}.
+     * @param exception Data integrity violation exception.
+     * @param emailAddress Email address being saved.
+     * @return Email address exception.
+     */
+    public static EmailAddressException translate(final @NonNull DataIntegrityViolationException exception, final @NonNull EmailAddressServer emailAddress)
+    {
+        if (exception.getCause() instanceof ConstraintViolationException violation && violation.getConstraintName() != null)
         {
-            if (emailAddress.getId() != null) // New email address entity
+            UUID parentId = emailAddress.getParent() != null ? emailAddress.getParent().getId() : null;
+            switch (violation.getConstraintName().toLowerCase())
             {
-                EmailAddressServer email = person.getEmailById(emailAddress.getId());
-                if (email != null && !email.getId().equals(emailAddress.getId()))
-                {
-                    throw new EmailAddressException(
-                            String.format(
-                                    "Email address: '%s' already belongs to another entity: '%s'!",
-                                    emailAddress.getParent(),
-                                    emailAddress.getEmail()),
-                            HttpStatus.BAD_REQUEST);
-                }
-            }
-            else
-            {
-                throw new EmailAddressException(String.format("Email address: '%s' already exist!", emailAddress.getEmail()), HttpStatus.BAD_REQUEST);
+                case INDEX_PARENT_EMAIL:
+                    return uniquenessViolation(emailAddress.getEmail());
+
+                case INDEX_PARENT_DEFAULT:
+                    return defaultEmailViolation(parentId);
+
+                default:
+                    break;
             }
         }
+
+        return new EmailAddressException(String.format("Cannot save email address: '%s'!", emailAddress.getEmail()), exception);
+    }
+
+    /**
+     * Creates the exception raised when a parent already holds an email address.
+     * @param email Email address.
+     * @return Email address exception.
+     */
+    private static EmailAddressException uniquenessViolation(final String email)
+    {
+        return new EmailAddressException(String.format("Email address: '%s' already exist!", email), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Creates the exception raised when a parent already holds an active default email address.
+     * @param parentId Parent identifier.
+     * @return Email address exception.
+     */
+    private static EmailAddressException defaultEmailViolation(final UUID parentId)
+    {
+        return new EmailAddressException(
+                String.format(
+                        "Person with id: '%s' already has an active default email address!",
+                        parentId),
+                HttpStatus.BAD_REQUEST);
     }
 
     /**
@@ -174,7 +275,7 @@ public final class EmailAddressValidationEngine
      * @param emailAddress Email address to update.
      * @throws EmailAddressException Thrown to indicate an error occurred when trying to validate an email address.
      */
-    public void validateEmailForUpdate(final @NonNull EmailAddressClient emailAddress) throws EmailAddressException, DocumentException
+    public void validateEmailForUpdate(final @NonNull EmailAddressClient emailAddress) throws EmailAddressException
     {
         validateEmailAddressId(emailAddress.getId());
         validateEmailEntityType(emailAddress.getEntityType());
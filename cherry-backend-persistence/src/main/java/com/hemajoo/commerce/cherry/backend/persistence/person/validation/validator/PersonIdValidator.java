@@ -14,9 +14,14 @@
  */
 package com.hemajoo.commerce.cherry.backend.persistence.person.validation.validator;
 
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.RequestLookupCache;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityIdFilter;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.repository.PersonRepository;
 import com.hemajoo.commerce.cherry.backend.persistence.person.validation.constraint.ValidPersonId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 
 import javax.validation.ConstraintValidator;
 import javax.validation.ConstraintValidatorContext;
@@ -35,6 +40,18 @@ public class PersonIdValidator implements ConstraintValidator<ValidPersonId, Str
     @Autowired
     private PersonRepository personRepository;
 
+    /**
+     * Request lookup cache.
+     */
+    @Autowired
+    private RequestLookupCache lookupCache;
+
+    /**
+     * Entity identifier filter.
+     */
+    @Autowired
+    private EntityIdFilter idFilter;
+
     @Override
     public void initialize(ValidPersonId constraint)
     {
@@ -44,6 +61,18 @@ public class PersonIdValidator implements ConstraintValidator<ValidPersonId, Str
     @Override
     public boolean isValid(String personId, ConstraintValidatorContext context)
     {
-        return personRepository.existsById(UUID.fromString(personId));
+        UUID id = UUID.fromString(personId);
+
+        // A person rejected by the identifier filter definitely does not exist, so the database is not queried.
+        if (idFilter.mightExist(EntityType.PERSON, id)
+                && Boolean.TRUE.equals(lookupCache.get(PersonServer.class, RequestLookupCache.LOOKUP_EXIST, id, () -> personRepository.existsById(id))))
+        {
+            return true;
+        }
+
+        context.buildConstraintViolationWithTemplate(HttpStatus.NOT_FOUND + "@@" + String.format("Person id: '%s' does not exist!", id)).addConstraintViolation();
+        context.disableDefaultConstraintViolation(); // Allow to disable the standard constraint message
+
+        return false;
     }
 }
@@ -0,0 +1,12 @@
+--
+-- Registration date of the entity registry.
+--
+-- The EntityIdFilter of each application instance refreshes its Bloom filters with the identifiers registered since its last refresh
+-- (by any instance), instead of waiting for its next rebuild:
+--   - the registration date is set by the database when an entity is registered,
+--   - a btree index on the registration date serves the refreshes (a range scan on the recent registrations).
+-- The entities registered before this migration are dated with the migration date, they are already held by the filters once built.
+--
+ALTER TABLE ENTITY_REGISTRY ADD COLUMN IF NOT EXISTS REGISTERED_DATE TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS IDX_ENTITY_REGISTRY_REGISTERED_DATE ON ENTITY_REGISTRY (REGISTERED_DATE);
@@ -0,0 +1,18 @@
+--
+-- Failed indexings of the document contents.
+--
+-- The DOCUMENT_CONTENT_INDEX_FAILURE table (one entry per document, created from the mapping) records the documents whose content
+-- cannot be read from the content store by the DocumentContentIndexer:
+--   - the sweeps skip a failed document until its next attempt date, the delay doubling at each failure of the same content,
+--   - the sweeps queue the documents that never failed first, so failing documents cannot starve the new ones.
+-- The entry of a document is removed once it is indexed or deleted.
+--
+CREATE TABLE IF NOT EXISTS DOCUMENT_CONTENT_INDEX_FAILURE
+(
+    DOCUMENT_ID       UUID         NOT NULL PRIMARY KEY,
+    CONTENT_ID        VARCHAR(255),
+    ATTEMPTS          INTEGER      NOT NULL,
+    NEXT_ATTEMPT_DATE TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS IDX_DOCUMENT_CONTENT_INDEX_FAILURE_NEXT_ATTEMPT ON DOCUMENT_CONTENT_INDEX_FAILURE (NEXT_ATTEMPT_DATE);
@@ -0,0 +1,39 @@
+--
+-- Search indexes used by the query conditions on the searchable (string) fields.
+--
+-- The GenericSpecification compares lower(column) for the MATCH, CONTAINS, START_WITH and END_WITH operators:
+--   - btree indexes on lower(column) with text_pattern_ops serve equality and prefix searches (START_WITH),
+--   - trigram (gin) indexes on lower(column) serve infix and suffix searches (CONTAINS, END_WITH, MATCH).
+--
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Document
+CREATE INDEX IF NOT EXISTS IDX_DOCUMENT_NAME_LOWER ON DOCUMENT (lower(NAME) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS IDX_DOCUMENT_NAME_TRGM ON DOCUMENT USING gin (lower(NAME) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_DOCUMENT_FILENAME_LOWER ON DOCUMENT (lower(FILENAME) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS IDX_DOCUMENT_FILENAME_TRGM ON DOCUMENT USING gin (lower(FILENAME) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_DOCUMENT_TAGS_TRGM ON DOCUMENT USING gin (lower(TAGS) gin_trgm_ops);
+
+-- Email address
+CREATE INDEX IF NOT EXISTS IDX_EMAIL_ADDRESS_NAME_LOWER ON EMAIL_ADDRESS (lower(NAME) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS IDX_EMAIL_ADDRESS_NAME_TRGM ON EMAIL_ADDRESS USING gin (lower(NAME) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_EMAIL_ADDRESS_EMAIL_LOWER ON EMAIL_ADDRESS (lower(EMAIL) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS IDX_EMAIL_ADDRESS_EMAIL_TRGM ON EMAIL_ADDRESS USING gin (lower(EMAIL) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_EMAIL_ADDRESS_TAGS_TRGM ON EMAIL_ADDRESS USING gin (lower(TAGS) gin_trgm_ops);
+
+-- Person
+CREATE INDEX IF NOT EXISTS IDX_PERSON_NAME_LOWER ON PERSON (lower(NAME) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS IDX_PERSON_NAME_TRGM ON PERSON USING gin (lower(NAME) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_PERSON_LASTNAME_LOWER ON PERSON (lower(LASTNAME) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS IDX_PERSON_LASTNAME_TRGM ON PERSON USING gin (lower(LASTNAME) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_PERSON_FIRSTNAME_LOWER ON PERSON (lower(FIRSTNAME) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS IDX_PERSON_FIRSTNAME_TRGM ON PERSON USING gin (lower(FIRSTNAME) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS IDX_PERSON_TAGS_TRGM ON PERSON USING gin (lower(TAGS) gin_trgm_ops);
+
+-- Phone number
+CREATE INDEX IF NOT EXISTS IDX_PHONE_NUMBER_NAME_LOWER ON PHONE_NUMBER (lower(NAME) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS IDX_PHONE_NUMBER_TAGS_TRGM ON PHONE_NUMBER USING gin (lower(TAGS) gin_trgm_ops);
+
+-- Postal address
+CREATE INDEX IF NOT EXISTS IDX_POSTAL_ADDRESS_NAME_LOWER ON POSTAL_ADDRESS (lower(NAME) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS IDX_POSTAL_ADDRESS_TAGS_TRGM ON POSTAL_ADDRESS USING gin (lower(TAGS) gin_trgm_ops);
@@ -0,0 +1,19 @@
+--
+-- Entity registry back-fill.
+--
+-- The ENTITY_REGISTRY table maps each entity identifier to its entity type, so an entity known by its identifier only is loaded
+-- from its own table instead of a polymorphic lookup querying the union of all the entity tables.
+-- New entities are registered by the EntityRegistryListener; this migration registers the entities created before the registry.
+-- Identifiers are cast through text as they are stored as strings until converted to native uuid columns (V4).
+--
+INSERT INTO ENTITY_REGISTRY (ID, ENTITY_TYPE)
+SELECT CAST(CAST(ID AS TEXT) AS UUID), ENTITY_TYPE FROM PERSON
+UNION ALL
+SELECT CAST(CAST(ID AS TEXT) AS UUID), ENTITY_TYPE FROM DOCUMENT
+UNION ALL
+SELECT CAST(CAST(ID AS TEXT) AS UUID), ENTITY_TYPE FROM EMAIL_ADDRESS
+UNION ALL
+SELECT CAST(CAST(ID AS TEXT) AS UUID), ENTITY_TYPE FROM POSTAL_ADDRESS
+UNION ALL
+SELECT CAST(CAST(ID AS TEXT) AS UUID), ENTITY_TYPE FROM PHONE_NUMBER
+ON CONFLICT (ID) DO NOTHING;
@@ -0,0 +1,48 @@
+--
+-- Conversion of the entity identifiers from strings (uuid-char, 36 characters) to native uuid columns (16 bytes).
+--
+-- Only the columns still stored as strings are converted, so the migration does nothing on a schema created with the native mapping.
+-- Foreign keys referencing the converted columns are dropped before the conversion and re-created afterwards.
+--
+DO $$
+DECLARE
+    item RECORD;
+    constraints TEXT[] := ARRAY[]::TEXT[];
+    statement TEXT;
+BEGIN
+    IF NOT EXISTS (SELECT 1
+                   FROM information_schema.columns
+                   WHERE table_schema = current_schema()
+                     AND data_type = 'character varying'
+                     AND column_name IN ('id', 'parent_id', 'person_id', 'server_entity_id', 'documents_id')
+                     AND (table_name IN ('person', 'document', 'email_address', 'postal_address', 'phone_number', 'entity_registry')
+                         OR table_name LIKE '%\_documents'))
+    THEN
+        RETURN;
+    END IF;
+
+    FOR item IN SELECT c.conrelid::regclass AS table_name, c.conname AS constraint_name, pg_get_constraintdef(c.oid) AS definition
+                FROM pg_constraint c
+                WHERE c.contype = 'f'
+                  AND c.connamespace = current_schema()::regnamespace
+    LOOP
+        constraints := constraints || format('ALTER TABLE %s ADD CONSTRAINT %I %s', item.table_name, item.constraint_name, item.definition);
+        EXECUTE format('ALTER TABLE %s DROP CONSTRAINT %I', item.table_name, item.constraint_name);
+    END LOOP;
+
+    FOR item IN SELECT table_name, column_name
+                FROM information_schema.columns
+                WHERE table_schema = current_schema()
+                  AND data_type = 'character varying'
+                  AND column_name IN ('id', 'parent_id', 'person_id', 'server_entity_id', 'documents_id')
+                  AND (table_name IN ('person', 'document', 'email_address', 'postal_address', 'phone_number', 'entity_registry')
+                      OR table_name LIKE '%\_documents')
+    LOOP
+        EXECUTE format('ALTER TABLE %I ALTER COLUMN %I TYPE uuid USING %I::uuid', item.table_name, item.column_name, item.column_name);
+    END LOOP;
+
+    FOREACH statement IN ARRAY constraints
+    LOOP
+        EXECUTE statement;
+    END LOOP;
+END $$;
@@ -0,0 +1,54 @@
+--
+-- Uniqueness of the email addresses of a parent entity.
+--
+-- The EmailAddressValidationEngine probes these indexes instead of loading the parent with all its email addresses:
+--   - a unique index on the parent and the lower cased email address (an email address is held only once by a parent),
+--   - a partial unique index on the parent of the active default email addresses (a parent has at most one).
+-- Violations raised when saving an email address are mapped to the validation errors by the EmailAddressService.
+--
+-- Duplicated email addresses of a parent cannot be resolved automatically: the migration fails listing them, so they can be
+-- removed before applying it again.
+--
+DO $$
+DECLARE
+    duplicates TEXT;
+BEGIN
+    SELECT string_agg(format('parent: %s, email: %s (%s times)', PARENT_ID, EMAIL, COUNT), '; ' ORDER BY PARENT_ID, EMAIL)
+    INTO duplicates
+    FROM (SELECT PARENT_ID, lower(EMAIL) AS EMAIL, count(*) AS COUNT
+          FROM EMAIL_ADDRESS
+          WHERE PARENT_ID IS NOT NULL
+          GROUP BY PARENT_ID, lower(EMAIL)
+          HAVING count(*) > 1) DUPLICATES;
+
+    IF duplicates IS NOT NULL
+    THEN
+        RAISE EXCEPTION 'Duplicated email addresses must be removed before creating the unique index on the email addresses of a parent: %', duplicates;
+    END IF;
+END
+$$;
+
+--
+-- Only the most recent active default email address of a parent is kept as the default one before creating the partial index.
+-- The email addresses whose default flag is cleared are recorded in the EMAIL_ADDRESS_DEFAULT_RESET table.
+--
+CREATE TABLE IF NOT EXISTS EMAIL_ADDRESS_DEFAULT_RESET
+(
+    EMAIL_ADDRESS_ID UUID      NOT NULL PRIMARY KEY,
+    PARENT_ID        UUID      NOT NULL,
+    RESET_DATE       TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO EMAIL_ADDRESS_DEFAULT_RESET (EMAIL_ADDRESS_ID, PARENT_ID)
+SELECT ID, PARENT_ID
+FROM (SELECT ID, PARENT_ID, row_number() OVER (PARTITION BY PARENT_ID ORDER BY CREATED_DATE DESC, ID DESC) AS RANK
+      FROM EMAIL_ADDRESS
+      WHERE PARENT_ID IS NOT NULL AND IS_DEFAULT AND STATUS_TYPE = 'ACTIVE') DEFAULTS
+WHERE RANK > 1
+ON CONFLICT (EMAIL_ADDRESS_ID) DO NOTHING;
+
+UPDATE EMAIL_ADDRESS SET IS_DEFAULT = false
+WHERE IS_DEFAULT AND ID IN (SELECT EMAIL_ADDRESS_ID FROM EMAIL_ADDRESS_DEFAULT_RESET);
+
+CREATE UNIQUE INDEX IF NOT EXISTS IDX_EMAIL_ADDRESS_PARENT_EMAIL ON EMAIL_ADDRESS (PARENT_ID, lower(EMAIL));
+CREATE UNIQUE INDEX IF NOT EXISTS IDX_EMAIL_ADDRESS_PARENT_DEFAULT ON EMAIL_ADDRESS (PARENT_ID) WHERE IS_DEFAULT AND STATUS_TYPE = 'ACTIVE';
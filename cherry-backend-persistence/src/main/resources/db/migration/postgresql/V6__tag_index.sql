@@ -0,0 +1,33 @@
+--
+-- Tag index back-fill.
+--
+-- The tags of an entity (TAGS column, tags separated by comma) are normalized (trimmed and lower cased) and stored once in the TAG
+-- dictionary, the ENTITY_TAG table associating each entity with its tags. A query condition on a tag (HAS_TAG operator) probes:
+--   - the unique index on the tag names (TAG),
+--   - the index on the tag identifiers of the entity tags (ENTITY_TAG), its primary key serving the lookups per entity.
+-- New or updated entities are indexed by the TagIndexListener; this migration indexes the entities created before the tag index.
+--
+CREATE INDEX IF NOT EXISTS IDX_ENTITY_TAG_TAG ON ENTITY_TAG (TAG_ID, ENTITY_ID);
+
+CREATE TEMPORARY TABLE ENTITY_TAG_BACKFILL ON COMMIT DROP AS
+SELECT DISTINCT ID AS ENTITY_ID, lower(trim(TAG)) AS NAME
+FROM (SELECT ID, unnest(string_to_array(TAGS, ',')) AS TAG FROM PERSON
+      UNION ALL
+      SELECT ID, unnest(string_to_array(TAGS, ',')) AS TAG FROM DOCUMENT
+      UNION ALL
+      SELECT ID, unnest(string_to_array(TAGS, ',')) AS TAG FROM EMAIL_ADDRESS
+      UNION ALL
+      SELECT ID, unnest(string_to_array(TAGS, ',')) AS TAG FROM POSTAL_ADDRESS
+      UNION ALL
+      SELECT ID, unnest(string_to_array(TAGS, ',')) AS TAG FROM PHONE_NUMBER) TAGS
+WHERE trim(TAG) <> '';
+
+INSERT INTO TAG (NAME)
+SELECT DISTINCT NAME FROM ENTITY_TAG_BACKFILL
+ON CONFLICT (NAME) DO NOTHING;
+
+INSERT INTO ENTITY_TAG (ENTITY_ID, TAG_ID)
+SELECT B.ENTITY_ID, T.ID
+FROM ENTITY_TAG_BACKFILL B
+JOIN TAG T ON T.NAME = B.NAME
+ON CONFLICT DO NOTHING;
@@ -0,0 +1,17 @@
+--
+-- Full-text index of the document contents.
+--
+-- The DOCUMENT_CONTENT_INDEX table (one entry per document, created from the mapping) holds the text search vector of the text
+-- extracted from a document content by the DocumentContentIndexer:
+--   - a gin index on the text search vectors serves the FULL_TEXT query conditions,
+--   - the cherry_text_match function evaluates a FULL_TEXT condition (a web search like query: words, "phrases", or, -negation).
+-- The function being a single inlinable SQL statement, the planner expands it and uses the gin index.
+--
+-- Existing documents are indexed in the background by the sweeps of the DocumentContentIndexer once the application is started.
+--
+CREATE INDEX IF NOT EXISTS IDX_DOCUMENT_CONTENT_INDEX_VECTOR ON DOCUMENT_CONTENT_INDEX USING gin (CONTENT_VECTOR);
+
+CREATE OR REPLACE FUNCTION cherry_text_match(VECTOR tsvector, QUERY text) RETURNS boolean AS
+$$
+SELECT VECTOR @@ websearch_to_tsquery('simple', QUERY)
+$$ LANGUAGE sql IMMUTABLE;
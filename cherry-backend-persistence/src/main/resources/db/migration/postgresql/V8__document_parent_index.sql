@@ -0,0 +1,9 @@
+--
+-- Access path to the documents of a parent entity.
+--
+-- The documents of a parent are browsed (most recent first) with a keyset cursor on the creation date and the identifier, and
+-- counted without being loaded:
+--   - a btree index on the parent, the creation date and the identifier serves both the pages (an index seek per page whatever
+--     its position) and the counts (an index only scan).
+--
+CREATE INDEX IF NOT EXISTS IDX_DOCUMENT_PARENT_CREATED_DATE ON DOCUMENT (PARENT_ID, CREATED_DATE DESC, ID DESC);
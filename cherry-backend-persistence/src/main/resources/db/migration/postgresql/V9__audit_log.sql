@@ -0,0 +1,17 @@
+--
+-- Append-only audit trail.
+--
+-- The AUDIT_LOG table (created from the mapping) holds the property changes of the entities appended by batches by the AuditTrail:
+--   - the index on the entity identifier and the audit entry identifier serves the audit trail of an entity (most recent first),
+--   - a trigger rejects the updates and deletes of the audit entries, so the audit trail cannot be rewritten.
+--
+CREATE OR REPLACE FUNCTION cherry_audit_log_append_only() RETURNS trigger AS
+$$
+BEGIN
+    RAISE EXCEPTION 'Audit log entries cannot be updated nor deleted';
+END
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS TRG_AUDIT_LOG_APPEND_ONLY ON AUDIT_LOG;
+CREATE TRIGGER TRG_AUDIT_LOG_APPEND_ONLY BEFORE UPDATE OR DELETE ON AUDIT_LOG
+    FOR EACH ROW EXECUTE FUNCTION cherry_audit_log_append_only();
@@ -0,0 +1,197 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.base;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.audit.AuditActionType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.audit.AuditEntry;
+import com.hemajoo.commerce.cherry.backend.persistence.base.audit.AuditRingBuffer;
+import com.hemajoo.commerce.cherry.backend.persistence.base.audit.AuditTrail;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the {@link AuditTrail}.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest
+@Log4j2
+class AuditTrailUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Maximum time (in milliseconds) to wait for the audit entries to be written.
+     */
+    private static final long TIMEOUT = 10_000;
+
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * Audit trail.
+     */
+    @Autowired
+    private AuditTrail auditTrail;
+
+    @Test
+    @DisplayName("Record the creation, the updates and the deletion of an entity")
+    void testRecordEntityChanges() throws EntityException, InterruptedException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+        UUID id = person.getId();
+        String lastName = person.getLastName();
+
+        person.setLastName(lastName + "-updated");
+        servicePerson.getPersonService().saveAndFlush(person);
+        servicePerson.getPersonService().deleteById(id);
+
+        List<AuditEntry> entries = await(id, list -> list.stream().anyMatch(entry -> entry.getAction() == AuditActionType.UPDATE)
+                && list.stream().anyMatch(entry -> entry.getAction() == AuditActionType.DELETE));
+
+        assertThat(entries)
+                .as("Creation of the person last name should have been recorded!")
+                .anyMatch(entry -> entry.getAction() == AuditActionType.CREATE && "lastName".equals(entry.getProperty()) && lastName.equals(entry.getNewValue()));
+        assertThat(entries)
+                .as("Update of the person last name should have been recorded!")
+                .anyMatch(entry -> entry.getAction() == AuditActionType.UPDATE && "lastName".equals(entry.getProperty())
+                        && lastName.equals(entry.getOldValue()) && (lastName + "-updated").equals(entry.getNewValue()));
+        assertThat(entries)
+                .as("Audit properties should not have been recorded!")
+                .noneMatch(entry -> "modifiedDate".equals(entry.getProperty()));
+    }
+
+    @Test
+    @DisplayName("Ring buffer is bounded and hands the elements over in order")
+    void testRingBufferBounded()
+    {
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(5);
+
+        assertThat(buffer.getCapacity())
+                .as("Capacity should have been rounded up to a power of two!")
+                .isEqualTo(8);
+
+        for (int i = 0; i < 8; i++)
+        {
+            assertThat(buffer.offer(i))
+                    .as("Element should have been added!")
+                    .isTrue();
+        }
+
+        assertThat(buffer.offer(8))
+                .as("Element should not have been added to a full buffer!")
+                .isFalse();
+
+        List<Integer> elements = new ArrayList<>();
+        buffer.drainTo(elements, 100);
+
+        assertThat(elements)
+                .as("Elements should have been handed over in order!")
+                .containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+        assertThat(buffer.isEmpty())
+                .as("Buffer should be empty!")
+                .isTrue();
+    }
+
+    @Test
+    @DisplayName("Ring buffer hands over each element added by concurrent producers exactly once")
+    void testRingBufferConcurrentProducers() throws InterruptedException, ExecutionException
+    {
+        int producers = 4;
+        int count = 20_000;
+        AuditRingBuffer<Integer> buffer = new AuditRingBuffer<>(1024);
+        AtomicInteger added = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(producers);
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int p = 0; p < producers; p++)
+        {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < count; i++)
+                {
+                    if (buffer.offer(i))
+                    {
+                        added.incrementAndGet();
+                    }
+                }
+            }));
+        }
+
+        long consumed = 0;
+        List<Integer> batch = new ArrayList<>();
+        while (futures.stream().anyMatch(future -> !future.isDone()) || !buffer.isEmpty())
+        {
+            consumed += buffer.drainTo(batch, 256);
+            batch.clear();
+        }
+
+        for (Future<?> future : futures)
+        {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertThat(consumed)
+                .as("Each added element should have been consumed exactly once!")
+                .isEqualTo(added.get());
+    }
+
+    /**
+     * Waits for the audit entries of an entity to be written.
+     * @param entityId Entity identifier.
+     * @param condition Condition the audit entries must satisfy.
+     * @return List of audit entries, the most recent first.
+     * @throws InterruptedException Thrown to indicate the thread has been interrupted while waiting.
+     */
+    private List<AuditEntry> await(final UUID entityId, final Predicate<List<AuditEntry>> condition) throws InterruptedException
+    {
+        long deadline = System.currentTimeMillis() + TIMEOUT;
+        List<AuditEntry> entries = auditTrail.findByEntityId(entityId, 100);
+
+        while (!condition.test(entries) && System.currentTimeMillis() < deadline)
+        {
+            Thread.sleep(50);
+            auditTrail.flush();
+            entries = auditTrail.findByEntityId(entityId, 100);
+        }
+
+        assertThat(condition.test(entries))
+                .as("Audit entries should have been written!")
+                .isTrue();
+
+        return entries;
+    }
+}
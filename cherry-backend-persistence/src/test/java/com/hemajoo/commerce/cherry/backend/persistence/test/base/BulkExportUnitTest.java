@@ -0,0 +1,168 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.base;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkFormat;
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.IBulkExportService;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import com.hemajoo.commerce.cherry.backend.shared.person.PersonException;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the streaming bulk export of the entities.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest(properties = "hemajoo.commerce.cherry.export.fetch.size = 7")
+@Log4j2
+class BulkExportUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * Bulk export service.
+     */
+    @Autowired
+    private IBulkExportService exportService;
+
+    /**
+     * Prepare before each test.
+     * @throws PersonException Thrown to indicate an error occurred when trying to save the test persons.
+     */
+    @BeforeEach
+    public void beforeEach() throws PersonException
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+        }
+    }
+
+    @Test
+    @DisplayName("Export all the persons as NDJSON across several fetches")
+    void testExportPersonsAsNdjson() throws EntityException
+    {
+        long expected = servicePerson.getPersonService().count();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = exportService.export(EntityType.PERSON, BulkFormat.NDJSON, null, output);
+
+        assertThat(count)
+                .as("All the persons should have been exported!")
+                .isEqualTo(expected);
+        assertThat(lines(output))
+                .as("Each exported person should have been written on its own line!")
+                .hasSize((int) expected)
+                .allMatch(line -> line.startsWith("{") && line.endsWith("}"));
+    }
+
+    @Test
+    @DisplayName("Resume an export after the last exported person")
+    void testResumeExport() throws EntityException
+    {
+        List<UUID> identifiers = servicePerson.getPersonService().findAll().stream()
+                .map(PersonServer::getId)
+                .sorted()
+                .toList();
+        UUID after = identifiers.get(identifiers.size() / 2);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = exportService.export(EntityType.PERSON, BulkFormat.NDJSON, after, output);
+
+        assertThat(count)
+                .as("Only the persons following the resume identifier should have been exported!")
+                .isEqualTo(identifiers.stream().filter(id -> id.compareTo(after) > 0).count());
+        assertThat(lines(output))
+                .as("The resume identifier should not have been exported again!")
+                .noneMatch(line -> line.contains(after.toString()));
+    }
+
+    @Test
+    @DisplayName("Export the persons as CSV with a header line")
+    void testExportPersonsAsCsv() throws EntityException
+    {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        long count = exportService.export(EntityType.PERSON, BulkFormat.CSV, null, output);
+
+        List<String> lines = lines(output);
+        assertThat(lines.get(0).split(","))
+                .as("CSV header should contain the identifier column!")
+                .contains("id");
+        assertThat(lines)
+                .as("CSV should contain a header line followed by one line per person!")
+                .hasSizeGreaterThanOrEqualTo((int) count + 1);
+    }
+
+    @Test
+    @DisplayName("Export the persons to a gzip compressed file")
+    void testExportPersonsToFile(final @TempDir Path directory) throws EntityException, IOException
+    {
+        Path file = directory.resolve("persons.ndjson.gz");
+        long count = exportService.exportToFile(EntityType.PERSON, BulkFormat.NDJSON, null, file);
+
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(file)))
+        {
+            assertThat(new String(input.readAllBytes(), StandardCharsets.UTF_8).lines().count())
+                    .as("Compressed file should contain all the exported persons!")
+                    .isEqualTo(count);
+        }
+    }
+
+    @Test
+    @DisplayName("Export of a non exportable entity type is rejected")
+    void testExportNonExportableType()
+    {
+        assertThrows(EntityException.class, () -> exportService.export(EntityType.PHONE_NUMBER, BulkFormat.NDJSON, null, new ByteArrayOutputStream()));
+    }
+
+    /**
+     * Returns the lines of an export.
+     * @param output Export output.
+     * @return List of lines.
+     */
+    private List<String> lines(final ByteArrayOutputStream output)
+    {
+        return output.toString(StandardCharsets.UTF_8).lines().toList();
+    }
+}
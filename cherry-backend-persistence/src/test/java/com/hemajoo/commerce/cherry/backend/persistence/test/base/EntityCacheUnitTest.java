@@ -0,0 +1,183 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.base;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.CacheStatistics;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.EntityCacheMonitor;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.EmailAddressRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the <b>second-level cache</b> of the entities and of the query results.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.hemajoo.commerce.cherry.backend.persistence.test.base.SqlStatementRecorder")
+@Log4j2
+class EntityCacheUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Name of the cache region holding the entities.
+     */
+    private static final String ENTITY_REGION = "cherry.entity";
+
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * Second-level cache monitor.
+     */
+    @Autowired
+    private EntityCacheMonitor monitor;
+
+    /**
+     * Entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Hibernate statistics.
+     */
+    private Statistics statistics;
+
+    /**
+     * Prepare before each test.
+     */
+    @BeforeEach
+    public void beforeEach()
+    {
+        monitor.evictAll();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Person found by identifier is served from the second-level cache")
+    void testFindPersonFromCache() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+        monitor.evictAll();
+
+        servicePerson.getPersonService().findById(person.getId());
+
+        SqlStatementRecorder.clear();
+        PersonServer cached = servicePerson.getPersonService().findById(person.getId());
+
+        assertThat(cached.getLastName())
+                .as("Person served from the cache should match the saved person!")
+                .isEqualTo(person.getLastName());
+        assertThat(statistics.getDomainDataRegionStatistics(ENTITY_REGION).getHitCount())
+                .as("Person should have been served from the second-level cache!")
+                .isPositive();
+        assertThat(SqlStatementRecorder.getStatements())
+                .as("No SQL statement should have been issued to load the person!")
+                .noneMatch(sql -> sql.toLowerCase().contains("from person "));
+    }
+
+    @Test
+    @DisplayName("Person updated is not served stale from the second-level cache")
+    void testUpdatedPersonIsNotStale() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+        monitor.evictAll();
+
+        // Puts the person in the second-level cache before updating it.
+        person = servicePerson.getPersonService().findById(person.getId());
+
+        person.setLastName("Cached");
+        servicePerson.getPersonService().saveAndFlush(person);
+
+        assertThat(servicePerson.getPersonService().findById(person.getId()).getLastName())
+                .as("Updated person should have been served!")
+                .isEqualTo("Cached");
+
+        statistics.clear();
+        SqlStatementRecorder.clear();
+        PersonServer cached = servicePerson.getPersonService().findById(person.getId());
+
+        assertThat(statistics.getDomainDataRegionStatistics(ENTITY_REGION).getHitCount())
+                .as("Person should have been served from the second-level cache!")
+                .isPositive();
+        assertThat(SqlStatementRecorder.getStatements())
+                .as("No SQL statement should have been issued to load the person!")
+                .noneMatch(sql -> sql.toLowerCase().contains("from person "));
+        assertThat(cached.getLastName())
+                .as("Person served from the second-level cache should hold the updated last name!")
+                .isEqualTo("Cached");
+    }
+
+    @Test
+    @DisplayName("Query results are cached and invalidated when an entity of the queried table is saved")
+    void testQueryResultsAreCachedAndInvalidated() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+        EmailAddressServer email = EmailAddressRandomizer.generateServerEntity(false);
+        email.setParent(person);
+        servicePerson.getEmailAddressService().save(email);
+
+        servicePerson.getEmailAddressService().findByParentId(person.getId());
+        servicePerson.getEmailAddressService().findByParentId(person.getId());
+
+        assertThat(statistics.getQueryCacheHitCount())
+                .as("Second query should have been served from the query cache!")
+                .isPositive();
+
+        email = EmailAddressRandomizer.generateServerEntity(false);
+        email.setParent(person);
+        servicePerson.getEmailAddressService().save(email);
+
+        assertThat(servicePerson.getEmailAddressService().findByParentId(person.getId()))
+                .as("Query results should have been invalidated when an email address has been saved!")
+                .hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Statistics are collected per second-level cache region")
+    void testStatisticsPerRegion() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+        servicePerson.getPersonService().findById(person.getId());
+
+        assertThat(monitor.getStatistics())
+                .as("Statistics should have been collected for the entity region!")
+                .extracting(CacheStatistics::getName)
+                .contains(ENTITY_REGION);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.base;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityIdFilter;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityIdFilterStatistics;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the <b>entity identifier filter</b> rejecting the identifiers of entities that definitely do not exist.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest
+@Log4j2
+class EntityIdFilterUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Number of unknown identifiers looked up.
+     */
+    private static final int LOOKUP_COUNT = 1000;
+
+    /**
+     * Time (in milliseconds) after which the filters are no more known to be current (refresh period of 1 second).
+     */
+    private static final long REFRESH_WAIT = 1500;
+
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * Entity identifier filter.
+     */
+    @Autowired
+    private EntityIdFilter idFilter;
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Person created before the filter is built.
+     */
+    private PersonServer person;
+
+    /**
+     * Prepare before each test.
+     * @throws EntityException Thrown to indicate an error occurred when trying to create the test entities.
+     */
+    @BeforeEach
+    public void beforeEach() throws EntityException
+    {
+        person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+        idFilter.rebuild();
+    }
+
+    @Test
+    @DisplayName("Existing entities are never rejected by the filter")
+    void testExistingEntitiesAreNotRejected() throws EntityException
+    {
+        PersonServer other = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+
+        assertThat(idFilter.mightExist(EntityType.PERSON, person.getId()))
+                .as("Person registered before the filter has been built should not be rejected!")
+                .isTrue();
+        assertThat(idFilter.mightExist(EntityType.PERSON, other.getId()))
+                .as("Person registered after the filter has been built should not be rejected!")
+                .isTrue();
+        assertThat(servicePerson.getPersonService().findById(other.getId()))
+                .as("Person registered after the filter has been built should be found!")
+                .isNotNull();
+    }
+
+    @Test
+    @DisplayName("Entities registered by another application instance are not rejected once the filters are refreshed")
+    void testEntitiesRegisteredByAnotherInstanceAreNotRejected() throws InterruptedException
+    {
+        // Registration done by another application instance, the filters of this instance are not updated with it.
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO ENTITY_REGISTRY (ID, ENTITY_TYPE) VALUES (?, ?)", id, EntityType.PERSON.name());
+
+        try
+        {
+            Thread.sleep(REFRESH_WAIT);
+
+            assertThat(idFilter.mightExist(EntityType.PERSON, id))
+                    .as("Person registered by another instance should not be rejected once the filters are refreshed!")
+                    .isTrue();
+        }
+        finally
+        {
+            jdbcTemplate.update("DELETE FROM ENTITY_REGISTRY WHERE ID = ?", id);
+        }
+    }
+
+    @Test
+    @DisplayName("Unknown identifiers are rejected without querying the database")
+    void testUnknownIdentifiersAreRejectedWithoutQuery()
+    {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        int found = 0;
+        for (int i = 0; i < LOOKUP_COUNT; i++)
+        {
+            if (servicePerson.getPersonService().findById(UUID.randomUUID()) != null)
+            {
+                found++;
+            }
+        }
+
+        assertThat(found)
+                .as("No person should have been found for random identifiers!")
+                .isZero();
+        assertThat(statistics.getPrepareStatementCount())
+                .as("Almost all the random identifiers should have been rejected by the filter!")
+                .isLessThan(LOOKUP_COUNT / 10);
+    }
+
+    @Test
+    @DisplayName("Statistics of the filters are exposed per entity type")
+    void testStatisticsAreExposed()
+    {
+        idFilter.mightExist(EntityType.PERSON, UUID.randomUUID());
+
+        EntityIdFilterStatistics statistics = idFilter.getStatistics().stream()
+                .filter(element -> element.getEntityType() == EntityType.PERSON)
+                .findFirst()
+                .orElse(null);
+
+        assertThat(statistics)
+                .as("Statistics of the person filter should be exposed!")
+                .isNotNull();
+        assertThat(statistics.getIds())
+                .as("Person filter should hold the identifiers of the persons!")
+                .isPositive();
+        assertThat(statistics.getMemory())
+                .as("Memory held by the person filter should be exposed!")
+                .isPositive();
+        assertThat(statistics.getEstimatedFalsePositiveRate())
+                .as("Estimated false positive rate should not exceed the configured one!")
+                .isLessThanOrEqualTo(statistics.getFalsePositiveRate());
+        assertThat(statistics.getLookups())
+                .as("Lookups should have been counted!")
+                .isPositive();
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.base;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityIdFilter;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityRegistry;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the {@link EntityRegistry}.
+ * <br>
+ * Compares the resolution of entities known by their identifier only through a polymorphic lookup on {@link ServerEntity}
+ * (union of all the entity tables) and through the entity registry (primary key lookup on the entity table).
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.hemajoo.commerce.cherry.backend.persistence.test.base.SqlStatementRecorder")
+@Log4j2
+class EntityRegistryUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Number of persons to resolve.
+     */
+    private static final int COUNT = 50;
+
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * Entity registry.
+     */
+    @Autowired
+    private EntityRegistry registry;
+
+    /**
+     * Entity identifier filter.
+     */
+    @Autowired
+    private EntityIdFilter idFilter;
+
+    /**
+     * Entity manager.
+     */
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Resolve entities by identifier through the entity registry")
+    void testResolveEntityThroughRegistry() throws EntityException
+    {
+        List<UUID> identifiers = new ArrayList<>();
+        for (int i = 0; i < COUNT; i++)
+        {
+            identifiers.add(servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false)).getId());
+        }
+
+        // Polymorphic lookup
+        SqlStatementRecorder.clear();
+        long start = System.nanoTime();
+        for (UUID id : identifiers)
+        {
+            assertThat(entityManager.find(ServerEntity.class, id))
+                    .as("Entity should have been found through a polymorphic lookup!")
+                    .isNotNull();
+        }
+        long polymorphic = System.nanoTime() - start;
+
+        assertThat(SqlStatementRecorder.getStatements())
+                .as("Polymorphic lookups should query the union of the entity tables!")
+                .anyMatch(sql -> sql.toLowerCase().contains("union"));
+
+        // Registry lookup
+        SqlStatementRecorder.clear();
+        start = System.nanoTime();
+        for (UUID id : identifiers)
+        {
+            ServerEntity entity = registry.find(id);
+
+            assertThat(entity)
+                    .as("Entity should have been found through the entity registry!")
+                    .isInstanceOf(PersonServer.class);
+        }
+        long routed = System.nanoTime() - start;
+
+        assertThat(SqlStatementRecorder.getStatements())
+                .as("Registry lookups should not query the union of the entity tables!")
+                .noneMatch(sql -> sql.toLowerCase().contains("union"));
+
+        LOGGER.info(String.format("Resolved: %s entities in: %s ms through polymorphic lookups and in: %s ms through the entity registry",
+                COUNT, polymorphic / 1_000_000, routed / 1_000_000));
+    }
+
+    @Test
+    @DisplayName("Deleted entities are removed from the entity registry")
+    void testDeletedEntityIsUnregistered() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+
+        assertThat(registry.getEntityType(person.getId()))
+                .as("Person should have been registered!")
+                .isEqualTo(EntityType.PERSON);
+
+        servicePerson.getPersonService().deleteById(person.getId());
+
+        assertThat(registry.getEntityType(person.getId()))
+                .as("Person should have been unregistered!")
+                .isNull();
+        assertThat(registry.find(person.getId()))
+                .as("Person should not be found anymore!")
+                .isNull();
+    }
+
+    @Test
+    @DisplayName("Entities registered by a rolled back transaction are not cached by the entity registry")
+    void testRolledBackEntityIsNotCached() throws EntityException
+    {
+        UUID id;
+        TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try
+        {
+            id = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false)).getId();
+            entityManager.flush();
+
+            assertThat(registry.getEntityType(id))
+                    .as("Person should be registered within its transaction!")
+                    .isEqualTo(EntityType.PERSON);
+            assertThat(idFilter.mightExist(EntityType.PERSON, id))
+                    .as("Person should not be rejected by the filter within its transaction!")
+                    .isTrue();
+        }
+        finally
+        {
+            transactionManager.rollback(transaction);
+        }
+
+        assertThat(registry.getEntityType(id))
+                .as("Person of a rolled back transaction should not be registered!")
+                .isNull();
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.base;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.datasource.DataSourcePoolStatistics;
+import com.hemajoo.commerce.cherry.backend.persistence.base.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the <b>read/write routing data source</b>.
+ * <br>
+ * Two embedded {@code H2} databases stand in for the primary database and its read replica.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Log4j2
+class ReadWriteRoutingDataSourceUnitTest
+{
+    /**
+     * Query returning the replication lag of the replica.
+     */
+    private static final String LAG_QUERY = "SELECT LAG FROM REPLICA_STATUS";
+
+    /**
+     * Replica data source.
+     */
+    private HikariDataSource replica;
+
+    /**
+     * Routing data source.
+     */
+    private ReadWriteRoutingDataSource routing;
+
+    /**
+     * Transaction manager.
+     */
+    private DataSourceTransactionManager transactionManager;
+
+    /**
+     * JDBC template.
+     */
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Prepare before each test.
+     */
+    @BeforeEach
+    public void beforeEach()
+    {
+        HikariDataSource primary = createDataSource(ReadWriteRoutingDataSource.PRIMARY);
+        new JdbcTemplate(primary).execute("CREATE TABLE NODE (NAME VARCHAR(20))");
+        new JdbcTemplate(primary).update("INSERT INTO NODE VALUES ('primary')");
+
+        replica = createDataSource("replica-1");
+        new JdbcTemplate(replica).execute("CREATE TABLE NODE (NAME VARCHAR(20))");
+        new JdbcTemplate(replica).update("INSERT INTO NODE VALUES ('replica')");
+        new JdbcTemplate(replica).execute("CREATE TABLE REPLICA_STATUS (LAG DOUBLE PRECISION)");
+        new JdbcTemplate(replica).update("INSERT INTO REPLICA_STATUS VALUES (0)");
+
+        routing = new ReadWriteRoutingDataSource(primary, List.of(replica), LAG_QUERY, Duration.ofSeconds(5), Duration.ofHours(1));
+        routing.afterPropertiesSet();
+        routing.checkReplicas();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    /**
+     * Cleanup after each test.
+     */
+    @AfterEach
+    public void afterEach()
+    {
+        routing.destroy();
+    }
+
+    @Test
+    @DisplayName("Read-only transactions are routed to the replica, the other ones to the primary database")
+    void testRouting()
+    {
+        assertThat(queryNode(false))
+                .as("Read-write transaction should have been routed to the primary database!")
+                .isEqualTo("primary");
+        assertThat(queryNode(true))
+                .as("Read-only transaction should have been routed to the replica!")
+                .isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Read-only transactions fall back to the primary database while the replica is lagging")
+    void testFallbackOnLaggingReplica()
+    {
+        new JdbcTemplate(replica).update("UPDATE REPLICA_STATUS SET LAG = 60");
+        routing.checkReplicas();
+
+        assertThat(queryNode(true))
+                .as("Read-only transaction should have fallen back to the primary database!")
+                .isEqualTo("primary");
+
+        DataSourcePoolStatistics statistics = routing.getStatistics().get(1);
+        assertThat(statistics.isAvailable())
+                .as("Lagging replica should not be available!")
+                .isFalse();
+        assertThat(statistics.getLag())
+                .as("Replication lag should have been measured!")
+                .isEqualTo(60000);
+        assertThat(routing.getStatistics().get(0).getFallbacks())
+                .as("Fallback should have been counted on the primary pool!")
+                .isEqualTo(1);
+
+        new JdbcTemplate(replica).update("UPDATE REPLICA_STATUS SET LAG = 0");
+        routing.checkReplicas();
+
+        assertThat(queryNode(true))
+                .as("Read-only transaction should have been routed to the replica back in sync!")
+                .isEqualTo("replica");
+    }
+
+    @Test
+    @DisplayName("Routed connections are counted per pool")
+    void testStatisticsPerPool()
+    {
+        queryNode(false);
+        queryNode(true);
+        queryNode(true);
+
+        List<DataSourcePoolStatistics> statistics = routing.getStatistics();
+        assertThat(statistics)
+                .as("Statistics should have been collected for the primary and the replica pools!")
+                .extracting(DataSourcePoolStatistics::getName)
+                .containsExactly(ReadWriteRoutingDataSource.PRIMARY, "replica-1");
+        assertThat(statistics.get(1).getRouted())
+                .as("Read-only transactions should have been counted on the replica pool!")
+                .isEqualTo(2);
+    }
+
+    /**
+     * Returns the name of the database node serving a transaction.
+     * @param readOnly Is the transaction read-only?
+     * @return Node name.
+     */
+    private String queryNode(final boolean readOnly)
+    {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+
+        return template.execute(status -> jdbcTemplate.queryForObject("SELECT NAME FROM NODE", String.class));
+    }
+
+    /**
+     * Creates a data source on a new embedded database.
+     * @param name Pool name.
+     * @return Data source.
+     */
+    private HikariDataSource createDataSource(final String name)
+    {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(String.format("jdbc:h2:mem:%s-%s;DB_CLOSE_DELAY=-1", name, UUID.randomUUID()));
+
+        return dataSource;
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.base;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.person.converter.EmailAddressConverter;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.EmailAddressRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.validation.engine.EmailAddressValidationEngine;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressClient;
+import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressException;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the <b>request lookup cache</b> memoizing the entity lookups done by the validators and the services while
+ * serving a request.
+ * <br>
+ * The statements are counted through the {@code Hibernate} statistics.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest
+@Log4j2
+class RequestLookupCacheUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * Email address validation engine.
+     */
+    @Autowired
+    private EmailAddressValidationEngine validationEmailAddress;
+
+    /**
+     * Email address converter.
+     */
+    @Autowired
+    private EmailAddressConverter converterEmailAddress;
+
+    /**
+     * Entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Email address (client side) to update.
+     */
+    private EmailAddressClient email;
+
+    /**
+     * Prepare before each test.
+     * @throws EntityException Thrown to indicate an error occurred when trying to create the test entities.
+     */
+    @BeforeEach
+    public void beforeEach() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+
+        EmailAddressServer emailAddress = EmailAddressRandomizer.generateServerEntity(false);
+        emailAddress.setStatusType(StatusType.ACTIVE);
+        emailAddress.setIsDefaultEmail(true);
+        emailAddress.setParent(person);
+        email = converterEmailAddress.fromServerToClient(servicePerson.getEmailAddressService().save(emailAddress));
+    }
+
+    /**
+     * Cleanup after each test.
+     */
+    @AfterEach
+    public void afterEach()
+    {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Duplicate lookups of an email address update are served from memory while serving a request")
+    void testDuplicateLookupsAreServedFromMemory() throws EntityException
+    {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        Statistics statistics = resetStatistics();
+        validateAndLoad();
+        long first = statistics.getPrepareStatementCount();
+
+        statistics.clear();
+        validateAndLoad();
+
+        assertThat(first)
+                .as("First validation should have queried the database!")
+                .isPositive();
+        assertThat(statistics.getPrepareStatementCount())
+                .as("Duplicate lookups should have been served from the request lookup cache!")
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("Lookups are invalidated when an entity of the looked up class is saved")
+    void testLookupsAreInvalidatedWhenSaved() throws EntityException
+    {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        validateAndLoad();
+        EmailAddressServer emailAddress = servicePerson.getEmailAddressService().findById(email.getId());
+        servicePerson.getEmailAddressService().save(emailAddress);
+
+        Statistics statistics = resetStatistics();
+        validationEmailAddress.validateEmailForUpdate(email);
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("Email address lookups should have been invalidated by the save!")
+                .isPositive();
+    }
+
+    @Test
+    @DisplayName("Changes of an email address whose save failed are not served by the lookups of the request")
+    void testFailedUpdateIsNotServedFromMemory() throws EntityException
+    {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        EmailAddressServer other = EmailAddressRandomizer.generateServerEntity(false);
+        other.setIsDefaultEmail(false);
+        other.setParent(servicePerson.getPersonService().findById(email.getParent().getId()));
+        other = servicePerson.getEmailAddressService().save(other);
+        String original = other.getEmail();
+
+        // Memoizes the email address for the request.
+        servicePerson.getEmailAddressService().findById(other.getId());
+
+        EmailAddressClient duplicate = converterEmailAddress.fromServerToClient(other);
+        duplicate.setEmail(email.getEmail().toUpperCase());
+        EmailAddressServer source = converterEmailAddress.fromClientToServer(duplicate);
+        assertThrows(EmailAddressException.class, () -> servicePerson.getEmailAddressService().update(source));
+
+        assertThat(servicePerson.getEmailAddressService().findById(other.getId()).getEmail())
+                .as("Email address served to the request should be the stored one, not the one whose save failed!")
+                .isEqualTo(original);
+    }
+
+    @Test
+    @DisplayName("Lookups are not memoized outside a request")
+    void testLookupsAreNotMemoizedOutsideRequest() throws EntityException
+    {
+        validateAndLoad();
+
+        Statistics statistics = resetStatistics();
+        validateAndLoad();
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("Lookups should not have been memoized outside a request!")
+                .isPositive();
+    }
+
+    /**
+     * Executes the lookups of an email address update: the validators, the validation engine, then the loading of the email
+     * address and of its person.
+     * @throws EntityException Thrown to indicate an error occurred when validating or loading the email address.
+     */
+    private void validateAndLoad() throws EntityException
+    {
+        validationEmailAddress.validatePersonId(email.getParent().getId());
+        validationEmailAddress.validateEmailAddressId(email);
+        validationEmailAddress.validateNameUniqueness(email);
+        validationEmailAddress.validateDefaultEmail(email);
+        validationEmailAddress.validateEmailForUpdate(email);
+
+        servicePerson.getEmailAddressService().findById(email.getId());
+        servicePerson.getPersonService().findById(email.getParent().getId());
+    }
+
+    /**
+     * Clears the Hibernate statistics.
+     * @return Hibernate statistics.
+     */
+    private Statistics resetStatistics()
+    {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        return statistics;
+    }
+}
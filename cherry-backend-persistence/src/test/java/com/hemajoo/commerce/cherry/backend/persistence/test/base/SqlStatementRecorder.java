@@ -0,0 +1,64 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.base;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Hibernate statement inspector recording the {@code SQL} statements generated by {@code Hibernate}.
+ * <br>
+ * To be registered through the {@code spring.jpa.properties.hibernate.session_factory.statement_inspector} property.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public class SqlStatementRecorder implements StatementInspector
+{
+    /**
+     * Recorded SQL statements.
+     */
+    private static final List<String> STATEMENTS = Collections.synchronizedList(new ArrayList<>());
+
+    @Override
+    public String inspect(final String sql)
+    {
+        STATEMENTS.add(sql);
+
+        return sql;
+    }
+
+    /**
+     * Returns a copy of the recorded SQL statements.
+     * @return List of SQL statements.
+     */
+    public static List<String> getStatements()
+    {
+        synchronized (STATEMENTS)
+        {
+            return new ArrayList<>(STATEMENTS);
+        }
+    }
+
+    /**
+     * Clears the recorded SQL statements.
+     */
+    public static void clear()
+    {
+        STATEMENTS.clear();
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.base;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.UuidGenerator;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the {@link UuidGenerator}.
+ * <br>
+ * The benchmark compares the insert throughput and the primary key index size of random identifiers stored as strings (former mapping) and of
+ * time-ordered identifiers stored as native uuid columns. The number of rows defaults to 100 000 and can be raised (for example to 10 000 000)
+ * through the {@code cherry.benchmark.uuid.rows} system property.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest
+@Log4j2
+class UuidGeneratorUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Number of rows inserted by the benchmark.
+     */
+    private static final int ROWS = Integer.getInteger("cherry.benchmark.uuid.rows", 100_000);
+
+    /**
+     * Number of rows inserted per batch.
+     */
+    private static final int BATCH_SIZE = 10_000;
+
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Generated identifiers are increasing UUIDs version 7")
+    void testGeneratedIdentifiersAreTimeOrdered()
+    {
+        UUID previous = UuidGenerator.generate();
+        for (int i = 0; i < 100_000; i++)
+        {
+            UUID current = UuidGenerator.generate();
+
+            assertThat(current.version())
+                    .as("Identifier should be a UUID version 7!")
+                    .isEqualTo(7);
+            assertThat(current.variant())
+                    .as("Identifier should be a RFC variant UUID!")
+                    .isEqualTo(2);
+            assertThat(current.toString())
+                    .as("Identifiers should be increasing!")
+                    .isGreaterThan(previous.toString());
+
+            previous = current;
+        }
+    }
+
+    @Test
+    @DisplayName("Entity identifiers are stored in native uuid columns")
+    void testEntityIdentifierIsNativeUuid() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+
+        assertThat(person.getId().version())
+                .as("Person identifier should be a UUID version 7!")
+                .isEqualTo(7);
+
+        String type = jdbcTemplate.queryForObject("SELECT data_type FROM information_schema.columns WHERE table_schema = current_schema() AND table_name = 'person' AND column_name = 'id'", String.class);
+        assertThat(type)
+                .as("Person identifier column should be a native uuid column!")
+                .isEqualTo("uuid");
+    }
+
+    @Test
+    @DisplayName("Benchmark the insert throughput and the index size of string and native time-ordered identifiers")
+    void testBenchmarkIdentifiers()
+    {
+        long stringDuration = insert("benchmark_uuid_char", "varchar(255)", () -> UUID.randomUUID().toString());
+        long nativeDuration = insert("benchmark_uuid_v7", "uuid", UuidGenerator::generate);
+
+        long stringIndexSize = getIndexSize("benchmark_uuid_char");
+        long nativeIndexSize = getIndexSize("benchmark_uuid_v7");
+
+        LOGGER.info(String.format("Inserted: %s random string identifiers in: %s ms (%s rows/s), index size: %s KB",
+                ROWS, stringDuration, ROWS * 1000L / Math.max(1, stringDuration), stringIndexSize / 1024));
+        LOGGER.info(String.format("Inserted: %s time-ordered native identifiers in: %s ms (%s rows/s), index size: %s KB",
+                ROWS, nativeDuration, ROWS * 1000L / Math.max(1, nativeDuration), nativeIndexSize / 1024));
+
+        jdbcTemplate.execute("DROP TABLE benchmark_uuid_char");
+        jdbcTemplate.execute("DROP TABLE benchmark_uuid_v7");
+
+        assertThat(nativeIndexSize)
+                .as("Index of time-ordered native identifiers should be smaller than the index of random string identifiers!")
+                .isLessThan(stringIndexSize);
+    }
+
+    /**
+     * Creates a benchmark table and inserts the benchmark rows.
+     * @param table Table name.
+     * @param columnType Identifier column type.
+     * @param generator Identifier generator.
+     * @return Duration of the insertions (in milliseconds).
+     */
+    private long insert(final String table, final String columnType, final Supplier<Object> generator)
+    {
+        jdbcTemplate.execute(String.format("DROP TABLE IF EXISTS %s", table));
+        jdbcTemplate.execute(String.format("CREATE TABLE %s (id %s PRIMARY KEY)", table, columnType));
+
+        String sql = String.format("INSERT INTO %s (id) VALUES (?)", table);
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++)
+        {
+            batch.add(new Object[] { generator.get() });
+            if (batch.size() == BATCH_SIZE || i == ROWS - 1)
+            {
+                jdbcTemplate.batchUpdate(sql, batch);
+                batch.clear();
+            }
+        }
+
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    /**
+     * Returns the size of the primary key index of a benchmark table.
+     * @param table Table name.
+     * @return Index size (in bytes).
+     */
+    private long getIndexSize(final String table)
+    {
+        Long size = jdbcTemplate.queryForObject(String.format("SELECT pg_relation_size('%s_pkey')", table), Long.class);
+
+        return size != null ? size : 0;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.document;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
+import com.hemajoo.commerce.cherry.backend.persistence.document.index.DocumentContentIndexer;
+import com.hemajoo.commerce.cherry.backend.persistence.document.randomizer.DocumentRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.test.base.AbstractPostgresUnitTest;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryCondition;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryOperatorType;
+import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
+import com.hemajoo.commerce.cherry.backend.shared.document.query.DocumentQuery;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the <b>full-text index</b> of the document contents.
+ * <br>
+ * Documents are indexed synchronously by the tests, the background workers being stopped.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest(properties = "hemajoo.commerce.cherry.document.index.enabled=false")
+@Log4j2
+class DocumentContentIndexUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * Document content indexer.
+     */
+    @Autowired
+    private DocumentContentIndexer indexer;
+
+    /**
+     * JDBC template.
+     */
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Cleanup after each test.
+     * @throws DocumentException Thrown to indicate an error occurred when trying to delete test documents.
+     */
+    @AfterEach
+    public void afterEach() throws DocumentException
+    {
+        for (DocumentServer document : servicePerson.getDocumentService().findAll())
+        {
+            try
+            {
+                servicePerson.getDocumentService().deleteById(document.getId());
+            }
+            catch (EmptyResultDataAccessException e)
+            {
+                // Do nothing!
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Search documents by the words of their content")
+    void testSearchDocumentByContent() throws DocumentException, QueryConditionException
+    {
+        String word = "cherry" + UUID.randomUUID().toString().replace("-", "");
+        DocumentServer document = saveTextDocument(String.format("The content of this document holds the word: %s.", word));
+        saveTextDocument("The content of this document holds other words.");
+
+        assertThat(indexer.index(document.getId()))
+                .as("Document content should have been indexed!")
+                .isTrue();
+        assertThat(indexer.index(document.getId()))
+                .as("Document content already indexed should not be indexed again!")
+                .isFalse();
+
+        List<DocumentServer> documents = servicePerson.getDocumentService().search(searchContent(word.toUpperCase()));
+        assertThat(documents)
+                .as("Only the document holding the word should have been found!")
+                .extracting(DocumentServer::getId)
+                .containsExactly(document.getId());
+    }
+
+    @Test
+    @DisplayName("Index entry of a deleted document is removed")
+    void testDeleteIndexedDocument() throws DocumentException
+    {
+        DocumentServer document = saveTextDocument("This document is about to be deleted.");
+        indexer.index(document.getId());
+
+        servicePerson.getDocumentService().deleteById(document.getId());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM DOCUMENT_CONTENT_INDEX WHERE DOCUMENT_ID = ?", Long.class, document.getId()))
+                .as("Index entry of the deleted document should have been removed!")
+                .isZero();
+    }
+
+    @Test
+    @DisplayName("Document whose content cannot be read from the store is not indexed")
+    void testUnreadableContentIsNotIndexed() throws DocumentException
+    {
+        DocumentServer document = saveTextDocument("The content of this document is missing from the store.");
+        String contentId = document.getContentId();
+
+        document.setContentId(UUID.randomUUID().toString());
+        document = servicePerson.getDocumentService().getRepository().save(document);
+        try
+        {
+            assertThat(indexer.index(document.getId()))
+                    .as("Document content missing from the store should not have been indexed!")
+                    .isFalse();
+
+            // No index entry, so a later sweep retries it.
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM DOCUMENT_CONTENT_INDEX WHERE DOCUMENT_ID = ?", Long.class, document.getId()))
+                    .as("No index entry should have been stored for the unreadable document content!")
+                    .isZero();
+            assertThat(jdbcTemplate.queryForObject("SELECT ATTEMPTS FROM DOCUMENT_CONTENT_INDEX_FAILURE WHERE DOCUMENT_ID = ?", Integer.class, document.getId()))
+                    .as("Failed indexing should have been recorded!")
+                    .isEqualTo(1);
+            assertThat(jdbcTemplate.queryForObject("SELECT NEXT_ATTEMPT_DATE > LOCALTIMESTAMP FROM DOCUMENT_CONTENT_INDEX_FAILURE WHERE DOCUMENT_ID = ?", Boolean.class, document.getId()))
+                    .as("Failed document should not be retried before its next attempt date!")
+                    .isTrue();
+
+            indexer.index(document.getId());
+            assertThat(jdbcTemplate.queryForObject("SELECT ATTEMPTS FROM DOCUMENT_CONTENT_INDEX_FAILURE WHERE DOCUMENT_ID = ?", Integer.class, document.getId()))
+                    .as("Second failed indexing of the same content should have been counted!")
+                    .isEqualTo(2);
+        }
+        finally
+        {
+            document.setContentId(contentId);
+            servicePerson.getDocumentService().getRepository().save(document);
+        }
+    }
+
+    @Test
+    @DisplayName("Full-text operator is only allowed on a text field")
+    void testFullTextOperatorOnNonTextField()
+    {
+        DocumentQuery search = new DocumentQuery();
+
+        assertThrows(QueryConditionException.class, () -> search.addCondition(QueryCondition.builder()
+                .withField(DocumentQuery.DOCUMENT_FILENAME)
+                .withValue("license")
+                .withOperator(QueryOperatorType.FULL_TEXT)
+                .build()));
+
+        assertThrows(QueryConditionException.class, () -> search.addCondition(QueryCondition.builder()
+                .withField(DocumentQuery.DOCUMENT_CONTENT)
+                .withValue("license")
+                .withOperator(QueryOperatorType.CONTAINS)
+                .build()));
+    }
+
+    /**
+     * Saves a plain text document.
+     * @param text Document content.
+     * @return Saved document.
+     * @throws DocumentException Thrown to indicate an error occurred when trying to generate the document.
+     */
+    private DocumentServer saveTextDocument(final String text) throws DocumentException
+    {
+        DocumentServer document = DocumentRandomizer.generateServerEntity(false);
+        document.setContent(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+        document.setMimeType("text/plain");
+
+        return servicePerson.getDocumentService().save(document);
+    }
+
+    /**
+     * Creates a query searching the documents by the words of their content.
+     * @param text Words to search.
+     * @return Document query.
+     * @throws QueryConditionException Thrown to indicate an error occurred when creating the query.
+     */
+    private DocumentQuery searchContent(final String text) throws QueryConditionException
+    {
+        return new DocumentQuery()
+                .addCondition(QueryCondition.builder()
+                        .withField(DocumentQuery.DOCUMENT_CONTENT)
+                        .withValue(text)
+                        .withOperator(QueryOperatorType.FULL_TEXT)
+                        .build());
+    }
+}
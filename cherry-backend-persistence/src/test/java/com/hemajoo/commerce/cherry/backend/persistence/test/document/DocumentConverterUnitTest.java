@@ -18,6 +18,7 @@ import com.hemajoo.commerce.cherry.backend.commons.entity.EntityIdentity;
 import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityComparator;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.CycleAvoidingMappingContext;
 import com.hemajoo.commerce.cherry.backend.persistence.document.converter.DocumentConverter;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.persistence.document.randomizer.DocumentRandomizer;
@@ -168,8 +169,7 @@ class DocumentConverterUnitTest extends AbstractPostgresUnitTest
             documents.add(DocumentRandomizer.generateServerEntity(true));
         }
 
-        List<DocumentClient> clients = documents.stream()
-                .map(document -> converterDocument.fromServerToClient(document)).toList();
+        List<DocumentClient> clients = converterDocument.fromServerToClient(documents);
 
         assertThat(clients.size())
                 .as("Document server and client list should have the same size!")
@@ -178,6 +178,14 @@ class DocumentConverterUnitTest extends AbstractPostgresUnitTest
         clients.forEach(client -> assertThat(client)
                 .as("Client document should not be null!")
                 .isNotNull());
+
+        // Converting a list must give the same result as converting each of its elements.
+        for (int i = 0; i < documents.size(); i++)
+        {
+            assertThat(clients.get(i))
+                    .as("Client document converted in a list should be equal to the one converted alone!")
+                    .isEqualTo(converterDocument.fromServerToClient(documents.get(i)));
+        }
     }
 
     @Test
@@ -207,6 +215,59 @@ class DocumentConverterUnitTest extends AbstractPostgresUnitTest
                 .isNotNull());
     }
 
+    @Test
+    @DisplayName("Convert a list of client documents to a list of server documents at once")
+    final void testConvertClientToServerDocumentListAtOnce() throws EntityException
+    {
+        List<DocumentClient> clients = new ArrayList<>();
+        for (int i = 0; i < LIST_COUNT; i++)
+        {
+            clients.add(DocumentRandomizer.generateClientEntity(true));
+        }
+
+        List<DocumentServer> servers = converterDocument.fromClientToServer(clients);
+
+        assertThat(servers.size())
+                .as("Both lists should have the same size!")
+                .isEqualTo(clients.size());
+
+        // Converting a list must give the same result as converting each of its elements.
+        for (int i = 0; i < clients.size(); i++)
+        {
+            assertThat(servers.get(i))
+                    .as("Server document converted in a list should be equal to the one converted alone!")
+                    .isEqualTo(converterDocument.fromClientToServer(clients.get(i)));
+        }
+    }
+
+    @Test
+    @DisplayName("Convert a list of client documents with owners to a list of server documents")
+    final void testConvertClientToServerDocumentListWithOwners() throws EntityException
+    {
+        // The owners referenced by the client documents are resolved in batch for the whole list.
+        List<DocumentClient> clients = new ArrayList<>();
+        for (int i = 0; i < LIST_COUNT; i++)
+        {
+            DocumentServer owner = servicePerson.getDocumentService().save(DocumentRandomizer.generateServerEntity(false));
+            DocumentClient client = DocumentRandomizer.generateClientEntity(true);
+            client.setParent(owner.getIdentity());
+            clients.add(client);
+        }
+
+        List<DocumentServer> servers = converterDocument.fromClientToServer(clients);
+
+        for (int i = 0; i < clients.size(); i++)
+        {
+            assertThat(servers.get(i).getParent())
+                    .as("Server document owner should not be null!")
+                    .isNotNull();
+
+            assertThat(servers.get(i).getParent().getId())
+                    .as("Server document owner should be the one referenced by the client document!")
+                    .isEqualTo(clients.get(i).getParent().getId());
+        }
+    }
+
     @Test
     @DisplayName("Convert a list of server documents to a list of entity identities")
     final void testConvertServerDocumentToIdentityList() throws DocumentException
@@ -229,6 +290,24 @@ class DocumentConverterUnitTest extends AbstractPostgresUnitTest
                 .isNotNull());
     }
 
+    @Test
+    @DisplayName("Ensure the acyclic mapping context is shared and does not track the mapped instances")
+    final void testAcyclicMappingContext() throws DocumentException
+    {
+        CycleAvoidingMappingContext context = CycleAvoidingMappingContext.acyclic();
+        DocumentServer document = DocumentRandomizer.generateServerEntity(true);
+
+        assertThat(context)
+                .as("Acyclic mapping context should be a shared instance!")
+                .isSameAs(CycleAvoidingMappingContext.acyclic());
+
+        context.storeMappedInstance(document, DocumentRandomizer.generateClientEntity(true));
+
+        assertThat(context.getMappedInstance(document, DocumentClient.class))
+                .as("Acyclic mapping context should not track the mapped instances!")
+                .isNull();
+    }
+
     @Test
     @DisplayName("Copy a server document")
     final void testCopyServerDocument() throws EntityException
@@ -0,0 +1,260 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.document;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.CacheStatistics;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.QueryResultCache;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
+import com.hemajoo.commerce.cherry.backend.persistence.document.randomizer.DocumentRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.test.base.AbstractPostgresUnitTest;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryCondition;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryOperatorType;
+import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
+import com.hemajoo.commerce.cherry.backend.shared.document.query.DocumentQuery;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests ensuring the <b>document</b> search results are served by the query result cache until a document is saved or deleted.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest(properties = { "hemajoo.commerce.cherry.query.cache.enabled=true", "hemajoo.commerce.cherry.document.index.enabled=false" })
+@Log4j2
+class DocumentQueryCacheUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * Query result cache.
+     */
+    @Autowired
+    private QueryResultCache queryCache;
+
+    /**
+     * Transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Prepare before each test.
+     * @throws DocumentException Thrown to indicate an error occurred when trying to randomly generate test documents.
+     */
+    @BeforeEach
+    public void beforeEach() throws DocumentException
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            servicePerson.getDocumentService().save(DocumentRandomizer.generateServerEntity(false));
+        }
+    }
+
+    /**
+     * Cleanup after each test.
+     * @throws DocumentException Thrown to indicate an error occurred when trying to delete test documents.
+     */
+    @AfterEach
+    public void afterEach() throws DocumentException
+    {
+        for (DocumentServer document : servicePerson.getDocumentService().findAll())
+        {
+            try
+            {
+                servicePerson.getDocumentService().deleteById(document.getId());
+            }
+            catch (EmptyResultDataAccessException e)
+            {
+                // Do nothing!
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Repeated document search is served by the query result cache")
+    void testRepeatedSearchIsCached() throws QueryConditionException
+    {
+        List<DocumentServer> first = servicePerson.getDocumentService().search(createQuery());
+        long hits = getStatistics().getHits();
+
+        List<DocumentServer> second = servicePerson.getDocumentService().search(createQuery());
+
+        assertThat(getStatistics().getHits())
+                .as("Second search should have been served by the cache!")
+                .isEqualTo(hits + 1);
+        assertThat(second)
+                .as("Cached results should be the same as the database results!")
+                .containsExactlyElementsOf(first);
+
+        for (int i = 0; i < second.size(); i++)
+        {
+            assertThat(second.get(i))
+                    .as("Cached results should be new entity instances, never shared between callers!")
+                    .isNotSameAs(first.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("Document search results are invalidated when a document is saved")
+    void testSearchIsInvalidatedOnSave() throws QueryConditionException, DocumentException
+    {
+        int count = servicePerson.getDocumentService().search(createQuery()).size();
+        long invalidations = getStatistics().getInvalidations();
+
+        DocumentServer document = DocumentRandomizer.generateServerEntity(false);
+        document.setStatusType(StatusType.ACTIVE);
+        servicePerson.getDocumentService().save(document);
+
+        assertThat(getStatistics().getInvalidations())
+                .as("Document cache region should have been invalidated!")
+                .isGreaterThan(invalidations);
+        assertThat(servicePerson.getDocumentService().search(createQuery()))
+                .as("Search should return the newly saved document!")
+                .hasSize(count + 1);
+    }
+
+    @Test
+    @DisplayName("Document search results are invalidated once the transaction saving a document is committed")
+    void testSearchIsInvalidatedAfterCommit() throws QueryConditionException, DocumentException
+    {
+        int count = servicePerson.getDocumentService().search(createQuery()).size();
+
+        TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        long invalidations = getStatistics().getInvalidations();
+
+        DocumentServer document = DocumentRandomizer.generateServerEntity(false);
+        document.setStatusType(StatusType.ACTIVE);
+        servicePerson.getDocumentService().save(document);
+
+        assertThat(getStatistics().getInvalidations())
+                .as("Document cache region should not be invalidated before the commit!")
+                .isEqualTo(invalidations);
+
+        // Searching within the transaction caches results holding the uncommitted document.
+        assertThat(servicePerson.getDocumentService().search(createQuery()))
+                .as("Search within the transaction should return the uncommitted document!")
+                .hasSize(count + 1);
+
+        transactionManager.commit(transaction);
+
+        assertThat(getStatistics().getInvalidations())
+                .as("Document cache region should have been invalidated after the commit!")
+                .isGreaterThan(invalidations);
+        assertThat(servicePerson.getDocumentService().search(createQuery()))
+                .as("Search should return the committed document!")
+                .hasSize(count + 1);
+    }
+
+    @Test
+    @DisplayName("Document search results cached within a rolled back transaction are invalidated")
+    void testSearchIsInvalidatedAfterRollback() throws QueryConditionException, DocumentException
+    {
+        int count = servicePerson.getDocumentService().search(createQuery()).size();
+
+        TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try
+        {
+            DocumentServer document = DocumentRandomizer.generateServerEntity(false);
+            document.setStatusType(StatusType.ACTIVE);
+            servicePerson.getDocumentService().save(document);
+
+            assertThat(servicePerson.getDocumentService().search(createQuery()))
+                    .as("Search within the transaction should return the uncommitted document!")
+                    .hasSize(count + 1);
+        }
+        finally
+        {
+            transactionManager.rollback(transaction);
+        }
+
+        assertThat(servicePerson.getDocumentService().search(createQuery()))
+                .as("Search should not return the rolled back document!")
+                .hasSize(count);
+    }
+
+    @Test
+    @DisplayName("Document search results read before a document is saved are not cached once the search region has been invalidated")
+    void testStaleResultsAreNotCachedAfterInvalidation() throws QueryConditionException, DocumentException
+    {
+        // A search reads the generation, then its query reads the state preceding the save.
+        long generation = queryCache.getGeneration(DocumentServer.class);
+        List<DocumentServer> stale = servicePerson.getDocumentService().search(createQuery());
+
+        DocumentServer document = DocumentRandomizer.generateServerEntity(false);
+        document.setStatusType(StatusType.ACTIVE);
+        servicePerson.getDocumentService().save(document);
+
+        // The search completes after the invalidation.
+        queryCache.put(DocumentServer.class, createQuery(), QueryResultCache.UNPAGED, generation, stale);
+
+        assertThat(queryCache.get(DocumentServer.class, createQuery(), QueryResultCache.UNPAGED))
+                .as("Results read before the invalidation should not have been cached!")
+                .isNull();
+        assertThat(servicePerson.getDocumentService().search(createQuery()))
+                .as("Search should return the newly saved document!")
+                .hasSize(stale.size() + 1);
+    }
+
+    /**
+     * Creates a query searching for the active documents.
+     * @return Document query.
+     * @throws QueryConditionException Thrown to indicate an error occurred when creating the query.
+     */
+    private DocumentQuery createQuery() throws QueryConditionException
+    {
+        return new DocumentQuery()
+                .addCondition(QueryCondition.builder()
+                        .withField(DocumentQuery.BASE_STATUS_TYPE)
+                        .withValue(StatusType.ACTIVE)
+                        .withOperator(QueryOperatorType.EQUAL)
+                        .build());
+    }
+
+    /**
+     * Returns the statistics of the document cache region.
+     * @return Cache statistics.
+     */
+    private CacheStatistics getStatistics()
+    {
+        return queryCache.getStatistics().stream()
+                .filter(statistics -> statistics.getName().equals(DocumentServer.class.getSimpleName()))
+                .findFirst()
+                .orElseThrow();
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.document;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
+import com.hemajoo.commerce.cherry.backend.persistence.document.randomizer.DocumentRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.document.repository.IDocumentRepository;
+import com.hemajoo.commerce.cherry.backend.persistence.test.base.AbstractPostgresUnitTest;
+import com.hemajoo.commerce.cherry.backend.persistence.test.base.SqlStatementRecorder;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryCondition;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryOperatorType;
+import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
+import com.hemajoo.commerce.cherry.backend.shared.document.query.DocumentQuery;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.Date;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests ensuring the <b>document</b> queries are converted to typed predicates able to use the database indexes.
+ * <br>
+ * The query plans are obtained by issuing an {@code EXPLAIN} of the {@code SQL} statements generated by {@code Hibernate}
+ * against the <b>PostgresSQL</b> database contained in a <b>Docker container</b>.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.hemajoo.commerce.cherry.backend.persistence.test.base.SqlStatementRecorder")
+@Log4j2
+class DocumentQueryPlanUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Pattern matching a typed predicate on the document creation date.
+     */
+    private static final Pattern CREATED_DATE_PREDICATE = Pattern.compile("created_date\\s*>=\\s*\\?", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Pattern matching a case-insensitive pattern predicate on the document filename.
+     */
+    private static final Pattern FILENAME_PREDICATE = Pattern.compile("lower\\([^)]*filename\\)\\s+like\\s*\\?", Pattern.CASE_INSENSITIVE);
+
+    /**
+     * Name of the index on the document creation date.
+     */
+    private static final String CREATED_DATE_INDEX = "idx_document_created_date";
+
+    /**
+     * Name of the lower cased index on the document filename (prefix searches).
+     */
+    private static final String FILENAME_LOWER_INDEX = "idx_document_filename_lower";
+
+    /**
+     * Name of the trigram index on the document filename (infix and suffix searches).
+     */
+    private static final String FILENAME_TRIGRAM_INDEX = "idx_document_filename_trgm";
+
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * Document repository.
+     */
+    @Autowired
+    private IDocumentRepository documentRepository;
+
+    /**
+     * Data source.
+     */
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * Prepare before each test.
+     * @throws DocumentException Thrown to indicate an error occurred when trying to randomly generate test documents.
+     */
+    @BeforeEach
+    public void beforeEach() throws DocumentException
+    {
+        for (int i = 0; i < 20; i++)
+        {
+            servicePerson.getDocumentService().save(DocumentRandomizer.generateServerEntity(false));
+        }
+    }
+
+    /**
+     * Cleanup after each test.
+     * @throws DocumentException Thrown to indicate an error occurred when trying to delete test documents.
+     */
+    @AfterEach
+    public void afterEach() throws DocumentException
+    {
+        for (DocumentServer document : servicePerson.getDocumentService().findAll())
+        {
+            try
+            {
+                servicePerson.getDocumentService().deleteById(document.getId());
+            }
+            catch (EmptyResultDataAccessException e)
+            {
+                // Do nothing!
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Query condition values are converted to the data type of their field")
+    void testQueryConditionValuesAreConverted() throws QueryConditionException
+    {
+        DocumentQuery search = new DocumentQuery()
+                .addCondition(QueryCondition.builder()
+                        .withField(DocumentQuery.BASE_CREATED_DATE)
+                        .withValue("2000-01-01T00:00:00Z")
+                        .withOperator(QueryOperatorType.GREATER_THAN_EQUAL)
+                        .build())
+                .addCondition(QueryCondition.builder()
+                        .withField(DocumentQuery.DOCUMENT_CONTENT_LENGTH)
+                        .withValue("1000")
+                        .withValue(50000)
+                        .withOperator(QueryOperatorType.BETWEEN)
+                        .build());
+
+        assertThat(search.getConditions().get(0).getValues().get(0))
+                .as("Creation date value should have been converted to a date!")
+                .isInstanceOf(Date.class);
+        assertThat(search.getConditions().get(1).getValues())
+                .as("Content length values should have been converted to longs!")
+                .containsExactly(1000L, 50000L);
+    }
+
+    @Test
+    @DisplayName("Query condition with a value not matching the data type of its field is rejected")
+    void testQueryConditionWithInvalidValue()
+    {
+        DocumentQuery search = new DocumentQuery();
+
+        assertThrows(QueryConditionException.class, () -> search.addCondition(QueryCondition.builder()
+                .withField(DocumentQuery.BASE_CREATED_DATE)
+                .withValue("not a date")
+                .withOperator(QueryOperatorType.GREATER_THAN_EQUAL)
+                .build()));
+    }
+
+    @Test
+    @DisplayName("Query documents by creation date uses the creation date index")
+    void testQueryDocumentByCreatedDateUsesIndex() throws QueryConditionException, SQLException
+    {
+        DocumentQuery search = new DocumentQuery()
+                .addCondition(QueryCondition.builder()
+                        .withField(DocumentQuery.BASE_CREATED_DATE)
+                        .withValue("2000-01-01T00:00:00Z")
+                        .withOperator(QueryOperatorType.GREATER_THAN_EQUAL)
+                        .build());
+
+        String sql = findStatement(search, CREATED_DATE_PREDICATE);
+        assertThat(sql.toLowerCase())
+                .as("Creation date predicate should not cast the column!")
+                .doesNotContain("cast(");
+
+        String plan = explain(sql, new Timestamp(((Date) search.getConditions().get(0).getValues().get(0)).getTime()));
+
+        assertThat(plan.toLowerCase())
+                .as(String.format("Query plan should use the index: '%s'!", CREATED_DATE_INDEX))
+                .contains(CREATED_DATE_INDEX);
+    }
+
+    @Test
+    @DisplayName("Query documents by filename starting with uses the lower cased filename index")
+    void testQueryDocumentByFilenameStartingWithUsesIndex() throws QueryConditionException, SQLException
+    {
+        DocumentQuery search = new DocumentQuery()
+                .addCondition(QueryCondition.builder()
+                        .withField(DocumentQuery.DOCUMENT_FILENAME)
+                        .withValue("LIC")
+                        .withOperator(QueryOperatorType.START_WITH)
+                        .build());
+
+        String plan = explain(findStatement(search, FILENAME_PREDICATE), "lic%");
+
+        assertThat(plan.toLowerCase())
+                .as(String.format("Query plan should use the index: '%s'!", FILENAME_LOWER_INDEX))
+                .contains(FILENAME_LOWER_INDEX);
+    }
+
+    @Test
+    @DisplayName("Query documents by filename containing uses the trigram filename index")
+    void testQueryDocumentByFilenameContainingUsesIndex() throws QueryConditionException, SQLException
+    {
+        DocumentQuery search = new DocumentQuery()
+                .addCondition(QueryCondition.builder()
+                        .withField(DocumentQuery.DOCUMENT_FILENAME)
+                        .withValue("License")
+                        .withOperator(QueryOperatorType.CONTAINS)
+                        .build());
+
+        String plan = explain(findStatement(search, FILENAME_PREDICATE), "%license%");
+
+        assertThat(plan.toLowerCase())
+                .as(String.format("Query plan should use the index: '%s'!", FILENAME_TRIGRAM_INDEX))
+                .contains(FILENAME_TRIGRAM_INDEX);
+    }
+
+    /**
+     * Executes the given query and returns the generated SQL statement matching the given pattern.
+     * @param search Document query.
+     * @param pattern Pattern the SQL statement must match.
+     * @return SQL statement.
+     */
+    private String findStatement(final DocumentQuery search, final Pattern pattern)
+    {
+        SqlStatementRecorder.clear();
+        documentRepository.findAll((Specification<DocumentServer>) search.getSpecification());
+
+        String sql = SqlStatementRecorder.getStatements().stream()
+                .filter(statement -> pattern.matcher(statement).find())
+                .findFirst()
+                .orElse(null);
+
+        assertThat(sql)
+                .as(String.format("A SQL statement matching: '%s' should have been generated!", pattern))
+                .isNotNull();
+
+        return sql;
+    }
+
+    /**
+     * Returns the query plan of the given SQL statement.
+     * <br>
+     * Sequential scans are disabled for the session as the test tables are too small for the planner to prefer an index.
+     * @param sql SQL statement.
+     * @param parameters SQL statement parameter values.
+     * @return Query plan.
+     * @throws SQLException Thrown to indicate an error occurred while explaining the statement.
+     */
+    private String explain(final String sql, final Object... parameters) throws SQLException
+    {
+        StringBuilder plan = new StringBuilder();
+
+        try (Connection connection = dataSource.getConnection())
+        {
+            try (Statement statement = connection.createStatement())
+            {
+                statement.execute("SET enable_seqscan = off");
+            }
+
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql))
+            {
+                for (int i = 0; i < parameters.length; i++)
+                {
+                    statement.setObject(i + 1, parameters[i]);
+                }
+
+                try (ResultSet result = statement.executeQuery())
+                {
+                    while (result.next())
+                    {
+                        plan.append(result.getString(1)).append(System.lineSeparator());
+                    }
+                }
+            }
+            finally
+            {
+                try (Statement statement = connection.createStatement())
+                {
+                    statement.execute("RESET enable_seqscan");
+                }
+            }
+        }
+
+        return plan.toString();
+    }
+}
@@ -18,12 +18,24 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryMonitor;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryShapeStatistics;
 import com.hemajoo.commerce.cherry.backend.persistence.document.randomizer.DocumentRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
 import com.hemajoo.commerce.cherry.backend.persistence.test.base.AbstractPostgresUnitTest;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.QueryPage;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateFunctionType;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateResult;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.DateBucketType;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.QueryAggregate;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryCondition;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryOperatorType;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
+import com.hemajoo.commerce.cherry.backend.shared.document.filter.DocumentFilterContent;
+import com.hemajoo.commerce.cherry.backend.shared.document.filter.DocumentFilterMetadata;
 import com.hemajoo.commerce.cherry.backend.shared.document.query.DocumentQuery;
 import com.hemajoo.commerce.cherry.backend.shared.document.type.DocumentType;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressQuery;
@@ -35,11 +47,17 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.test.annotation.DirtiesContext;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.sql.Date;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -69,6 +87,12 @@ class DocumentServiceUnitTest extends AbstractPostgresUnitTest
     @Autowired
     private ServiceFactoryPerson servicePerson;
 
+    /**
+     * Query monitor.
+     */
+    @Autowired
+    private QueryMonitor monitor;
+
     /**
      * Prepare before each test.
      * @throws DocumentException Thrown to indicate an error occurred when trying to randomly generate test documents.
@@ -121,6 +145,62 @@ class DocumentServiceUnitTest extends AbstractPostgresUnitTest
                 .isNotNull();
     }
 
+    @Test
+    @DisplayName("Save a batch of documents")
+    void testSaveDocumentBatch() throws DocumentException
+    {
+        long count = servicePerson.getDocumentService().count();
+
+        List<DocumentServer> documents = new ArrayList<>();
+        for (int i = 0; i < 10; i++)
+        {
+            documents.add(DocumentRandomizer.generateServerEntity(false));
+        }
+
+        List<DocumentServer> saved = servicePerson.getDocumentService().saveAll(documents);
+
+        assertThat(saved)
+                .as("All the documents should have been saved!")
+                .hasSize(documents.size())
+                .allMatch(document -> document.getId() != null && document.getContentId() != null);
+        assertThat(servicePerson.getDocumentService().count())
+                .as("Number of documents is invalid!")
+                .isEqualTo(count + documents.size());
+    }
+
+    @Test
+    @DisplayName("Save a batch of documents with a failing content removes the uploaded contents and saves no document")
+    void testSaveDocumentBatchWithFailingContent() throws DocumentException
+    {
+        long count = servicePerson.getDocumentService().count();
+
+        List<DocumentServer> documents = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+        {
+            documents.add(DocumentRandomizer.generateServerEntity(false));
+        }
+
+        DocumentServer failing = DocumentRandomizer.generateServerEntity(false);
+        failing.setContent(new InputStream()
+        {
+            @Override
+            public int read() throws IOException
+            {
+                throw new IOException("Content cannot be read!");
+            }
+        });
+        documents.add(failing);
+
+        assertThrows(DocumentException.class, () -> servicePerson.getDocumentService().saveAll(documents));
+
+        assertThat(documents)
+                .as("Uploaded contents should have been removed from the content store!")
+                .allMatch(document -> document.getContentId() == null);
+        assertThat(servicePerson.getDocumentService().count())
+                .as("No document should have been saved!")
+                .isEqualTo(count);
+    }
+
     @Test
     @DisplayName("Ensure we cannot set a document as being the parent of another document")
     void testSetDocumentAsParentOfDocument() throws DocumentException
@@ -146,6 +226,50 @@ class DocumentServiceUnitTest extends AbstractPostgresUnitTest
         });
     }
 
+    @Test
+    @DisplayName("Browse the documents of a parent by pages")
+    void testBrowseParentDocuments() throws EntityException, QueryConditionException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+
+        List<UUID> expected = new ArrayList<>();
+        for (int i = 0; i < 7; i++)
+        {
+            DocumentServer document = DocumentRandomizer.generateServerEntity(false);
+            document.setParent(person);
+            expected.add(servicePerson.getDocumentService().save(document).getId());
+        }
+
+        assertThat(servicePerson.getDocumentService().countByParentId(person.getId()))
+                .as("Parent should have 7 documents!")
+                .isEqualTo(7);
+
+        List<UUID> browsed = new ArrayList<>();
+        int pages = 0;
+        String cursor = null;
+        do
+        {
+            QueryPage<DocumentServer> page = servicePerson.getDocumentService().findByParentId(person.getId(), cursor, 3);
+            assertThat(page.getItems())
+                    .as("Page should hold at most 3 documents!")
+                    .hasSizeLessThanOrEqualTo(3);
+
+            page.getItems().forEach(document -> browsed.add(document.getId()));
+            cursor = page.getNextCursor();
+            pages++;
+        }
+        while (cursor != null);
+
+        assertThat(pages)
+                .as("Documents should have been browsed in 3 pages!")
+                .isEqualTo(3);
+        assertThat(browsed)
+                .as("Each document of the parent should have been browsed once!")
+                .containsExactlyInAnyOrderElementsOf(expected);
+
+        assertThrows(QueryConditionException.class, () -> servicePerson.getDocumentService().findByParentId(person.getId(), "not a cursor", 3));
+    }
+
     @Test
     @DisplayName("Update a document")
     void testUpdateDocument() throws DocumentException
@@ -447,4 +571,149 @@ class DocumentServiceUnitTest extends AbstractPostgresUnitTest
                     .isEqualTo(DOCUMENT_STATUS);
         }
     }
+
+    @Test
+    @DisplayName("Count documents grouped by document type")
+    void testAggregateCountDocumentByDocumentType() throws QueryConditionException
+    {
+        List<AggregateResult> results = servicePerson.getDocumentService().aggregate(new DocumentQuery(), QueryAggregate.builder()
+                .withFunction(AggregateFunctionType.COUNT)
+                .withGroupBy(DocumentQuery.DOCUMENT_TYPE)
+                .build());
+
+        Map<String, Long> expected = servicePerson.getDocumentService().findAll().stream()
+                .collect(Collectors.groupingBy(document -> String.valueOf(document.getDocumentType()), Collectors.counting()));
+
+        assertThat(results)
+                .as("There should be one aggregate result per document type!")
+                .hasSize(expected.size());
+
+        for (AggregateResult result : results)
+        {
+            assertThat(result.getValue())
+                    .as(String.format("Number of documents of type: '%s' is invalid!", result.getGroup()))
+                    .isEqualTo(expected.get(String.valueOf(result.getGroup())));
+        }
+    }
+
+    @Test
+    @DisplayName("Sum document content lengths grouped by month of creation")
+    void testAggregateSumDocumentContentLengthByMonth() throws QueryConditionException
+    {
+        DocumentQuery search = new DocumentQuery()
+                .addCondition(QueryCondition.builder()
+                        .withField(DocumentQuery.BASE_STATUS_TYPE)
+                        .withValue(StatusType.ACTIVE)
+                        .withOperator(QueryOperatorType.EQUAL)
+                        .build());
+
+        List<AggregateResult> results = servicePerson.getDocumentService().aggregate(search, QueryAggregate.builder()
+                .withFunction(AggregateFunctionType.SUM)
+                .withField(DocumentQuery.DOCUMENT_CONTENT_LENGTH)
+                .withGroupBy(DocumentQuery.BASE_CREATED_DATE)
+                .withBucket(DateBucketType.MONTH)
+                .build());
+
+        long expected = servicePerson.getDocumentService().findAll().stream()
+                .filter(document -> document.getStatusType() == StatusType.ACTIVE)
+                .mapToLong(DocumentServer::getContentLength)
+                .sum();
+
+        assertThat(results)
+                .as("Aggregate results should not be empty!")
+                .isNotEmpty();
+        assertThat(results.stream().mapToLong(result -> ((Number) result.getValue()).longValue()).sum())
+                .as("Sum of the document content lengths is invalid!")
+                .isEqualTo(expected);
+
+        for (AggregateResult result : results)
+        {
+            assertThat(result.getGroup().toString())
+                    .as("Group should be a month bucket!")
+                    .matches("\\d{4}-\\d{2}");
+        }
+    }
+
+    @Test
+    @DisplayName("Ensure an aggregate cannot sum a string field")
+    void testAggregateSumOnStringField()
+    {
+        QueryAggregate aggregate = QueryAggregate.builder()
+                .withFunction(AggregateFunctionType.SUM)
+                .withField(DocumentQuery.DOCUMENT_FILENAME)
+                .build();
+
+        assertThrows(QueryConditionException.class, () -> servicePerson.getDocumentService().aggregate(new DocumentQuery(), aggregate));
+    }
+
+    @Test
+    @DisplayName("Document searches are monitored per query shape")
+    void testSearchIsMonitoredPerShape() throws QueryConditionException
+    {
+        monitor.reset();
+
+        for (StatusType status : StatusType.values())
+        {
+            servicePerson.getDocumentService().search(new DocumentQuery()
+                    .addCondition(QueryCondition.builder()
+                            .withField(DocumentQuery.BASE_STATUS_TYPE)
+                            .withValue(status)
+                            .withOperator(QueryOperatorType.EQUAL)
+                            .build()));
+        }
+
+        List<QueryShapeStatistics> statistics = monitor.getSlowest(10);
+        assertThat(statistics)
+                .as("Searches differing only by their values should share the same query shape!")
+                .hasSize(1);
+        assertThat(statistics.get(0).getExecutions())
+                .as("Number of executions is invalid!")
+                .isEqualTo(StatusType.values().length);
+        assertThat(statistics.get(0).getRowsReturned())
+                .as("Number of rows returned is invalid!")
+                .isEqualTo(servicePerson.getDocumentService().count());
+        assertThat(statistics.get(0).getStatements())
+                .as("SQL statements should have been captured!")
+                .isGreaterThanOrEqualTo(StatusType.values().length);
+    }
+
+    @Test
+    @DisplayName("Patching a document metadata updates only the supplied properties")
+    void testPatchMetadataUpdatesOnlySuppliedProperties() throws EntityException
+    {
+        DocumentServer document = servicePerson.getDocumentService().save(DocumentRandomizer.generateServerEntity(false));
+        String description = document.getDescription();
+        String reference = document.getReference();
+
+        servicePerson.getDocumentService().patchMetadata(document.getId(), Map.of(
+                DocumentFilterMetadata.DOCUMENT_METADATA_NAME, "patched-name",
+                DocumentFilterMetadata.DOCUMENT_METADATA_STATUS_TYPE, StatusType.INACTIVE.name()));
+
+        DocumentServer patched = servicePerson.getDocumentService().getRepository().findById(document.getId()).orElseThrow();
+        assertThat(patched.getName())
+                .as("Supplied name should have been patched!")
+                .isEqualTo("patched-name");
+        assertThat(patched.getStatusType())
+                .as("Supplied status type should have been patched!")
+                .isEqualTo(StatusType.INACTIVE);
+        assertThat(patched.getDescription())
+                .as("Description not supplied should not have been modified!")
+                .isEqualTo(description);
+        assertThat(patched.getReference())
+                .as("Reference not supplied should not have been modified!")
+                .isEqualTo(reference);
+    }
+
+    @Test
+    @DisplayName("Patching a document property not listed in the metadata filter is rejected")
+    void testPatchMetadataRejectsNonMetadataProperties() throws EntityException
+    {
+        DocumentServer document = servicePerson.getDocumentService().save(DocumentRandomizer.generateServerEntity(false));
+
+        EntityException exception = assertThrows(EntityException.class, () -> servicePerson.getDocumentService().patchMetadata(document.getId(),
+                Map.of(DocumentFilterContent.DOCUMENT_CONTENT_PATH, "/tmp/other")));
+        assertThat(exception.getMessage())
+                .as("Rejected property should be reported!")
+                .contains(DocumentFilterContent.DOCUMENT_CONTENT_PATH);
+    }
 }
@@ -14,8 +14,11 @@
  */
 package com.hemajoo.commerce.cherry.backend.persistence.test.person;
 
+import com.hemajoo.commerce.cherry.backend.commons.entity.EntityIdentity;
 import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.commons.type.StatusType;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityFactory;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.IServerEntity;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.persistence.document.randomizer.DocumentRandomizer;
@@ -23,18 +26,29 @@ import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddres
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.EmailAddressRandomizer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.validation.engine.EmailAddressValidationEngine;
 import com.hemajoo.commerce.cherry.backend.persistence.test.base.AbstractPostgresUnitTest;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryOperatorType;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.filter.QueryFilterParser;
+import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressException;
+import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressFilterMetadata;
+import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressQuery;
 import lombok.extern.log4j.Log4j2;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -63,6 +77,12 @@ class EmailAddressUnitTest extends AbstractPostgresUnitTest
     @Autowired
     private ServiceFactoryPerson servicePerson;
 
+    /**
+     * Transaction manager.
+     */
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     @Test
     @DisplayName("Create an email address")
     void testCreateEmailAddress() throws EntityException
@@ -348,4 +368,221 @@ class EmailAddressUnitTest extends AbstractPostgresUnitTest
                 .as("Entity emails should match!")
                 .isEqualTo(email.getEmail());
     }
+
+    @Test
+    @DisplayName("Retrieves several entities at once using the entity factory.")
+    final void testRetrieveEntitiesInBatchUsingEntityFactory() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+
+        List<EntityIdentity> identities = new ArrayList<>();
+        for (int i = 0; i < 3; i++)
+        {
+            EmailAddressServer email = EmailAddressRandomizer.generateServerEntity(false);
+            email.setParent(person);
+            identities.add(servicePerson.getEmailAddressService().save(email).getIdentity());
+        }
+        identities.add(EntityIdentity.from(EntityType.UNKNOWN, person.getId()));
+        identities.add(EntityIdentity.from(EntityType.EMAIL_ADDRESS, UUID.randomUUID()));
+
+        Map<UUID, IServerEntity> entities = factory.from(identities);
+        assertThat(entities)
+                .as("Existing entities should have been retrieved!")
+                .hasSize(4)
+                .containsKeys(identities.get(0).getId(), identities.get(1).getId(), identities.get(2).getId(), person.getId());
+        assertThat(entities.get(person.getId()))
+                .as("Entity having an unknown type should have been typed through the entity registry!")
+                .isInstanceOf(PersonServer.class);
+    }
+
+    @Test
+    @DisplayName("Ensures a person cannot hold twice the same email address (case-insensitive).")
+    final void testDuplicateEmailAddressIsRejected() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+
+        EmailAddressServer email = EmailAddressRandomizer.generateServerEntity(false);
+        email.setParent(person);
+        servicePerson.getEmailAddressService().save(email);
+
+        EmailAddressServer duplicate = EmailAddressRandomizer.generateServerEntity(false);
+        duplicate.setEmail(email.getEmail().toUpperCase());
+        duplicate.setParent(person);
+
+        EmailAddressException exception = assertThrows(EmailAddressException.class, () -> servicePerson.getEmailAddressService().save(duplicate));
+        assertThat(exception.getMessage())
+                .as("Unique index violation should have been mapped to the uniqueness validation error!")
+                .contains("already exist");
+    }
+
+    @Test
+    @DisplayName("Ensures a duplicate email address saved within a transaction is rejected with the uniqueness validation error.")
+    final void testDuplicateEmailAddressIsRejectedWithinTransaction() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+
+        EmailAddressServer email = EmailAddressRandomizer.generateServerEntity(false);
+        email.setParent(person);
+        servicePerson.getEmailAddressService().save(email);
+
+        EmailAddressServer duplicate = EmailAddressRandomizer.generateServerEntity(false);
+        duplicate.setEmail(email.getEmail().toUpperCase());
+        duplicate.setParent(person);
+
+        TransactionStatus transaction = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try
+        {
+            EmailAddressException exception = assertThrows(EmailAddressException.class, () -> servicePerson.getEmailAddressService().save(duplicate));
+            assertThat(exception.getMessage())
+                    .as("Unique index violation should have been mapped to the uniqueness validation error within the transaction!")
+                    .contains("already exist");
+        }
+        finally
+        {
+            transactionManager.rollback(transaction);
+        }
+    }
+
+    @Test
+    @DisplayName("Ensures a person cannot hold two active default email addresses.")
+    final void testSecondActiveDefaultEmailAddressIsRejected() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+
+        EmailAddressServer email = EmailAddressRandomizer.generateServerEntity(false);
+        email.setStatusType(StatusType.ACTIVE);
+        email.setIsDefaultEmail(true);
+        email.setParent(person);
+        servicePerson.getEmailAddressService().save(email);
+
+        EmailAddressServer other = EmailAddressRandomizer.generateServerEntity(false);
+        other.setStatusType(StatusType.ACTIVE);
+        other.setIsDefaultEmail(true);
+        other.setParent(person);
+
+        EmailAddressException exception = assertThrows(EmailAddressException.class, () -> servicePerson.getEmailAddressService().save(other));
+        assertThat(exception.getMessage())
+                .as("Partial unique index violation should have been mapped to the default email validation error!")
+                .contains("already has an active default email address");
+
+        other.setStatusType(StatusType.INACTIVE);
+        assertThat(servicePerson.getEmailAddressService().save(other).getId())
+                .as("An inactive default email address should be accepted!")
+                .isNotNull();
+    }
+
+    @Test
+    @DisplayName("Patch the default flag of an email address using its JSON member name.")
+    final void testPatchEmailAddressDefaultFlag() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+
+        EmailAddressServer email = EmailAddressRandomizer.generateServerEntity(false);
+        email.setIsDefaultEmail(false);
+        email.setParent(person);
+        email = servicePerson.getEmailAddressService().save(email);
+        UUID id = email.getId();
+
+        // The default flag is serialized as 'isDefault' while its property is named 'isDefaultEmail'.
+        EmailAddressServer patched = servicePerson.getEmailAddressService().patch(id, Map.of("isDefault", true));
+        assertThat(patched.getIsDefaultEmail())
+                .as("Default flag should have been patched!")
+                .isTrue();
+
+        Map<String, Object> patch = Map.of(EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_IS_DEFAULT, false);
+        assertThrows(EntityException.class, () -> servicePerson.getEmailAddressService().patch(id, patch));
+    }
+
+    @Test
+    @DisplayName("Ensures a patched email address is validated as for an update.")
+    final void testPatchEmailAddressIsValidated() throws EntityException
+    {
+        PersonServer person = servicePerson.getPersonService().save(PersonRandomizer.generateServerEntity(false));
+
+        EmailAddressServer email = EmailAddressRandomizer.generateServerEntity(false);
+        email.setStatusType(StatusType.ACTIVE);
+        email.setIsDefaultEmail(true);
+        email.setParent(person);
+        email = servicePerson.getEmailAddressService().save(email);
+
+        EmailAddressServer other = EmailAddressRandomizer.generateServerEntity(false);
+        other.setStatusType(StatusType.ACTIVE);
+        other.setIsDefaultEmail(false);
+        other.setParent(person);
+        other = servicePerson.getEmailAddressService().save(other);
+        UUID id = other.getId();
+
+        Map<String, Object> duplicate = Map.of(EmailAddressFilterMetadata.EMAIL_ADDRESS_METADATA_EMAIL, email.getEmail().toUpperCase());
+        EmailAddressException exception = assertThrows(EmailAddressException.class, () -> servicePerson.getEmailAddressService().patch(id, duplicate));
+        assertThat(exception.getMessage())
+                .as("Patching an email address to an email already held by its person should be rejected!")
+                .contains("already belongs to another entity");
+
+        Map<String, Object> secondDefault = Map.of("isDefault", true);
+        exception = assertThrows(EmailAddressException.class, () -> servicePerson.getEmailAddressService().patch(id, secondDefault));
+        assertThat(exception.getMessage())
+                .as("Patching an email address as a second active default email address should be rejected!")
+                .contains("already has an active default email address");
+
+        assertThat(servicePerson.getEmailAddressService().getRepository().findById(id).orElseThrow().getEmail())
+                .as("Rejected patches should not have been applied!")
+                .isEqualTo(other.getEmail());
+    }
+
+    @Test
+    @DisplayName("Compiles a filter to query conditions.")
+    final void testFilterIsCompiledToConditions() throws QueryConditionException
+    {
+        EmailAddressQuery search = QueryFilterParser.parse("name~\"smi*\" and statusType=ACTIVE AND isDefault = true", new EmailAddressQuery());
+
+        assertThat(search.getConditions())
+                .as("Filter should have been compiled to 3 conditions!")
+                .hasSize(3);
+        assertThat(search.getConditions().get(0).getOperator())
+                .as("Pattern with a trailing wildcard should be compiled to a start with operator!")
+                .isEqualTo(QueryOperatorType.START_WITH);
+        assertThat(search.getConditions().get(0).getValues())
+                .as("Pattern wildcard should have been removed!")
+                .containsExactly("smi");
+        assertThat(search.getConditions().get(1).getValues())
+                .as("Status type value should have been converted to an enumerated value!")
+                .containsExactly(StatusType.ACTIVE);
+        assertThat(search.getConditions().get(2).getValues())
+                .as("Default email value should have been converted to a boolean!")
+                .containsExactly(Boolean.TRUE);
+    }
+
+    @Test
+    @DisplayName("Ensures an invalid filter is rejected.")
+    final void testInvalidFilterIsRejected()
+    {
+        assertThrows(QueryConditionException.class, () -> QueryFilterParser.parse("email~", new EmailAddressQuery()));
+        assertThrows(QueryConditionException.class, () -> QueryFilterParser.parse("email=\"unterminated", new EmailAddressQuery()));
+        assertThrows(QueryConditionException.class, () -> QueryFilterParser.parse("email=a or email=b", new EmailAddressQuery()));
+        assertThrows(QueryConditionException.class, () -> QueryFilterParser.parse("unknown=a", new EmailAddressQuery()));
+    }
+
+    @Test
+    @DisplayName("Ensures an empty search is rejected.")
+    final void testEmptySearchIsRejected() throws QueryConditionException
+    {
+        EmailAddressQuery search = QueryFilterParser.parse("  ", new EmailAddressQuery());
+
+        assertThrows(EmailAddressException.class, () -> EmailAddressValidationEngine.isSearchValid(search));
+    }
+
+    @Test
+    @DisplayName("Search email addresses using a filter.")
+    final void testSearchEmailAddressUsingFilter() throws EntityException, QueryConditionException
+    {
+        EmailAddressServer email = EmailAddressRandomizer.generateServerEntity(false);
+        email = servicePerson.getEmailAddressService().save(email);
+
+        EmailAddressQuery search = QueryFilterParser.parse(String.format("email=\"%s\"", email.getEmail()), new EmailAddressQuery());
+
+        assertThat(servicePerson.getEmailAddressService().search(search))
+                .as("Search should return the email address!")
+                .extracting(EmailAddressServer::getId)
+                .contains(email.getId());
+    }
 }
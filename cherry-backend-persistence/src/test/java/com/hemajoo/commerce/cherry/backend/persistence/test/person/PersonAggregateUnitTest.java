@@ -0,0 +1,235 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.person;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.EntityCacheMonitor;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
+import com.hemajoo.commerce.cherry.backend.persistence.document.randomizer.DocumentRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.converter.PersonConverter;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PhoneNumberServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PostalAddressServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.EmailAddressRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PhoneNumberRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PostalAddressRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.test.base.AbstractPostgresUnitTest;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
+import com.hemajoo.commerce.cherry.backend.shared.person.PersonAggregateClient;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the loading of a <b>person aggregate</b> (person, email addresses, phone numbers, postal addresses and documents).
+ * <br>
+ * The number of statements and the latency of the aggregate load are compared to the ones of the sequence of calls previously
+ * needed to retrieve the same data.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest
+@Log4j2
+class PersonAggregateUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Number of child entities of each type created for the person.
+     */
+    private static final int CHILD_COUNT = 5;
+
+    /**
+     * Number of documents attached to the person and to each of its child entities.
+     */
+    private static final int DOCUMENT_COUNT = 2;
+
+    /**
+     * Maximal number of statements to load a person aggregate: the person with its documents, one per child collection, the documents
+     * of the child entities (one batch per child entity type at most) and the documents referenced by the documents.
+     */
+    private static final int MAX_AGGREGATE_STATEMENTS = 8;
+
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * Person converter.
+     */
+    @Autowired
+    private PersonConverter converterPerson;
+
+    /**
+     * Second-level cache monitor.
+     */
+    @Autowired
+    private EntityCacheMonitor monitor;
+
+    /**
+     * Entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Person created for a test.
+     */
+    private PersonServer person;
+
+    /**
+     * Prepare before each test.
+     * @throws EntityException Thrown to indicate an error occurred when trying to create the test entities.
+     */
+    @BeforeEach
+    public void beforeEach() throws EntityException
+    {
+        person = PersonRandomizer.generateServerEntity(false);
+        addDocuments(person);
+        person = servicePerson.getPersonService().save(person);
+
+        for (int i = 0; i < CHILD_COUNT; i++)
+        {
+            EmailAddressServer email = EmailAddressRandomizer.generateServerEntity(false);
+            addDocuments(email);
+            person.addEmailAddress(email);
+            servicePerson.getEmailAddressService().save(email);
+
+            PhoneNumberServer phone = PhoneNumberRandomizer.generateServerEntity(false);
+            addDocuments(phone);
+            person.addPhoneNumber(phone);
+            servicePerson.getPhoneNumberService().save(phone);
+
+            PostalAddressServer address = PostalAddressRandomizer.generateServerEntity(false);
+            addDocuments(address);
+            person.addPostalAddress(address);
+            servicePerson.getPostalAddressService().save(address);
+        }
+    }
+
+    @Test
+    @DisplayName("Person aggregate is loaded with all its child entities and documents")
+    void testFindPersonAggregate()
+    {
+        PersonAggregateClient aggregate = converterPerson.fromServerToAggregateClient(servicePerson.getPersonService().findAggregateById(person.getId()));
+
+        assertThat(aggregate.getPerson().getId())
+                .as("Person of the aggregate should be the requested person!")
+                .isEqualTo(person.getId());
+        assertThat(aggregate.getPerson().getEmailAddresses())
+                .as("Email addresses of the person should have been loaded!")
+                .hasSize(CHILD_COUNT);
+        assertThat(aggregate.getPerson().getPhoneNumbers())
+                .as("Phone numbers of the person should have been loaded!")
+                .hasSize(CHILD_COUNT);
+        assertThat(aggregate.getPerson().getPostalAddresses())
+                .as("Postal addresses of the person should have been loaded!")
+                .hasSize(CHILD_COUNT);
+        assertThat(aggregate.getDocuments())
+                .as("Documents of the person and of its child entities should have been loaded!")
+                .hasSize(DOCUMENT_COUNT * (1 + 3 * CHILD_COUNT));
+    }
+
+    @Test
+    @DisplayName("Person aggregate is loaded with a bounded number of statements, lower than the sequence of calls")
+    void testPersonAggregateStatementsAndLatency() throws QueryConditionException
+    {
+        // Sequence of calls previously needed to retrieve a person with its email addresses, postal addresses and documents.
+        Statistics statistics = resetStatistics();
+        long start = System.nanoTime();
+
+        PersonServer sequence = servicePerson.getPersonService().findById(person.getId());
+        List<DocumentServer> documents = new ArrayList<>(sequence.getDocuments());
+        for (EmailAddressServer email : servicePerson.getPersonService().getEmailAddresses(sequence))
+        {
+            documents.addAll(servicePerson.getEmailAddressService().findDocuments(email.getId()));
+        }
+        for (PostalAddressServer address : servicePerson.getPostalAddressService().findByPersonId(sequence.getId()))
+        {
+            documents.addAll(address.getDocuments());
+        }
+
+        long sequenceElapsed = System.nanoTime() - start;
+        long sequenceStatements = statistics.getPrepareStatementCount();
+
+        // Aggregate load.
+        statistics = resetStatistics();
+        start = System.nanoTime();
+
+        PersonServer aggregate = servicePerson.getPersonService().findAggregateById(person.getId());
+
+        long aggregateElapsed = System.nanoTime() - start;
+        long aggregateStatements = statistics.getPrepareStatementCount();
+
+        LOGGER.info(String.format("Sequence of calls: %s statement(s) in: %s ms (%s documents), aggregate: %s statement(s) in: %s ms",
+                sequenceStatements, sequenceElapsed / 1_000_000, documents.size(), aggregateStatements, aggregateElapsed / 1_000_000));
+
+        assertThat(aggregate.getEmailAddresses())
+                .as("Email addresses of the person should have been loaded!")
+                .hasSize(CHILD_COUNT);
+        assertThat(aggregateStatements)
+                .as(String.format("Person aggregate should have been loaded with at most: %s statements!", MAX_AGGREGATE_STATEMENTS))
+                .isLessThanOrEqualTo(MAX_AGGREGATE_STATEMENTS);
+        assertThat(aggregateStatements)
+                .as("Person aggregate should have been loaded with less statements than the sequence of calls!")
+                .isLessThan(sequenceStatements);
+    }
+
+    /**
+     * Attaches random documents to an entity.
+     * @param entity Entity.
+     * @throws EntityException Thrown to indicate an error occurred when trying to generate a document.
+     */
+    private void addDocuments(final ServerEntity entity) throws EntityException
+    {
+        for (int i = 0; i < DOCUMENT_COUNT; i++)
+        {
+            entity.addDocument(DocumentRandomizer.generateServerEntity(false));
+        }
+    }
+
+    /**
+     * Evicts the second-level cache and resets the Hibernate statistics, so the next load is served by the database.
+     * @return Hibernate statistics.
+     */
+    private Statistics resetStatistics()
+    {
+        monitor.evictAll();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        return statistics;
+    }
+}
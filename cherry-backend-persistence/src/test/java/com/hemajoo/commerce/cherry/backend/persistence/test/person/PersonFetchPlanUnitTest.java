@@ -0,0 +1,224 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.person;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.EntityCacheMonitor;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.document.randomizer.DocumentRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.EmailAddressRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
+import com.hemajoo.commerce.cherry.backend.persistence.test.base.AbstractPostgresUnitTest;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryCondition;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryOperatorType;
+import com.hemajoo.commerce.cherry.backend.shared.person.PersonQuery;
+import lombok.extern.log4j.Log4j2;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests ensuring the <b>person</b> entities are loaded with a bounded number of {@code SQL} statements, whatever the number
+ * of entities loaded, their documents and their parent.
+ * <br>
+ * The statements are counted through the {@code Hibernate} statistics, the second-level cache being evicted before each load.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest
+@Log4j2
+class PersonFetchPlanUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Number of persons (each one having an email address) created for the tests.
+     */
+    private static final int PERSON_COUNT = 10;
+
+    /**
+     * Number of documents attached to each person and each email address.
+     */
+    private static final int DOCUMENT_COUNT = 3;
+
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    /**
+     * Second-level cache monitor.
+     */
+    @Autowired
+    private EntityCacheMonitor monitor;
+
+    /**
+     * Entity manager factory.
+     */
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Last name shared by the persons created for a test.
+     */
+    private String lastName;
+
+    /**
+     * Persons created for a test.
+     */
+    private List<PersonServer> persons;
+
+    /**
+     * Prepare before each test.
+     * @throws EntityException Thrown to indicate an error occurred when trying to create the test entities.
+     */
+    @BeforeEach
+    public void beforeEach() throws EntityException
+    {
+        lastName = PersonRandomizer.generateServerEntity(false).getLastName() + System.nanoTime();
+        persons = new ArrayList<>();
+
+        for (int i = 0; i < PERSON_COUNT; i++)
+        {
+            PersonServer person = PersonRandomizer.generateServerEntity(false);
+            person.setLastName(lastName);
+            for (int j = 0; j < DOCUMENT_COUNT; j++)
+            {
+                person.addDocument(DocumentRandomizer.generateServerEntity(false));
+            }
+            person = servicePerson.getPersonService().save(person);
+
+            EmailAddressServer email = EmailAddressRandomizer.generateServerEntity(false);
+            for (int j = 0; j < DOCUMENT_COUNT; j++)
+            {
+                email.addDocument(DocumentRandomizer.generateServerEntity(false));
+            }
+            person.addEmailAddress(email);
+            servicePerson.getEmailAddressService().save(email);
+
+            persons.add(person);
+        }
+    }
+
+    @Test
+    @DisplayName("Person found by identifier is loaded with its documents in a single statement")
+    void testFindPersonByIdLoadsDetailGraph() throws EntityException
+    {
+        Statistics statistics = resetStatistics();
+
+        PersonServer person = servicePerson.getPersonService().findById(persons.get(0).getId());
+
+        assertThat(statistics.getPrepareStatementCount())
+                .as("Person and its documents should have been loaded with a single statement!")
+                .isEqualTo(1);
+        assertThat(person.getDocuments())
+                .as("Person documents should be available once the person is detached!")
+                .hasSize(DOCUMENT_COUNT);
+    }
+
+    @Test
+    @DisplayName("Persons searched are loaded with a number of statements not depending on the number of persons")
+    void testSearchPersonsIsNotNPlusOne() throws QueryConditionException
+    {
+        PersonQuery query = new PersonQuery();
+        query.addCondition(QueryCondition.builder()
+                .withField(PersonQuery.PERSON_LASTNAME)
+                .withOperator(QueryOperatorType.EQUAL)
+                .withValue(lastName)
+                .build());
+
+        Statistics statistics = resetStatistics();
+
+        List<PersonServer> results = servicePerson.getPersonService().search(query);
+
+        assertThat(results)
+                .as("All the persons should have been found!")
+                .hasSize(PERSON_COUNT);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("Persons should have been loaded with one statement and their documents with one batch statement!")
+                .isLessThanOrEqualTo(2);
+        assertThat(results)
+                .as("Person documents should be available once the persons are detached!")
+                .allMatch(person -> person.getDocuments().size() == DOCUMENT_COUNT);
+    }
+
+    @Test
+    @DisplayName("Email addresses of a person are loaded with their parent and documents in a bounded number of statements")
+    void testFindEmailAddressesByParentIsNotNPlusOne()
+    {
+        Statistics statistics = resetStatistics();
+
+        List<EmailAddressServer> emails = servicePerson.getEmailAddressService().findByParentId(persons.get(0).getId());
+
+        assertThat(emails)
+                .as("Email address of the person should have been found!")
+                .hasSize(1);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("Email addresses should have been loaded with their parent in one statement and their documents in one batch statement!")
+                .isLessThanOrEqualTo(2);
+        assertThat(emails.get(0).getParent())
+                .as("Parent of the email address should be loaded as a person!")
+                .isInstanceOf(PersonServer.class);
+    }
+
+    @Test
+    @DisplayName("All the email addresses are loaded with a number of statements not depending on the number of email addresses")
+    void testFindAllEmailAddressesIsNotNPlusOne()
+    {
+        Statistics statistics = resetStatistics();
+
+        List<EmailAddressServer> emails = servicePerson.getEmailAddressService().findAll();
+
+        assertThat(emails)
+                .as("Email addresses should have been found!")
+                .hasSizeGreaterThanOrEqualTo(PERSON_COUNT);
+        assertThat(statistics.getPrepareStatementCount())
+                .as("Email addresses should not be loaded with one statement per email address!")
+                .isLessThan(PERSON_COUNT);
+        assertThat(emails)
+                .as("Parents of the email addresses should be loaded as persons!")
+                .allMatch(email -> email.getParent() instanceof PersonServer);
+    }
+
+    /**
+     * Evicts the second-level cache and resets the Hibernate statistics, so the next load is served by the database.
+     * @return Hibernate statistics.
+     */
+    private Statistics resetStatistics()
+    {
+        monitor.evictAll();
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        return statistics;
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.persistence.test.person;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkFormat;
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkImportError;
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkImportReport;
+import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
+import com.hemajoo.commerce.cherry.backend.persistence.test.base.AbstractPostgresUnitTest;
+import com.hemajoo.commerce.cherry.backend.shared.person.PersonException;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the person bulk import.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@DirtiesContext
+@Testcontainers // Not to be used to keep container alive after the tests!
+@SpringBootTest(properties = "hemajoo.commerce.cherry.import.chunk.size = 500")
+@Log4j2
+class PersonImportUnitTest extends AbstractPostgresUnitTest
+{
+    /**
+     * Person services.
+     */
+    @Autowired
+    private ServiceFactoryPerson servicePerson;
+
+    @Test
+    @DisplayName("Import persons from a CSV input and report the invalid records")
+    void testImportPersonsFromCsv() throws PersonException
+    {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        String csv = "lastName,firstName,birthDate,genderType,email,email,phone,countryCode\n"
+                + String.format("Doe,John,1980-02-14,MALE,%s.john@example.com,%s.jdoe@example.org,+33 6 12 34 56 78,FR%n", prefix, prefix)
+                + String.format("\"Martin, Jr\",Alice,1992-11-03,FEMALE,%s.alice@example.com,,,%n", prefix)
+                + "Invalid,Email,1975-06-30,MALE,not-an-email,,,\n"
+                + String.format("Duplicate,Email,,,%s.john@example.com,%s.JOHN@example.com,,%n", prefix, prefix)
+                + "Invalid,Date,30/06/1975,,,,,\n"
+                + String.format("Other,John,,,%s.john@example.com,,,%n", prefix);
+
+        BulkImportReport report = servicePerson.getPersonImportService().importPersons(BulkFormat.CSV, toStream(csv));
+
+        assertThat(report.getRecords())
+                .as("All records should have been read!")
+                .isEqualTo(6);
+        assertThat(report.getImported())
+                .as("Valid records (including a person sharing the email address of another person) should have been imported!")
+                .isEqualTo(3);
+        assertThat(report.getErrors())
+                .as("Invalid records should have been reported with their line number!")
+                .extracting(BulkImportError::getLine)
+                .containsExactlyInAnyOrder(4L, 5L, 6L);
+
+        PersonServer person = servicePerson.getPersonService().findAll().stream()
+                .filter(element -> "Martin, Jr".equals(element.getLastName()) && "Alice".equals(element.getFirstName()))
+                .findFirst()
+                .orElse(null);
+        assertThat(person)
+                .as("Person with a quoted last name should have been imported!")
+                .isNotNull();
+        assertThat(servicePerson.getPersonService().getEmailAddresses(person))
+                .as("Person email address should have been imported!")
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Import persons from a NDJSON input and report the invalid records")
+    void testImportPersonsFromNdjson() throws PersonException
+    {
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+        String ndjson = String.format("{\"lastName\":\"Smith\",\"firstName\":\"Jane\",\"emails\":[\"%s.jane@example.com\"],\"phones\":[\"+44 7700 900123\"],\"countryCode\":\"GB\"}%n", prefix)
+                + "{\"lastName\":\"\",\"firstName\":\"Nameless\"}\n"
+                + "{\"lastName\":\"Brown\",\"firstName\":\"Bob\",\"personType\":\"UNKNOWN\"}\n"
+                + "{\"lastName\":\"Broken\",\n";
+
+        BulkImportReport report = servicePerson.getPersonImportService().importPersons(BulkFormat.NDJSON, toStream(ndjson));
+
+        assertThat(report.getImported())
+                .as("Valid records should have been imported!")
+                .isEqualTo(1);
+        assertThat(report.getRejected())
+                .as("Invalid records should have been rejected!")
+                .isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Import a large number of persons with their email addresses and phone numbers")
+    void testImportThroughput() throws PersonException
+    {
+        final int count = 10_000;
+        String prefix = UUID.randomUUID().toString().substring(0, 8);
+
+        StringBuilder csv = new StringBuilder("lastName,firstName,birthDate,genderType,email,email,phone,countryCode\n");
+        for (int i = 0; i < count; i++)
+        {
+            csv.append(String.format("Last%s,First%s,1980-01-01,FEMALE,%s.%s@example.com,%s.%s@example.org,+33 6 00 00 %s,FR%n",
+                    i, i, prefix, i, prefix, i, i));
+        }
+
+        BulkImportReport report = servicePerson.getPersonImportService().importPersons(BulkFormat.CSV, toStream(csv.toString()));
+
+        LOGGER.info(String.format("Imported: %s persons (with 2 email addresses and 1 phone number each) in: %s ms (%s persons/minute)",
+                report.getImported(), report.getDuration(), report.getImported() * 60_000 / Math.max(1, report.getDuration())));
+
+        assertThat(report.getImported())
+                .as("All the persons should have been imported!")
+                .isEqualTo(count);
+        assertThat(report.getChunks())
+                .as("Persons should have been committed by chunks!")
+                .isEqualTo(count / 500);
+    }
+
+    /**
+     * Returns an input stream on a text.
+     * @param text Text.
+     * @return Input stream.
+     */
+    private static ByteArrayInputStream toStream(final String text)
+    {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -38,6 +38,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import java.security.NoSuchAlgorithmException;
 import java.util.Date;
 import java.util.List;
+import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -415,4 +416,71 @@ class PersonUnitTest extends AbstractPostgresUnitTest
                 .as(String.format("At least one person's tags should be: '%s'", TAG))
                 .isTrue();
     }
+
+    /**
+     * Test the tags of a person are parsed and updated.
+     */
+    @Test
+    @DisplayName("Parse and update the tags of a person")
+    void testPersonTags()
+    {
+        PersonServer person = PersonRandomizer.generateServerEntity(false);
+        person.setTags(" lion ,tiger, , lion");
+
+        assertThat(person.getTagCount())
+                .as("Empty and duplicated tags should be ignored!")
+                .isEqualTo(2);
+        assertThat(person.existTag("tiger"))
+                .as("Tag: 'tiger' should exist!")
+                .isTrue();
+
+        person.addTag("bear");
+        person.removeTag("lion");
+
+        assertThat(person.getTags())
+                .as("Tags should have been updated!")
+                .isEqualTo("tiger, bear");
+        assertThat(person.getRandomTag())
+                .as("Random tag should be one of the tags!")
+                .isIn("tiger", "bear");
+    }
+
+    /**
+     * Test to query persons by tag using the tag index.
+     * @throws QueryConditionException Thrown to indicate an error occurred with a query condition.
+     * @throws PersonException Thrown to indicate an error occurred when trying to save a person.
+     */
+    @Test
+    @DisplayName("Query persons by tag using the tag index")
+    void testQueryPersonByTagIndex() throws QueryConditionException, PersonException
+    {
+        final String TAG = "Tag-" + UUID.randomUUID();
+
+        PersonServer person = PersonRandomizer.generateServerEntity(false);
+        person.setTags("cherry, " + TAG);
+        person = servicePerson.getPersonService().save(person);
+
+        // Tags are matched whatever their case.
+        PersonQuery query = new PersonQuery();
+        query.addCondition(QueryCondition.builder()
+                .withField(PersonQuery.BASE_TAGS)
+                .withOperator(QueryOperatorType.HAS_TAG)
+                .withValue(TAG.toUpperCase())
+                .build());
+
+        List<PersonServer> results = servicePerson.getPersonService().search(query);
+        assertThat(results)
+                .as(String.format("Only the person tagged with: '%s' should be found!", TAG))
+                .extracting(PersonServer::getId)
+                .containsExactly(person.getId());
+
+        // Tags are indexed again once changed.
+        person.removeTag(TAG);
+        servicePerson.getPersonService().save(person);
+
+        results = servicePerson.getPersonService().search(query);
+        assertThat(results)
+                .as(String.format("No person should be tagged anymore with: '%s'!", TAG))
+                .isEmpty();
+    }
 }
@@ -0,0 +1,76 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.rest.controller.audit;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.audit.AuditEntry;
+import com.hemajoo.commerce.cherry.backend.persistence.base.audit.AuditStatistics;
+import com.hemajoo.commerce.cherry.backend.persistence.base.audit.AuditTrail;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * <b>REST controller</b> exposing endpoints to retrieve the audit trail of the entities.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Tag(name = "Audit REST controller", description = "Set of REST-API endpoints to retrieve the audit trail of the entities.")
+@Validated
+@RestController
+@RequestMapping("/api/v1/audit")
+public class AuditController
+{
+    /**
+     * Audit trail.
+     */
+    @Autowired
+    private AuditTrail auditTrail;
+
+    /**
+     * Retrieve the statistics of the audit trail.
+     * @return Audit trail statistics.
+     */
+    @Operation(summary = "Retrieve the audit trail statistics.", description = "Retrieve the pending, written, dropped and failed audit entries of the audit trail.")
+    @GetMapping(value = "/statistics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<AuditStatistics> getStatistics()
+    {
+        return ResponseEntity.ok(auditTrail.getStatistics());
+    }
+
+    /**
+     * Retrieve the audit trail of an entity.
+     * @param entityId Entity identifier.
+     * @param size Maximum number of audit entries.
+     * @return List of audit entries, the most recent first.
+     */
+    @Operation(summary = "Retrieve the audit trail of an entity.", description = "Retrieve the property changes (creation, updates and deletion) of an entity, the most recent first.")
+    @GetMapping(value = "/{entityId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<AuditEntry>> getAuditTrail(
+            @Parameter(name = "entityId", description = "Entity identifier (UUID).", required = true)
+            @PathVariable UUID entityId,
+            @Parameter(description = "Maximum number of audit entries")
+            @RequestParam(defaultValue = "100") int size)
+    {
+        return ResponseEntity.ok(auditTrail.findByEntityId(entityId, size));
+    }
+}
@@ -21,11 +21,19 @@ import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityFactory
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.IServerEntity;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.MergePatch;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryMonitor;
 import com.hemajoo.commerce.cherry.backend.persistence.document.converter.DocumentConverter;
 import com.hemajoo.commerce.cherry.backend.persistence.document.entity.DocumentServer;
 import com.hemajoo.commerce.cherry.backend.persistence.document.randomizer.DocumentRandomizer;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.QueryPage;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateFunctionType;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateResult;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.DateBucketType;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.QueryAggregate;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.filter.QueryFilterParser;
 import com.hemajoo.commerce.cherry.backend.shared.document.DocumentClient;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentContentException;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
@@ -45,6 +53,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import javax.validation.constraints.NotNull;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -76,6 +85,12 @@ public class DocumentController
     @Autowired
     private DocumentConverter converterDocument;
 
+    /**
+     * Query monitor.
+     */
+    @Autowired
+    private QueryMonitor monitor;
+
     /**
      * Service to count the number of documents.
      * @return Number of documents.
@@ -169,6 +184,25 @@ public class DocumentController
         return ResponseEntity.ok(String.format("%s metadata updated successfully", document.getIdentity()));
     }
 
+    /**
+     * Patch a document metadata with a JSON Merge Patch document.
+     * @param documentId Document identifier to patch.
+     * @param patch Merge patch document holding only the metadata properties to update.
+     * @return Response.
+     * @throws EntityException Thrown to indicate an error occurred while trying to patch a document metadata.
+     */
+    @Operation(summary = "Patch a document metadata", description = "Patch a document metadata with a JSON Merge Patch document holding only the properties to update.")
+    @PatchMapping(value = "/patch/metadata/{documentId}", consumes = { MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE })
+    public ResponseEntity<String> patchMetadata(
+            @Parameter(name = "documentId", description = "Document identifier (UUID)", required = true)
+            @PathVariable UUID documentId,
+            @RequestBody Map<String, Object> patch) throws EntityException
+    {
+        DocumentServer document = servicePerson.getDocumentService().patchMetadata(documentId, patch);
+
+        return ResponseEntity.ok(String.format("%s metadata patched successfully", document.getIdentity()));
+    }
+
     /**
      * Update a document content information.
      * @param documentId Document identifier to update.
@@ -333,14 +367,48 @@ public class DocumentController
             @Parameter(name = "parentId", description = "Parent entity identifier (UUID).", required = true)
             @PathVariable UUID parentId) throws EntityException
     {
-        List<DocumentClient> list = servicePerson.getDocumentService().findByParentId(parentId)
-                .stream()
-                .map(element -> converterDocument.fromServerToClient(element))
-                .toList();
+        List<DocumentClient> list = converterDocument.fromServerToClient(servicePerson.getDocumentService().findByParentId(parentId));
 
         return ResponseEntity.ok(list);
     }
 
+    /**
+     * Retrieve a page of the documents belonging to the given parent entity (most recent first).
+     * @param parentId Parent entity identifier.
+     * @param cursor Cursor returned with the previous page.
+     * @param size Page size.
+     * @return Page of documents.
+     * @throws QueryConditionException Thrown to indicate the cursor is invalid.
+     */
+    @Operation(summary = "Retrieve a page of the documents of a parent entity.", description = "Retrieve a page of the documents belonging to a given parent entity, the most recent first. Pass the cursor of a page to get the next one.")
+    @GetMapping(value = "/parent/{parentId}/page", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<QueryPage<DocumentClient>> getParentDocumentPage(
+            @Parameter(name = "parentId", description = "Parent entity identifier (UUID).", required = true)
+            @PathVariable UUID parentId,
+            @Parameter(description = "Cursor returned with the previous page (none for the first page)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size")
+            @RequestParam(defaultValue = "50") int size) throws QueryConditionException
+    {
+        QueryPage<DocumentServer> page = servicePerson.getDocumentService().findByParentId(parentId, cursor, size);
+
+        return ResponseEntity.ok(new QueryPage<>(converterDocument.fromServerToClient(page.getItems()), page.getNextCursor()));
+    }
+
+    /**
+     * Count the documents belonging to the given parent entity.
+     * @param parentId Parent entity identifier.
+     * @return Number of documents.
+     */
+    @Operation(summary = "Count the documents of a parent entity.", description = "Count the documents belonging to a given parent entity without retrieving them.")
+    @GetMapping(value = "/parent/{parentId}/count", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Long> countParentDocuments(
+            @Parameter(name = "parentId", description = "Parent entity identifier (UUID).", required = true)
+            @PathVariable UUID parentId)
+    {
+        return ResponseEntity.ok(servicePerson.getDocumentService().countByParentId(parentId));
+    }
+
     /**
      * Download a document content.
      * @param documentId Document identifier.
@@ -376,11 +444,57 @@ public class DocumentController
     {
         query.validate();
 
-        List<DocumentClient> list = servicePerson.getDocumentService().search(query)
-                .stream()
-                .map(element -> converterDocument.fromServerToClient(element))
-                .toList();
+        List<DocumentClient> list = converterDocument.fromServerToClient(servicePerson.getDocumentService().search(query));
+        monitor.converted(query, list.size());
 
         return ResponseEntity.ok(list);
     }
+
+    /**
+     * Query for documents matching the given filter.
+     * @param filter Filter, for example: {@code filename~"*.pdf" and statusType=ACTIVE}.
+     * @return List of matching documents.
+     * @throws QueryConditionException Thrown to indicate an error occurred when querying for documents.
+     */
+    @Operation(summary = "Filter documents", description = "Query for documents matching a compact filter expression.")
+    @GetMapping(value = "/filter", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<DocumentClient>> filter(
+            @Parameter(description = "Filter, for example: filename~\"*.pdf\" and statusType=ACTIVE", required = true)
+            @NotNull @RequestParam String filter) throws QueryConditionException
+    {
+        return query(QueryFilterParser.parse(filter, new DocumentQuery()));
+    }
+
+    /**
+     * Compute an aggregate on the documents matching the given query conditions.
+     * @param query Document query object.
+     * @param function Aggregate function.
+     * @param field Field the aggregate function applies to.
+     * @param groupBy Field to group by.
+     * @param bucket Date bucket.
+     * @return List of aggregate results (one per group).
+     * @throws QueryConditionException Thrown to indicate an error occurred when aggregating documents.
+     */
+    @Operation(summary = "Aggregate documents", description = "Compute an aggregate (count, min, max, sum) on the documents matching a given query object, optionally grouped by a field.")
+    @PatchMapping(value = "/aggregate", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE) // PATCH method Because a GET method cannot have a request body!
+    public ResponseEntity<List<AggregateResult>> aggregate(
+            final @RequestBody @NotNull DocumentQuery query,
+            @Parameter(description = "Aggregate function", required = true)
+            @NotNull @RequestParam AggregateFunctionType function,
+            @Parameter(description = "Field the aggregate function applies to (optional for a count)")
+            @RequestParam(required = false) String field,
+            @Parameter(description = "Field to group by")
+            @RequestParam(required = false) String groupBy,
+            @Parameter(description = "Date bucket (required to group by a date field)")
+            @RequestParam(required = false) DateBucketType bucket) throws QueryConditionException
+    {
+        QueryAggregate aggregate = QueryAggregate.builder()
+                .withFunction(function)
+                .withField(field)
+                .withGroupBy(groupBy)
+                .withBucket(bucket)
+                .build();
+
+        return ResponseEntity.ok(servicePerson.getDocumentService().aggregate(query, aggregate));
+    }
 }
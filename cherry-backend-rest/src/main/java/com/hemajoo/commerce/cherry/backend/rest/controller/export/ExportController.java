@@ -0,0 +1,94 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.rest.controller.export;
+
+import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkFormat;
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.IBulkExportService;
+import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * <b>REST controller</b> exposing endpoints to export the entities.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Tag(name = "Export REST controller", description = "Set of REST-API endpoints to export the entities.")
+@Validated
+@RestController
+@RequestMapping("/api/v1/export")
+public class ExportController
+{
+    /**
+     * Bulk export service.
+     */
+    @Autowired
+    private IBulkExportService exportService;
+
+    /**
+     * Export the entities of an entity type as a gzip compressed stream.
+     * @param type Entity type.
+     * @param format Bulk format.
+     * @param after Identifier of the last entity of a previous export to resume from.
+     * @return Streamed export.
+     * @throws EntityException Thrown to indicate the entities of the entity type cannot be exported.
+     */
+    @Operation(summary = "Export entities.", description = "Export the entities (person, email address, postal address or document) ordered by identifier, as a gzip file of the NDJSON or CSV stream. An interrupted export is resumed by giving the identifier of the last exported entity.")
+    @GetMapping("/{type}")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(description = "Entity type", required = true)
+            @NotNull @PathVariable EntityType type,
+            @Parameter(description = "Bulk format")
+            @RequestParam(defaultValue = "NDJSON") BulkFormat format,
+            @Parameter(description = "Identifier of the last exported entity to resume from")
+            @RequestParam(required = false) UUID after) throws EntityException
+    {
+        if (!exportService.isExportable(type))
+        {
+            throw new EntityException(String.format("Entity type: '%s' cannot be exported!", type));
+        }
+
+        StreamingResponseBody body = output -> {
+            try (GZIPOutputStream compressed = new GZIPOutputStream(output, 65536))
+            {
+                exportService.export(type, format, after, compressed);
+            }
+            catch (EntityException e)
+            {
+                throw new IOException(e.getMessage(), e);
+            }
+        };
+
+        // The stream is delivered as a gzip file (not with a gzip content encoding a client would transparently decode).
+        return ResponseEntity.ok()
+                .contentType(new MediaType("application", "gzip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, String.format("attachment; filename=\"%s.%s.gz\"", type.name().toLowerCase(), format.name().toLowerCase()))
+                .body(body);
+    }
+}
@@ -18,6 +18,8 @@ import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.EntityFactory;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServerEntity;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
+import com.hemajoo.commerce.cherry.backend.persistence.base.mapper.MergePatch;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryMonitor;
 import com.hemajoo.commerce.cherry.backend.persistence.person.converter.EmailAddressConverter;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.EmailAddressServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.EmailAddressRandomizer;
@@ -30,6 +32,7 @@ import com.hemajoo.commerce.cherry.backend.persistence.person.validation.validat
 import com.hemajoo.commerce.cherry.backend.shared.base.converter.GenericEntityConverter;
 import com.hemajoo.commerce.cherry.backend.shared.base.entity.EntityException;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.filter.QueryFilterParser;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressClient;
 import com.hemajoo.commerce.cherry.backend.shared.person.address.email.EmailAddressException;
@@ -50,6 +53,7 @@ import org.springframework.web.bind.annotation.*;
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -86,6 +90,12 @@ public class EmailAddressController
     @Autowired
     private EntityFactory factory;
 
+    /**
+     * Query monitor.
+     */
+    @Autowired
+    private QueryMonitor monitor;
+
     /**
      * Service to count the number of email addresses.
      * @return Number of email addresses.
@@ -183,6 +193,27 @@ public class EmailAddressController
         return ResponseEntity.ok(client);
     }
 
+    /**
+     * Service to patch an email address with a JSON Merge Patch document.
+     * <br>
+     * The patched email address is validated by the service as for an update.
+     * @param id Email address identifier.
+     * @param patch Merge patch document holding only the properties to update.
+     * @return Updated email address.
+     * @throws EntityException Thrown to indicate an error occurred while trying to patch an email address.
+     */
+    @Operation(summary = "Patch an email address", description = "Patch an email address with a JSON Merge Patch document holding only the properties to update.")
+    @PatchMapping(value = "/patch/{id}", consumes = { MergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE }, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<EmailAddressClient> patch(
+            @Parameter(description = "Email address identifier (UUID)", required = true)
+            @NotNull @Valid @ValidEmailAddressId @PathVariable String id,
+            @NotNull @RequestBody Map<String, Object> patch) throws EntityException
+    {
+        EmailAddressServer updated = servicePerson.getEmailAddressService().patch(UUID.fromString(id), patch);
+
+        return ResponseEntity.ok(converterEmailAddress.fromServerToClient(updated));
+    }
+
     /**
      * Service to delete an email address given its identifier.
      * @param id Email address identifier.
@@ -216,35 +247,35 @@ public class EmailAddressController
     {
         EmailAddressValidationEngine.isSearchValid(search);
 
-        List<EmailAddressClient> clients = servicePerson.getEmailAddressService().search(search)
-                .stream()
-                .map(element -> converterEmailAddress.fromServerToClient(element))
-                .toList();
+        List<EmailAddressClient> clients = converterEmailAddress.fromServerToClient(servicePerson.getEmailAddressService().search(search));
+        monitor.converted(search, clients.size());
 
         return ResponseEntity.ok(clients);
     }
 
     /**
      * Service to query for email addresses identifiers matching some criteria.
-     * @param search Email address specification criteria.
+     * @param filter Email address filter, for example: {@code email~"*@gmail.com" and statusType=ACTIVE}.
      * @return List of matching email address identifiers.
      * @throws EmailAddressException Thrown to indicate an error occurred while trying to query for email addresses.
+     * @throws QueryConditionException Thrown to indicate the filter is invalid.
      */
-    @Operation(summary = "Query email addresses", description = "Returns a list of email addresses matching the given criteria.")
+    @Operation(summary = "Query email addresses", description = "Returns a list of email addresses matching the given filter.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Successful query"),
             @ApiResponse(responseCode = "404", description = "No email address found matching the given criteria"),
             @ApiResponse(responseCode = "400", description = "Missing or invalid request"),
             @ApiResponse(responseCode = "500", description = "Internal server error")})
     @GetMapping("/query")
-    public ResponseEntity<List<String>> query(final @NotNull EmailAddressQuery search) throws EmailAddressException, QueryConditionException
+    public ResponseEntity<List<String>> query(
+            @Parameter(description = "Filter, for example: email~\"*@gmail.com\" and statusType=ACTIVE", required = true)
+            @NotNull @RequestParam String filter) throws EmailAddressException, QueryConditionException
     {
+        EmailAddressQuery search = QueryFilterParser.parse(filter, new EmailAddressQuery());
         EmailAddressValidationEngine.isSearchValid(search);
 
-        List<EmailAddressClient> clients = servicePerson.getEmailAddressService().search(search)
-                .stream()
-                .map(element -> converterEmailAddress.fromServerToClient(element))
-                .toList();
+        List<EmailAddressClient> clients = converterEmailAddress.fromServerToClient(servicePerson.getEmailAddressService().search(search));
+        monitor.converted(search, clients.size());
 
         return ResponseEntity.ok(GenericEntityConverter.toIdList(clients));
     }
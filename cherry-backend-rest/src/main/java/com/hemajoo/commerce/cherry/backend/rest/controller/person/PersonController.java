@@ -14,26 +14,41 @@
  */
 package com.hemajoo.commerce.cherry.backend.rest.controller.person;
 
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkFormat;
+import com.hemajoo.commerce.cherry.backend.persistence.base.bulk.BulkImportReport;
 import com.hemajoo.commerce.cherry.backend.persistence.base.entity.ServiceFactoryPerson;
 import com.hemajoo.commerce.cherry.backend.persistence.person.converter.PersonConverter;
 import com.hemajoo.commerce.cherry.backend.persistence.person.entity.PersonServer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.randomizer.PersonRandomizer;
 import com.hemajoo.commerce.cherry.backend.persistence.person.validation.constraint.ValidPersonId;
 import com.hemajoo.commerce.cherry.backend.persistence.person.validation.engine.EmailAddressValidationEngine;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateFunctionType;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateResult;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.DateBucketType;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.QueryAggregate;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
 import com.hemajoo.commerce.cherry.backend.shared.document.exception.DocumentException;
+import com.hemajoo.commerce.cherry.backend.shared.person.PersonAggregateClient;
 import com.hemajoo.commerce.cherry.backend.shared.person.PersonClient;
 import com.hemajoo.commerce.cherry.backend.shared.person.PersonException;
+import com.hemajoo.commerce.cherry.backend.shared.person.PersonQuery;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
 /**
  * Controller providing service endpoints to manage the persons.
@@ -92,6 +107,23 @@ public class PersonController
         return ResponseEntity.ok(converterPerson.fromServerToClient(person));
     }
 
+    /**
+     * Service to retrieve a person with its email addresses, phone numbers, postal addresses and documents.
+     * @param id Person identifier.
+     * @return Person aggregate matching the given identifier.
+     */
+    @Operation(summary = "Retrieve a person aggregate", description = "Retrieve a person with its email addresses, phone numbers, postal addresses and the documents of the person and of these child entities in a single call.")
+    @GetMapping("/aggregate/{id}")
+    public ResponseEntity<PersonAggregateClient> getAggregate(
+            @Parameter(description = "Person identifier", required = true)
+            @Valid @ValidPersonId // Handles person id validation automatically, need both annotations!
+            @NotNull
+            @PathVariable String id)
+    {
+        PersonServer person = servicePerson.getPersonService().findAggregateById(UUID.fromString(id));
+        return ResponseEntity.ok(converterPerson.fromServerToAggregateClient(person));
+    }
+
 //    /**
 //     * Service to add a new person.
 //     * @param person Email address.
@@ -159,6 +191,61 @@ public class PersonController
         return ResponseEntity.ok(String.format("Person id: '%s' has been deleted successfully!", id));
     }
 
+    /**
+     * Service to import persons (with their email addresses and phone numbers) from a CSV or NDJSON input.
+     * @param format Bulk format.
+     * @param encoding Content encoding of the request body ({@code gzip} for a compressed input).
+     * @param input Request body.
+     * @return Import report.
+     * @throws PersonException Thrown to indicate an error occurred when reading the input.
+     * @throws IOException Thrown to indicate an error occurred when decompressing the input.
+     */
+    @Operation(summary = "Import persons", description = "Import persons with their email addresses and phone numbers from a CSV (header line first, email and phone columns may be repeated) or NDJSON input. Invalid records are reported while the valid ones are imported.")
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" }, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<BulkImportReport> importPersons(
+            @Parameter(description = "Bulk format", required = true)
+            @NotNull @RequestParam BulkFormat format,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String encoding,
+            final InputStream input) throws PersonException, IOException
+    {
+        InputStream body = "gzip".equalsIgnoreCase(encoding) ? new GZIPInputStream(input) : input;
+
+        return ResponseEntity.ok(servicePerson.getPersonImportService().importPersons(format, body));
+    }
+
+    /**
+     * Service to compute an aggregate on the persons matching the given query conditions.
+     * @param query Person query object.
+     * @param function Aggregate function.
+     * @param field Field the aggregate function applies to.
+     * @param groupBy Field to group by.
+     * @param bucket Date bucket.
+     * @return List of aggregate results (one per group).
+     * @throws QueryConditionException Thrown to indicate an error occurred when aggregating persons.
+     */
+    @Operation(summary = "Aggregate persons", description = "Compute an aggregate (count, min, max, sum) on the persons matching a given query object, optionally grouped by a field.")
+    @PatchMapping(value = "/aggregate", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE) // PATCH method Because a GET method cannot have a request body!
+    public ResponseEntity<List<AggregateResult>> aggregate(
+            final @RequestBody @NotNull PersonQuery query,
+            @Parameter(description = "Aggregate function", required = true)
+            @NotNull @RequestParam AggregateFunctionType function,
+            @Parameter(description = "Field the aggregate function applies to (optional for a count)")
+            @RequestParam(required = false) String field,
+            @Parameter(description = "Field to group by")
+            @RequestParam(required = false) String groupBy,
+            @Parameter(description = "Date bucket (required to group by a date field)")
+            @RequestParam(required = false) DateBucketType bucket) throws QueryConditionException
+    {
+        QueryAggregate aggregate = QueryAggregate.builder()
+                .withFunction(function)
+                .withField(field)
+                .withGroupBy(groupBy)
+                .withBucket(bucket)
+                .build();
+
+        return ResponseEntity.ok(servicePerson.getPersonService().aggregate(query, aggregate));
+    }
+
 //    /**
 //     * Service to search for email addresses given some criteria.
 //     * @param search Email address specification object.
@@ -0,0 +1,169 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.rest.controller.query;
+
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.CacheStatistics;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.EntityCacheMonitor;
+import com.hemajoo.commerce.cherry.backend.persistence.base.cache.QueryResultCache;
+import com.hemajoo.commerce.cherry.backend.persistence.base.datasource.DataSourcePoolStatistics;
+import com.hemajoo.commerce.cherry.backend.persistence.base.datasource.ReadWriteRoutingDataSource;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryAggregator;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryMonitor;
+import com.hemajoo.commerce.cherry.backend.persistence.base.query.QueryShapeStatistics;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityIdFilter;
+import com.hemajoo.commerce.cherry.backend.persistence.base.registry.EntityIdFilterStatistics;
+import com.hemajoo.commerce.cherry.backend.persistence.document.index.DocumentContentIndexStatistics;
+import com.hemajoo.commerce.cherry.backend.persistence.document.index.DocumentContentIndexer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <b>REST controller</b> exposing endpoints to monitor the queries.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@Tag(name = "Query REST controller", description = "Set of REST-API endpoints to monitor the queries.")
+@Validated
+@RestController
+@RequestMapping("/api/v1/query")
+public class QueryController
+{
+    /**
+     * Query result cache.
+     */
+    @Autowired
+    private QueryResultCache queryCache;
+
+    /**
+     * Second-level cache monitor.
+     */
+    @Autowired
+    private EntityCacheMonitor entityCacheMonitor;
+
+    /**
+     * Query aggregator.
+     */
+    @Autowired
+    private QueryAggregator aggregator;
+
+    /**
+     * Query monitor.
+     */
+    @Autowired
+    private QueryMonitor monitor;
+
+    /**
+     * Entity identifier filter.
+     */
+    @Autowired
+    private EntityIdFilter idFilter;
+
+    /**
+     * Document content indexer.
+     */
+    @Autowired
+    private DocumentContentIndexer contentIndexer;
+
+    /**
+     * Read/write routing data source (only available when read replicas are configured).
+     */
+    @Autowired(required = false)
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    /**
+     * Retrieve the statistics of the slowest query shapes.
+     * @param top Maximum number of query shapes to return.
+     * @return List of query shape statistics, the slowest (by average execution time) first.
+     */
+    @Operation(summary = "Retrieve the slowest query shapes.", description = "Retrieve the execution time histogram, the rows and the statements of the slowest query shapes.")
+    @GetMapping(value = "/statistics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<QueryShapeStatistics>> getStatistics(
+            @Parameter(description = "Maximum number of query shapes to return")
+            @RequestParam(defaultValue = "10") int top)
+    {
+        return ResponseEntity.ok(monitor.getSlowest(top));
+    }
+
+    /**
+     * Reset the statistics of the query shapes.
+     * @return Confirmation message.
+     */
+    @Operation(summary = "Reset the query shape statistics.")
+    @DeleteMapping("/statistics")
+    public ResponseEntity<String> resetStatistics()
+    {
+        monitor.reset();
+
+        return ResponseEntity.ok("Query statistics have been reset successfully!");
+    }
+
+    /**
+     * Retrieve the statistics of the query caches.
+     * @return List of cache statistics (one per entity type, one for the aggregates and one per second-level cache region).
+     */
+    @Operation(summary = "Retrieve the query cache statistics.", description = "Retrieve the hit rate, the size and the staleness of the query caches and the hit rate of the second-level cache regions.")
+    @GetMapping(value = "/cache/statistics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<CacheStatistics>> getCacheStatistics()
+    {
+        List<CacheStatistics> statistics = new ArrayList<>(queryCache.getStatistics());
+        statistics.add(aggregator.getStatistics());
+        statistics.addAll(entityCacheMonitor.getStatistics());
+
+        return ResponseEntity.ok(statistics);
+    }
+
+    /**
+     * Retrieve the statistics of the connection pools of the primary database and of the read replicas.
+     * @return List of pool statistics, the primary pool first (empty if no read replica is configured).
+     */
+    @Operation(summary = "Retrieve the connection pool statistics.", description = "Retrieve the routed connections, the replication lag and the usage of the primary and read replica connection pools.")
+    @GetMapping(value = "/datasource/statistics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<DataSourcePoolStatistics>> getDataSourceStatistics()
+    {
+        return ResponseEntity.ok(routingDataSource != null ? routingDataSource.getStatistics() : Collections.emptyList());
+    }
+
+    /**
+     * Retrieve the statistics of the entity identifier filters.
+     * @return List of entity identifier filter statistics (one per entity type, empty until the filters are built).
+     */
+    @Operation(summary = "Retrieve the entity identifier filter statistics.", description = "Retrieve the memory, the false positive rate and the rejected lookups of the entity identifier filters.")
+    @GetMapping(value = "/entity/filter/statistics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<List<EntityIdFilterStatistics>> getEntityFilterStatistics()
+    {
+        return ResponseEntity.ok(idFilter.getStatistics());
+    }
+
+    /**
+     * Retrieve the statistics of the document content index.
+     * @return Document content index statistics.
+     */
+    @Operation(summary = "Retrieve the document content index statistics.", description = "Retrieve the queued, indexed, rejected and failed documents of the document content index.")
+    @GetMapping(value = "/document/index/statistics", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<DocumentContentIndexStatistics> getDocumentIndexStatistics()
+    {
+        return ResponseEntity.ok(contentIndexer.getStatistics());
+    }
+}
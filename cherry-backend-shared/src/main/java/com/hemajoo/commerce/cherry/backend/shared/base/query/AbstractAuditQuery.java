@@ -16,6 +16,8 @@ package com.hemajoo.commerce.cherry.backend.shared.base.query;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.hemajoo.commerce.cherry.backend.commons.type.EntityType;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.AggregateFunctionType;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.QueryAggregate;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryCondition;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryField;
@@ -25,9 +27,14 @@ import lombok.NonNull;
 import lombok.extern.log4j.Log4j2;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.*;
 
 /**
  * Represents an abstract <b>query</b> object for the <b>audit</b> part of entities.
@@ -111,9 +118,16 @@ public abstract class AbstractAuditQuery implements IQuery, Serializable
         }
 
         QueryField field = fields.stream().filter(e -> e.getFieldName().equals(condition.getField())).findAny().orElse(null);
-        if (field != null && field.getFieldType() == DataType.ENUM)
+        if (field != null)
         {
-            checkConditionForEnumField(field, condition);
+            if (field.getFieldType() == DataType.ENUM)
+            {
+                checkConditionForEnumField(field, condition);
+            }
+
+            checkConditionForTagOperator(condition);
+            checkConditionForTextField(field, condition);
+            convertConditionValues(field, condition);
         }
 
         return (T) this;
@@ -141,6 +155,47 @@ public abstract class AbstractAuditQuery implements IQuery, Serializable
         }
     }
 
+    /**
+     * Checks the {@link QueryOperatorType#HAS_TAG} operator is only used on the tags field.
+     * @param condition Query condition.
+     * @throws QueryConditionException Thrown to indicate an error occurred with a query condition.
+     */
+    private void checkConditionForTagOperator(final @NonNull QueryCondition condition) throws QueryConditionException
+    {
+        if (condition.getOperator() == QueryOperatorType.HAS_TAG && !BaseEntityQuery.BASE_TAGS.equals(condition.getField()))
+        {
+            String message = String.format("Invalid query condition for field with name: '%s', with operator: '%s'! This operator is only allowed for field: '%s'",
+                    condition.getField(),
+                    condition.getOperator(),
+                    BaseEntityQuery.BASE_TAGS);
+            LOGGER.error(message);
+
+            throw new QueryConditionException(message);
+        }
+    }
+
+    /**
+     * Checks the {@link QueryOperatorType#FULL_TEXT} operator is used on the fields of type {@link DataType#TEXT}, and only on them.
+     * @param field Field.
+     * @param condition Query condition.
+     * @throws QueryConditionException Thrown to indicate an error occurred with a query condition.
+     */
+    private void checkConditionForTextField(final @NonNull QueryField field, final @NonNull QueryCondition condition) throws QueryConditionException
+    {
+        if ((field.getFieldType() == DataType.TEXT) != (condition.getOperator() == QueryOperatorType.FULL_TEXT))
+        {
+            String message = String.format("Invalid query condition for field with name: '%s', with type: '%s', with operator: '%s'! Operator: '%s' is only allowed (and required) for fields of type: '%s'",
+                    condition.getField(),
+                    field.getFieldType(),
+                    condition.getOperator(),
+                    QueryOperatorType.FULL_TEXT,
+                    DataType.TEXT);
+            LOGGER.error(message);
+
+            throw new QueryConditionException(message);
+        }
+    }
+
     @JsonIgnore
     @Override
     public final GenericSpecification<?> getSpecification()
@@ -160,7 +215,333 @@ public abstract class AbstractAuditQuery implements IQuery, Serializable
     @Override
     public void validate() throws QueryConditionException
     {
-        // TODO Implement checks of the conditions...
+        QueryField field;
+
+        for (QueryCondition condition : conditions)
+        {
+            field = fields.stream().filter(f -> f.getFieldName().equals(condition.getField())).findAny().orElse(null);
+            if (field == null)
+            {
+                String message = String.format("Query condition for field with name: '%s' is not part of the entity class hierarchy for: '%s'!",
+                        condition.getField(),
+                        this.getClass().getName());
+                LOGGER.error(message);
+
+                throw new QueryConditionException(message);
+            }
+
+            if (field.getFieldType() == DataType.ENUM)
+            {
+                checkConditionForEnumField(field, condition);
+            }
+
+            checkConditionForTagOperator(condition);
+            checkConditionForTextField(field, condition);
+            convertConditionValues(field, condition);
+        }
+    }
+
+    @Override
+    public void validate(final @NonNull QueryAggregate aggregate) throws QueryConditionException
+    {
+        if (aggregate.getFunction() == null)
+        {
+            throwAggregateException(aggregate, "An aggregate function is required!");
+        }
+
+        if (aggregate.getGroupBy() != null)
+        {
+            QueryField group = getAggregateField(aggregate, aggregate.getGroupBy());
+            if (group.getFieldType() == DataType.DATE && aggregate.getBucket() == null)
+            {
+                throwAggregateException(aggregate, String.format("A date bucket is required to group by date field: '%s'!", group.getFieldName()));
+            }
+            if (group.getFieldType() != DataType.DATE && aggregate.getBucket() != null)
+            {
+                throwAggregateException(aggregate, String.format("A date bucket can only be used to group by a date field, not: '%s'!", group.getFieldName()));
+            }
+        }
+        else if (aggregate.getBucket() != null)
+        {
+            throwAggregateException(aggregate, "A date bucket requires a group by field!");
+        }
+
+        if (aggregate.getField() == null)
+        {
+            if (aggregate.getFunction() != AggregateFunctionType.COUNT)
+            {
+                throwAggregateException(aggregate, String.format("Aggregate function: '%s' requires a field!", aggregate.getFunction()));
+            }
+
+            return;
+        }
+
+        DataType type = getAggregateField(aggregate, aggregate.getField()).getFieldType();
+        boolean isNumeric = type == DataType.INTEGER || type == DataType.LONG || type == DataType.DOUBLE || type == DataType.FLOAT;
+        if ((aggregate.getFunction() == AggregateFunctionType.SUM && !isNumeric)
+                || ((aggregate.getFunction() == AggregateFunctionType.MIN || aggregate.getFunction() == AggregateFunctionType.MAX) && !isNumeric && type != DataType.DATE && type != DataType.STRING))
+        {
+            throwAggregateException(aggregate, String.format("Aggregate function: '%s' cannot be applied on field: '%s' of type: '%s'!", aggregate.getFunction(), aggregate.getField(), type));
+        }
+    }
+
+    /**
+     * Returns the query field referenced by an aggregate.
+     * @param aggregate Aggregate.
+     * @param name Field name.
+     * @return Query field.
+     * @throws QueryConditionException Thrown to indicate the field is not part of the query object.
+     */
+    private QueryField getAggregateField(final @NonNull QueryAggregate aggregate, final @NonNull String name) throws QueryConditionException
+    {
+        QueryField field = fields.stream().filter(f -> f.getFieldName().equals(name)).findAny().orElse(null);
+        if (field == null)
+        {
+            throwAggregateException(aggregate, String.format("Field with name: '%s' is not part of the entity class hierarchy for: '%s'!", name, this.getClass().getName()));
+        }
+        else if (field.getFieldType() == DataType.TEXT)
+        {
+            throwAggregateException(aggregate, String.format("Field with name: '%s' of type: '%s' cannot be aggregated!", name, DataType.TEXT));
+        }
+
+        return field;
+    }
+
+    /**
+     * Throws a query condition exception for an invalid aggregate.
+     * @param aggregate Aggregate.
+     * @param reason Reason.
+     * @throws QueryConditionException Thrown to indicate the aggregate is invalid.
+     */
+    private void throwAggregateException(final @NonNull QueryAggregate aggregate, final @NonNull String reason) throws QueryConditionException
+    {
+        String message = String.format("Invalid aggregate: '%s'! %s", aggregate, reason);
+        LOGGER.error(message);
+
+        throw new QueryConditionException(message);
+    }
+
+    @JsonIgnore
+    @Override
+    public boolean isEmpty()
+    {
+        return conditions.isEmpty();
+    }
+
+    @Override
+    public String canonicalize()
+    {
+        return describe(true);
+    }
+
+    @Override
+    public String shape()
+    {
+        return describe(false);
+    }
+
+    /**
+     * Returns a description of the query object made of its sorted conditions.
+     * @param withValues Should the condition values be part of the description?
+     * @return Description.
+     */
+    private String describe(final boolean withValues)
+    {
+        List<String> list = new ArrayList<>(conditions.size());
+
+        for (QueryCondition condition : conditions)
+        {
+            StringBuilder builder = new StringBuilder()
+                    .append(condition.getField())
+                    .append(' ')
+                    .append(condition.getOperator());
+
+            if (withValues && condition.getValues() != null)
+            {
+                builder.append(' ');
+                for (Object value : condition.getValues())
+                {
+                    // Dates are rendered as epoch milliseconds to be independent of their time zone and of their concrete class.
+                    builder.append(value instanceof Date date ? String.valueOf(date.getTime()) : String.valueOf(value)).append('|');
+                }
+            }
+
+            list.add(builder.toString());
+        }
+
+        Collections.sort(list);
+
+        return getClass().getSimpleName() + list;
+    }
+
+    /**
+     * Converts the values of a query condition to the Java type matching the {@link DataType} of its field.
+     * <br>
+     * Values are converted once so that the predicates built by the {@link GenericSpecification} are bound with
+     * typed parameters (and not strings) allowing the database to use its indexes. Pattern based operators
+     * (<b>match</b>, <b>contains</b>, <b>start with</b>, <b>end with</b>) keep their string values.
+     * @param field Field.
+     * @param condition Query condition.
+     * @throws QueryConditionException Thrown to indicate a value cannot be converted to the field data type.
+     */
+    private void convertConditionValues(final @NonNull QueryField field, final @NonNull QueryCondition condition) throws QueryConditionException
+    {
+        if (condition.getValues() == null || isPatternOperator(condition.getOperator()))
+        {
+            return;
+        }
+
+        List<Object> values = new ArrayList<>(condition.getValues().size());
+        for (Object value : condition.getValues())
+        {
+            values.add(convertValue(field, condition, value));
+        }
+
+        condition.setValues(values);
+    }
+
+    /**
+     * Returns if the given operator is a pattern based operator.
+     * @param operator Query operator type.
+     * @return {@code True} if the operator is a pattern based one, {@code false} otherwise.
+     */
+    private static boolean isPatternOperator(final QueryOperatorType operator)
+    {
+        return operator == QueryOperatorType.MATCH
+                || operator == QueryOperatorType.CONTAINS
+                || operator == QueryOperatorType.START_WITH
+                || operator == QueryOperatorType.END_WITH;
+    }
+
+    /**
+     * Converts a query condition value to the Java type matching the {@link DataType} of its field.
+     * @param field Field.
+     * @param condition Query condition.
+     * @param value Value to convert.
+     * @return Converted value.
+     * @throws QueryConditionException Thrown to indicate the value cannot be converted to the field data type.
+     */
+    private Object convertValue(final @NonNull QueryField field, final @NonNull QueryCondition condition, final Object value) throws QueryConditionException
+    {
+        if (value == null)
+        {
+            return null;
+        }
+
+        DataType type = condition.getOperator() == QueryOperatorType.EQUAL_OBJECT_UUID ? DataType.UUID : field.getFieldType();
+
+        try
+        {
+            switch (type)
+            {
+                case DATE:
+                    return convertToDate(value);
+                case LONG:
+                    return value instanceof Number number ? Long.valueOf(number.longValue()) : Long.valueOf(value.toString().trim());
+                case INTEGER:
+                    return value instanceof Number number ? Integer.valueOf(number.intValue()) : Integer.valueOf(value.toString().trim());
+                case DOUBLE:
+                    return value instanceof Number number ? Double.valueOf(number.doubleValue()) : Double.valueOf(value.toString().trim());
+                case FLOAT:
+                    return value instanceof Number number ? Float.valueOf(number.floatValue()) : Float.valueOf(value.toString().trim());
+                case BOOLEAN:
+                    return value instanceof Boolean ? value : convertToBoolean(value.toString().trim());
+                case UUID:
+                    return value instanceof UUID ? value : UUID.fromString(value.toString().trim());
+                case ENUM:
+                    return convertToEnum(field, value);
+                case STRING:
+                default:
+                    return value instanceof String ? value : value.toString();
+            }
+        }
+        catch (IllegalArgumentException | DateTimeParseException e)
+        {
+            String message = String.format("Cannot convert value: '%s' of query condition for field with name: '%s' to type: '%s'!",
+                    value,
+                    condition.getField(),
+                    type);
+            LOGGER.error(message);
+
+            throw new QueryConditionException(message);
+        }
+    }
+
+    /**
+     * Converts a value to a date.
+     * <br>
+     * Accepted values are dates, numbers (epoch milliseconds) and ISO-8601 date or date-time strings.
+     * @param value Value to convert.
+     * @return Date.
+     */
+    private static Date convertToDate(final @NonNull Object value)
+    {
+        if (value instanceof Date date)
+        {
+            return date;
+        }
+
+        if (value instanceof Number number)
+        {
+            return new Date(number.longValue());
+        }
+
+        String text = value.toString().trim();
+        if (text.length() == 10) // Date only, ex: 2021-12-31
+        {
+            return Date.from(LocalDate.parse(text).atStartOfDay(ZoneId.systemDefault()).toInstant());
+        }
+
+        TemporalAccessor temporal = DateTimeFormatter.ISO_DATE_TIME.parseBest(text, ZonedDateTime::from, LocalDateTime::from);
+        if (temporal instanceof ZonedDateTime zoned)
+        {
+            return Date.from(zoned.toInstant());
+        }
+
+        return Date.from(((LocalDateTime) temporal).atZone(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Converts a value to a boolean.
+     * @param value Value to convert.
+     * @return Boolean.
+     */
+    private static Boolean convertToBoolean(final @NonNull String value)
+    {
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false"))
+        {
+            return Boolean.valueOf(value);
+        }
+
+        throw new IllegalArgumentException(String.format("Invalid boolean value: '%s'!", value));
+    }
+
+    /**
+     * Converts a value to an enumeration constant of the field class type.
+     * <br>
+     * If no enumeration class type has been declared for the field, the value is returned as is.
+     * @param field Field.
+     * @param value Value to convert.
+     * @return Enumeration constant.
+     */
+    private static Object convertToEnum(final @NonNull QueryField field, final @NonNull Object value)
+    {
+        Class<?> type = field.getFieldClassType();
+
+        if (type == null || !type.isEnum() || type.isInstance(value))
+        {
+            return value;
+        }
+
+        for (Object constant : type.getEnumConstants())
+        {
+            if (((Enum<?>) constant).name().equals(value.toString()) || constant.toString().equals(value.toString()))
+            {
+                return constant;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Invalid enumeration value: '%s' for type: '%s'!", value, type.getName()));
     }
 
     /**
@@ -113,6 +113,7 @@ public class BaseEntityQuery extends AbstractStatusQuery
         fields.add(QueryField.builder()
                 .withFieldName(BASE_ENTITY_TYPE)
                 .withFieldType(DataType.ENUM)
+                .withClassType(EntityType.class)
                 .build());
         fields.add(QueryField.builder()
                 .withFieldName(BASE_PARENT_ID)
@@ -153,6 +154,7 @@ public class BaseEntityQuery extends AbstractStatusQuery
         fields.add(QueryField.builder()
                 .withFieldName(BASE_ENTITY_TYPE)
                 .withFieldType(DataType.ENUM)
+                .withClassType(EntityType.class)
                 .build());
         fields.add(QueryField.builder()
                 .withFieldName(BASE_PARENT)
@@ -161,6 +163,7 @@ public class BaseEntityQuery extends AbstractStatusQuery
         fields.add(QueryField.builder()
                 .withFieldName(BASE_PARENT_TYPE)
                 .withFieldType(DataType.ENUM)
+                .withClassType(EntityType.class)
                 .build());
     }
 }
@@ -51,4 +51,9 @@ public enum DataType
      * Data type is a <b>boolean</b>.
      */
     BOOLEAN,
+
+    /**
+     * Data type is a <b>text</b> indexed for full-text searches (only searchable with the <b>full text</b> operator).
+     */
+    TEXT,
 }
@@ -23,8 +23,10 @@ import org.springframework.data.jpa.domain.Specification;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 import java.io.Serial;
 import java.util.*;
 
@@ -43,6 +45,31 @@ public final class GenericSpecification<T> implements Specification<T>
     @Serial
     private static final long serialVersionUID = 1900581010229669687L;
 
+    /**
+     * Name of the entity association to the tags of the tag index.
+     */
+    public static final String TAG_INDEX = "tagIndex";
+
+    /**
+     * Name of the tag attribute holding the (normalized) tag name.
+     */
+    public static final String TAG_NAME = "name";
+
+    /**
+     * Suffix of the name of the entity association to the full-text index entry of a text field.
+     */
+    public static final String TEXT_INDEX_SUFFIX = "Index";
+
+    /**
+     * Name of the full-text index entry attribute holding the text search vector.
+     */
+    public static final String TEXT_VECTOR = "vector";
+
+    /**
+     * Name of the database function matching a text search vector with a web search like query.
+     */
+    public static final String TEXT_MATCH_FUNCTION = "cherry_text_match";
+
     /**
      * List of search criteria.
      */
@@ -68,17 +95,17 @@ public final class GenericSpecification<T> implements Specification<T>
                     break;
                 case MATCH:
                     predicates.add(
-                            builder.like(builder.lower(root.get(criteria.getField())), criteria.getValues().get(0).toString().toLowerCase())
+                            match(builder, builder.lower(root.get(criteria.getField())), criteria.getValues().get(0).toString().toLowerCase())
                     );
                     break;
                 case LESS_THAN:
                     predicates.add(
-                            builder.lessThan(root.get(criteria.getField()), criteria.getValues().get(0).toString())
+                            builder.lessThan(root.<Comparable<Object>>get(criteria.getField()), asComparable(criteria.getValues().get(0)))
                     );
                     break;
                 case END_WITH:
                     predicates.add(
-                            builder.like(builder.lower(root.get(criteria.getField())),criteria.getValues().get(0).toString().toLowerCase() + "%")
+                            builder.like(builder.lower(root.get(criteria.getField())), "%" + criteria.getValues().get(0).toString().toLowerCase())
                     );
                     break;
                 case NOT_EQUAL:
@@ -88,27 +115,27 @@ public final class GenericSpecification<T> implements Specification<T>
                     break;
                 case GREATER_THAN:
                     predicates.add(
-                            builder.greaterThan(root.get(criteria.getField()), criteria.getValues().get(0).toString())
+                            builder.greaterThan(root.<Comparable<Object>>get(criteria.getField()), asComparable(criteria.getValues().get(0)))
                     );
                     break;
                 case START_WITH:
                     predicates.add(
-                            builder.like(builder.lower(root.get(criteria.getField())),"%" + criteria.getValues().get(0).toString().toLowerCase())
+                            builder.like(builder.lower(root.get(criteria.getField())), criteria.getValues().get(0).toString().toLowerCase() + "%")
                     );
                     break;
                 case CONTAINS:
                     predicates.add(
-                            builder.like(builder.lower(root.get(criteria.getField())),"%" + criteria.getValues().get(0).toString().toLowerCase() + "%")
+                            builder.like(builder.lower(root.get(criteria.getField())), "%" + criteria.getValues().get(0).toString().toLowerCase() + "%")
                     );
                     break;
                 case LESS_THAN_EQUAL:
                     predicates.add(
-                            builder.lessThanOrEqualTo(root.get(criteria.getField()), criteria.getValues().get(0).toString())
+                            builder.lessThanOrEqualTo(root.<Comparable<Object>>get(criteria.getField()), asComparable(criteria.getValues().get(0)))
                     );
                     break;
                 case GREATER_THAN_EQUAL:
                     predicates.add(
-                            builder.greaterThanOrEqualTo(root.get(criteria.getField()), criteria.getValues().get(0).toString())
+                            builder.greaterThanOrEqualTo(root.<Comparable<Object>>get(criteria.getField()), asComparable(criteria.getValues().get(0)))
                     );
                     break;
                 case EQUAL_OBJECT_UUID:
@@ -117,36 +144,19 @@ public final class GenericSpecification<T> implements Specification<T>
                     );
                     break;
                 case BETWEEN:
-                    if (criteria.getValues().get(0) instanceof Date value)
-                    {
-                        predicates.add(
-                                builder.between(root.get(criteria.getField()), (Date) criteria.getValues().get(0), (Date) criteria.getValues().get(1))
-                        );
-                    }
-                    if (criteria.getValues().get(0) instanceof Long value)
-                    {
-                        predicates.add(
-                                builder.between(root.get(criteria.getField()), (Long) criteria.getValues().get(0), (Long) criteria.getValues().get(1))
-                        );
-                    }
-                    if (criteria.getValues().get(0) instanceof Integer value)
-                    {
-                        predicates.add(
-                                builder.between(root.get(criteria.getField()), (Integer) criteria.getValues().get(0), (Integer) criteria.getValues().get(1))
-                        );
-                    }
-                    if (criteria.getValues().get(0) instanceof Double value)
-                    {
-                        predicates.add(
-                                builder.between(root.get(criteria.getField()), (Double) criteria.getValues().get(0), (Double) criteria.getValues().get(1))
-                        );
-                    }
-                    if (criteria.getValues().get(0) instanceof Float value)
-                    {
-                        predicates.add(
-                                builder.between(root.get(criteria.getField()), (Float) criteria.getValues().get(0), (Float) criteria.getValues().get(1))
-                        );
-                    }
+                    predicates.add(
+                            builder.between(root.<Comparable<Object>>get(criteria.getField()), asComparable(criteria.getValues().get(0)), asComparable(criteria.getValues().get(1)))
+                    );
+                    break;
+                case HAS_TAG:
+                    predicates.add(
+                            hasTag(root, query, builder, criteria.getValues().get(0).toString())
+                    );
+                    break;
+                case FULL_TEXT:
+                    predicates.add(
+                            matchText(root, query, builder, criteria.getField(), criteria.getValues().get(0).toString())
+                    );
                     break;
             }
         }
@@ -181,7 +191,7 @@ public final class GenericSpecification<T> implements Specification<T>
 
             if (!values.isEmpty())
             {
-                condition.setValues(Collections.singletonList(values));
+                condition.setValues(new ArrayList<>(values));
             }
         }
 
@@ -191,6 +201,92 @@ public final class GenericSpecification<T> implements Specification<T>
         }
     }
 
+    /**
+     * Creates a case-insensitive <b>match</b> predicate.
+     * <br>
+     * Without any wildcard, an equality on {@code lower(column)} is used (served by the btree {@code lower()} indexes) rather than a {@code like}.
+     * Otherwise, a {@code like} on {@code lower(column)} is used (served by the trigram indexes).
+     * @param builder Criteria builder.
+     * @param expression Lower cased field expression.
+     * @param value Lower cased value.
+     * @return Predicate.
+     */
+    private static Predicate match(final CriteriaBuilder builder, final Expression<String> expression, final String value)
+    {
+        if (value.indexOf('%') < 0 && value.indexOf('_') < 0)
+        {
+            return builder.equal(expression, value);
+        }
+
+        return builder.like(expression, value);
+    }
+
+    /**
+     * Creates a <b>has tag</b> predicate.
+     * <br>
+     * The tag is normalized the way the tag index stores it (trimmed and lower cased) and looked up through an {@code exists} sub-query
+     * on the tag index association, served by the unique index on the tag names and by the index on the tag identifiers of the entity tags.
+     * @param root Root entity.
+     * @param query Criteria query.
+     * @param builder Criteria builder.
+     * @param tag Tag.
+     * @param <T> Entity type.
+     * @return Predicate.
+     */
+    private static <T> Predicate hasTag(final Root<T> root, final CriteriaQuery<?> query, final CriteriaBuilder builder, final String tag)
+    {
+        Subquery<Integer> subquery = query.subquery(Integer.class);
+        Root<T> entity = subquery.correlate(root);
+
+        subquery.select(builder.literal(1))
+                .where(builder.equal(entity.join(TAG_INDEX).get(TAG_NAME), tag.trim().toLowerCase(Locale.ROOT)));
+
+        return builder.exists(subquery);
+    }
+
+    /**
+     * Creates a <b>full text</b> predicate.
+     * <br>
+     * The text of a field is searched through the entity association named after the field suffixed by {@link #TEXT_INDEX_SUFFIX}, whose
+     * {@link #TEXT_VECTOR} attribute is matched by the {@link #TEXT_MATCH_FUNCTION} database function (served by the full-text index).
+     * @param root Root entity.
+     * @param query Criteria query.
+     * @param builder Criteria builder.
+     * @param field Text field.
+     * @param text Searched words.
+     * @param <T> Entity type.
+     * @return Predicate.
+     */
+    private static <T> Predicate matchText(final Root<T> root, final CriteriaQuery<?> query, final CriteriaBuilder builder, final String field, final String text)
+    {
+        Subquery<Integer> subquery = query.subquery(Integer.class);
+        Root<T> entity = subquery.correlate(root);
+
+        subquery.select(builder.literal(1))
+                .where(builder.isTrue(builder.function(TEXT_MATCH_FUNCTION, Boolean.class, entity.join(field + TEXT_INDEX_SUFFIX).get(TEXT_VECTOR), builder.literal(text))));
+
+        return builder.exists(subquery);
+    }
+
+    /**
+     * Returns the given condition value as a comparable.
+     * <br>
+     * Values are expected to have been converted to the type of their field while validating the query, so the comparison
+     * is performed on the native column type and remains able to use an index.
+     * @param value Value.
+     * @return Comparable value.
+     */
+    @SuppressWarnings("unchecked")
+    private static Comparable<Object> asComparable(final Object value)
+    {
+        if (value instanceof Comparable)
+        {
+            return (Comparable<Object>) value;
+        }
+
+        throw new IllegalArgumentException(String.format("Query condition value: '%s' is not comparable!", value));
+    }
+
     /**
      * Returns the number of criteria.
      * @return Number of criteria.
@@ -1,5 +1,6 @@
 package com.hemajoo.commerce.cherry.backend.shared.base.query;
 
+import com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate.QueryAggregate;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryCondition;
 import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
 import lombok.NonNull;
@@ -31,4 +32,33 @@ public interface IQuery
      * @throws QueryConditionException Thrown to indicate an error occurred when validating the conditions of a query.
      */
     void validate() throws QueryConditionException;
+
+    /**
+     * Validates an aggregate against the fields of the query object.
+     * @param aggregate Aggregate.
+     * @throws QueryConditionException Thrown to indicate the aggregate is invalid for the query object.
+     */
+    void validate(final @NonNull QueryAggregate aggregate) throws QueryConditionException;
+
+    /**
+     * Returns if the query object holds no condition.
+     * @return {@code True} if the query object holds no condition, {@code false} otherwise.
+     */
+    boolean isEmpty();
+
+    /**
+     * Returns a canonical representation of the query object.
+     * <br>
+     * Two query objects having the same conditions (whatever their order) have the same canonical representation.
+     * @return Canonical representation.
+     */
+    String canonicalize();
+
+    /**
+     * Returns the shape of the query object, being its canonical representation without the condition values.
+     * <br>
+     * Query objects having the same conditions (whatever their order and values) share the same shape and the same execution plan.
+     * @return Query shape.
+     */
+    String shape();
 }
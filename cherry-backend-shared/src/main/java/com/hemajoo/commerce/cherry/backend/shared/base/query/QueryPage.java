@@ -0,0 +1,57 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.shared.base.query;
+
+import lombok.*;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a <b>page</b> of entities returned by a query browsed with a cursor.
+ * @param <T> Entity type.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public final class QueryPage<T> implements Serializable
+{
+    /**
+     * Entities of the page.
+     */
+    @Getter
+    @Setter
+    private List<T> items = new ArrayList<>();
+
+    /**
+     * Cursor to pass to retrieve the next page, null if this page is the last one.
+     */
+    @Getter
+    @Setter
+    private String nextCursor;
+
+    /**
+     * Returns if this page is the last one.
+     * @return {@code True} if this page is the last one, {@code false} otherwise.
+     */
+    public boolean isLast()
+    {
+        return nextCursor == null;
+    }
+}
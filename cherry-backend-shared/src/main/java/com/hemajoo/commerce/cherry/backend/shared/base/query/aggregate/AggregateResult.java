@@ -0,0 +1,45 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Represents an <b>aggregate</b> result for a group.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public final class AggregateResult implements Serializable
+{
+    /**
+     * Group value (enumeration value, date bucket such as: <b>2021-12</b>, etc.), null if no group by is defined.
+     */
+    @Getter
+    @Setter
+    private Object group;
+
+    /**
+     * Aggregate value.
+     */
+    @Getter
+    @Setter
+    private Object value;
+}
@@ -0,0 +1,38 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate;
+
+/**
+ * Enumeration representing the several possible <b>date buckets</b> used to group entities on a date field.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public enum DateBucketType
+{
+    /**
+     * Group by year, ex: <b>2021</b>.
+     */
+    YEAR,
+
+    /**
+     * Group by month, ex: <b>2021-12</b>.
+     */
+    MONTH,
+
+    /**
+     * Group by day, ex: <b>2021-12-31</b>.
+     */
+    DAY
+}
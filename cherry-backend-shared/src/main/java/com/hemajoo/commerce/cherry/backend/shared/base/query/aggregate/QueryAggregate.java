@@ -0,0 +1,62 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.shared.base.query.aggregate;
+
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * Represents an <b>aggregate</b> to compute on the entities matching a query.
+ * <br>
+ * Ex: count the documents grouped by their document type, or the sum of the document content lengths grouped by month of creation.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(setterPrefix = "with")
+public final class QueryAggregate implements Serializable
+{
+    /**
+     * Aggregate function.
+     */
+    @Getter
+    @Setter
+    private AggregateFunctionType function;
+
+    /**
+     * Name of the field the aggregate function applies to (optional for a {@link AggregateFunctionType#COUNT}).
+     */
+    @Getter
+    @Setter
+    private String field;
+
+    /**
+     * Name of the field to group by (optional).
+     */
+    @Getter
+    @Setter
+    private String groupBy;
+
+    /**
+     * Date bucket (only for a group by field of type date).
+     */
+    @Getter
+    @Setter
+    private DateBucketType bucket;
+}
@@ -60,9 +60,9 @@ public final class QueryCondition
      */
     public void setValue(final int index, final @NonNull Object value)
     {
-        if (index <= values.size())
+        if (index < values.size())
         {
-            List<Object> list = new ArrayList<>(List.of(values));
+            List<Object> list = new ArrayList<>(values);
             list.set(index, value);
             values = list;
         }
@@ -79,5 +79,20 @@ public enum QueryOperatorType
     /**
      * Value should be <b>between</b> low and high values.
      */
-    BETWEEN;
+    BETWEEN,
+
+    /**
+     * Entity <b>has</b> the given <b>tag</b> (case-insensitive), looked up through the tag index.
+     * <br>
+     * Only allowed on the <b>tags</b> field.
+     */
+    HAS_TAG,
+
+    /**
+     * Operator is <b>Full Text</b>: the text indexed for the field matches the given words (web search syntax: quoted phrases,
+     * {@code or} and {@code -} to exclude a word), looked up through the full-text index.
+     * <br>
+     * Only allowed (and required) on the fields of type text.
+     */
+    FULL_TEXT;
 }
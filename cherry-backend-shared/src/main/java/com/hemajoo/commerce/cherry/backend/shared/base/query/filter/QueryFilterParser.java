@@ -0,0 +1,370 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.shared.base.query.filter;
+
+import com.hemajoo.commerce.cherry.backend.shared.base.query.IQuery;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryCondition;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryConditionException;
+import com.hemajoo.commerce.cherry.backend.shared.base.query.condition.QueryOperatorType;
+import lombok.NonNull;
+
+/**
+ * Parser of the compact <b>filter</b> syntax used to express a query in a single text, for example in a {@code GET} request parameter.
+ * <br>
+ * A filter is a list of conditions separated by the {@code and} keyword, for example: {@code name~"smi*" and statusType=ACTIVE}.
+ * A condition is made of a field name, an operator and a value (bare or double quoted, {@code \"} and {@code \\} being escaped):
+ * <ul>
+ *     <li>{@code =}, {@code !=}, {@code <}, {@code <=}, {@code >}, {@code >=}: comparison operators,</li>
+ *     <li>{@code ~}: pattern operator where {@code *} matches any sequence of characters and {@code ?} matches any character,</li>
+ *     <li>{@code between}: range operator taking two values separated by a comma, for example: {@code contentLength between 1000,5000}.</li>
+ * </ul>
+ * The text is scanned once and each condition is directly added to the query object, which checks the field and converts the values
+ * to the data type of the field.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public final class QueryFilterParser
+{
+    /**
+     * Keyword separating two conditions.
+     */
+    private static final String KEYWORD_AND = "and";
+
+    /**
+     * Keyword of the range operator.
+     */
+    private static final String KEYWORD_BETWEEN = "between";
+
+    /**
+     * Filter text.
+     */
+    private final String text;
+
+    /**
+     * Current position in the filter text.
+     */
+    private int position = 0;
+
+    /**
+     * Creates a new filter parser.
+     * @param text Filter text.
+     */
+    private QueryFilterParser(final String text)
+    {
+        this.text = text;
+    }
+
+    /**
+     * Parses a filter and adds its conditions to a query object.
+     * @param filter Filter text. An empty or null filter adds no condition.
+     * @param query Query object.
+     * @param <T> Query object type.
+     * @return Query object.
+     * @throws QueryConditionException Thrown to indicate the filter is invalid.
+     */
+    public static <T extends IQuery> T parse(final String filter, final @NonNull T query) throws QueryConditionException
+    {
+        if (filter != null && !filter.isBlank())
+        {
+            new QueryFilterParser(filter).parseConditions(query);
+        }
+
+        return query;
+    }
+
+    /**
+     * Parses the conditions of the filter.
+     * @param query Query object.
+     * @throws QueryConditionException Thrown to indicate the filter is invalid.
+     */
+    private void parseConditions(final IQuery query) throws QueryConditionException
+    {
+        query.addCondition(parseCondition());
+
+        skipWhitespaces();
+        while (position < text.length())
+        {
+            if (!parseKeyword(KEYWORD_AND))
+            {
+                throw error(String.format("Keyword: '%s' expected", KEYWORD_AND));
+            }
+
+            query.addCondition(parseCondition());
+            skipWhitespaces();
+        }
+    }
+
+    /**
+     * Parses a condition.
+     * @return Query condition.
+     * @throws QueryConditionException Thrown to indicate the condition is invalid.
+     */
+    private QueryCondition parseCondition() throws QueryConditionException
+    {
+        String field = parseField();
+
+        skipWhitespaces();
+        if (position >= text.length())
+        {
+            throw error("Operator expected");
+        }
+
+        char current = text.charAt(position);
+        char next = position + 1 < text.length() ? text.charAt(position + 1) : 0;
+
+        switch (current)
+        {
+            case '=':
+                position++;
+                return createCondition(field, QueryOperatorType.EQUAL, parseValue());
+
+            case '!':
+                if (next != '=')
+                {
+                    throw error("Operator: '!=' expected");
+                }
+                position += 2;
+                return createCondition(field, QueryOperatorType.NOT_EQUAL, parseValue());
+
+            case '<':
+                position += next == '=' ? 2 : 1;
+                return createCondition(field, next == '=' ? QueryOperatorType.LESS_THAN_EQUAL : QueryOperatorType.LESS_THAN, parseValue());
+
+            case '>':
+                position += next == '=' ? 2 : 1;
+                return createCondition(field, next == '=' ? QueryOperatorType.GREATER_THAN_EQUAL : QueryOperatorType.GREATER_THAN, parseValue());
+
+            case '~':
+                position++;
+                return createPatternCondition(field, parseValue());
+
+            default:
+                if (!parseKeyword(KEYWORD_BETWEEN))
+                {
+                    throw error("Operator expected");
+                }
+
+                String low = parseValue();
+                skipWhitespaces();
+                if (position >= text.length() || text.charAt(position) != ',')
+                {
+                    throw error("Character: ',' expected");
+                }
+                position++;
+
+                return QueryCondition.builder()
+                        .withField(field)
+                        .withOperator(QueryOperatorType.BETWEEN)
+                        .withValue(low)
+                        .withValue(parseValue())
+                        .build();
+        }
+    }
+
+    /**
+     * Parses a field name.
+     * @return Field name.
+     * @throws QueryConditionException Thrown to indicate no field name has been found.
+     */
+    private String parseField() throws QueryConditionException
+    {
+        skipWhitespaces();
+
+        int start = position;
+        while (position < text.length() && isFieldCharacter(text.charAt(position)))
+        {
+            position++;
+        }
+
+        if (start == position)
+        {
+            throw error("Field name expected");
+        }
+
+        return text.substring(start, position);
+    }
+
+    /**
+     * Parses a value (bare or double quoted).
+     * @return Value.
+     * @throws QueryConditionException Thrown to indicate no value has been found.
+     */
+    private String parseValue() throws QueryConditionException
+    {
+        skipWhitespaces();
+        if (position >= text.length())
+        {
+            throw error("Value expected");
+        }
+
+        if (text.charAt(position) == '"')
+        {
+            return parseQuotedValue();
+        }
+
+        int start = position;
+        while (position < text.length() && !Character.isWhitespace(text.charAt(position)) && text.charAt(position) != ',')
+        {
+            position++;
+        }
+
+        if (start == position)
+        {
+            throw error("Value expected");
+        }
+
+        return text.substring(start, position);
+    }
+
+    /**
+     * Parses a double quoted value.
+     * @return Value (without the quotes).
+     * @throws QueryConditionException Thrown to indicate the value is not terminated.
+     */
+    private String parseQuotedValue() throws QueryConditionException
+    {
+        int start = ++position;
+        StringBuilder builder = null; // Only allocated when the value contains escaped characters.
+
+        while (position < text.length())
+        {
+            char current = text.charAt(position);
+            if (current == '"')
+            {
+                String value = builder == null ? text.substring(start, position) : builder.append(text, start, position).toString();
+                position++;
+
+                return value;
+            }
+
+            if (current == '\\' && position + 1 < text.length())
+            {
+                if (builder == null)
+                {
+                    builder = new StringBuilder();
+                }
+                builder.append(text, start, position).append(text.charAt(position + 1));
+                position += 2;
+                start = position;
+            }
+            else
+            {
+                position++;
+            }
+        }
+
+        throw error("Unterminated quoted value");
+    }
+
+    /**
+     * Parses a keyword (case-insensitive) which must be followed by a whitespace.
+     * @param keyword Keyword.
+     * @return {@code True} if the keyword has been parsed, {@code false} otherwise (the position is left unchanged).
+     */
+    private boolean parseKeyword(final String keyword)
+    {
+        skipWhitespaces();
+
+        int end = position + keyword.length();
+        if (end < text.length() && text.regionMatches(true, position, keyword, 0, keyword.length()) && Character.isWhitespace(text.charAt(end)))
+        {
+            position = end;
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Creates a query condition for a pattern ({@code ~} operator).
+     * <br>
+     * A pattern with a leading and/or trailing {@code *} only is compiled to a {@link QueryOperatorType#START_WITH},
+     * {@link QueryOperatorType#END_WITH} or {@link QueryOperatorType#CONTAINS} operator. Other patterns are compiled to a
+     * {@link QueryOperatorType#MATCH} operator.
+     * @param field Field name.
+     * @param pattern Pattern.
+     * @return Query condition.
+     */
+    private QueryCondition createPatternCondition(final String field, final String pattern)
+    {
+        boolean leading = pattern.startsWith("*");
+        boolean trailing = pattern.length() > 1 && pattern.endsWith("*");
+        String inner = pattern.substring(leading ? 1 : 0, pattern.length() - (trailing ? 1 : 0));
+
+        if ((leading || trailing) && !inner.isEmpty() && inner.indexOf('*') < 0 && inner.indexOf('?') < 0)
+        {
+            QueryOperatorType operator;
+            if (leading && trailing)
+            {
+                operator = QueryOperatorType.CONTAINS;
+            }
+            else
+            {
+                operator = leading ? QueryOperatorType.END_WITH : QueryOperatorType.START_WITH;
+            }
+
+            return createCondition(field, operator, inner);
+        }
+
+        return createCondition(field, QueryOperatorType.MATCH, pattern.replace('*', '%').replace('?', '_'));
+    }
+
+    /**
+     * Creates a query condition.
+     * @param field Field name.
+     * @param operator Operator.
+     * @param value Value.
+     * @return Query condition.
+     */
+    private QueryCondition createCondition(final String field, final QueryOperatorType operator, final String value)
+    {
+        return QueryCondition.builder()
+                .withField(field)
+                .withOperator(operator)
+                .withValue(value)
+                .build();
+    }
+
+    /**
+     * Skips the whitespaces.
+     */
+    private void skipWhitespaces()
+    {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position)))
+        {
+            position++;
+        }
+    }
+
+    /**
+     * Returns if a character can be part of a field name.
+     * @param character Character.
+     * @return {@code True} if the character can be part of a field name, {@code false} otherwise.
+     */
+    private static boolean isFieldCharacter(final char character)
+    {
+        return Character.isLetterOrDigit(character) || character == '_' || character == '.';
+    }
+
+    /**
+     * Creates an exception for the current position.
+     * @param message Message.
+     * @return Query condition exception.
+     */
+    private QueryConditionException error(final String message)
+    {
+        return new QueryConditionException(String.format("Invalid filter: '%s' at position: %s! %s", text, position, message));
+    }
+}
@@ -49,6 +49,12 @@ public class DocumentQuery extends BaseEntityQuery
     @JsonIgnore
     public static final String DOCUMENT_TAGS = "tags";
 
+    /**
+     * Field: <b>content</b> of a document (text extracted from the document content, searchable with the full text operator).
+     */
+    @JsonIgnore
+    public static final String DOCUMENT_CONTENT = "content";
+
     /**
      * Creates a new <b>query</b> instance for the documents.
      */
@@ -85,5 +91,9 @@ public class DocumentQuery extends BaseEntityQuery
                 .withFieldName(DOCUMENT_TAGS)
                 .withFieldType(DataType.STRING)
                 .build());
+        fields.add(QueryField.builder()
+                .withFieldName(DOCUMENT_CONTENT)
+                .withFieldType(DataType.TEXT)
+                .build());
     }
 }
@@ -0,0 +1,50 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.shared.person;
+
+import com.hemajoo.commerce.cherry.backend.shared.document.DocumentClient;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a <b>client person aggregate</b>, being a person with its email addresses, phone numbers, postal addresses and the documents
+ * of the person and of these child entities, returned in a single response.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+@ToString
+@EqualsAndHashCode
+@NoArgsConstructor
+public final class PersonAggregateClient
+{
+    /**
+     * Person (with its email addresses, phone numbers and postal addresses).
+     */
+    @Getter
+    @Setter
+    @Schema(name = "person", description = "Person with its email addresses, phone numbers and postal addresses")
+    private PersonClient person;
+
+    /**
+     * Documents of the person and of its child entities (the parent of a document being its owner).
+     */
+    @Getter
+    @Setter
+    @Schema(name = "documents", description = "Documents of the person and of its email addresses, phone numbers and postal addresses")
+    private List<DocumentClient> documents = new ArrayList<>();
+}
@@ -55,10 +55,12 @@ public class PersonQuery extends BaseEntityQuery
         fields.add(QueryField.builder()
                 .withFieldName(PERSON_PERSON_TYPE)
                 .withFieldType(DataType.ENUM)
+                .withClassType(PersonType.class)
                 .build());
         fields.add(QueryField.builder()
                 .withFieldName(PERSON_GENDER_TYPE)
                 .withFieldType(DataType.ENUM)
+                .withClassType(GenderType.class)
                 .build());
         fields.add(QueryField.builder()
                 .withFieldName(PERSON_PARENT_ID)
@@ -0,0 +1,98 @@
+/*
+ * (C) Copyright Resse Christophe 2021 - All Rights Reserved
+ * -----------------------------------------------------------------------------------------------
+ * All information contained herein is, and remains the property of
+ * Resse Christophe. and its suppliers, if any. The intellectual and technical
+ * concepts contained herein are proprietary to Resse C. and its
+ * suppliers and may be covered by U.S. and Foreign Patents, patents
+ * in process, and are protected by trade secret or copyright law.
+ *
+ * Dissemination of this information or reproduction of this material
+ * is strictly forbidden unless prior written permission is obtained from
+ * Resse Christophe (christophe.resse@gmail.com).
+ * -----------------------------------------------------------------------------------------------
+ */
+package com.hemajoo.commerce.cherry.backend.shared.person.address.email;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.hemajoo.commerce.cherry.backend.shared.base.filter.AbstractFilter;
+
+/**
+ * Represents an <b>email address metadata</b> filter object.
+ * @author <a href="mailto:christophe.resse@gmail.com">Christophe Resse</a>
+ * @version 1.0.0
+ */
+public class EmailAddressFilterMetadata extends AbstractFilter
+{
+    /**
+     * Filter for the email address metadata: email.
+     */
+    @JsonIgnore
+    public static final String EMAIL_ADDRESS_METADATA_EMAIL = "email";
+
+    /**
+     * Filter for the email address metadata: address type.
+     */
+    @JsonIgnore
+    public static final String EMAIL_ADDRESS_METADATA_TYPE = "addressType";
+
+    /**
+     * Filter for the email address metadata: default email.
+     */
+    @JsonIgnore
+    public static final String EMAIL_ADDRESS_METADATA_IS_DEFAULT = "isDefaultEmail";
+
+    /**
+     * Filter for the email address metadata: name.
+     */
+    @JsonIgnore
+    public static final String EMAIL_ADDRESS_METADATA_NAME = "name";
+
+    /**
+     * Filter for the email address metadata: description.
+     */
+    @JsonIgnore
+    public static final String EMAIL_ADDRESS_METADATA_DESCRIPTION = "description";
+
+    /**
+     * Filter for the email address metadata: reference.
+     */
+    @JsonIgnore
+    public static final String EMAIL_ADDRESS_METADATA_REFERENCE = "reference";
+
+    /**
+     * Filter for the email address metadata: tags.
+     */
+    @JsonIgnore
+    public static final String EMAIL_ADDRESS_METADATA_TAGS = "tags";
+
+    /**
+     * Filter for the email address metadata: status type.
+     */
+    @JsonIgnore
+    public static final String EMAIL_ADDRESS_METADATA_STATUS_TYPE = "statusType";
+
+    /**
+     * Creates a new <b>email address metadata</b> filter object.
+     */
+    public EmailAddressFilterMetadata()
+    {
+        filters.add(EMAIL_ADDRESS_METADATA_EMAIL);
+        filters.add(EMAIL_ADDRESS_METADATA_TYPE);
+        filters.add(EMAIL_ADDRESS_METADATA_IS_DEFAULT);
+        filters.add(EMAIL_ADDRESS_METADATA_NAME);
+        filters.add(EMAIL_ADDRESS_METADATA_DESCRIPTION);
+        filters.add(EMAIL_ADDRESS_METADATA_REFERENCE);
+        filters.add(EMAIL_ADDRESS_METADATA_TAGS);
+        filters.add(EMAIL_ADDRESS_METADATA_STATUS_TYPE);
+    }
+
+    /**
+     * Build an email address metadata filter.
+     * @return Email address metadata filter.
+     */
+    public static EmailAddressFilterMetadata build()
+    {
+        return new EmailAddressFilterMetadata();
+    }
+}